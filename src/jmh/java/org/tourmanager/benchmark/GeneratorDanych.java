@@ -0,0 +1,527 @@
+package org.tourmanager.benchmark;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.tourmanager.model.KatalogKompetencji;
+import org.tourmanager.model.OfertaTurystyczna;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Generator syntetycznych danych o sezonowym rozkładzie rezerwacji.
+ *
+ * Wyjazdy skupiają się w lipcu i sierpniu, rezerwacje dzielą się na first minute, zwykłe
+ * i last minute, a kraje, oferty i klienci wybierani są z rozkładów skośnych (kilka kierunków
+ * i stałych klientów odpowiada za większość sprzedaży). Wiersze zapisywane są wsadowymi
+ * INSERT-ami JDBC z pominięciem encji, więc generator wymaga pustej bazy - identyfikatory
+ * nadawane są kolejno od 1 i klucze obce wyznaczane są arytmetycznie.
+ * Dane pochodne (liczniki pilotów, zestawienia sprzedaży, indeks dostępności) trzeba
+ * przeliczyć po wygenerowaniu - robi to KontekstBenchmarku.
+ */
+final class GeneratorDanych {
+
+    private static final int ROZMIAR_PACZKI = 10_000;
+
+    private static final String[] KRAJE = {"Grecja", "Hiszpania", "Chorwacja", "Włochy", "Turcja", "Egipt",
+            "Bułgaria", "Portugalia", "Cypr", "Francja", "Czechy", "Austria"};
+    private static final int[] WAGI_KRAJOW = {22, 16, 13, 11, 10, 8, 6, 4, 3, 3, 2, 2};
+
+    private static final String[] TYPY = {"wypoczynkowa", "objazdowa", "krajoznawcza", "górska", "pielgrzymka"};
+    private static final int[] WAGI_TYPOW = {60, 20, 10, 6, 4};
+
+    // Udział wyjazdów w kolejnych miesiącach (styczeń - grudzień)
+    private static final int[] SEZONOWOSC_WYJAZDOW = {3, 3, 4, 5, 8, 14, 20, 20, 10, 5, 3, 5};
+
+    private static final int[] WAGI_LICZBY_OSOB = {20, 45, 15, 20};
+
+    private static final String[] IMIONA = {"Anna", "Maria", "Katarzyna", "Małgorzata", "Agnieszka", "Barbara",
+            "Ewa", "Krystyna", "Zofia", "Joanna", "Piotr", "Krzysztof", "Andrzej", "Tomasz", "Paweł", "Jan",
+            "Michał", "Marcin", "Marek", "Grzegorz"};
+    private static final String[] NAZWISKA = {"Nowak", "Kowalski", "Wiśniewski", "Wójcik", "Kowalczyk",
+            "Kamiński", "Lewandowski", "Zieliński", "Szymański", "Woźniak", "Dąbrowski", "Kozłowski",
+            "Jankowski", "Mazur", "Kwiatkowski", "Krawczyk", "Piotrowski", "Grabowski", "Nowakowski", "Pawłowski"};
+    private static final String[] METODY_PLATNOSCI = {"PRZELEW", "KARTA", "BLIK", "GOTOWKA"};
+    private static final String[] POWODY_REZYGNACJI = {"Choroba", "Zmiana planów", "Sprawy rodzinne",
+            "Sytuacja w kraju docelowym", "Brak urlopu"};
+
+    /**
+     * Liczności generowanych tabel
+     */
+    static final class Skala {
+        int klienci;
+        int oferty;
+        int umowy;
+        int piloci;
+        int hotele;
+        int ocenyHoteli;
+
+        /**
+         * Proporcje typowe dla biura: ok. 50 umów na ofertę, 3 umowy na klienta, pilot na 30 wyjazdów
+         */
+        static Skala dlaLiczbyUmow(int umowy) {
+            Skala skala = new Skala();
+            skala.umowy = umowy;
+            skala.klienci = Math.max(10, umowy / 3);
+            skala.oferty = Math.max(10, umowy / 50);
+            skala.piloci = Math.max(20, skala.oferty / 30);
+            skala.hotele = Math.max(KRAJE.length, umowy / 200);
+            skala.ocenyHoteli = umowy / 2;
+            return skala;
+        }
+    }
+
+    private final JdbcTemplate jdbc;
+    private final Random los;
+    private final int dzisiaj = (int) LocalDate.now().toEpochDay();
+
+    GeneratorDanych(JdbcTemplate jdbc, long ziarno) {
+        this.jdbc = jdbc;
+        this.los = new Random(ziarno);
+    }
+
+    /**
+     * PESEL klienta o danym identyfikatorze (do wyszukiwania umów w teście obciążeniowym)
+     */
+    static String pesel(long idKlienta) {
+        return String.format("%011d", 50_000_000_000L + idKlienta);
+    }
+
+    void wypelnij(Skala skala) {
+        generujKlientow(skala.klienci);
+        generujPilotow(skala.piloci);
+        int[] krajHotelu = generujHotele(skala.hotele);
+        generujOcenyHoteli(skala.ocenyHoteli, skala.hotele);
+
+        Oferty oferty = new Oferty(skala.oferty);
+        Rezerwacje rezerwacje = new Rezerwacje(skala.umowy, skala.klienci, oferty);
+        zapiszOferty(oferty);
+        zapiszUmowy(rezerwacje, oferty);
+        zapiszWycieczki(oferty, skala.piloci, krajHotelu);
+    }
+
+    private void generujKlientow(int liczba) {
+        Wsad klienci = new Wsad("INSERT INTO klient (imie, nazwisko, pesel, telefon, email, data_rejestracji, " +
+                "status_klienta) VALUES (?, ?, ?, ?, ?, ?, ?)");
+        for (int i = 1; i <= liczba; i++) {
+            klienci.dodaj(IMIONA[los.nextInt(IMIONA.length)], NAZWISKA[los.nextInt(NAZWISKA.length)], pesel(i),
+                    "5" + (10_000_000 + los.nextInt(90_000_000)), "klient" + i + "@example.pl",
+                    data(dzisiaj - 30 - los.nextInt(1500)), "AKTYWNY");
+        }
+        klienci.zapisz();
+    }
+
+    /**
+     * Piloci znają polski, angielski i języki jednego lub dwóch kierunków, w których się specjalizują
+     */
+    private void generujPilotow(int liczba) {
+        KatalogKompetencji.Wymaganie[] wymagania = new KatalogKompetencji.Wymaganie[KRAJE.length];
+        for (int k = 0; k < KRAJE.length; k++) {
+            OfertaTurystyczna oferta = new OfertaTurystyczna();
+            oferta.setKrajDocelowy(KRAJE[k]);
+            wymagania[k] = KatalogKompetencji.wymaganieDlaOferty(oferta);
+        }
+
+        Wsad piloci = new Wsad("INSERT INTO pilot (imie, nazwisko, telefon, email, numer_licencji, " +
+                "data_waznosci_licencji, znajomosc_jezykow, specjalizacje, status_pilota, data_zatrudnienia, " +
+                "liczba_zakonczonych_wycieczek, liczba_planowanych_wycieczek, zakonczone_w_roku_statystyk, wersja) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, 0, 0, 0)");
+        for (int i = 1; i <= liczba; i++) {
+            Set<String> jezyki = new LinkedHashSet<>(List.of("Polski", "Angielski"));
+            Set<String> specjalizacje = new LinkedHashSet<>();
+            int liczbaKierunkow = 1 + los.nextInt(2);
+            for (int j = 0; j < liczbaKierunkow; j++) {
+                KatalogKompetencji.Wymaganie wymaganie = wymagania[losujWaga(WAGI_KRAJOW)];
+                jezyki.add(wymaganie.getJezyk());
+                specjalizacje.add(wymaganie.getSpecjalizacja());
+            }
+            boolean nieaktywny = los.nextInt(20) == 0;
+            piloci.dodaj(IMIONA[los.nextInt(IMIONA.length)], NAZWISKA[los.nextInt(NAZWISKA.length)],
+                    "6" + (10_000_000 + los.nextInt(90_000_000)), "pilot" + i + "@example.pl", "LIC-G-" + i,
+                    data(dzisiaj + 60 + los.nextInt(1500)), listaJson(jezyki), listaJson(specjalizacje),
+                    nieaktywny ? "NIEAKTYWNY" : "AKTYWNY", data(dzisiaj - 200 - los.nextInt(3000)));
+        }
+        piloci.zapisz();
+    }
+
+    /**
+     * Zwraca kraj (indeks w KRAJE) każdego hotelu, numerowane od 1
+     */
+    private int[] generujHotele(int liczba) {
+        int[] krajHotelu = new int[liczba + 1];
+        Wsad hotele = new Wsad("INSERT INTO hotel (nazwa, miasto, kraj, kategoria, status_wspolpracy, " +
+                "data_rozpoczecia_wspolpracy, suma_ocen, liczba_ocen, wersja) VALUES (?, ?, ?, ?, ?, ?, 0, 0, 0)");
+        for (int i = 1; i <= liczba; i++) {
+            // Każdy kraj ma co najmniej jeden hotel
+            int kraj = i <= KRAJE.length ? i - 1 : losujWaga(WAGI_KRAJOW);
+            krajHotelu[i] = kraj;
+            hotele.dodaj("Hotel " + i, "Miasto " + (1 + los.nextInt(50)), KRAJE[kraj], 2 + los.nextInt(4),
+                    "AKTYWNA", data(dzisiaj - los.nextInt(3000)));
+        }
+        hotele.zapisz();
+        return krajHotelu;
+    }
+
+    private void generujOcenyHoteli(int liczba, int liczbaHoteli) {
+        Wsad oceny = new Wsad("INSERT INTO ocena_hotelu (hotel_id, ocena, data_oceny, autor_oceny) " +
+                "VALUES (?, ?, ?, ?)");
+        for (int i = 1; i <= liczba; i++) {
+            // Oceny skupione wokół 7-9
+            int ocena = Math.max(1, Math.min(10, (int) Math.round(7.5 + los.nextGaussian() * 1.5)));
+            oceny.dodaj(1 + losujSkosnie(liczbaHoteli), ocena, data(dzisiaj - los.nextInt(730)),
+                    "Klient" + (1 + los.nextInt(1000)));
+        }
+        oceny.zapisz();
+    }
+
+    private void zapiszOferty(Oferty oferty) {
+        Wsad wsad = new Wsad("INSERT INTO oferta_turystyczna (nazwa, kraj_docelowy, data_wyjazdu, data_powrotu, " +
+                "cena_za_osobe, maks_liczba_uczestnikow, dostepne_miejsca, typ_wycieczki, status_oferty, " +
+                "data_utworzenia, wersja) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)");
+        for (int o = 0; o < oferty.liczba; o++) {
+            int zajete = oferty.zajeteMiejsca[o];
+            int maks = Math.max(20, zajete + los.nextInt(oferty.wyjazd[o] > dzisiaj ? 30 : 5));
+            String kraj = KRAJE[oferty.kraj[o]];
+            wsad.dodaj(TYPY[oferty.typ[o]] + " " + kraj + " " + (o + 1), kraj, data(oferty.wyjazd[o]),
+                    data(oferty.wyjazd[o] + oferty.dlugosc[o]), oferty.cena[o], maks, maks - zajete,
+                    TYPY[oferty.typ[o]], oferty.wyjazd[o] > dzisiaj ? "AKTYWNA" : "NIEAKTYWNA",
+                    data(oferty.wyjazd[o] - 270));
+        }
+        wsad.zapisz();
+    }
+
+    private void zapiszUmowy(Rezerwacje rezerwacje, Oferty oferty) {
+        Wsad umowy = new Wsad("INSERT INTO umowa (nr_umowy, data_zawarcia, klient_id, oferta_id, liczba_osob, " +
+                "cena_calkowita, zaliczka, data_wplaty_zaliczki, pozostala_doplata, termin_doplaty, status_umowy, " +
+                "data_modyfikacji) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        Wsad platnosci = new Wsad("INSERT INTO platnosc (umowa_nr, kwota, data_wplaty, metoda_platnosci, " +
+                "status_platnosci, opis, numer_transakcji) VALUES (?, ?, ?, ?, ?, ?, ?)", umowy);
+        Wsad rezygnacje = new Wsad("INSERT INTO rezygnacja (umowa_nr, data_rezygnacji, powod_rezygnacji, " +
+                "koszt_rezygnacji, kwota_zwrotu, status_rezygnacji, data_zwrotu, sposob_zwrotu) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", umowy);
+
+        Timestamp teraz = Timestamp.valueOf(LocalDateTime.now());
+        int[] numerWRoku = new int[3000];
+        long numerTransakcji = 0;
+
+        for (int u = 0; u < rezerwacje.liczba; u++) {
+            int o = rezerwacje.oferta[u];
+            int zawarcie = rezerwacje.zawarcie[u];
+            int wyjazd = oferty.wyjazd[o];
+            String status = rezerwacje.status[u];
+
+            int rok = LocalDate.ofEpochDay(zawarcie).getYear();
+            String nrUmowy = "UM/" + rok + "/" + String.format("%04d", ++numerWRoku[rok]);
+
+            BigDecimal cena = oferty.cena[o].multiply(BigDecimal.valueOf(rezerwacje.liczbaOsob[u]));
+            BigDecimal zaliczka = cena.multiply(new BigDecimal("0.30")).setScale(2, RoundingMode.HALF_UP);
+            BigDecimal doplata = cena.subtract(zaliczka);
+
+            boolean zaliczkaWplacona = !"PODPISANA".equals(status) &&
+                    !("ANULOWANA".equals(status) && los.nextBoolean());
+            int wplataZaliczki = Math.min(dzisiaj, zawarcie + los.nextInt(7));
+            String metoda = METODY_PLATNOSCI[los.nextInt(METODY_PLATNOSCI.length)];
+
+            umowy.dodaj(nrUmowy, data(zawarcie), rezerwacje.klient[u], o + 1, (int) rezerwacje.liczbaOsob[u], cena,
+                    zaliczka, zaliczkaWplacona ? data(wplataZaliczki) : null, doplata, data(wyjazd - 14), status,
+                    teraz);
+
+            BigDecimal wplacono = BigDecimal.ZERO;
+            if (zaliczkaWplacona) {
+                platnosci.dodaj(nrUmowy, zaliczka, data(wplataZaliczki), metoda, "ZREALIZOWANA", "Zaliczka",
+                        "TR/G/" + (++numerTransakcji));
+                wplacono = zaliczka;
+            }
+            if ("OPLACONA".equals(status) || "ZREALIZOWANA".equals(status)) {
+                int wplataDoplaty = Math.min(dzisiaj, Math.max(wplataZaliczki, wyjazd - 14 - los.nextInt(30)));
+                platnosci.dodaj(nrUmowy, doplata, data(wplataDoplaty), metoda, "ZREALIZOWANA", "Dopłata",
+                        "TR/G/" + (++numerTransakcji));
+            }
+
+            if ("ANULOWANA".equals(status)) {
+                int rezygnacja = zawarcie + los.nextInt(Math.max(1, Math.min(dzisiaj, wyjazd) - zawarcie + 1));
+                BigDecimal koszt = cena.multiply(wyjazd - rezygnacja < 30 ? new BigDecimal("0.25")
+                        : new BigDecimal("0.10")).setScale(2, RoundingMode.HALF_UP);
+                BigDecimal zwrot = wplacono.subtract(koszt).max(BigDecimal.ZERO);
+                boolean zwrocono = zwrot.signum() > 0 && rezygnacja + 14 < dzisiaj;
+                rezygnacje.dodaj(nrUmowy, data(rezygnacja), POWODY_REZYGNACJI[los.nextInt(POWODY_REZYGNACJI.length)],
+                        koszt, zwrot, zwrocono ? "ZWROT_ZREALIZOWANY" : "ZATWIERDZONA",
+                        zwrocono ? data(rezygnacja + 14) : null, zwrocono ? metoda : null);
+            }
+        }
+        umowy.zapisz();
+    }
+
+    /**
+     * Jedna wycieczka na ofertę. Piloci przydzielani są po kolei w porządku dat bez nakładania się
+     * terminów; część najbliższych wycieczek zostaje bez pilota (do przydziału w aplikacji).
+     */
+    private void zapiszWycieczki(Oferty oferty, int liczbaPilotow, int[] krajHotelu) {
+        List<List<Integer>> hoteleWKraju = new ArrayList<>();
+        for (int k = 0; k < KRAJE.length; k++) {
+            hoteleWKraju.add(new ArrayList<>());
+        }
+        for (int h = 1; h < krajHotelu.length; h++) {
+            hoteleWKraju.get(krajHotelu[h]).add(h);
+        }
+
+        int[] pilotWolnyOd = new int[liczbaPilotow + 1];
+        int kolejnyPilot = 1;
+        boolean bylaPlanowana = false;
+
+        Wsad wycieczki = new Wsad("INSERT INTO wycieczka (oferta_id, pilot_id, hotel_id, data_rozpoczecia, " +
+                "data_zakonczenia, liczba_uczestnikow, status_wycieczki) VALUES (?, ?, ?, ?, ?, ?, ?)");
+        for (int o = 0; o < oferty.liczba; o++) {
+            int start = oferty.wyjazd[o];
+            int koniec = start + oferty.dlugosc[o];
+
+            String status = koniec < dzisiaj ? "ZAKONCZONA" : start <= dzisiaj ? "W_TRAKCIE" : "PLANOWANA";
+            // Pierwsza planowana wycieczka zawsze czeka na przydział, żeby był on możliwy nawet w małej skali
+            boolean bezPilota = "PLANOWANA".equals(status) && (los.nextInt(10) < 3 || !bylaPlanowana);
+            bylaPlanowana |= "PLANOWANA".equals(status);
+
+            Integer pilot = null;
+            for (int proba = 0; proba < liczbaPilotow && !bezPilota; proba++) {
+                int kandydat = kolejnyPilot;
+                kolejnyPilot = kolejnyPilot % liczbaPilotow + 1;
+                if (pilotWolnyOd[kandydat] < start) {
+                    pilotWolnyOd[kandydat] = koniec;
+                    pilot = kandydat;
+                    break;
+                }
+            }
+
+            List<Integer> hotele = hoteleWKraju.get(oferty.kraj[o]);
+            Integer hotel = hotele.isEmpty() ? null : hotele.get(los.nextInt(hotele.size()));
+
+            wycieczki.dodaj(o + 1, pilot, hotel, data(start), data(koniec), oferty.zajeteMiejsca[o], status);
+        }
+        wycieczki.zapisz();
+    }
+
+    /**
+     * Oferty numerowane od 0 (id = indeks + 1), posortowane według daty wyjazdu
+     */
+    private final class Oferty {
+        final int liczba;
+        final int[] wyjazd;
+        final int[] dlugosc;
+        final int[] kraj;
+        final int[] typ;
+        final BigDecimal[] cena;
+        final int[] zajeteMiejsca;
+        final int[][] ofertyWKraju;
+
+        Oferty(int liczba) {
+            this.liczba = liczba;
+            wyjazd = new int[liczba];
+            dlugosc = new int[liczba];
+            kraj = new int[liczba];
+            typ = new int[liczba];
+            cena = new BigDecimal[liczba];
+            zajeteMiejsca = new int[liczba];
+
+            // Wyjazdy od roku wstecz do 300 dni naprzód, z wagą miesiąca (losowanie z odrzuceniem)
+            int maksWaga = Arrays.stream(SEZONOWOSC_WYJAZDOW).max().orElse(1);
+            for (int o = 0; o < liczba; o++) {
+                int dzien;
+                do {
+                    dzien = dzisiaj - 365 + los.nextInt(665);
+                } while (los.nextInt(maksWaga) >= SEZONOWOSC_WYJAZDOW[LocalDate.ofEpochDay(dzien).getMonthValue() - 1]);
+                wyjazd[o] = dzien;
+            }
+            Arrays.sort(wyjazd);
+
+            int[] liczbaWKraju = new int[KRAJE.length];
+            for (int o = 0; o < liczba; o++) {
+                kraj[o] = losujWaga(WAGI_KRAJOW);
+                typ[o] = losujWaga(WAGI_TYPOW);
+                dlugosc[o] = new int[]{7, 7, 10, 14}[los.nextInt(4)];
+                cena[o] = BigDecimal.valueOf(1500 + los.nextInt(60) * 50L).setScale(2, RoundingMode.UNNECESSARY);
+                liczbaWKraju[kraj[o]]++;
+            }
+
+            ofertyWKraju = new int[KRAJE.length][];
+            for (int k = 0; k < KRAJE.length; k++) {
+                ofertyWKraju[k] = new int[liczbaWKraju[k]];
+                liczbaWKraju[k] = 0;
+            }
+            for (int o = 0; o < liczba; o++) {
+                ofertyWKraju[kraj[o]][liczbaWKraju[kraj[o]]++] = o;
+            }
+        }
+    }
+
+    /**
+     * Rezerwacje wyznaczane przed zapisem ofert, bo liczba miejsc oferty wynika z liczby rezerwacji
+     */
+    private final class Rezerwacje {
+        final int liczba;
+        final int[] oferta;
+        final long[] klient;
+        final byte[] liczbaOsob;
+        final int[] zawarcie;
+        final String[] status;
+
+        Rezerwacje(int liczba, int liczbaKlientow, Oferty oferty) {
+            this.liczba = liczba;
+            oferta = new int[liczba];
+            klient = new long[liczba];
+            liczbaOsob = new byte[liczba];
+            zawarcie = new int[liczba];
+            status = new String[liczba];
+
+            // Popularność oferty w kraju niezależna od daty wyjazdu
+            int[][] kolejnoscPopularnosci = new int[KRAJE.length][];
+            for (int k = 0; k < KRAJE.length; k++) {
+                kolejnoscPopularnosci[k] = tasuj(oferty.ofertyWKraju[k]);
+            }
+
+            for (int u = 0; u < liczba; u++) {
+                int[] wKraju = kolejnoscPopularnosci[losujWaga(WAGI_KRAJOW)];
+                int o = wKraju.length > 0 ? wKraju[losujSkosnie(wKraju.length)] : los.nextInt(oferty.liczba);
+                int wyjazd = oferty.wyjazd[o];
+
+                int dzien = wyjazd - wyprzedzenieRezerwacji();
+                if (dzien > dzisiaj) {
+                    // Wyjazd w przyszłości - rezerwacja przypada między utworzeniem oferty a dniem dzisiejszym
+                    int utworzenie = wyjazd - 270;
+                    dzien = utworzenie + los.nextInt(Math.max(1, dzisiaj - utworzenie + 1));
+                }
+
+                oferta[u] = o;
+                klient[u] = 1 + losujSkosnie(liczbaKlientow);
+                liczbaOsob[u] = (byte) (1 + losujWaga(WAGI_LICZBY_OSOB));
+                zawarcie[u] = Math.min(dzien, dzisiaj);
+                status[u] = losujStatus(wyjazd + oferty.dlugosc[o]);
+
+                if (!"ANULOWANA".equals(status[u])) {
+                    oferty.zajeteMiejsca[o] += liczbaOsob[u];
+                }
+            }
+        }
+
+        /**
+         * First minute (3-8 miesięcy), zwykła rezerwacja (2 tygodnie - 3 miesiące) lub last minute
+         */
+        private int wyprzedzenieRezerwacji() {
+            int rodzaj = los.nextInt(100);
+            if (rodzaj < 40) {
+                return 90 + los.nextInt(150);
+            }
+            if (rodzaj < 85) {
+                return 14 + los.nextInt(76);
+            }
+            return 1 + los.nextInt(13);
+        }
+
+        private String losujStatus(int powrot) {
+            int p = los.nextInt(100);
+            if (p < 10) {
+                return "ANULOWANA";
+            }
+            if (powrot < dzisiaj) {
+                return "ZREALIZOWANA";
+            }
+            return p < 40 ? "PODPISANA" : p < 80 ? "ZALICZKA_WPLACONA" : "OPLACONA";
+        }
+    }
+
+    /**
+     * Bufor wierszy zapisywany do bazy paczkami po ROZMIAR_PACZKI. Wiersze zależne (z kluczem obcym
+     * do wierszy bufora nadrzędnego) zapisywane są zawsze po zapisaniu bufora nadrzędnego.
+     */
+    private final class Wsad {
+        private final String sql;
+        private final Wsad nadrzedny;
+        private final List<Wsad> zalezne = new ArrayList<>();
+        private final List<Object[]> wiersze = new ArrayList<>(ROZMIAR_PACZKI);
+
+        Wsad(String sql) {
+            this(sql, null);
+        }
+
+        Wsad(String sql, Wsad nadrzedny) {
+            this.sql = sql;
+            this.nadrzedny = nadrzedny;
+            if (nadrzedny != null) {
+                nadrzedny.zalezne.add(this);
+            }
+        }
+
+        void dodaj(Object... wiersz) {
+            wiersze.add(wiersz);
+            if (wiersze.size() >= ROZMIAR_PACZKI) {
+                (nadrzedny != null ? nadrzedny : this).zapisz();
+            }
+        }
+
+        void zapisz() {
+            if (!wiersze.isEmpty()) {
+                jdbc.batchUpdate(sql, wiersze);
+                wiersze.clear();
+            }
+            for (Wsad wsad : zalezne) {
+                wsad.zapisz();
+            }
+        }
+    }
+
+    private int losujWaga(int[] wagi) {
+        int suma = 0;
+        for (int waga : wagi) {
+            suma += waga;
+        }
+        int r = los.nextInt(suma);
+        for (int i = 0; i < wagi.length; i++) {
+            r -= wagi[i];
+            if (r < 0) {
+                return i;
+            }
+        }
+        return wagi.length - 1;
+    }
+
+    /**
+     * Indeks z przedziału [0, n) - niskie indeksy wyraźnie częstsze (kwadrat rozkładu jednostajnego)
+     */
+    private int losujSkosnie(int n) {
+        double u = los.nextDouble();
+        return (int) (u * u * n);
+    }
+
+    private int[] tasuj(int[] tablica) {
+        int[] wynik = tablica.clone();
+        for (int i = wynik.length - 1; i > 0; i--) {
+            int j = los.nextInt(i + 1);
+            int tmp = wynik[i];
+            wynik[i] = wynik[j];
+            wynik[j] = tmp;
+        }
+        return wynik;
+    }
+
+    private static String listaJson(Set<String> elementy) {
+        StringBuilder json = new StringBuilder("[");
+        for (String element : elementy) {
+            if (json.length() > 1) {
+                json.append(", ");
+            }
+            json.append('"').append(element).append('"');
+        }
+        return json.append(']').toString();
+    }
+
+    private static Date data(int dzienEpoki) {
+        return Date.valueOf(LocalDate.ofEpochDay(dzienEpoki));
+    }
+}
@@ -0,0 +1,24 @@
+package org.tourmanager.benchmark;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Wycisza komunikaty System.out/System.err drukowane przez metody encji i serwisów,
+ * żeby nie zakłócały pomiarów (JMH komunikuje się z procesem pomiarowym poza stdout).
+ */
+final class Konsola {
+
+    private Konsola() {}
+
+    /**
+     * Zwraca pierwotny strumień wyjścia (do raportowania wyników)
+     */
+    static PrintStream wycisz() {
+        PrintStream pierwotny = System.out;
+        PrintStream pusty = new PrintStream(OutputStream.nullOutputStream());
+        System.setOut(pusty);
+        System.setErr(pusty);
+        return pierwotny;
+    }
+}
@@ -0,0 +1,47 @@
+package org.tourmanager.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.tourmanager.TourManagerApplication;
+import org.tourmanager.config.JavaFXConfig;
+import org.tourmanager.service.HotelService;
+import org.tourmanager.service.IndeksDostepnosciHoteli;
+import org.tourmanager.service.IndeksDostepnosciPilotow;
+import org.tourmanager.service.IndeksTekstowy;
+import org.tourmanager.service.PamiecPodrecznaService;
+import org.tourmanager.service.PilotService;
+import org.tourmanager.service.StatystykiSprzedazyService;
+
+/**
+ * Kontekst Springa bez interfejsu JavaFX z bazą H2 w pamięci wypełnioną przez GeneratorDanych.
+ */
+final class KontekstBenchmarku {
+
+    private KontekstBenchmarku() {}
+
+    static ConfigurableApplicationContext uruchom(String nazwaBazy, GeneratorDanych.Skala skala, long ziarno) {
+        ConfigurableApplicationContext kontekst = new SpringApplicationBuilder(TourManagerApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:" + nazwaBazy + ";DB_CLOSE_DELAY=-1",
+                        "spring.jpa.show-sql=false",
+                        "spring.jpa.properties.hibernate.format_sql=false",
+                        "spring.h2.console.enabled=false",
+                        JavaFXConfig.INTERFEJS_WLACZONY + "=false")
+                .run();
+
+        new GeneratorDanych(kontekst.getBean(JdbcTemplate.class), ziarno).wypelnij(skala);
+
+        // Dane wstawione z pominięciem encji - przeliczenie stanu utrzymywanego przyrostowo
+        kontekst.getBean(PilotService.class).przeliczStatystykiPilotow();
+        kontekst.getBean(StatystykiSprzedazyService.class).przebudujStatystyki();
+        kontekst.getBean(HotelService.class).przeliczOcenyHoteli();
+        kontekst.getBean(IndeksDostepnosciPilotow.class).przebuduj();
+        kontekst.getBean(IndeksDostepnosciHoteli.class).przebuduj();
+        kontekst.getBean(IndeksTekstowy.class).przebuduj();
+        kontekst.getBean(PamiecPodrecznaService.class).wyczyscWszystko();
+        return kontekst;
+    }
+}
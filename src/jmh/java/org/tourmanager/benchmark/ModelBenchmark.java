@@ -0,0 +1,108 @@
+package org.tourmanager.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.tourmanager.model.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metody encji przeglądające kolekcje w pamięci (bez bazy danych).
+ * Rozmiar kolekcji (umowy oferty i klienta, oceny hotelu, wycieczki pilota) = liczbaUmow.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ModelBenchmark {
+
+    @Param({"100", "10000", "100000", "1000000"})
+    private int liczbaUmow;
+
+    private OfertaTurystyczna oferta;
+    private Klient klient;
+    private Hotel hotel;
+    private Pilot pilot;
+
+    private LocalDate terminOd;
+    private LocalDate terminDo;
+
+    @Setup(Level.Trial)
+    public void przygotuj() {
+        Konsola.wycisz();
+
+        LocalDate wyjazd = LocalDate.now().plusMonths(6);
+        oferta = new OfertaTurystyczna("Benchmark", "Oferta testowa", "Grecja", wyjazd, wyjazd.plusDays(7),
+                new BigDecimal("2500.00"), liczbaUmow * 4, "wypoczynkowa");
+        klient = new Klient("Jan", "Kowalski", null, "600100200", "jan@example.pl");
+
+        List<Umowa> umowy = new ArrayList<>(liczbaUmow);
+        for (int i = 0; i < liczbaUmow; i++) {
+            Umowa umowa = new Umowa(klient, oferta, 1 + i % 4);
+            umowa.setStatusUmowy(i % 10 == 0 ? "ANULOWANA" : "PODPISANA");
+            umowa.setCenaCalkowita(new BigDecimal(1000 + i % 4000));
+            umowy.add(umowa);
+        }
+        oferta.setUmowy(umowy);
+        klient.setUmowy(umowy);
+
+        hotel = new Hotel();
+        hotel.setNazwa("Hotel Benchmark");
+        for (int i = 0; i < liczbaUmow; i++) {
+            hotel.dodajOcene(1 + i % 10, null);
+        }
+
+        pilot = new Pilot("Anna", "Nowak", "600300400", "anna@example.pl", "LIC-BENCH");
+        pilot.setStatusPilota("AKTYWNY");
+        pilot.setDataWaznosciLicencji(LocalDate.now().plusYears(5));
+        List<Wycieczka> wycieczki = new ArrayList<>(liczbaUmow);
+        LocalDate start = LocalDate.now().minusYears(10);
+        for (int i = 0; i < liczbaUmow; i++) {
+            LocalDate od = start.plusDays(i % 3650);
+            Wycieczka wycieczka = new Wycieczka(oferta, od, od.plusDays(5));
+            wycieczka.setStatusWycieczki(i % 20 == 0 ? "PLANOWANA" : "ZAKONCZONA");
+            wycieczki.add(wycieczka);
+        }
+        pilot.setWycieczki(wycieczki);
+
+        // Termin bez kolizji - metoda musi przejrzeć wszystkie wycieczki
+        terminOd = LocalDate.now().plusYears(1);
+        terminDo = terminOd.plusDays(7);
+    }
+
+    @Setup(Level.Iteration)
+    public void odnowMiejsca() {
+        oferta.setStatusOferty("AKTYWNA");
+        oferta.setDostepneMiejsca(Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public int sprawdzDostepnoscOferty() {
+        return oferta.sprawdzDostepnosc();
+    }
+
+    @Benchmark
+    public boolean rezerwujMiejsca() {
+        return oferta.rezerwujMiejsca(1);
+    }
+
+    @Benchmark
+    public boolean sprawdzDostepnoscPilota() {
+        return pilot.sprawdzDostepnosc(terminOd, terminDo);
+    }
+
+    @Benchmark
+    public BigDecimal obliczSredniaOceneHotelu() {
+        return hotel.obliczSredniaOcene();
+    }
+
+    @Benchmark
+    public BigDecimal obliczLacznaWartoscUmowKlienta() {
+        return klient.obliczLacznaWartoscUmow();
+    }
+}
@@ -0,0 +1,103 @@
+package org.tourmanager.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.tourmanager.model.Hotel;
+import org.tourmanager.model.Pilot;
+import org.tourmanager.model.Wycieczka;
+import org.tourmanager.repository.HotelRepository;
+import org.tourmanager.repository.WycieczkaRepository;
+import org.tourmanager.service.HotelService;
+import org.tourmanager.service.PilotService;
+import org.tourmanager.service.RaportService;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serwisy na pełnym kontekście Springa z bazą H2 w pamięci wypełnioną liczbaUmow umowami
+ * (GeneratorDanych - sezonowy rozkład rezerwacji).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+public class SerwisyBenchmark {
+
+    @Param({"100", "10000", "100000", "1000000"})
+    private int liczbaUmow;
+
+    private ConfigurableApplicationContext kontekst;
+    private PilotService pilotService;
+    private RaportService raportService;
+    private HotelService hotelService;
+    private HotelRepository hotelRepository;
+    private Wycieczka wycieczka;
+
+    private final LocalDate dzisiaj = LocalDate.now();
+
+    @Setup(Level.Trial)
+    public void przygotuj() {
+        Konsola.wycisz();
+
+        kontekst = KontekstBenchmarku.uruchom("benchmark", GeneratorDanych.Skala.dlaLiczbyUmow(liczbaUmow), 42L);
+        pilotService = kontekst.getBean(PilotService.class);
+        raportService = kontekst.getBean(RaportService.class);
+        hotelService = kontekst.getBean(HotelService.class);
+        hotelRepository = kontekst.getBean(HotelRepository.class);
+
+        List<Wycieczka> bezPilota = kontekst.getBean(WycieczkaRepository.class).findWycieczkiBezPilotaZOferta();
+        wycieczka = bezPilota.get(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void zamknij() {
+        if (kontekst != null) {
+            kontekst.close();
+        }
+    }
+
+    @Benchmark
+    public Pilot dobierzNajlepszegoPilota() {
+        return pilotService.dobierzNajlepszegoPilota(wycieczka);
+    }
+
+    @Benchmark
+    public List<Pilot> generujListeRekomendowanychPilotow() {
+        return pilotService.generujListeRekomendowanychPilotow(wycieczka, 5);
+    }
+
+    @Benchmark
+    public String generujRaportObciazeniaPilotow() {
+        return pilotService.generujRaportObciazeniaPilotow();
+    }
+
+    @Benchmark
+    public String generujMiesiecznyRaportSprzedazy() {
+        return raportService.generujMiesieznyRaportSprzedazy(dzisiaj.getYear(), dzisiaj.getMonthValue());
+    }
+
+    @Benchmark
+    public String generujRaportTopKlientow() {
+        return raportService.generujRaportTopKlientow(10);
+    }
+
+    /**
+     * Wolne hotele w całym sezonie - indeks zajętości w pamięci
+     */
+    @Benchmark
+    public List<Hotel> wyszukajDostepneHotele() {
+        return hotelService.wyszukajDostepneHotele(dzisiaj.plusDays(30), dzisiaj.plusDays(120));
+    }
+
+    /**
+     * Wolne hotele w całym sezonie - zapytanie NOT EXISTS na idx_wycieczka_hotel_terminy
+     */
+    @Benchmark
+    public List<Hotel> findDostepneHotele() {
+        return hotelRepository.findDostepneHotele(dzisiaj.plusDays(30), dzisiaj.plusDays(120));
+    }
+}
@@ -0,0 +1,296 @@
+package org.tourmanager.benchmark;
+
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.tourmanager.model.Klient;
+import org.tourmanager.model.OfertaTurystyczna;
+import org.tourmanager.model.Umowa;
+import org.tourmanager.model.Wycieczka;
+import org.tourmanager.repository.KlientRepository;
+import org.tourmanager.repository.WycieczkaRepository;
+import org.tourmanager.service.OfertaService;
+import org.tourmanager.service.PilotService;
+import org.tourmanager.service.UmowaService;
+
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Test obciążeniowy: N równoległych agentów odtwarza ruch z sezonu rezerwacji przez UmowaService,
+ * OfertaService i PilotService na danych z GeneratorDanych. Po rozgrzewce mierzony jest czas każdej
+ * operacji; raport podaje przepustowość oraz opóźnienia p50/p99.
+ *
+ * Argumenty (klucz=wartość): umowy=100000 agenci=8 czas=60 rozgrzewka=10 ziarno=42
+ * mvn -Pbenchmark compile exec:exec -Dbenchmark.klasa=org.tourmanager.benchmark.SymulacjaSezonu -Djmh.args="agenci=16"
+ */
+public class SymulacjaSezonu {
+
+    /**
+     * Operacje agenta z udziałem w ruchu (procent)
+     */
+    enum Operacja {
+        WYSZUKANIE_OFERT(40),
+        ZAWARCIE_UMOWY(20),
+        WPLATA_ZALICZKI(12),
+        ANULOWANIE_UMOWY(4),
+        UMOWY_KLIENTA(12),
+        DOBOR_PILOTA(8),
+        REKOMENDACJE_PILOTOW(4);
+
+        final int udzial;
+
+        Operacja(int udzial) {
+            this.udzial = udzial;
+        }
+    }
+
+    private static final String[] KRAJE = {"Grecja", "Hiszpania", "Chorwacja", "Włochy", "Turcja", "Egipt"};
+    private static final int[] WAGI_KRAJOW = {22, 16, 13, 11, 10, 8};
+
+    private final UmowaService umowaService;
+    private final OfertaService ofertaService;
+    private final PilotService pilotService;
+    private final KlientRepository klientRepository;
+
+    private final long[] ofertyDoSprzedazy;
+    private final List<Wycieczka> wycieczkiBezPilota;
+    private final long liczbaKlientow;
+
+    SymulacjaSezonu(ConfigurableApplicationContext kontekst) {
+        umowaService = kontekst.getBean(UmowaService.class);
+        ofertaService = kontekst.getBean(OfertaService.class);
+        pilotService = kontekst.getBean(PilotService.class);
+        klientRepository = kontekst.getBean(KlientRepository.class);
+
+        JdbcTemplate jdbc = kontekst.getBean(JdbcTemplate.class);
+        ofertyDoSprzedazy = jdbc.queryForList("SELECT id FROM oferta_turystyczna WHERE status_oferty = 'AKTYWNA' " +
+                "ORDER BY id", Long.class).stream().mapToLong(Long::longValue).toArray();
+        liczbaKlientow = klientRepository.count();
+        wycieczkiBezPilota = kontekst.getBean(WycieczkaRepository.class).findWycieczkiBezPilotaZOferta();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> parametry = new HashMap<>();
+        for (String arg : args) {
+            String[] para = arg.split("=", 2);
+            parametry.put(para[0], para.length > 1 ? para[1] : "");
+        }
+        int umowy = Integer.parseInt(parametry.getOrDefault("umowy", "100000"));
+        int agenci = Integer.parseInt(parametry.getOrDefault("agenci", "8"));
+        int czas = Integer.parseInt(parametry.getOrDefault("czas", "60"));
+        int rozgrzewka = Integer.parseInt(parametry.getOrDefault("rozgrzewka", "10"));
+        long ziarno = Long.parseLong(parametry.getOrDefault("ziarno", "42"));
+
+        PrintStream raport = Konsola.wycisz();
+        raport.println("Generowanie danych: " + umowy + " umów...");
+        long start = System.nanoTime();
+        try (ConfigurableApplicationContext kontekst =
+                     KontekstBenchmarku.uruchom("symulacja", GeneratorDanych.Skala.dlaLiczbyUmow(umowy), ziarno)) {
+            raport.printf("Dane gotowe w %.1f s%n", (System.nanoTime() - start) / 1e9);
+            raport.println("Symulacja: " + agenci + " agentów, rozgrzewka " + rozgrzewka + " s, pomiar " + czas + " s");
+
+            Pomiary wynik = new SymulacjaSezonu(kontekst).uruchom(agenci, rozgrzewka, czas, ziarno);
+            wynik.drukuj(raport, czas);
+        } catch (Exception e) {
+            // System.err jest wyciszony
+            e.printStackTrace(raport);
+            throw e;
+        }
+    }
+
+    Pomiary uruchom(int agenci, int rozgrzewkaSekund, int czasSekund, long ziarno) throws Exception {
+        long poczatekPomiaru = System.nanoTime() + rozgrzewkaSekund * 1_000_000_000L;
+        long koniec = poczatekPomiaru + czasSekund * 1_000_000_000L;
+
+        ExecutorService watki = Executors.newFixedThreadPool(agenci);
+        try {
+            List<Future<Pomiary>> wyniki = new ArrayList<>();
+            for (int a = 0; a < agenci; a++) {
+                Random los = new Random(ziarno + a);
+                wyniki.add(watki.submit(() -> agent(los, poczatekPomiaru, koniec)));
+            }
+
+            Pomiary suma = new Pomiary();
+            for (Future<Pomiary> wynik : wyniki) {
+                suma.dolacz(wynik.get());
+            }
+            return suma;
+        } finally {
+            watki.shutdownNow();
+        }
+    }
+
+    private Pomiary agent(Random los, long poczatekPomiaru, long koniec) {
+        Pomiary pomiary = new Pomiary();
+        // Umowy zawarte przez agenta - kandydaci do wpłaty zaliczki i anulowania
+        List<Umowa> doWplaty = new ArrayList<>();
+        List<String> doAnulowania = new ArrayList<>();
+
+        long teraz;
+        while ((teraz = System.nanoTime()) < koniec) {
+            Operacja operacja = losujOperacje(los);
+            if ((operacja == Operacja.WPLATA_ZALICZKI && doWplaty.isEmpty()) ||
+                    (operacja == Operacja.ANULOWANIE_UMOWY && doAnulowania.isEmpty())) {
+                // Agent nie ma jeszcze własnej umowy do obsłużenia
+                operacja = Operacja.ZAWARCIE_UMOWY;
+            }
+            boolean powodzenie;
+            try {
+                powodzenie = wykonaj(operacja, los, doWplaty, doAnulowania);
+            } catch (RuntimeException e) {
+                // Transakcja operacji została wycofana - liczy się jako niepowodzenie, agent działa dalej
+                powodzenie = false;
+            }
+            long czas = System.nanoTime() - teraz;
+            if (teraz >= poczatekPomiaru) {
+                pomiary.zapisz(operacja, czas, powodzenie);
+            }
+        }
+        return pomiary;
+    }
+
+    private boolean wykonaj(Operacja operacja, Random los, List<Umowa> doWplaty, List<String> doAnulowania) {
+        switch (operacja) {
+            case WYSZUKANIE_OFERT: {
+                String kraj = KRAJE[losujWaga(los, WAGI_KRAJOW)];
+                LocalDate od = LocalDate.now().plusDays(los.nextInt(120));
+                return !ofertaService.wyszukajOferty(kraj, od, null, null).isEmpty();
+            }
+            case ZAWARCIE_UMOWY: {
+                if (ofertyDoSprzedazy.length == 0) {
+                    return false;
+                }
+                Klient klient = klientRepository.findById(1 + losujSkosnie(los, liczbaKlientow)).orElse(null);
+                OfertaTurystyczna oferta = ofertaService.pobierzOferte(
+                        ofertyDoSprzedazy[(int) losujSkosnie(los, ofertyDoSprzedazy.length)]);
+                if (klient == null || oferta == null) {
+                    return false;
+                }
+                Umowa umowa = new Umowa(klient, oferta, 1 + los.nextInt(4));
+                if (!umowaService.zawrzyjUmowe(umowa)) {
+                    return false;
+                }
+                if (los.nextInt(10) == 0) {
+                    doAnulowania.add(umowa.getNrUmowy());
+                } else {
+                    doWplaty.add(umowa);
+                }
+                return true;
+            }
+            case WPLATA_ZALICZKI: {
+                Umowa umowa = doWplaty.remove(doWplaty.size() - 1);
+                BigDecimal kwota = umowa.getZaliczka();
+                return umowaService.zarejestrujZaliczke(umowa.getNrUmowy(), kwota, "PRZELEW");
+            }
+            case ANULOWANIE_UMOWY:
+                return umowaService.anulujUmowe(doAnulowania.remove(doAnulowania.size() - 1), "Zmiana planów");
+            case UMOWY_KLIENTA:
+                return !umowaService.wyszukajUmowyKlienta(
+                        GeneratorDanych.pesel(1 + losujSkosnie(los, liczbaKlientow))).isEmpty();
+            case DOBOR_PILOTA:
+                return !wycieczkiBezPilota.isEmpty() && pilotService.dobierzNajlepszegoPilota(
+                        wycieczkiBezPilota.get(los.nextInt(wycieczkiBezPilota.size()))) != null;
+            case REKOMENDACJE_PILOTOW:
+                return !wycieczkiBezPilota.isEmpty() && !pilotService.generujListeRekomendowanychPilotow(
+                        wycieczkiBezPilota.get(los.nextInt(wycieczkiBezPilota.size())), 5).isEmpty();
+            default:
+                throw new IllegalStateException("Nieznana operacja: " + operacja);
+        }
+    }
+
+    private static Operacja losujOperacje(Random los) {
+        int r = los.nextInt(100);
+        for (Operacja operacja : Operacja.values()) {
+            r -= operacja.udzial;
+            if (r < 0) {
+                return operacja;
+            }
+        }
+        return Operacja.WYSZUKANIE_OFERT;
+    }
+
+    private static int losujWaga(Random los, int[] wagi) {
+        int r = los.nextInt(Arrays.stream(wagi).sum());
+        for (int i = 0; i < wagi.length; i++) {
+            r -= wagi[i];
+            if (r < 0) {
+                return i;
+            }
+        }
+        return wagi.length - 1;
+    }
+
+    private static long losujSkosnie(Random los, long n) {
+        double u = los.nextDouble();
+        return (long) (u * u * n);
+    }
+
+    /**
+     * Czasy operacji (ns) zbierane osobno dla każdego agenta i łączone po zakończeniu
+     */
+    static final class Pomiary {
+        private final long[][] czasy = new long[Operacja.values().length][];
+        private final int[] liczba = new int[Operacja.values().length];
+        private final int[] niepowodzenia = new int[Operacja.values().length];
+
+        Pomiary() {
+            for (int i = 0; i < czasy.length; i++) {
+                czasy[i] = new long[1024];
+            }
+        }
+
+        void zapisz(Operacja operacja, long czasNs, boolean powodzenie) {
+            int i = operacja.ordinal();
+            if (liczba[i] == czasy[i].length) {
+                czasy[i] = Arrays.copyOf(czasy[i], czasy[i].length * 2);
+            }
+            czasy[i][liczba[i]++] = czasNs;
+            if (!powodzenie) {
+                niepowodzenia[i]++;
+            }
+        }
+
+        void dolacz(Pomiary inne) {
+            for (int i = 0; i < czasy.length; i++) {
+                for (int j = 0; j < inne.liczba[i]; j++) {
+                    zapisz(Operacja.values()[i], inne.czasy[i][j], true);
+                }
+                niepowodzenia[i] += inne.niepowodzenia[i];
+            }
+        }
+
+        void drukuj(PrintStream wyjscie, int czasSekund) {
+            wyjscie.printf("%-22s %10s %10s %10s %10s %10s %12s%n",
+                    "Operacja", "Liczba", "op/s", "p50 [ms]", "p99 [ms]", "max [ms]", "Niepowodzenia");
+            long razem = 0;
+            for (Operacja operacja : Operacja.values()) {
+                int i = operacja.ordinal();
+                long[] posortowane = Arrays.copyOf(czasy[i], liczba[i]);
+                Arrays.sort(posortowane);
+                razem += liczba[i];
+                wyjscie.printf("%-22s %10d %10.1f %10.2f %10.2f %10.2f %12d%n", operacja, liczba[i],
+                        liczba[i] / (double) czasSekund, percentyl(posortowane, 0.50), percentyl(posortowane, 0.99),
+                        percentyl(posortowane, 1.0), niepowodzenia[i]);
+            }
+            wyjscie.printf("Razem: %d operacji, %.1f op/s%n", razem, razem / (double) czasSekund);
+        }
+
+        private static double percentyl(long[] posortowane, double q) {
+            if (posortowane.length == 0) {
+                return 0;
+            }
+            int indeks = (int) Math.ceil(q * posortowane.length) - 1;
+            return posortowane[Math.max(0, indeks)] / 1_000_000.0;
+        }
+    }
+}
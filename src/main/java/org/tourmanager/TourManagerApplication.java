@@ -1,69 +1,43 @@
 package org.tourmanager;
 
-import org.tourmanager.ui.MainWindow;
+import org.tourmanager.config.JavaFXConfig;
+import org.tourmanager.ui.AplikacjaJavaFX;
 import javafx.application.Application;
-import javafx.application.Platform;
-import javafx.stage.Stage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+import org.springframework.core.env.StandardEnvironment;
 
 @SpringBootApplication
-public class TourManagerApplication extends Application {
+public class TourManagerApplication {
 
-    private ConfigurableApplicationContext springContext;
-    private MainWindow mainWindow;
+    private static final Logger log = LoggerFactory.getLogger(TourManagerApplication.class);
 
     public static void main(String[] args) {
+        if (trybSerwera(args)) {
+            // Sam kontekst Springa z serwerem WWW - bez toolkitu JavaFX i beanów interfejsu
+            SpringApplication.run(TourManagerApplication.class, args);
+            log.info("TourManager uruchomiony w trybie serwera (bez interfejsu JavaFX)");
+            return;
+        }
+
         System.setProperty("javafx.preloader", "org.tourmanager.ui.Preloader");
         System.setProperty("prism.lcdtext", "false"); // Poprawa renderowania tekstu
         System.setProperty("prism.text", "t2k"); // Lepsze renderowanie fontów
 
-        launch(args);
-    }
-
-    @Override
-    public void init() throws Exception {
-        try {
-            springContext = SpringApplication.run(TourManagerApplication.class);
-            mainWindow = springContext.getBean(MainWindow.class);
-        } catch (Exception e) {
-            System.err.println("Błąd podczas inicjalizacji Spring Context: " + e.getMessage());
-            e.printStackTrace();
-            throw e;
-        }
-    }
-
-    @Override
-    public void start(Stage primaryStage) throws Exception {
-        try {
-            if (mainWindow == null) {
-                showErrorAndExit("Nie udało się zainicjalizować głównego okna aplikacji");
-                return;
-            }
-            mainWindow.start(primaryStage);
-        } catch (Exception e) {
-            e.printStackTrace();
-            showErrorAndExit("Błąd podczas uruchamiania aplikacji: " + e.getMessage());
-        }
-    }
-
-    @Override
-    public void stop() throws Exception {
-        try {
-            if (springContext != null) {
-                springContext.close();
-            }
-        } catch (Exception e) {
-            System.err.println("Błąd podczas zamykania Spring Context: " + e.getMessage());
-        } finally {
-            Platform.exit();
-        }
+        Application.launch(AplikacjaJavaFX.class, args);
     }
 
-    private void showErrorAndExit(String message) {
-        System.err.println(message);
-        Platform.exit();
-        System.exit(1);
+    /**
+     * Tryb serwera: tourmanager.ui.wlaczony=false w argumentach (--tourmanager.ui.wlaczony=false),
+     * właściwościach systemowych (-D) lub zmiennej środowiskowej TOURMANAGER_UI_WLACZONY.
+     * Sprawdzany przed startem JavaFX, więc application.properties nie jest tu brany pod uwagę.
+     */
+    static boolean trybSerwera(String[] args) {
+        StandardEnvironment srodowisko = new StandardEnvironment();
+        srodowisko.getPropertySources().addFirst(new SimpleCommandLinePropertySource(args));
+        return !srodowisko.getProperty(JavaFXConfig.INTERFEJS_WLACZONY, Boolean.class, true);
     }
-}
\ No newline at end of file
+}
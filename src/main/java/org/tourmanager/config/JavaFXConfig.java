@@ -1,13 +1,20 @@
 package org.tourmanager.config;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Scope;
 import org.tourmanager.ui.MainWindow;
 
+/**
+ * Beany interfejsu JavaFX - pomijane w trybie serwera (tourmanager.ui.wlaczony=false)
+ */
 @Configuration
+@ConditionalOnProperty(name = JavaFXConfig.INTERFEJS_WLACZONY, havingValue = "true", matchIfMissing = true)
 public class JavaFXConfig {
 
+    public static final String INTERFEJS_WLACZONY = "tourmanager.ui.wlaczony";
+
     @Bean
     @Scope("singleton")
     public MainWindow mainWindow() {
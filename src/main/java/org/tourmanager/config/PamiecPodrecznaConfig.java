@@ -0,0 +1,91 @@
+package org.tourmanager.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pamięć podręczna drugiego poziomu Hibernate (JCache, implementacja Caffeine).
+ *
+ * Każdy region ma ograniczoną liczbę elementów. Hotele i piloci zmieniają się rzadko,
+ * więc żyją długo. Oferty nie są przechowywane: każda sprzedaż miejsc zmienia wiersz oferty
+ * warunkowym UPDATE, a po zbiorczej zmianie Hibernate usuwa cały region, nie jedną encję.
+ * Brakujący region kończy start aplikacji błędem zamiast tworzyć region bez limitu.
+ */
+@Configuration
+public class PamiecPodrecznaConfig {
+
+    public static final String REGION_HOTELI = "hotel";
+    public static final String REGION_PILOTOW = "pilot";
+    public static final String REGION_ZAPYTAN_HOTELI = "zapytania-hotele";
+    public static final String REGION_ZAPYTAN_PILOTOW = "zapytania-piloci";
+    public static final String REGION_ZAPYTAN_DOMYSLNY = "default-query-results-region";
+    public static final String REGION_ZNACZNIKOW_CZASU = "default-update-timestamps-region";
+
+    private static final AtomicInteger NUMER_MENEDZERA = new AtomicInteger();
+
+    @Value("${tourmanager.cache.hotele.rozmiar:10000}")
+    private long rozmiarHoteli;
+
+    @Value("${tourmanager.cache.hotele.czas-zycia:30m}")
+    private Duration czasZyciaHoteli;
+
+    @Value("${tourmanager.cache.piloci.rozmiar:10000}")
+    private long rozmiarPilotow;
+
+    @Value("${tourmanager.cache.piloci.czas-zycia:30m}")
+    private Duration czasZyciaPilotow;
+
+    @Value("${tourmanager.cache.zapytania.rozmiar:200}")
+    private long rozmiarZapytan;
+
+    @Value("${tourmanager.cache.zapytania.czas-zycia:1m}")
+    private Duration czasZyciaZapytan;
+
+    @Bean
+    public CacheManager pamiecPodrecznaManager() {
+        // Osobny menedżer dla każdego kontekstu Springa (np. kilka kontekstów w benchmarkach w jednej JVM)
+        URI uri = URI.create("tourmanager-" + NUMER_MENEDZERA.incrementAndGet());
+        CacheManager manager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(uri, PamiecPodrecznaConfig.class.getClassLoader());
+        utworzRegion(manager, REGION_HOTELI, rozmiarHoteli, czasZyciaHoteli);
+        utworzRegion(manager, REGION_PILOTOW, rozmiarPilotow, czasZyciaPilotow);
+        utworzRegion(manager, REGION_ZAPYTAN_HOTELI, rozmiarZapytan, czasZyciaZapytan);
+        utworzRegion(manager, REGION_ZAPYTAN_PILOTOW, rozmiarZapytan, czasZyciaZapytan);
+        utworzRegion(manager, REGION_ZAPYTAN_DOMYSLNY, rozmiarZapytan, czasZyciaZapytan);
+        // Znaczniki czasu zmian tabel nie mogą wygasać wcześniej niż wyniki zapytań - jeden wpis na tabelę
+        utworzRegion(manager, REGION_ZNACZNIKOW_CZASU, 1000, null);
+        return manager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer pamiecPodrecznaHibernate(CacheManager pamiecPodrecznaManager) {
+        return wlasciwosci -> {
+            wlasciwosci.put(ConfigSettings.CACHE_MANAGER, pamiecPodrecznaManager);
+            wlasciwosci.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private static void utworzRegion(CacheManager manager, String nazwa, long rozmiar, Duration czasZycia) {
+        CaffeineConfiguration<Object, Object> konfiguracja = new CaffeineConfiguration<>();
+        konfiguracja.setMaximumSize(OptionalLong.of(rozmiar));
+        if (czasZycia != null) {
+            konfiguracja.setExpireAfterWrite(OptionalLong.of(czasZycia.toNanos()));
+        }
+        // Hibernate przechowuje w regionach niezmienne kopie stanu encji - kopiowanie przez serializację zbędne
+        konfiguracja.setStoreByValue(false);
+        konfiguracja.setStatisticsEnabled(true);
+        manager.createCache(nazwa, konfiguracja);
+    }
+}
@@ -1,6 +1,11 @@
 package org.tourmanager.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tourmanager.config.PamiecPodrecznaConfig;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
@@ -9,8 +14,12 @@ import java.util.List;
 
 @Entity
 @Table(name = "hotel")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = PamiecPodrecznaConfig.REGION_HOTELI)
 public class Hotel {
 
+    private static final Logger log = LoggerFactory.getLogger(Hotel.class);
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -42,7 +51,7 @@ public class Hotel {
     @Column(name = "warunki_wspolpracy", columnDefinition = "TEXT")
     private String warunkiWspolpracy;
 
-    @Column(name = "ocena_jakosci", precision = 3, scale = 2)
+    @Column(name = "ocena_jakosci", precision = 4, scale = 2)
     private BigDecimal ocenaJakosci; // 1.00 - 10.00
 
     @Column(name = "status_wspolpracy", length = 30)
@@ -57,6 +66,18 @@ public class Hotel {
     @OneToMany(mappedBy = "hotel", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<OcenaHotelu> oceny = new ArrayList<>();
 
+    // Suma i liczba ocen utrzymywane przy dodaniu i usunięciu oceny - średnia bez ładowania kolekcji ocen
+    @Column(name = "suma_ocen", nullable = false)
+    private long sumaOcen;
+
+    @Column(name = "liczba_ocen", nullable = false)
+    private long liczbaOcen;
+
+    // Atomowe UPDATE ocen podnoszą wersję - zapis nieaktualnej encji nie nadpisze sumy i liczby ocen
+    @Version
+    @Column(name = "wersja")
+    private Long wersja;
+
 
     public Hotel() {}
 
@@ -110,74 +131,35 @@ public class Hotel {
             this.dataRozpoczeciaWspolpracy = LocalDate.now();
             this.ocenaJakosci = new BigDecimal("5.00"); // Neutralna ocena startowa
 
-            System.out.println("Hotel '" + nazwa + "' został pomyślnie dodany do bazy partnerów");
-            System.out.println("Lokalizacja: " + miasto + ", " + kraj);
-            System.out.println("Kategoria: " + kategoria + " gwiazdek");
+            log.info("Hotel '{}' został pomyślnie dodany do bazy partnerów", nazwa);
+            log.debug("Lokalizacja: {}, {}", miasto, kraj);
+            log.debug("Kategoria: {} gwiazdek", kategoria);
 
             return true;
 
         } catch (IllegalArgumentException e) {
-            System.err.println("Błąd walidacji hotelu: " + e.getMessage());
+            log.warn("Błąd walidacji hotelu: {}", e.getMessage());
             return false;
         } catch (Exception e) {
-            System.err.println("Nieoczekiwany błąd podczas dodawania hotelu: " + e.getMessage());
+            log.error("Nieoczekiwany błąd podczas dodawania hotelu: {}", e.getMessage(), e);
             return false;
         }
     }
 
     /**
-     * METODA 18: Sprawdza dostępność hotelu w określonym okresie
-     * @param dataOd data początku pobytu
-     * @param dataDo data końca pobytu
-     * @return true jeśli hotel jest dostępny
+     * Sprawdza status współpracy i poprawność okresu
+     * (bez przeglądania wycieczek hotelu - te sprawdza IndeksDostepnosciHoteli)
      */
-    public boolean sprawdzDostepnosc(LocalDate dataOd, LocalDate dataDo) {
-        try {
-            if (dataOd == null || dataDo == null) {
-                throw new IllegalArgumentException("Daty sprawdzania dostępności nie mogą być null");
-            }
-
-            if (dataOd.isAfter(dataDo)) {
-                throw new IllegalArgumentException("Data początku nie może być późniejsza niż data końca");
-            }
-
-            if (dataOd.isBefore(LocalDate.now())) {
-                throw new IllegalArgumentException("Data początku nie może być z przeszłości");
-            }
-
-            if (!"AKTYWNA".equals(statusWspolpracy)) {
-                System.out.println("Hotel '" + nazwa + "' nie ma aktywnej współpracy");
-                return false;
-            }
-
-            for (Wycieczka wycieczka : wycieczki) {
-                if ("PLANOWANA".equals(wycieczka.getStatusWycieczki()) ||
-                        "W_TRAKCIE".equals(wycieczka.getStatusWycieczki())) {
-
-                    LocalDate wycOd = wycieczka.getDataRozpoczecia();
-                    LocalDate wycDo = wycieczka.getDataZakonczenia();
-
-                    if (!(dataDo.isBefore(wycOd) || dataOd.isAfter(wycDo))) {
-                        System.out.println("Hotel '" + nazwa + "' ma konflikt terminów z inną wycieczką");
-                        return false;
-                    }
-                }
-            }
-
-            System.out.println("Hotel '" + nazwa + "' jest dostępny w okresie " + dataOd + " - " + dataDo);
-            return true;
-
-        } catch (IllegalArgumentException e) {
-            System.err.println("Błąd parametru: " + e.getMessage());
-            return false;
-        } catch (Exception e) {
-            System.err.println("Nieoczekiwany błąd podczas sprawdzania dostępności hotelu: " + e.getMessage());
+    public boolean spelniaWarunkiDostepnosci(LocalDate dataOd, LocalDate dataDo) {
+        if (dataOd == null || dataDo == null || dataOd.isAfter(dataDo)) {
             return false;
         }
+        return "AKTYWNA".equals(statusWspolpracy);
     }
 
     /**
-     * METODA 19: Dodaje ocenę jakości hotelu
+     * METODA 19: Dodaje ocenę jakości hotelu jeszcze niezapisanego w bazie
+     * (ocenę zapisanego hotelu dodaje HotelService.dodajOcene)
      * @param ocena ocena w skali 1-10
      * @param komentarz dodatkowy komentarz
      * @return true jeśli ocena została dodana
@@ -187,6 +169,9 @@ public class Hotel {
             if (ocena < 1 || ocena > 10) {
                 throw new IllegalArgumentException("Ocena musi być w przedziale 1-10");
             }
+            if (id != null) {
+                throw new IllegalArgumentException("Ocenę zapisanego hotelu dodaje HotelService.dodajOcene");
+            }
 
             OcenaHotelu nowaOcena = new OcenaHotelu();
             nowaOcena.setHotel(this);
@@ -199,54 +184,65 @@ public class Hotel {
             }
 
             this.oceny.add(nowaOcena);
+            this.sumaOcen += ocena;
+            this.liczbaOcen++;
             obliczSredniaOcene();
 
-            System.out.println("Dodano ocenę " + ocena + "/10 dla hotelu '" + nazwa + "'");
-            System.out.println("Nowa średnia ocena: " + this.ocenaJakosci);
+            log.info("Dodano ocenę {}/10 dla hotelu '{}'", ocena, nazwa);
+            log.debug("Nowa średnia ocena: {}", this.ocenaJakosci);
 
             return true;
 
         } catch (IllegalArgumentException e) {
-            System.err.println("Błąd podczas dodawania oceny: " + e.getMessage());
+            log.warn("Błąd podczas dodawania oceny: {}", e.getMessage());
             return false;
         } catch (Exception e) {
-            System.err.println("Nieoczekiwany błąd podczas dodawania oceny: " + e.getMessage());
+            log.error("Nieoczekiwany błąd podczas dodawania oceny: {}", e.getMessage(), e);
             return false;
         }
     }
 
     /**
-     * METODA 20: Oblicza średnią ocenę hotelu
-     * @return średnia ocena jakości
+     * Wycofuje ocenę z sumy i liczby ocen hotelu jeszcze niezapisanego w bazie
+     * (ocenę zapisanego hotelu usuwa HotelService.usunOcene)
+     * @return true jeśli ocena należała do hotelu i została usunięta
      */
-    public BigDecimal obliczSredniaOcene() {
-        try {
-            if (oceny.isEmpty()) {
-                this.ocenaJakosci = new BigDecimal("5.00"); // Domyślna ocena
-                return this.ocenaJakosci;
-            }
+    public boolean usunOcene(OcenaHotelu ocena) {
+        if (ocena == null || ocena.getHotel() != this || ocena.getOcena() == null) {
+            return false;
+        }
+        if (id != null) {
+            log.warn("Ocenę zapisanego hotelu '{}' usuwa HotelService.usunOcene", nazwa);
+            return false;
+        }
 
-            // Obliczenie średniej arytmetycznej
-            double suma = 0;
-            int liczba = 0;
+        if (this.oceny != null) {
+            this.oceny.remove(ocena);
+        }
+        this.sumaOcen = Math.max(0, this.sumaOcen - ocena.getOcena());
+        this.liczbaOcen = Math.max(0, this.liczbaOcen - 1);
+        obliczSredniaOcene();
 
-            for (OcenaHotelu ocena : oceny) {
-                suma += ocena.getOcena();
-                liczba++;
-            }
+        log.info("Usunięto ocenę {}/10 hotelu '{}'", ocena.getOcena(), nazwa);
+        return true;
+    }
 
-            double srednia = suma / liczba;
-            this.ocenaJakosci = new BigDecimal(srednia).setScale(2, RoundingMode.HALF_UP);
+    /**
+     * METODA 20: Oblicza średnią ocenę hotelu z sumy i liczby ocen - O(1), bez przeglądania kolekcji ocen
+     * @return średnia ocena jakości
+     */
+    public BigDecimal obliczSredniaOcene() {
+        if (liczbaOcen <= 0) {
+            this.ocenaJakosci = new BigDecimal("5.00"); // Domyślna ocena
+            return this.ocenaJakosci;
+        }
 
-            System.out.println("Średnia ocena hotelu '" + nazwa + "': " + this.ocenaJakosci +
-                    "/10 (na podstawie " + liczba + " ocen)");
+        this.ocenaJakosci = BigDecimal.valueOf(sumaOcen)
+                .divide(BigDecimal.valueOf(liczbaOcen), 2, RoundingMode.HALF_UP);
 
-            return this.ocenaJakosci;
+        log.debug("Średnia ocena hotelu '{}': {}/10 (na podstawie {} ocen)", nazwa, this.ocenaJakosci, liczbaOcen);
 
-        } catch (Exception e) {
-            System.err.println("Błąd podczas obliczania średniej oceny: " + e.getMessage());
-            return new BigDecimal("5.00");
-        }
+        return this.ocenaJakosci;
     }
 
 
@@ -257,13 +253,13 @@ public class Hotel {
         try {
             if (nowyTelefon != null && !nowyTelefon.trim().isEmpty()) {
                 this.telefon = nowyTelefon.trim();
-                System.out.println("Zaktualizowano telefon hotelu na: " + this.telefon);
+                log.info("Zaktualizowano telefon hotelu na: {}", this.telefon);
             }
 
             if (nowyEmail != null && !nowyEmail.trim().isEmpty()) {
                 if (nowyEmail.contains("@")) {
                     this.email = nowyEmail.trim();
-                    System.out.println("Zaktualizowano email hotelu na: " + this.email);
+                    log.info("Zaktualizowano email hotelu na: {}", this.email);
                 } else {
                     throw new IllegalArgumentException("Niepoprawny format adresu email");
                 }
@@ -271,13 +267,13 @@ public class Hotel {
 
             if (nowaOsobaKontaktowa != null && !nowaOsobaKontaktowa.trim().isEmpty()) {
                 this.osobaKontaktowa = nowaOsobaKontaktowa.trim();
-                System.out.println("Zaktualizowano osobę kontaktową na: " + this.osobaKontaktowa);
+                log.info("Zaktualizowano osobę kontaktową na: {}", this.osobaKontaktowa);
             }
 
             return true;
 
         } catch (Exception e) {
-            System.err.println("Błąd podczas aktualizacji danych kontaktowych: " + e.getMessage());
+            log.warn("Błąd podczas aktualizacji danych kontaktowych: {}", e.getMessage());
             return false;
         }
     }
@@ -373,60 +369,14 @@ public class Hotel {
     public List<OcenaHotelu> getOceny() { return oceny; }
     public void setOceny(List<OcenaHotelu> oceny) { this.oceny = oceny; }
 
+    public long getSumaOcen() { return sumaOcen; }
+    public long getLiczbaOcen() { return liczbaOcen; }
+
+    public Long getWersja() { return wersja; }
+    public void setWersja(Long wersja) { this.wersja = wersja; }
+
     @Override
     public String toString() {
         return generujPełnaNazwe() + " (Ocena: " + ocenaJakosci + "/10)";
     }
 }
-
-@Entity
-@Table(name = "ocena_hotelu")
-class OcenaHotelu {
-
-    @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
-
-    @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "hotel_id", nullable = false)
-    private Hotel hotel;
-
-    @Column(nullable = false)
-    private Integer ocena; // 1-10
-
-    @Column(columnDefinition = "TEXT")
-    private String komentarz;
-
-    @Column(name = "data_oceny")
-    private LocalDate dataOceny;
-
-    @Column(name = "autor_oceny", length = 100)
-    private String autorOceny;
-
-    public OcenaHotelu() {}
-
-    public OcenaHotelu(Hotel hotel, Integer ocena, String komentarz) {
-        this.hotel = hotel;
-        this.ocena = ocena;
-        this.komentarz = komentarz;
-        this.dataOceny = LocalDate.now();
-    }
-
-    public Long getId() { return id; }
-    public void setId(Long id) { this.id = id; }
-
-    public Hotel getHotel() { return hotel; }
-    public void setHotel(Hotel hotel) { this.hotel = hotel; }
-
-    public Integer getOcena() { return ocena; }
-    public void setOcena(Integer ocena) { this.ocena = ocena; }
-
-    public String getKomentarz() { return komentarz; }
-    public void setKomentarz(String komentarz) { this.komentarz = komentarz; }
-
-    public LocalDate getDataOceny() { return dataOceny; }
-    public void setDataOceny(LocalDate dataOceny) { this.dataOceny = dataOceny; }
-
-    public String getAutorOceny() { return autorOceny; }
-    public void setAutorOceny(String autorOceny) { this.autorOceny = autorOceny; }
-}
\ No newline at end of file
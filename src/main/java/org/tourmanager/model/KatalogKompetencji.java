@@ -0,0 +1,190 @@
+package org.tourmanager.model;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Znormalizowany model kompetencji pilotów.
+ *
+ * Nazwy języków i specjalizacji są internowane do kolejnych identyfikatorów, dzięki czemu
+ * kompetencje pilota to zbiór bitów, a sprawdzenie wymagania to odczyt jednego bitu.
+ * Wymagania według kraju i typu wycieczki ładowane są z pliku wymagania-pilotow.csv
+ * (lub z pliku wskazanego w konfiguracji) do tablic mieszających.
+ */
+public final class KatalogKompetencji {
+
+    private static final Logger log = LoggerFactory.getLogger(KatalogKompetencji.class);
+
+    public static final String DOMYSLNY_JEZYK = "Angielski";
+
+    private static final String DOMYSLNY_PLIK = "/wymagania-pilotow.csv";
+
+    private static final Map<String, Integer> identyfikatory = new ConcurrentHashMap<>();
+    private static final List<String> nazwy = new CopyOnWriteArrayList<>();
+
+    private static volatile Map<String, Wymaganie> wymaganiaWgKraju = Map.of();
+    private static volatile Map<String, Wymaganie> wymaganiaWgTypu = Map.of();
+
+    static {
+        try (InputStream dane = KatalogKompetencji.class.getResourceAsStream(DOMYSLNY_PLIK)) {
+            if (dane != null) {
+                zaladujWymagania(new InputStreamReader(dane, StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            log.error("Błąd podczas wczytywania wymagań pilotów: {}", e.getMessage(), e);
+        }
+    }
+
+    private KatalogKompetencji() {}
+
+    /**
+     * Zwraca identyfikator kompetencji, nadając nowy przy pierwszym użyciu nazwy
+     */
+    public static int idKompetencji(String nazwa) {
+        String klucz = normalizuj(nazwa);
+        Integer id = identyfikatory.get(klucz);
+        if (id != null) {
+            return id;
+        }
+        synchronized (identyfikatory) {
+            return identyfikatory.computeIfAbsent(klucz, k -> {
+                nazwy.add(k);
+                return nazwy.size() - 1;
+            });
+        }
+    }
+
+    /**
+     * Zwraca identyfikator znanej kompetencji lub -1 (bez rozszerzania słownika)
+     */
+    public static int znajdzId(String nazwa) {
+        if (nazwa == null) {
+            return -1;
+        }
+        Integer id = identyfikatory.get(normalizuj(nazwa));
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Zamienia listę kompetencji (["Polski", "Angielski"] lub "Polski, Angielski") na zbiór bitów
+     */
+    public static BitSet parsujListe(String lista) {
+        BitSet bity = new BitSet();
+        if (lista == null) {
+            return bity;
+        }
+        for (String element : lista.split("[\\[\\]\",;]")) {
+            if (!element.isBlank()) {
+                bity.set(idKompetencji(element));
+            }
+        }
+        return bity;
+    }
+
+    /**
+     * Wymagania dla oferty (język i specjalizacja) albo null gdy oferta nie ma kraju ani typu
+     */
+    public static Wymaganie wymaganieDlaOferty(OfertaTurystyczna oferta) {
+        if (oferta == null) {
+            return null;
+        }
+
+        String kraj = oferta.getKrajDocelowy();
+        if (kraj != null) {
+            Wymaganie wymaganie = wymaganiaWgKraju.get(normalizuj(kraj));
+            if (wymaganie == null) {
+                return new Wymaganie(DOMYSLNY_JEZYK, kraj);
+            }
+            return wymaganie.specjalizacja != null ? wymaganie : new Wymaganie(wymaganie.jezyk, kraj);
+        }
+
+        String typ = oferta.getTypWycieczki();
+        if (typ != null) {
+            Wymaganie wymaganie = wymaganiaWgTypu.get(normalizuj(typ));
+            return wymaganie != null ? wymaganie : new Wymaganie(null, typ);
+        }
+        return null;
+    }
+
+    /**
+     * Wczytuje wymagania z pliku w formacie sekcji [kraje] i [typy]
+     */
+    public static void zaladujWymagania(Reader zrodlo) throws IOException {
+        Map<String, Wymaganie> kraje = new HashMap<>();
+        Map<String, Wymaganie> typy = new HashMap<>();
+        Map<String, Wymaganie> sekcja = null;
+
+        BufferedReader czytnik = new BufferedReader(zrodlo);
+        String linia;
+        while ((linia = czytnik.readLine()) != null) {
+            linia = linia.trim();
+            if (linia.isEmpty() || linia.startsWith("#")) {
+                continue;
+            }
+            if ("[kraje]".equalsIgnoreCase(linia)) {
+                sekcja = kraje;
+                continue;
+            }
+            if ("[typy]".equalsIgnoreCase(linia)) {
+                sekcja = typy;
+                continue;
+            }
+            if (sekcja == null) {
+                throw new IOException("Wiersz poza sekcją [kraje]/[typy]: " + linia);
+            }
+
+            String[] pola = linia.split(";", -1);
+            if (sekcja == kraje) {
+                String jezyk = pola.length > 1 && !pola[1].isBlank() ? pola[1].trim() : DOMYSLNY_JEZYK;
+                String specjalizacja = pola.length > 2 && !pola[2].isBlank() ? pola[2].trim() : null;
+                kraje.put(normalizuj(pola[0]), new Wymaganie(jezyk, specjalizacja));
+            } else {
+                String specjalizacja = pola.length > 1 && !pola[1].isBlank() ? pola[1].trim() : pola[0].trim();
+                typy.put(normalizuj(pola[0]), new Wymaganie(null, specjalizacja));
+            }
+        }
+
+        wymaganiaWgKraju = kraje;
+        wymaganiaWgTypu = typy;
+    }
+
+    private static String normalizuj(String nazwa) {
+        return nazwa.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Wymagany język i specjalizacja wraz z ich identyfikatorami (-1 gdy brak wymagania)
+     */
+    public static final class Wymaganie {
+        private final String jezyk;
+        private final String specjalizacja;
+        private final int idJezyka;
+        private final int idSpecjalizacji;
+
+        Wymaganie(String jezyk, String specjalizacja) {
+            this.jezyk = jezyk;
+            this.specjalizacja = specjalizacja;
+            this.idJezyka = jezyk != null ? idKompetencji(jezyk) : -1;
+            this.idSpecjalizacji = specjalizacja != null ? idKompetencji(specjalizacja) : -1;
+        }
+
+        public String getJezyk() { return jezyk; }
+        public String getSpecjalizacja() { return specjalizacja; }
+        public int getIdJezyka() { return idJezyka; }
+        public int getIdSpecjalizacji() { return idSpecjalizacji; }
+    }
+}
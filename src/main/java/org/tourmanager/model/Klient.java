@@ -1,6 +1,8 @@
 package org.tourmanager.model;
 
 import jakarta.persistence.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -10,6 +12,8 @@ import java.util.List;
 @Table(name = "klient")
 public class Klient {
 
+    private static final Logger log = LoggerFactory.getLogger(Klient.class);
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -61,37 +65,45 @@ public class Klient {
 
     public boolean dodajKlienta() {
         try {
-            if (imie == null || imie.trim().isEmpty()) {
-                throw new IllegalArgumentException("Imię klienta nie może być puste");
-            }
-            if (nazwisko == null || nazwisko.trim().isEmpty()) {
-                throw new IllegalArgumentException("Nazwisko klienta nie może być puste");
-            }
-            if (pesel != null && !walidujPesel()) {
-                throw new IllegalArgumentException("Niepoprawny numer PESEL");
-            }
-            if (telefon == null || telefon.trim().isEmpty()) {
-                throw new IllegalArgumentException("Numer telefonu jest wymagany");
-            }
-            if (email != null && !email.contains("@")) {
-                throw new IllegalArgumentException("Niepoprawny adres email");
-            }
+            waliduj();
 
             this.dataRejestracji = LocalDate.now();
             this.statusKlienta = "AKTYWNY";
 
-            System.out.println("Klient " + imie + " " + nazwisko + " został pomyślnie zarejestrowany");
+            log.info("Klient {} {} został pomyślnie zarejestrowany", imie, nazwisko);
             return true;
 
         } catch (IllegalArgumentException e) {
-            System.err.println("Błąd walidacji klienta: " + e.getMessage());
+            log.warn("Błąd walidacji klienta: {}", e.getMessage());
             return false;
         } catch (Exception e) {
-            System.err.println("Nieoczekiwany błąd podczas rejestracji klienta: " + e.getMessage());
+            log.error("Nieoczekiwany błąd podczas rejestracji klienta: {}", e.getMessage(), e);
             return false;
         }
     }
 
+    /**
+     * Sprawdza reguły rejestracji klienta
+     * @throws IllegalArgumentException z opisem pierwszego naruszenia
+     */
+    public void waliduj() {
+        if (imie == null || imie.trim().isEmpty()) {
+            throw new IllegalArgumentException("Imię klienta nie może być puste");
+        }
+        if (nazwisko == null || nazwisko.trim().isEmpty()) {
+            throw new IllegalArgumentException("Nazwisko klienta nie może być puste");
+        }
+        if (pesel != null && !walidujPesel()) {
+            throw new IllegalArgumentException("Niepoprawny numer PESEL");
+        }
+        if (telefon == null || telefon.trim().isEmpty()) {
+            throw new IllegalArgumentException("Numer telefonu jest wymagany");
+        }
+        if (email != null && !email.contains("@")) {
+            throw new IllegalArgumentException("Niepoprawny adres email");
+        }
+    }
+
     public boolean walidujPesel() {
         if (pesel == null || pesel.length() != 11) {
             return false;
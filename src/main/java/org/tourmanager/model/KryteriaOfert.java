@@ -0,0 +1,62 @@
+package org.tourmanager.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Kryteria wyszukiwania aktywnych ofert. Pole równe null oznacza brak filtra -
+ * do zapytania trafiają tylko podane warunki.
+ */
+public class KryteriaOfert {
+
+    private String kraj;
+    private LocalDate dataOd;       // najwcześniejsza data wyjazdu
+    private LocalDate dataDo;       // najpóźniejsza data powrotu
+    private String typ;
+    private BigDecimal cenaMin;
+    private BigDecimal cenaMax;
+    private Integer minMiejsc;      // null - co najmniej jedno wolne miejsce
+
+    public KryteriaOfert() {}
+
+    public KryteriaOfert(String kraj, LocalDate dataOd, LocalDate dataDo, String typ) {
+        this.kraj = kraj;
+        this.dataOd = dataOd;
+        this.dataDo = dataDo;
+        this.typ = typ;
+    }
+
+    /**
+     * Minimalna liczba wolnych miejsc używana w zapytaniu
+     */
+    public int getWymaganeMiejsca() {
+        return minMiejsc != null && minMiejsc > 0 ? minMiejsc : 1;
+    }
+
+    public String getKraj() { return kraj; }
+    public void setKraj(String kraj) { this.kraj = kraj; }
+
+    public LocalDate getDataOd() { return dataOd; }
+    public void setDataOd(LocalDate dataOd) { this.dataOd = dataOd; }
+
+    public LocalDate getDataDo() { return dataDo; }
+    public void setDataDo(LocalDate dataDo) { this.dataDo = dataDo; }
+
+    public String getTyp() { return typ; }
+    public void setTyp(String typ) { this.typ = typ; }
+
+    public BigDecimal getCenaMin() { return cenaMin; }
+    public void setCenaMin(BigDecimal cenaMin) { this.cenaMin = cenaMin; }
+
+    public BigDecimal getCenaMax() { return cenaMax; }
+    public void setCenaMax(BigDecimal cenaMax) { this.cenaMax = cenaMax; }
+
+    public Integer getMinMiejsc() { return minMiejsc; }
+    public void setMinMiejsc(Integer minMiejsc) { this.minMiejsc = minMiejsc; }
+
+    @Override
+    public String toString() {
+        return "KryteriaOfert{kraj=" + kraj + ", dataOd=" + dataOd + ", dataDo=" + dataDo + ", typ=" + typ +
+                ", cena=" + cenaMin + "-" + cenaMax + ", miejsca>=" + getWymaganeMiejsca() + "}";
+    }
+}
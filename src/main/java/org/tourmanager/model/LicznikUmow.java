@@ -0,0 +1,33 @@
+package org.tourmanager.model;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "licznik_umow")
+public class LicznikUmow {
+
+    @Id
+    @Column(name = "rok")
+    private Integer rok;
+
+    @Column(name = "ostatni_numer", nullable = false)
+    private Long ostatniNumer;
+
+    public LicznikUmow() {}
+
+    public LicznikUmow(Integer rok, Long ostatniNumer) {
+        this.rok = rok;
+        this.ostatniNumer = ostatniNumer;
+    }
+
+    public Integer getRok() { return rok; }
+    public void setRok(Integer rok) { this.rok = rok; }
+
+    public Long getOstatniNumer() { return ostatniNumer; }
+    public void setOstatniNumer(Long ostatniNumer) { this.ostatniNumer = ostatniNumer; }
+
+    @Override
+    public String toString() {
+        return "Licznik umów " + rok + ": " + ostatniNumer;
+    }
+}
@@ -0,0 +1,56 @@
+package org.tourmanager.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "ocena_hotelu")
+public class OcenaHotelu {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "hotel_id", nullable = false)
+    private Hotel hotel;
+
+    @Column(nullable = false)
+    private Integer ocena; // 1-10
+
+    @Column(columnDefinition = "TEXT")
+    private String komentarz;
+
+    @Column(name = "data_oceny")
+    private LocalDate dataOceny;
+
+    @Column(name = "autor_oceny", length = 100)
+    private String autorOceny;
+
+    public OcenaHotelu() {}
+
+    public OcenaHotelu(Hotel hotel, Integer ocena, String komentarz) {
+        this.hotel = hotel;
+        this.ocena = ocena;
+        this.komentarz = komentarz;
+        this.dataOceny = LocalDate.now();
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Hotel getHotel() { return hotel; }
+    public void setHotel(Hotel hotel) { this.hotel = hotel; }
+
+    public Integer getOcena() { return ocena; }
+    public void setOcena(Integer ocena) { this.ocena = ocena; }
+
+    public String getKomentarz() { return komentarz; }
+    public void setKomentarz(String komentarz) { this.komentarz = komentarz; }
+
+    public LocalDate getDataOceny() { return dataOceny; }
+    public void setDataOceny(LocalDate dataOceny) { this.dataOceny = dataOceny; }
+
+    public String getAutorOceny() { return autorOceny; }
+    public void setAutorOceny(String autorOceny) { this.autorOceny = autorOceny; }
+}
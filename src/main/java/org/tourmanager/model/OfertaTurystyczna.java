@@ -1,15 +1,23 @@
 package org.tourmanager.model;
 
 import jakarta.persistence.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "oferta_turystyczna")
+@Table(name = "oferta_turystyczna", indexes = {
+        // Wyszukiwanie aktywnych ofert stronicowane kluczem (data_wyjazdu, id), także w obrębie kraju
+        @Index(name = "idx_oferta_status_wyjazd", columnList = "status_oferty, data_wyjazdu, id"),
+        @Index(name = "idx_oferta_kraj_status_wyjazd", columnList = "kraj_docelowy, status_oferty, data_wyjazdu, id")
+})
 public class OfertaTurystyczna {
 
+    private static final Logger log = LoggerFactory.getLogger(OfertaTurystyczna.class);
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -47,6 +55,10 @@ public class OfertaTurystyczna {
     @Column(name = "data_utworzenia")
     private LocalDate dataUtworzenia;
 
+    @Version
+    @Column(name = "wersja")
+    private Long wersja; // Chroni licznik miejsc przed nadpisaniem nieaktualnym stanem encji
+
     @OneToMany(mappedBy = "oferta", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Umowa> umowy = new ArrayList<>();
 
@@ -70,50 +82,58 @@ public class OfertaTurystyczna {
 
     public boolean dodajOferte() {
         try {
-            if (nazwa == null || nazwa.trim().isEmpty()) {
-                throw new IllegalArgumentException("Nazwa oferty nie może być pusta");
-            }
-            if (dataWyjazdu == null || dataPowrotu == null) {
-                throw new IllegalArgumentException("Daty wyjazdu i powrotu muszą być określone");
-            }
-            if (dataWyjazdu.isAfter(dataPowrotu)) {
-                throw new IllegalArgumentException("Data wyjazdu nie może być późniejsza niż data powrotu");
-            }
-            if (dataWyjazdu.isBefore(LocalDate.now())) {
-                throw new IllegalArgumentException("Data wyjazdu nie może być z przeszłości");
-            }
-            if (cenaZaOsobe == null || cenaZaOsobe.compareTo(BigDecimal.ZERO) <= 0) {
-                throw new IllegalArgumentException("Cena musi być większa od zera");
-            }
-            if (maksLiczbaUczestnikow == null || maksLiczbaUczestnikow <= 0) {
-                throw new IllegalArgumentException("Maksymalna liczba uczestników musi być większa od zera");
-            }
+            waliduj();
 
             this.dostepneMiejsca = this.maksLiczbaUczestnikow;
             this.statusOferty = "AKTYWNA";
             this.dataUtworzenia = LocalDate.now();
 
-            System.out.println("Oferta '" + nazwa + "' została pomyślnie utworzona");
+            log.info("Oferta '{}' została pomyślnie utworzona", nazwa);
             return true;
 
         } catch (IllegalArgumentException e) {
-            System.err.println("Błąd walidacji: " + e.getMessage());
+            log.warn("Błąd walidacji: {}", e.getMessage());
             return false;
         } catch (Exception e) {
-            System.err.println("Nieoczekiwany błąd podczas tworzenia oferty: " + e.getMessage());
+            log.error("Nieoczekiwany błąd podczas tworzenia oferty: {}", e.getMessage(), e);
             return false;
         }
     }
 
+    /**
+     * Sprawdza reguły tworzenia oferty
+     * @throws IllegalArgumentException z opisem pierwszego naruszenia
+     */
+    public void waliduj() {
+        if (nazwa == null || nazwa.trim().isEmpty()) {
+            throw new IllegalArgumentException("Nazwa oferty nie może być pusta");
+        }
+        if (dataWyjazdu == null || dataPowrotu == null) {
+            throw new IllegalArgumentException("Daty wyjazdu i powrotu muszą być określone");
+        }
+        if (dataWyjazdu.isAfter(dataPowrotu)) {
+            throw new IllegalArgumentException("Data wyjazdu nie może być późniejsza niż data powrotu");
+        }
+        if (dataWyjazdu.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("Data wyjazdu nie może być z przeszłości");
+        }
+        if (cenaZaOsobe == null || cenaZaOsobe.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Cena musi być większa od zera");
+        }
+        if (maksLiczbaUczestnikow == null || maksLiczbaUczestnikow <= 0) {
+            throw new IllegalArgumentException("Maksymalna liczba uczestników musi być większa od zera");
+        }
+    }
+
     public int sprawdzDostepnosc() {
         try {
             if (!"AKTYWNA".equals(statusOferty)) {
-                System.out.println("Oferta '" + nazwa + "' nie jest aktywna");
+                log.debug("Oferta '{}' nie jest aktywna", nazwa);
                 return 0;
             }
 
             if (dataWyjazdu != null && dataWyjazdu.isBefore(LocalDate.now())) {
-                System.out.println("Termin wyjazdu dla oferty '" + nazwa + "' już minął");
+                log.debug("Termin wyjazdu dla oferty '{}' już minął", nazwa);
                 this.statusOferty = "NIEAKTYWNA"; // Automatycznie dezaktywuj przeszłe oferty
                 return 0;
             }
@@ -134,41 +154,49 @@ public class OfertaTurystyczna {
                 this.dostepneMiejsca = 0;
             }
 
-            System.out.println("Dostępne miejsca dla oferty '" + nazwa + "': " + dostepneMiejsca);
+            log.debug("Dostępne miejsca dla oferty '{}': {}", nazwa, dostepneMiejsca);
             return dostepneMiejsca;
 
         } catch (Exception e) {
-            System.err.println("Błąd podczas sprawdzania dostępności: " + e.getMessage());
+            log.error("Błąd podczas sprawdzania dostępności: {}", e.getMessage(), e);
             return 0;
         }
     }
 
+    /**
+     * Rezerwuje miejsca na podstawie licznika dostępnych miejsc (O(1), bez przeglądania umów).
+     * Trwała, współbieżnie bezpieczna rezerwacja odbywa się w RezerwacjaMiejscService.
+     */
     public boolean rezerwujMiejsca(int liczba) {
         try {
             if (liczba <= 0) {
                 throw new IllegalArgumentException("Liczba miejsc do rezerwacji musi być większa od zera");
             }
 
-            int aktualneDostepne = sprawdzDostepnosc();
+            if (!"AKTYWNA".equals(statusOferty)) {
+                log.warn("Oferta '{}' nie jest aktywna", nazwa);
+                return false;
+            }
+
+            int aktualneDostepne = dostepneMiejsca != null ? dostepneMiejsca : 0;
 
             if (aktualneDostepne < liczba) {
-                System.err.println("Brak wystarczającej liczby miejsc. Dostępne: " +
-                        aktualneDostepne + ", wymagane: " + liczba);
+                log.warn("Brak wystarczającej liczby miejsc. Dostępne: {}, wymagane: {}", aktualneDostepne, liczba);
                 return false;
             }
 
-            this.dostepneMiejsca -= liczba;
+            this.dostepneMiejsca = aktualneDostepne - liczba;
 
-            System.out.println("Zarezerwowano " + liczba + " miejsc w ofercie '" + nazwa + "'");
-            System.out.println("Pozostałe dostępne miejsca: " + this.dostepneMiejsca);
+            log.info("Zarezerwowano {} miejsc w ofercie '{}'", liczba, nazwa);
+            log.debug("Pozostałe dostępne miejsca: {}", this.dostepneMiejsca);
 
             return true;
 
         } catch (IllegalArgumentException e) {
-            System.err.println("Błąd parametru: " + e.getMessage());
+            log.warn("Błąd parametru: {}", e.getMessage());
             return false;
         } catch (Exception e) {
-            System.err.println("Nieoczekiwany błąd podczas rezerwacji: " + e.getMessage());
+            log.error("Nieoczekiwany błąd podczas rezerwacji: {}", e.getMessage(), e);
             return false;
         }
     }
@@ -189,7 +217,7 @@ public class OfertaTurystyczna {
             if (liczbaOsob >= 10) {
                 BigDecimal rabat = cenaCalkowita.multiply(new BigDecimal("0.05"));
                 cenaCalkowita = cenaCalkowita.subtract(rabat);
-                System.out.println("Zastosowano rabat grupowy 5%: -" + rabat + " PLN");
+                log.debug("Zastosowano rabat grupowy 5%: -{} PLN", rabat);
             }
 
             // Rabat za wczesną rezerwację (powyżej 60 dni - 3% rabatu)
@@ -197,17 +225,17 @@ public class OfertaTurystyczna {
             if (dniDoWyjazdu >= 60) {
                 BigDecimal rabatWczesny = cenaCalkowita.multiply(new BigDecimal("0.03"));
                 cenaCalkowita = cenaCalkowita.subtract(rabatWczesny);
-                System.out.println("Zastosowano rabat za wczesną rezerwację 3%: -" + rabatWczesny + " PLN");
+                log.debug("Zastosowano rabat za wczesną rezerwację 3%: -{} PLN", rabatWczesny);
             }
 
-            System.out.println("Cena całkowita dla " + liczbaOsob + " osób: " + cenaCalkowita + " PLN");
+            log.debug("Cena całkowita dla {} osób: {} PLN", liczbaOsob, cenaCalkowita);
             return cenaCalkowita;
 
         } catch (IllegalArgumentException | IllegalStateException e) {
-            System.err.println("Błąd podczas obliczania ceny: " + e.getMessage());
+            log.warn("Błąd podczas obliczania ceny: {}", e.getMessage());
             return BigDecimal.ZERO;
         } catch (Exception e) {
-            System.err.println("Nieoczekiwany błąd podczas obliczania ceny: " + e.getMessage());
+            log.error("Nieoczekiwany błąd podczas obliczania ceny: {}", e.getMessage(), e);
             return BigDecimal.ZERO;
         }
     }
@@ -250,6 +278,9 @@ public class OfertaTurystyczna {
     public LocalDate getDataUtworzenia() { return dataUtworzenia; }
     public void setDataUtworzenia(LocalDate dataUtworzenia) { this.dataUtworzenia = dataUtworzenia; }
 
+    public Long getWersja() { return wersja; }
+    public void setWersja(Long wersja) { this.wersja = wersja; }
+
     public List<Umowa> getUmowy() { return umowy; }
     public void setUmowy(List<Umowa> umowy) { this.umowy = umowy; }
 
@@ -0,0 +1,40 @@
+package org.tourmanager.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Wiersz tabeli ofert - projekcja bez encji i jej kolekcji
+ */
+public class OfertaWiersz {
+
+    private final Long id;
+    private final String nazwa;
+    private final String krajDocelowy;
+    private final LocalDate dataWyjazdu;
+    private final LocalDate dataPowrotu;
+    private final BigDecimal cenaZaOsobe;
+    private final Integer dostepneMiejsca;
+    private final String statusOferty;
+
+    public OfertaWiersz(Long id, String nazwa, String krajDocelowy, LocalDate dataWyjazdu, LocalDate dataPowrotu,
+                        BigDecimal cenaZaOsobe, Integer dostepneMiejsca, String statusOferty) {
+        this.id = id;
+        this.nazwa = nazwa;
+        this.krajDocelowy = krajDocelowy;
+        this.dataWyjazdu = dataWyjazdu;
+        this.dataPowrotu = dataPowrotu;
+        this.cenaZaOsobe = cenaZaOsobe;
+        this.dostepneMiejsca = dostepneMiejsca;
+        this.statusOferty = statusOferty;
+    }
+
+    public Long getId() { return id; }
+    public String getNazwa() { return nazwa; }
+    public String getKrajDocelowy() { return krajDocelowy; }
+    public LocalDate getDataWyjazdu() { return dataWyjazdu; }
+    public LocalDate getDataPowrotu() { return dataPowrotu; }
+    public BigDecimal getCenaZaOsobe() { return cenaZaOsobe; }
+    public Integer getDostepneMiejsca() { return dostepneMiejsca; }
+    public String getStatusOferty() { return statusOferty; }
+}
@@ -1,14 +1,24 @@
 package org.tourmanager.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tourmanager.config.PamiecPodrecznaConfig;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
 @Entity
 @Table(name = "pilot")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = PamiecPodrecznaConfig.REGION_PILOTOW)
 public class Pilot {
 
+    private static final Logger log = LoggerFactory.getLogger(Pilot.class);
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -46,6 +56,14 @@ public class Pilot {
     @Column(length = 200)
     private String specjalizacje; // JSON format: ["Chorwacja", "Grecja"]
 
+    // Kompetencje sparsowane do identyfikatorów z KatalogKompetencji (leniwie, po zmianie kolumn od nowa);
+    // volatile, bo rekomendacje mogą oceniać pilotów równolegle
+    @Transient
+    private volatile BitSet bityJezykow;
+
+    @Transient
+    private volatile BitSet bitySpecjalizacji;
+
     @Column(name = "dostepnosc_od")
     private LocalDate dostepnoscOd;
 
@@ -58,6 +76,24 @@ public class Pilot {
     @OneToMany(mappedBy = "pilot", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Wycieczka> wycieczki = new ArrayList<>();
 
+    // Liczniki wycieczek utrzymywane przez Wycieczka przy każdej zmianie pilota, statusu lub terminu
+    @Column(name = "liczba_zakonczonych_wycieczek", nullable = false)
+    private long liczbaZakonczonychWycieczek;
+
+    @Column(name = "liczba_planowanych_wycieczek", nullable = false)
+    private long liczbaPlanowanychWycieczek;
+
+    // Zakończone wycieczki rozpoczęte w roku rokStatystyk
+    @Column(name = "rok_statystyk")
+    private Integer rokStatystyk;
+
+    @Column(name = "zakonczone_w_roku_statystyk", nullable = false)
+    private long zakonczoneWRokuStatystyk;
+
+    @Version
+    @Column(name = "wersja")
+    private Long wersja; // Równoległe zmiany liczników tego samego pilota - druga transakcja nie nadpisze pierwszej
+
 
     public Pilot() {}
 
@@ -79,29 +115,7 @@ public class Pilot {
      */
     public boolean dodajPilota() {
         try {
-            if (imie == null || imie.trim().isEmpty()) {
-                throw new IllegalArgumentException("Imię pilota nie może być puste");
-            }
-
-            if (nazwisko == null || nazwisko.trim().isEmpty()) {
-                throw new IllegalArgumentException("Nazwisko pilota nie może być puste");
-            }
-
-            if (telefon == null || telefon.trim().isEmpty()) {
-                throw new IllegalArgumentException("Numer telefonu jest wymagany");
-            }
-
-            if (email == null || !email.contains("@")) {
-                throw new IllegalArgumentException("Poprawny adres email jest wymagany");
-            }
-
-            if (numerLicencji == null || numerLicencji.trim().isEmpty()) {
-                throw new IllegalArgumentException("Numer licencji pilota jest wymagany");
-            }
-
-            if (dataWaznosciLicencji == null || dataWaznosciLicencji.isBefore(LocalDate.now())) {
-                throw new IllegalArgumentException("Data ważności licencji musi być z przyszłości");
-            }
+            waliduj();
 
             this.dataZatrudnienia = LocalDate.now();
             this.statusPilota = "AKTYWNY";
@@ -110,20 +124,50 @@ public class Pilot {
                 this.znajomoscJezykow = "[\"Polski\"]";
             }
 
-            System.out.println("Pilot " + imie + " " + nazwisko + " został pomyślnie zarejestrowany");
-            System.out.println("Licencja: " + numerLicencji + " (ważna do: " + dataWaznosciLicencji + ")");
+            log.info("Pilot {} {} został pomyślnie zarejestrowany", imie, nazwisko);
+            log.debug("Licencja: {} (ważna do: {})", numerLicencji, dataWaznosciLicencji);
 
             return true;
 
         } catch (IllegalArgumentException e) {
-            System.err.println("Błąd walidacji pilota: " + e.getMessage());
+            log.warn("Błąd walidacji pilota: {}", e.getMessage());
             return false;
         } catch (Exception e) {
-            System.err.println("Nieoczekiwany błąd podczas rejestracji pilota: " + e.getMessage());
+            log.error("Nieoczekiwany błąd podczas rejestracji pilota: {}", e.getMessage(), e);
             return false;
         }
     }
 
+    /**
+     * Sprawdza reguły rejestracji pilota
+     * @throws IllegalArgumentException z opisem pierwszego naruszenia
+     */
+    public void waliduj() {
+        if (imie == null || imie.trim().isEmpty()) {
+            throw new IllegalArgumentException("Imię pilota nie może być puste");
+        }
+
+        if (nazwisko == null || nazwisko.trim().isEmpty()) {
+            throw new IllegalArgumentException("Nazwisko pilota nie może być puste");
+        }
+
+        if (telefon == null || telefon.trim().isEmpty()) {
+            throw new IllegalArgumentException("Numer telefonu jest wymagany");
+        }
+
+        if (email == null || !email.contains("@")) {
+            throw new IllegalArgumentException("Poprawny adres email jest wymagany");
+        }
+
+        if (numerLicencji == null || numerLicencji.trim().isEmpty()) {
+            throw new IllegalArgumentException("Numer licencji pilota jest wymagany");
+        }
+
+        if (dataWaznosciLicencji == null || dataWaznosciLicencji.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("Data ważności licencji musi być z przyszłości");
+        }
+    }
+
     /**
      * METODA 14: Sprawdza czy pilot jest dostępny w określonym okresie
      * @param dataOd początek okresu
@@ -141,18 +185,18 @@ public class Pilot {
             }
 
             if (!"AKTYWNY".equals(statusPilota)) {
-                System.out.println("Pilot " + imie + " " + nazwisko + " nie jest aktywny");
+                log.debug("Pilot {} {} nie jest aktywny", imie, nazwisko);
                 return false;
             }
 
             if (dataWaznosciLicencji != null && dataWaznosciLicencji.isBefore(dataOd)) {
-                System.out.println("Licencja pilota " + imie + " " + nazwisko + " wygaśnie przed terminem wycieczki");
+                log.debug("Licencja pilota {} {} wygaśnie przed terminem wycieczki", imie, nazwisko);
                 return false;
             }
 
             if (dostepnoscOd != null && dostepnoscDo != null) {
                 if (dataOd.isBefore(dostepnoscOd) || dataDo.isAfter(dostepnoscDo)) {
-                    System.out.println("Pilot " + imie + " " + nazwisko + " nie jest dostępny w podanym okresie");
+                    log.debug("Pilot {} {} nie jest dostępny w podanym okresie", imie, nazwisko);
                     return false;
                 }
             }
@@ -167,7 +211,7 @@ public class Pilot {
 
                         if (wycRozpoczecie != null && wycZakonczenie != null) {
                             if (!(dataDo.isBefore(wycRozpoczecie) || dataOd.isAfter(wycZakonczenie))) {
-                                System.out.println("Pilot " + imie + " " + nazwisko + " ma konflikt terminów z inną wycieczką");
+                                log.debug("Pilot {} {} ma konflikt terminów z inną wycieczką", imie, nazwisko);
                                 return false;
                             }
                         }
@@ -175,19 +219,42 @@ public class Pilot {
                 }
             }
 
-            System.out.println("Pilot " + imie + " " + nazwisko + " jest dostępny w okresie " +
-                    dataOd + " - " + dataDo);
+            log.debug("Pilot {} {} jest dostępny w okresie {} - {}", imie, nazwisko, dataOd, dataDo);
             return true;
 
         } catch (IllegalArgumentException e) {
-            System.err.println("Błąd parametru: " + e.getMessage());
+            log.warn("Błąd parametru: {}", e.getMessage());
             return false;
         } catch (Exception e) {
-            System.err.println("Nieoczekiwany błąd podczas sprawdzania dostępności: " + e.getMessage());
+            log.error("Nieoczekiwany błąd podczas sprawdzania dostępności: {}", e.getMessage(), e);
             return false;
         }
     }
 
+    /**
+     * Sprawdza status, licencję i zadeklarowany okres dostępności pilota
+     * (bez przeglądania przypisanych wycieczek - te sprawdza IndeksDostepnosciPilotow)
+     */
+    public boolean spelniaWarunkiDostepnosci(LocalDate dataOd, LocalDate dataDo) {
+        if (dataOd == null || dataDo == null || dataOd.isAfter(dataDo)) {
+            return false;
+        }
+
+        if (!"AKTYWNY".equals(statusPilota)) {
+            return false;
+        }
+
+        if (dataWaznosciLicencji != null && dataWaznosciLicencji.isBefore(dataOd)) {
+            return false;
+        }
+
+        if (dostepnoscOd != null && dostepnoscDo != null) {
+            return !(dataOd.isBefore(dostepnoscOd) || dataDo.isAfter(dostepnoscDo));
+        }
+
+        return true;
+    }
+
     /**
      * METODA 15: Sprawdza ważność licencji i wysyła przypomnienia
      * @return true jeśli licencja jest ważna
@@ -195,7 +262,7 @@ public class Pilot {
     public boolean sprawdzWaznoscLicencji() {
         try {
             if (dataWaznosciLicencji == null) {
-                System.err.println("Brak daty ważności licencji dla pilota: " + imie + " " + nazwisko);
+                log.warn("Brak daty ważności licencji dla pilota: {} {}", imie, nazwisko);
                 return false;
             }
 
@@ -203,21 +270,20 @@ public class Pilot {
             long dniDoWygasniecia = dzisiaj.until(dataWaznosciLicencji).getDays();
 
             if (dniDoWygasniecia < 0) {
-                System.err.println("UWAGA: Licencja pilota " + imie + " " + nazwisko +
-                        " wygasła " + Math.abs(dniDoWygasniecia) + " dni temu!");
+                log.warn("UWAGA: Licencja pilota {} {} wygasła {} dni temu!",
+                        imie, nazwisko, Math.abs(dniDoWygasniecia));
                 this.statusPilota = "NIEAKTYWNY_LICENCJA";
                 return false;
             } else if (dniDoWygasniecia <= 30) {
-                System.out.println("PRZYPOMNIENIE: Licencja pilota " + imie + " " + nazwisko +
-                        " wygaśnie za " + dniDoWygasniecia + " dni");
+                log.info("PRZYPOMNIENIE: Licencja pilota {} {} wygaśnie za {} dni", imie, nazwisko, dniDoWygasniecia);
                 return true;
             } else {
-                System.out.println("Licencja pilota " + imie + " " + nazwisko + " jest ważna do " + dataWaznosciLicencji);
+                log.debug("Licencja pilota {} {} jest ważna do {}", imie, nazwisko, dataWaznosciLicencji);
                 return true;
             }
 
         } catch (Exception e) {
-            System.err.println("Błąd podczas sprawdzania ważności licencji: " + e.getMessage());
+            log.error("Błąd podczas sprawdzania ważności licencji: {}", e.getMessage(), e);
             return false;
         }
     }
@@ -237,32 +303,29 @@ public class Pilot {
                 return false;
             }
 
-            String wymaganyJezyk = pobierzWymaganyJezyk(wycieczka);
-            if (wymaganyJezyk != null && !sprawdzZnajomoscJezyka(wymaganyJezyk)) {
-                System.err.println("Pilot " + imie + " " + nazwisko +
-                        " nie zna wymaganego języka: " + wymaganyJezyk);
+            KatalogKompetencji.Wymaganie wymaganie = KatalogKompetencji.wymaganieDlaOferty(wycieczka.getOferta());
+            if (wymaganie != null && wymaganie.getJezyk() != null && !znaJezyk(wymaganie.getIdJezyka())) {
+                log.warn("Pilot {} {} nie zna wymaganego języka: {}", imie, nazwisko, wymaganie.getJezyk());
                 return false;
             }
 
-            String wymaganaSpecjalizacja = pobierzWymaganaSpecjalizacje(wycieczka);
-            if (wymaganaSpecjalizacja != null && !sprawdzSpecjalizacje(wymaganaSpecjalizacja)) {
-                System.out.println("Uwaga: Pilot " + imie + " " + nazwisko +
-                        " nie ma specjalizacji: " + wymaganaSpecjalizacja);
+            if (wymaganie != null && wymaganie.getSpecjalizacja() != null &&
+                    !maSpecjalizacje(wymaganie.getIdSpecjalizacji())) {
+                log.info("Uwaga: Pilot {} {} nie ma specjalizacji: {}", imie, nazwisko, wymaganie.getSpecjalizacja());
             }
 
             wycieczka.setPilot(this);
             this.wycieczki.add(wycieczka);
 
-            System.out.println("Pilot " + imie + " " + nazwisko +
-                    " został przydzielony do wycieczki: " + wycieczka.getId());
+            log.info("Pilot {} {} został przydzielony do wycieczki: {}", imie, nazwisko, wycieczka.getId());
 
             return true;
 
         } catch (IllegalArgumentException e) {
-            System.err.println("Błąd podczas przydzielania pilota: " + e.getMessage());
+            log.warn("Błąd podczas przydzielania pilota: {}", e.getMessage());
             return false;
         } catch (Exception e) {
-            System.err.println("Nieoczekiwany błąd podczas przydzielania pilota: " + e.getMessage());
+            log.error("Nieoczekiwany błąd podczas przydzielania pilota: {}", e.getMessage(), e);
             return false;
         }
     }
@@ -272,22 +335,44 @@ public class Pilot {
      * Sprawdza czy pilot zna określony język
      */
     public boolean sprawdzZnajomoscJezyka(String jezyk) {
-        if (znajomoscJezykow == null || jezyk == null) {
-            return false;
-        }
-
-        return znajomoscJezykow.toLowerCase().contains(jezyk.toLowerCase());
+        return jezyk != null && znaJezyk(KatalogKompetencji.znajdzId(jezyk));
     }
 
     /**
      * Sprawdza czy pilot ma określoną specjalizację
      */
     public boolean sprawdzSpecjalizacje(String specjalizacja) {
-        if (specjalizacje == null || specjalizacja == null) {
+        return specjalizacja != null && maSpecjalizacje(KatalogKompetencji.znajdzId(specjalizacja));
+    }
+
+    /**
+     * Sprawdza znajomość języka po identyfikatorze z KatalogKompetencji
+     */
+    public boolean znaJezyk(int idJezyka) {
+        if (idJezyka < 0) {
             return false;
         }
+        BitSet bity = bityJezykow;
+        if (bity == null) {
+            bity = KatalogKompetencji.parsujListe(znajomoscJezykow);
+            bityJezykow = bity;
+        }
+        return bity.get(idJezyka);
+    }
 
-        return specjalizacje.toLowerCase().contains(specjalizacja.toLowerCase());
+    /**
+     * Sprawdza specjalizację po identyfikatorze z KatalogKompetencji
+     */
+    public boolean maSpecjalizacje(int idSpecjalizacji) {
+        if (idSpecjalizacji < 0) {
+            return false;
+        }
+        BitSet bity = bitySpecjalizacji;
+        if (bity == null) {
+            bity = KatalogKompetencji.parsujListe(specjalizacje);
+            bitySpecjalizacji = bity;
+        }
+        return bity.get(idSpecjalizacji);
     }
 
     /**
@@ -300,7 +385,7 @@ public class Pilot {
             }
 
             if (sprawdzZnajomoscJezyka(nowyJezyk)) {
-                System.out.println("Pilot już zna język: " + nowyJezyk);
+                log.debug("Pilot już zna język: {}", nowyJezyk);
                 return true;
             }
 
@@ -310,12 +395,13 @@ public class Pilot {
                 znajomoscJezykow = znajomoscJezykow.substring(0, znajomoscJezykow.length() - 1) +
                         ", \"" + nowyJezyk + "\"]";
             }
+            bityJezykow = null;
 
-            System.out.println("Dodano język " + nowyJezyk + " dla pilota " + imie + " " + nazwisko);
+            log.info("Dodano język {} dla pilota {} {}", nowyJezyk, imie, nazwisko);
             return true;
 
         } catch (Exception e) {
-            System.err.println("Błąd podczas dodawania języka: " + e.getMessage());
+            log.warn("Błąd podczas dodawania języka: {}", e.getMessage());
             return false;
         }
     }
@@ -330,7 +416,7 @@ public class Pilot {
             }
 
             if (sprawdzSpecjalizacje(nowaSpecjalizacja)) {
-                System.out.println("Pilot już ma specjalizację: " + nowaSpecjalizacja);
+                log.debug("Pilot już ma specjalizację: {}", nowaSpecjalizacja);
                 return true;
             }
 
@@ -340,68 +426,52 @@ public class Pilot {
                 specjalizacje = specjalizacje.substring(0, specjalizacje.length() - 1) +
                         ", \"" + nowaSpecjalizacja + "\"]";
             }
+            bitySpecjalizacji = null;
 
-            System.out.println("Dodano specjalizację " + nowaSpecjalizacja + " dla pilota " + imie + " " + nazwisko);
+            log.info("Dodano specjalizację {} dla pilota {} {}", nowaSpecjalizacja, imie, nazwisko);
             return true;
 
         } catch (Exception e) {
-            System.err.println("Błąd podczas dodawania specjalizacji: " + e.getMessage());
+            log.warn("Błąd podczas dodawania specjalizacji: {}", e.getMessage());
             return false;
         }
     }
 
-    /**
-     * Pobiera wymagany język na podstawie destynacji wycieczki
-     */
-    private String pobierzWymaganyJezyk(Wycieczka wycieczka) {
-        if (wycieczka.getOferta() != null) {
-            String kraj = wycieczka.getOferta().getKrajDocelowy();
-            if (kraj != null) {
-                switch (kraj.toLowerCase()) {
-                    case "niemcy": return "Niemiecki";
-                    case "francja": return "Francuski";
-                    case "hiszpania": return "Hiszpański";
-                    case "włochy": return "Włoski";
-                    case "grecja": return "Grecki";
-                    case "chorwacja": return "Chorwacki";
-                    default: return "Angielski"; // Domyślny język międzynarodowy
-                }
-            }
-        }
-        return null;
-    }
-
-    /**
-     * Pobiera wymaganą specjalizację na podstawie destynacji wycieczki
-     */
-    private String pobierzWymaganaSpecjalizacje(Wycieczka wycieczka) {
-        if (wycieczka.getOferta() != null) {
-            return wycieczka.getOferta().getKrajDocelowy();
-        }
-        return null;
-    }
-
     /**
      * Oblicza liczbę wycieczek przeprowadzonych w tym roku
      */
     public long obliczLiczbeWycieczekWTymRoku() {
-        int aktualnyRok = LocalDate.now().getYear();
-
-        return wycieczki.stream()
-                .filter(w -> "ZAKONCZONA".equals(w.getStatusWycieczki()))
-                .filter(w -> w.getDataRozpoczecia().getYear() == aktualnyRok)
-                .count();
+        return rokStatystyk != null && rokStatystyk == LocalDate.now().getYear() ? zakonczoneWRokuStatystyk : 0;
     }
 
     /**
      * Sprawdza czy pilot jest doświadczony (więcej niż 20 wycieczek)
      */
     public boolean sprawdzCzyDoswiadczony() {
-        long liczbaWycieczek = wycieczki.stream()
-                .filter(w -> "ZAKONCZONA".equals(w.getStatusWycieczki()))
-                .count();
+        return liczbaZakonczonychWycieczek >= 20;
+    }
 
-        return liczbaWycieczek >= 20;
+    /**
+     * Dolicza (znak = 1) lub wycofuje (znak = -1) wycieczkę w danym stanie z liczników pilota
+     */
+    void uwzglednijWycieczke(String statusWycieczki, LocalDate dataRozpoczecia, int znak) {
+        if ("PLANOWANA".equals(statusWycieczki)) {
+            liczbaPlanowanychWycieczek = Math.max(0, liczbaPlanowanychWycieczek + znak);
+        } else if ("ZAKONCZONA".equals(statusWycieczki)) {
+            liczbaZakonczonychWycieczek = Math.max(0, liczbaZakonczonychWycieczek + znak);
+
+            if (dataRozpoczecia != null) {
+                int rok = dataRozpoczecia.getYear();
+                if (rokStatystyk == null || rok > rokStatystyk) {
+                    if (znak > 0) {
+                        rokStatystyk = rok;
+                        zakonczoneWRokuStatystyk = 1;
+                    }
+                } else if (rok == rokStatystyk) {
+                    zakonczoneWRokuStatystyk = Math.max(0, zakonczoneWRokuStatystyk + znak);
+                }
+            }
+        }
     }
 
     public Long getId() { return id; }
@@ -437,10 +507,16 @@ public class Pilot {
     }
 
     public String getZnajomoscJezykow() { return znajomoscJezykow; }
-    public void setZnajomoscJezykow(String znajomoscJezykow) { this.znajomoscJezykow = znajomoscJezykow; }
+    public void setZnajomoscJezykow(String znajomoscJezykow) {
+        this.znajomoscJezykow = znajomoscJezykow;
+        this.bityJezykow = null;
+    }
 
     public String getSpecjalizacje() { return specjalizacje; }
-    public void setSpecjalizacje(String specjalizacje) { this.specjalizacje = specjalizacje; }
+    public void setSpecjalizacje(String specjalizacje) {
+        this.specjalizacje = specjalizacje;
+        this.bitySpecjalizacji = null;
+    }
 
     public LocalDate getDostepnoscOd() { return dostepnoscOd; }
     public void setDostepnoscOd(LocalDate dostepnoscOd) { this.dostepnoscOd = dostepnoscOd; }
@@ -454,6 +530,14 @@ public class Pilot {
     public List<Wycieczka> getWycieczki() { return wycieczki; }
     public void setWycieczki(List<Wycieczka> wycieczki) { this.wycieczki = wycieczki; }
 
+    public long getLiczbaZakonczonychWycieczek() { return liczbaZakonczonychWycieczek; }
+    public long getLiczbaPlanowanychWycieczek() { return liczbaPlanowanychWycieczek; }
+    public Integer getRokStatystyk() { return rokStatystyk; }
+    public long getZakonczoneWRokuStatystyk() { return zakonczoneWRokuStatystyk; }
+
+    public Long getWersja() { return wersja; }
+    public void setWersja(Long wersja) { this.wersja = wersja; }
+
     @Override
     public String toString() {
         return imie + " " + nazwisko + " (Lic: " + numerLicencji + ")";
@@ -0,0 +1,36 @@
+package org.tourmanager.model;
+
+import java.time.LocalDate;
+
+/**
+ * Wiersz tabeli pilotów - projekcja bez encji i jej kolekcji
+ */
+public class PilotWiersz {
+
+    private final Long id;
+    private final String imie;
+    private final String nazwisko;
+    private final String telefon;
+    private final String numerLicencji;
+    private final LocalDate dataWaznosciLicencji;
+    private final String statusPilota;
+
+    public PilotWiersz(Long id, String imie, String nazwisko, String telefon, String numerLicencji,
+                       LocalDate dataWaznosciLicencji, String statusPilota) {
+        this.id = id;
+        this.imie = imie;
+        this.nazwisko = nazwisko;
+        this.telefon = telefon;
+        this.numerLicencji = numerLicencji;
+        this.dataWaznosciLicencji = dataWaznosciLicencji;
+        this.statusPilota = statusPilota;
+    }
+
+    public Long getId() { return id; }
+    public String getImie() { return imie; }
+    public String getNazwisko() { return nazwisko; }
+    public String getTelefon() { return telefon; }
+    public String getNumerLicencji() { return numerLicencji; }
+    public LocalDate getDataWaznosciLicencji() { return dataWaznosciLicencji; }
+    public String getStatusPilota() { return statusPilota; }
+}
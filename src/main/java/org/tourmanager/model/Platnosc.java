@@ -1,6 +1,8 @@
 package org.tourmanager.model;
 
 import jakarta.persistence.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
@@ -8,6 +10,8 @@ import java.time.LocalDate;
 @Table(name = "platnosc")
 public class Platnosc {
 
+    private static final Logger log = LoggerFactory.getLogger(Platnosc.class);
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -50,7 +54,7 @@ public class Platnosc {
         if ("OCZEKUJACA".equals(statusPlatnosci)) {
             this.statusPlatnosci = "ZREALIZOWANA";
             this.dataWplaty = LocalDate.now();
-            System.out.println("Płatność " + numerTransakcji + " została zrealizowana: " + kwota + " PLN");
+            log.info("Płatność {} została zrealizowana: {} PLN", numerTransakcji, kwota);
             return true;
         }
         return false;
@@ -60,7 +64,7 @@ public class Platnosc {
         if (!"ANULOWANA".equals(statusPlatnosci)) {
             this.statusPlatnosci = "ANULOWANA";
             this.opis = (opis != null ? opis + " | " : "") + "Anulowana: " + powod;
-            System.out.println("Płatność " + numerTransakcji + " została anulowana: " + powod);
+            log.info("Płatność {} została anulowana: {}", numerTransakcji, powod);
             return true;
         }
         return false;
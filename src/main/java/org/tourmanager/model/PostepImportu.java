@@ -0,0 +1,94 @@
+package org.tourmanager.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Stan importu pliku zapisywany w tej samej transakcji co każda partia rekordów,
+ * dzięki czemu przerwany import można wznowić od pierwszego niezatwierdzonego rekordu.
+ * Klucz to typ importu i ścieżka pliku; rozmiar i data modyfikacji wykrywają zmianę pliku.
+ */
+@Entity
+@Table(name = "postep_importu")
+public class PostepImportu {
+
+    @Id
+    @Column(name = "klucz", length = 500)
+    private String klucz;
+
+    @Column(name = "rozmiar_pliku", nullable = false)
+    private long rozmiarPliku;
+
+    @Column(name = "modyfikacja_pliku", nullable = false)
+    private long modyfikacjaPliku;
+
+    @Column(name = "liczba_przetworzonych", nullable = false)
+    private long liczbaPrzetworzonych;
+
+    @Column(name = "liczba_zaimportowanych", nullable = false)
+    private long liczbaZaimportowanych;
+
+    @Column(name = "liczba_bledow", nullable = false)
+    private long liczbaBledow;
+
+    @Column(name = "zakonczony", nullable = false)
+    private boolean zakonczony;
+
+    @Column(name = "data_aktualizacji")
+    private LocalDateTime dataAktualizacji;
+
+    public PostepImportu() {}
+
+    public PostepImportu(String klucz, long rozmiarPliku, long modyfikacjaPliku) {
+        this.klucz = klucz;
+        this.rozmiarPliku = rozmiarPliku;
+        this.modyfikacjaPliku = modyfikacjaPliku;
+    }
+
+    /**
+     * Czy zapisany postęp dotyczy tej samej wersji pliku
+     */
+    public boolean dotyczyPliku(long rozmiar, long modyfikacja) {
+        return rozmiarPliku == rozmiar && modyfikacjaPliku == modyfikacja;
+    }
+
+    /**
+     * Dolicza zatwierdzoną partię rekordów
+     */
+    public void dolicz(long przetworzone, long zaimportowane, long bledy) {
+        this.liczbaPrzetworzonych += przetworzone;
+        this.liczbaZaimportowanych += zaimportowane;
+        this.liczbaBledow += bledy;
+        this.dataAktualizacji = LocalDateTime.now();
+    }
+
+    public String getKlucz() { return klucz; }
+    public void setKlucz(String klucz) { this.klucz = klucz; }
+
+    public long getRozmiarPliku() { return rozmiarPliku; }
+    public void setRozmiarPliku(long rozmiarPliku) { this.rozmiarPliku = rozmiarPliku; }
+
+    public long getModyfikacjaPliku() { return modyfikacjaPliku; }
+    public void setModyfikacjaPliku(long modyfikacjaPliku) { this.modyfikacjaPliku = modyfikacjaPliku; }
+
+    public long getLiczbaPrzetworzonych() { return liczbaPrzetworzonych; }
+    public void setLiczbaPrzetworzonych(long liczbaPrzetworzonych) { this.liczbaPrzetworzonych = liczbaPrzetworzonych; }
+
+    public long getLiczbaZaimportowanych() { return liczbaZaimportowanych; }
+    public void setLiczbaZaimportowanych(long liczbaZaimportowanych) { this.liczbaZaimportowanych = liczbaZaimportowanych; }
+
+    public long getLiczbaBledow() { return liczbaBledow; }
+    public void setLiczbaBledow(long liczbaBledow) { this.liczbaBledow = liczbaBledow; }
+
+    public boolean isZakonczony() { return zakonczony; }
+    public void setZakonczony(boolean zakonczony) { this.zakonczony = zakonczony; }
+
+    public LocalDateTime getDataAktualizacji() { return dataAktualizacji; }
+    public void setDataAktualizacji(LocalDateTime dataAktualizacji) { this.dataAktualizacji = dataAktualizacji; }
+
+    @Override
+    public String toString() {
+        return "Import " + klucz + ": " + liczbaPrzetworzonych + " rekordów (" + liczbaZaimportowanych +
+                " zaimportowanych, " + liczbaBledow + " błędów)" + (zakonczony ? " - zakończony" : "");
+    }
+}
@@ -1,6 +1,8 @@
 package org.tourmanager.model;
 
 import jakarta.persistence.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
@@ -8,6 +10,8 @@ import java.time.LocalDate;
 @Table(name = "rezygnacja")
 public class Rezygnacja {
 
+    private static final Logger log = LoggerFactory.getLogger(Rezygnacja.class);
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -52,8 +56,7 @@ public class Rezygnacja {
     public boolean zatwierdzRezygnacje() {
         if ("ZAREJESTROWANA".equals(statusRezygnacji)) {
             this.statusRezygnacji = "ZATWIERDZONA";
-            System.out.println("Rezygnacja dla umowy " +
-                    (umowa != null ? umowa.getNrUmowy() : "BRAK") + " została zatwierdzona");
+            log.info("Rezygnacja dla umowy {} została zatwierdzona", (umowa != null ? umowa.getNrUmowy() : "BRAK"));
             return true;
         }
         return false;
@@ -64,7 +67,7 @@ public class Rezygnacja {
             this.statusRezygnacji = "ZWROT_ZREALIZOWANY";
             this.dataZwrotu = LocalDate.now();
             this.sposobZwrotu = sposobZwrotu;
-            System.out.println("Zwrot " + kwotaZwrotu + " PLN został zrealizowany (" + sposobZwrotu + ")");
+            log.info("Zwrot {} PLN został zrealizowany ({})", kwotaZwrotu, sposobZwrotu);
             return true;
         }
         return false;
@@ -74,8 +77,8 @@ public class Rezygnacja {
         if ("ZAREJESTROWANA".equals(statusRezygnacji)) {
             this.statusRezygnacji = "ODRZUCONA";
             this.uwagi = (uwagi != null ? uwagi + " | " : "") + "Odrzucona: " + powod;
-            System.out.println("Rezygnacja dla umowy " +
-                    (umowa != null ? umowa.getNrUmowy() : "BRAK") + " została odrzucona: " + powod);
+            log.info("Rezygnacja dla umowy {} została odrzucona: {}",
+                    (umowa != null ? umowa.getNrUmowy() : "BRAK"), powod);
             return true;
         }
         return false;
@@ -0,0 +1,67 @@
+package org.tourmanager.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+
+/**
+ * Zagregowana sprzedaż w miesiącu (umowy nieanulowane według daty zawarcia) i zaliczki
+ * wpłacone na umowy z tego miesiąca (także później anulowane). Klucz okres = rok * 100 + miesiąc.
+ */
+@Entity
+@Table(name = "sprzedaz_miesieczna")
+public class SprzedazMiesieczna {
+
+    @Id
+    @Column(name = "okres")
+    private Integer okres;
+
+    @Column(name = "rok", nullable = false)
+    private Integer rok;
+
+    @Column(name = "miesiac", nullable = false)
+    private Integer miesiac;
+
+    @Column(name = "liczba_umow", nullable = false)
+    private Long liczbaUmow;
+
+    @Column(name = "wartosc", nullable = false, precision = 14, scale = 2)
+    private BigDecimal wartosc;
+
+    @Column(name = "liczba_uczestnikow", nullable = false)
+    private Long liczbaUczestnikow;
+
+    @Column(name = "otrzymane_zaliczki", nullable = false, precision = 14, scale = 2)
+    private BigDecimal otrzymaneZaliczki;
+
+    public SprzedazMiesieczna() {}
+
+    public static int okres(int rok, int miesiac) {
+        return rok * 100 + miesiac;
+    }
+
+    public Integer getOkres() { return okres; }
+    public void setOkres(Integer okres) { this.okres = okres; }
+
+    public Integer getRok() { return rok; }
+    public void setRok(Integer rok) { this.rok = rok; }
+
+    public Integer getMiesiac() { return miesiac; }
+    public void setMiesiac(Integer miesiac) { this.miesiac = miesiac; }
+
+    public Long getLiczbaUmow() { return liczbaUmow; }
+    public void setLiczbaUmow(Long liczbaUmow) { this.liczbaUmow = liczbaUmow; }
+
+    public BigDecimal getWartosc() { return wartosc; }
+    public void setWartosc(BigDecimal wartosc) { this.wartosc = wartosc; }
+
+    public Long getLiczbaUczestnikow() { return liczbaUczestnikow; }
+    public void setLiczbaUczestnikow(Long liczbaUczestnikow) { this.liczbaUczestnikow = liczbaUczestnikow; }
+
+    public BigDecimal getOtrzymaneZaliczki() { return otrzymaneZaliczki; }
+    public void setOtrzymaneZaliczki(BigDecimal otrzymaneZaliczki) { this.otrzymaneZaliczki = otrzymaneZaliczki; }
+
+    @Override
+    public String toString() {
+        return "Sprzedaż " + rok + "-" + miesiac + ": " + liczbaUmow + " umów, " + wartosc + " PLN";
+    }
+}
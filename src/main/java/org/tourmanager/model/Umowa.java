@@ -1,8 +1,11 @@
 package org.tourmanager.model;
 
 import jakarta.persistence.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -10,6 +13,8 @@ import java.util.List;
 @Table(name = "umowa")
 public class Umowa {
 
+    private static final Logger log = LoggerFactory.getLogger(Umowa.class);
+
     @Id
     @Column(name = "nr_umowy", length = 20)
     private String nrUmowy;
@@ -49,6 +54,9 @@ public class Umowa {
     @Column(columnDefinition = "TEXT")
     private String uwagi;
 
+    @Column(name = "data_modyfikacji")
+    private LocalDateTime dataModyfikacji; // Na potrzeby przyrostowego przeliczania dostępności ofert
+
     @OneToMany(mappedBy = "umowa", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Platnosc> platnosci = new ArrayList<>();
 
@@ -64,15 +72,23 @@ public class Umowa {
         this.liczbaOsob = liczbaOsob;
         this.dataZawarcia = LocalDate.now();
         this.statusUmowy = "UTWORZONA";
-        this.nrUmowy = generujNumerUmowy();
+        // Numer nadaje UmowaService przy zawarciu umowy (NumeracjaUmowService)
     }
 
-
     /**
      * METODA 9: Tworzy nową umowę z walidacją i obliczeniem kosztów
      * @return true jeśli umowa została pomyślnie utworzona
      */
     public boolean utworzUmowe() {
+        return utworzUmowe(true);
+    }
+
+    /**
+     * Tworzy umowę z opcjonalną rezerwacją miejsc w obiekcie oferty
+     * @param rezerwujWOfercie false gdy miejsca zostały już atomowo zarezerwowane w bazie danych
+     * @return true jeśli umowa została pomyślnie utworzona
+     */
+    public boolean utworzUmowe(boolean rezerwujWOfercie) {
         try {
             if (klient == null) {
                 throw new IllegalArgumentException("Klient musi być określony");
@@ -86,10 +102,12 @@ public class Umowa {
                 throw new IllegalArgumentException("Liczba osób musi być większa od zera");
             }
 
-            int dostepneMiejsca = oferta.sprawdzDostepnosc();
-            if (dostepneMiejsca < liczbaOsob) {
-                throw new IllegalStateException("Brak wystarczającej liczby miejsc. Dostępne: " +
-                        dostepneMiejsca + ", wymagane: " + liczbaOsob);
+            if (rezerwujWOfercie) {
+                int dostepneMiejsca = oferta.getDostepneMiejsca() != null ? oferta.getDostepneMiejsca() : 0;
+                if (dostepneMiejsca < liczbaOsob) {
+                    throw new IllegalStateException("Brak wystarczającej liczby miejsc. Dostępne: " +
+                            dostepneMiejsca + ", wymagane: " + liczbaOsob);
+                }
             }
 
             this.cenaCalkowita = oferta.obliczCeneCalkowita(liczbaOsob);
@@ -101,55 +119,42 @@ public class Umowa {
             this.terminDoplaty = oferta.getDataWyjazdu().minusDays(14);
 
             if (this.nrUmowy == null) {
-                this.nrUmowy = generujNumerUmowy();
+                throw new IllegalStateException("Umowa nie ma nadanego numeru");
             }
 
             this.dataZawarcia = LocalDate.now();
 
-            if (!oferta.rezerwujMiejsca(liczbaOsob)) {
+            if (rezerwujWOfercie && !oferta.rezerwujMiejsca(liczbaOsob)) {
                 throw new IllegalStateException("Nie udało się zarezerwować miejsc");
             }
 
             this.statusUmowy = "PODPISANA";
 
-            System.out.println("Umowa " + nrUmowy + " została pomyślnie utworzona");
-            System.out.println("Klient: " + klient.getImie() + " " + klient.getNazwisko());
-            System.out.println("Oferta: " + oferta.getNazwa());
-            System.out.println("Cena całkowita: " + cenaCalkowita + " PLN");
-            System.out.println("Zaliczka: " + zaliczka + " PLN");
+            log.info("Umowa {} została pomyślnie utworzona", nrUmowy);
+            if (log.isDebugEnabled()) {
+                // oferta może być jeszcze niezaładowanym proxy - bez debugowania nie sięgamy do niej
+                log.debug("Klient: {} {}, oferta: {}, cena całkowita: {} PLN, zaliczka: {} PLN",
+                        klient.getImie(), klient.getNazwisko(), oferta.getNazwa(), cenaCalkowita, zaliczka);
+            }
 
             return true;
 
         } catch (IllegalArgumentException | IllegalStateException e) {
-            System.err.println("Błąd podczas tworzenia umowy: " + e.getMessage());
+            log.warn("Błąd podczas tworzenia umowy: {}", e.getMessage());
             return false;
         } catch (Exception e) {
-            System.err.println("Nieoczekiwany błąd podczas tworzenia umowy: " + e.getMessage());
+            log.error("Nieoczekiwany błąd podczas tworzenia umowy: {}", e.getMessage(), e);
             return false;
         }
     }
 
     /**
-     * METODA 10: Generuje unikalny numer umowy w formacie UM/RRRR/NNNN
-     * @return wygenerowany numer umowy
+     * METODA 10: Formatuje numer umowy UM/RRRR/NNNN z kolejnego numeru w roku
+     * @param kolejnyNumer numer przydzielony przez NumeracjaUmowService
+     * @return numer umowy
      */
-    public String generujNumerUmowy() {
-        try {
-            int aktualnyRok = LocalDate.now().getYear();
-            int kolejnyNumer = pobierzKolejnyNumerUmowy(aktualnyRok);
-            String numerFormatowany = String.format("%04d", kolejnyNumer);
-            String numerUmowy = "UM/" + aktualnyRok + "/" + numerFormatowany;
-
-            System.out.println("Wygenerowano numer umowy: " + numerUmowy);
-            return numerUmowy;
-
-        } catch (Exception e) {
-            System.err.println("Błąd podczas generowania numeru umowy: " + e.getMessage());
-            long timestamp = System.currentTimeMillis() % 10000;
-            String fallbackNumer = "UM/" + LocalDate.now().getYear() + "/" + String.format("%04d", timestamp);
-            System.out.println("Użyto numeru fallback: " + fallbackNumer);
-            return fallbackNumer;
-        }
+    public static String generujNumerUmowy(int rok, long kolejnyNumer) {
+        return "UM/" + rok + "/" + String.format("%04d", kolejnyNumer);
     }
 
     /**
@@ -174,8 +179,7 @@ public class Umowa {
 
             BigDecimal roznica = kwotaZaliczki.subtract(zaliczka).abs();
             if (roznica.compareTo(new BigDecimal("10.00")) > 0) {
-                System.out.println("Uwaga: Wpłacona zaliczka (" + kwotaZaliczki +
-                        " PLN) różni się od wymaganej (" + zaliczka + " PLN)");
+                log.warn("Uwaga: Wpłacona zaliczka ({} PLN) różni się od wymaganej ({} PLN)", kwotaZaliczki, zaliczka);
             }
 
             Platnosc platnosc = new Platnosc();
@@ -194,20 +198,20 @@ public class Umowa {
             if (kwotaZaliczki.compareTo(cenaCalkowita) >= 0) {
                 this.statusUmowy = "OPLACONA";
                 this.pozostalaDoplata = BigDecimal.ZERO;
-                System.out.println("Umowa została w pełni opłacona");
+                log.info("Umowa została w pełni opłacona");
             } else {
                 this.statusUmowy = "ZALICZKA_WPLACONA";
-                System.out.println("Zaliczka wpłacona. Pozostała dopłata: " + pozostalaDoplata + " PLN");
+                log.info("Zaliczka wpłacona. Pozostała dopłata: {} PLN", pozostalaDoplata);
             }
 
-            System.out.println("Zarejestrowano zaliczkę: " + kwotaZaliczki + " PLN (" + metodaPlatnosci + ")");
+            log.info("Zarejestrowano zaliczkę: {} PLN ({})", kwotaZaliczki, metodaPlatnosci);
             return true;
 
         } catch (IllegalArgumentException | IllegalStateException e) {
-            System.err.println("Błąd podczas rejestracji zaliczki: " + e.getMessage());
+            log.warn("Błąd podczas rejestracji zaliczki: {}", e.getMessage());
             return false;
         } catch (Exception e) {
-            System.err.println("Nieoczekiwany błąd podczas rejestracji zaliczki: " + e.getMessage());
+            log.error("Nieoczekiwany błąd podczas rejestracji zaliczki: {}", e.getMessage(), e);
             return false;
         }
     }
@@ -218,6 +222,15 @@ public class Umowa {
      * @return true jeśli anulowanie się powiodło
      */
     public boolean anulujUmowe(String powodRezygnacji) {
+        return anulujUmowe(powodRezygnacji, true);
+    }
+
+    /**
+     * Anuluje umowę z opcjonalnym zwolnieniem miejsc w obiekcie oferty
+     * @param zwolnijWOfercie false gdy miejsca są zwalniane atomowo w bazie danych
+     * @return true jeśli anulowanie się powiodło
+     */
+    public boolean anulujUmowe(String powodRezygnacji, boolean zwolnijWOfercie) {
         try {
             if ("ANULOWANA".equals(statusUmowy)) {
                 throw new IllegalStateException("Umowa została już anulowana");
@@ -240,22 +253,24 @@ public class Umowa {
 
             this.rezygnacja = nowaRezygnacja;
 
-            oferta.setDostepneMiejsca(oferta.getDostepneMiejsca() + liczbaOsob);
+            if (zwolnijWOfercie) {
+                oferta.setDostepneMiejsca(oferta.getDostepneMiejsca() + liczbaOsob);
+            }
 
             this.statusUmowy = "ANULOWANA";
 
-            System.out.println("Umowa " + nrUmowy + " została anulowana");
-            System.out.println("Powód: " + powodRezygnacji);
-            System.out.println("Koszt rezygnacji: " + kosztRezygnacji + " PLN");
-            System.out.println("Kwota zwrotu: " + kwotaZwrotu + " PLN");
+            log.info("Umowa {} została anulowana", nrUmowy);
+            log.info("Powód: {}", powodRezygnacji);
+            log.debug("Koszt rezygnacji: {} PLN", kosztRezygnacji);
+            log.debug("Kwota zwrotu: {} PLN", kwotaZwrotu);
 
             return true;
 
         } catch (IllegalStateException e) {
-            System.err.println("Błąd podczas anulowania umowy: " + e.getMessage());
+            log.warn("Błąd podczas anulowania umowy: {}", e.getMessage());
             return false;
         } catch (Exception e) {
-            System.err.println("Nieoczekiwany błąd podczas anulowania umowy: " + e.getMessage());
+            log.error("Nieoczekiwany błąd podczas anulowania umowy: {}", e.getMessage(), e);
             return false;
         }
     }
@@ -296,16 +311,19 @@ public class Umowa {
         return zwrot.compareTo(BigDecimal.ZERO) > 0 ? zwrot : BigDecimal.ZERO;
     }
 
+    @PrePersist
+    @PreUpdate
+    protected void oznaczModyfikacje() {
+        this.dataModyfikacji = LocalDateTime.now();
+    }
+
     /**
-     * Symulacja pobierania kolejnego numeru umowy z bazy danych
+     * Sprawdza czy umowa w obecnym statusie blokuje miejsca w ofercie
      */
-    private int pobierzKolejnyNumerUmowy(int rok) {
-        // W rzeczywistej aplikacji byłoby to zapytanie SQL:
-        // SELECT COALESCE(MAX(CAST(SUBSTRING(nr_umowy, 9) AS INTEGER)), 0) + 1
-        // FROM umowa WHERE nr_umowy LIKE 'UM/rok/%'
-
-        // Symulacja - zwracanie losowego numeru dla demonstracji
-        return (int) (Math.random() * 9999) + 1;
+    public boolean blokujeMiejsca() {
+        return "PODPISANA".equals(statusUmowy) ||
+                "OPLACONA".equals(statusUmowy) ||
+                "ZALICZKA_WPLACONA".equals(statusUmowy);
     }
 
     public String getNrUmowy() { return nrUmowy; }
@@ -344,6 +362,9 @@ public class Umowa {
     public String getUwagi() { return uwagi; }
     public void setUwagi(String uwagi) { this.uwagi = uwagi; }
 
+    public LocalDateTime getDataModyfikacji() { return dataModyfikacji; }
+    public void setDataModyfikacji(LocalDateTime dataModyfikacji) { this.dataModyfikacji = dataModyfikacji; }
+
     public List<Platnosc> getPlatnosci() { return platnosci; }
     public void setPlatnosci(List<Platnosc> platnosci) { this.platnosci = platnosci; }
 
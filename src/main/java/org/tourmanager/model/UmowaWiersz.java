@@ -0,0 +1,40 @@
+package org.tourmanager.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Wiersz tabeli umów - projekcja z danymi klienta i oferty, bez ładowania encji
+ */
+public class UmowaWiersz {
+
+    private final String nrUmowy;
+    private final LocalDate dataZawarcia;
+    private final String klient;
+    private final String oferta;
+    private final String krajDocelowy;
+    private final Integer liczbaOsob;
+    private final BigDecimal cenaCalkowita;
+    private final String statusUmowy;
+
+    public UmowaWiersz(String nrUmowy, LocalDate dataZawarcia, String klient, String oferta, String krajDocelowy,
+                       Integer liczbaOsob, BigDecimal cenaCalkowita, String statusUmowy) {
+        this.nrUmowy = nrUmowy;
+        this.dataZawarcia = dataZawarcia;
+        this.klient = klient;
+        this.oferta = oferta;
+        this.krajDocelowy = krajDocelowy;
+        this.liczbaOsob = liczbaOsob;
+        this.cenaCalkowita = cenaCalkowita;
+        this.statusUmowy = statusUmowy;
+    }
+
+    public String getNrUmowy() { return nrUmowy; }
+    public LocalDate getDataZawarcia() { return dataZawarcia; }
+    public String getKlient() { return klient; }
+    public String getOferta() { return oferta; }
+    public String getKrajDocelowy() { return krajDocelowy; }
+    public Integer getLiczbaOsob() { return liczbaOsob; }
+    public BigDecimal getCenaCalkowita() { return cenaCalkowita; }
+    public String getStatusUmowy() { return statusUmowy; }
+}
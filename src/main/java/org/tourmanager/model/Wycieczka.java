@@ -1,12 +1,20 @@
 package org.tourmanager.model;
 
 import jakarta.persistence.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "wycieczka")
+@Table(name = "wycieczka", indexes = {
+        // Kolizje terminów hotelu: zejście po hotel_id i zakres po dacie rozpoczęcia, reszta warunku z indeksu
+        @Index(name = "idx_wycieczka_hotel_terminy",
+                columnList = "hotel_id, data_rozpoczecia, data_zakonczenia, status_wycieczki")
+})
 public class Wycieczka {
 
+    private static final Logger log = LoggerFactory.getLogger(Wycieczka.class);
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -50,8 +58,8 @@ public class Wycieczka {
 
     public boolean rozpocznijWycieczke() {
         if ("PLANOWANA".equals(statusWycieczki)) {
-            this.statusWycieczki = "W_TRAKCIE";
-            System.out.println("Wycieczka " + id + " została rozpoczęta");
+            setStatusWycieczki("W_TRAKCIE");
+            log.info("Wycieczka {} została rozpoczęta", id);
             return true;
         }
         return false;
@@ -59,13 +67,23 @@ public class Wycieczka {
 
     public boolean zakonczWycieczke() {
         if ("W_TRAKCIE".equals(statusWycieczki)) {
-            this.statusWycieczki = "ZAKONCZONA";
-            System.out.println("Wycieczka " + id + " została zakończona");
+            setStatusWycieczki("ZAKONCZONA");
+            log.info("Wycieczka {} została zakończona", id);
             return true;
         }
         return false;
     }
 
+    /**
+     * Wycofuje usuwaną wycieczkę z liczników pilota
+     */
+    @PreRemove
+    void przedUsunieciem() {
+        if (pilot != null) {
+            pilot.uwzglednijWycieczke(statusWycieczki, dataRozpoczecia, -1);
+        }
+    }
+
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
 
@@ -73,13 +91,27 @@ public class Wycieczka {
     public void setOferta(OfertaTurystyczna oferta) { this.oferta = oferta; }
 
     public Pilot getPilot() { return pilot; }
-    public void setPilot(Pilot pilot) { this.pilot = pilot; }
+    public void setPilot(Pilot pilot) {
+        if (this.pilot != null) {
+            this.pilot.uwzglednijWycieczke(statusWycieczki, dataRozpoczecia, -1);
+        }
+        this.pilot = pilot;
+        if (pilot != null) {
+            pilot.uwzglednijWycieczke(statusWycieczki, dataRozpoczecia, 1);
+        }
+    }
 
     public Hotel getHotel() { return hotel; }
     public void setHotel(Hotel hotel) { this.hotel = hotel; }
 
     public LocalDate getDataRozpoczecia() { return dataRozpoczecia; }
-    public void setDataRozpoczecia(LocalDate dataRozpoczecia) { this.dataRozpoczecia = dataRozpoczecia; }
+    public void setDataRozpoczecia(LocalDate dataRozpoczecia) {
+        if (pilot != null) {
+            pilot.uwzglednijWycieczke(statusWycieczki, this.dataRozpoczecia, -1);
+            pilot.uwzglednijWycieczke(statusWycieczki, dataRozpoczecia, 1);
+        }
+        this.dataRozpoczecia = dataRozpoczecia;
+    }
 
     public LocalDate getDataZakonczenia() { return dataZakonczenia; }
     public void setDataZakonczenia(LocalDate dataZakonczenia) { this.dataZakonczenia = dataZakonczenia; }
@@ -88,7 +120,13 @@ public class Wycieczka {
     public void setLiczbaUczestnikow(Integer liczbaUczestnikow) { this.liczbaUczestnikow = liczbaUczestnikow; }
 
     public String getStatusWycieczki() { return statusWycieczki; }
-    public void setStatusWycieczki(String statusWycieczki) { this.statusWycieczki = statusWycieczki; }
+    public void setStatusWycieczki(String statusWycieczki) {
+        if (pilot != null) {
+            pilot.uwzglednijWycieczke(this.statusWycieczki, dataRozpoczecia, -1);
+            pilot.uwzglednijWycieczke(statusWycieczki, dataRozpoczecia, 1);
+        }
+        this.statusWycieczki = statusWycieczki;
+    }
 
     public String getUwagi() { return uwagi; }
     public void setUwagi(String uwagi) { this.uwagi = uwagi; }
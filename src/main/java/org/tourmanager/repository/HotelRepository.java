@@ -1,17 +1,31 @@
 package org.tourmanager.repository;
 
+import org.tourmanager.config.PamiecPodrecznaConfig;
 import org.tourmanager.model.Hotel;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import jakarta.persistence.QueryHint;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface HotelRepository extends JpaRepository<Hotel, Long> {
 
+    /**
+     * Wszystkie hotele (wynik w pamięci podręcznej zapytań)
+     */
+    @Override
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = PamiecPodrecznaConfig.REGION_ZAPYTAN_HOTELI)})
+    List<Hotel> findAll();
+
     /**
      * Znajdź hotele według kraju
      */
@@ -28,16 +42,12 @@ public interface HotelRepository extends JpaRepository<Hotel, Long> {
     List<Hotel> findByKategoria(Integer kategoria);
 
     /**
-     * Znajdź hotele według statusu współpracy
+     * Znajdź hotele według statusu współpracy (wynik w pamięci podręcznej zapytań)
      */
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = PamiecPodrecznaConfig.REGION_ZAPYTAN_HOTELI)})
     List<Hotel> findByStatusWspolpracy(String status);
 
-    /**
-     * Znajdź hotele według nazwy (wyszukiwanie tekstowe)
-     */
-    @Query("SELECT h FROM Hotel h WHERE LOWER(h.nazwa) LIKE LOWER(CONCAT('%', :nazwa, '%'))")
-    List<Hotel> findByNazwaContaining(@Param("nazwa") String nazwa);
-
     /**
      * Znajdź hotele z wysokimi ocenami
      */
@@ -55,8 +65,10 @@ public interface HotelRepository extends JpaRepository<Hotel, Long> {
     List<Hotel> findByMiastoAndKategoria(String miasto, Integer kategoria);
 
     /**
-     * Znajdź najlepsze hotele (kategoria 4-5 gwiazdek, ocena powyżej 8.0)
+     * Znajdź najlepsze hotele (kategoria 4-5 gwiazdek, ocena powyżej 8.0), wynik w pamięci podręcznej zapytań
      */
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = PamiecPodrecznaConfig.REGION_ZAPYTAN_HOTELI)})
     @Query("SELECT h FROM Hotel h WHERE h.kategoria >= 4 AND h.ocenaJakosci >= 8.0 " +
             "AND h.statusWspolpracy = 'AKTYWNA' " +
             "ORDER BY h.ocenaJakosci DESC, h.kategoria DESC")
@@ -69,14 +81,13 @@ public interface HotelRepository extends JpaRepository<Hotel, Long> {
     List<Hotel> findStalychPartnerow(@Param("minLiczbaWycieczek") int minLiczbaWycieczek);
 
     /**
-     * Znajdź hotele dostępne w określonym okresie
+     * Znajdź hotele dostępne w określonym okresie. Wycieczka koliduje, gdy zaczyna się nie później
+     * niż dataDo i kończy nie wcześniej niż dataOd - jeden warunek zakresu na idx_wycieczka_hotel_terminy.
      */
     @Query("SELECT h FROM Hotel h WHERE h.statusWspolpracy = 'AKTYWNA' AND " +
             "NOT EXISTS (SELECT w FROM Wycieczka w WHERE w.hotel = h AND " +
-            "((w.dataRozpoczecia <= :dataOd AND w.dataZakonczenia >= :dataOd) OR " +
-            "(w.dataRozpoczecia <= :dataDo AND w.dataZakonczenia >= :dataDo) OR " +
-            "(w.dataRozpoczecia >= :dataOd AND w.dataZakonczenia <= :dataDo)) AND " +
-            "(w.statusWycieczki = 'PLANOWANA' OR w.statusWycieczki = 'W_TRAKCIE'))")
+            "w.dataRozpoczecia <= :dataDo AND w.dataZakonczenia >= :dataOd AND " +
+            "w.statusWycieczki IN ('PLANOWANA', 'W_TRAKCIE'))")
     List<Hotel> findDostepneHotele(@Param("dataOd") LocalDate dataOd, @Param("dataDo") LocalDate dataDo);
 
     /**
@@ -109,12 +120,6 @@ public interface HotelRepository extends JpaRepository<Hotel, Long> {
             "AND h.statusWspolpracy = 'AKTYWNA' ORDER BY h.ocenaJakosci ASC")
     List<Hotel> findHoteleZNiskimiOcenami(@Param("maxOcena") BigDecimal maxOcena);
 
-    /**
-     * Znajdź hotele według osób kontaktowych
-     */
-    @Query("SELECT h FROM Hotel h WHERE LOWER(h.osobaKontaktowa) LIKE LOWER(CONCAT('%', :osoba, '%'))")
-    List<Hotel> findByOsobaKontaktowa(@Param("osoba") String osoba);
-
     /**
      * Znajdź hotele według numeru telefonu
      */
@@ -162,12 +167,6 @@ public interface HotelRepository extends JpaRepository<Hotel, Long> {
     @Query("SELECT h FROM Hotel h WHERE SIZE(h.wycieczki) = 0 AND h.statusWspolpracy = 'AKTYWNA'")
     List<Hotel> findHoteleBezWycieczek();
 
-    /**
-     * Znajdź hotele według warunków współpracy (wyszukiwanie w tekście)
-     */
-    @Query("SELECT h FROM Hotel h WHERE LOWER(h.warunkiWspolpracy) LIKE LOWER(CONCAT('%', :warunki, '%'))")
-    List<Hotel> findByWarunkiWspolpracy(@Param("warunki") String warunki);
-
     /**
      * Znajdź hotele z aktualnymi wycieczkami
      */
@@ -175,4 +174,48 @@ public interface HotelRepository extends JpaRepository<Hotel, Long> {
             "WHERE w.statusWycieczki = 'W_TRAKCIE' OR " +
             "(w.statusWycieczki = 'PLANOWANA' AND w.dataRozpoczecia <= :dataGraniczna)")
     List<Hotel> findHoteleZAktualnumiWycieczkami(@Param("dataGraniczna") LocalDate dataGraniczna);
-}
\ No newline at end of file
+
+    /**
+     * Pola tekstowe hoteli do zbudowania indeksu tekstowego (id, nazwa, osoba kontaktowa, warunki współpracy)
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT h.id, h.nazwa, h.osobaKontaktowa, h.warunkiWspolpracy FROM Hotel h ORDER BY h.id")
+    Stream<Object[]> streamTekstyDoIndeksu();
+
+    /**
+     * Atomowo dolicza ocenę do sumy i liczby ocen hotelu i wyznacza nową średnią (wyrażenia po prawej
+     * stronie SET widzą wartości sprzed zmiany). Zwraca liczbę zmienionych wierszy (0 lub 1).
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE VERSIONED Hotel h SET h.sumaOcen = h.sumaOcen + :ocena, h.liczbaOcen = h.liczbaOcen + 1, " +
+            "h.ocenaJakosci = ROUND(CAST(h.sumaOcen + :ocena AS BigDecimal) / (h.liczbaOcen + 1), 2) " +
+            "WHERE h.id = :id")
+    int doliczOcene(@Param("id") Long id, @Param("ocena") int ocena);
+
+    /**
+     * Atomowo wycofuje ocenę z sumy i liczby ocen hotelu (bez ocen - ocena domyślna 5.00)
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE VERSIONED Hotel h SET h.sumaOcen = h.sumaOcen - :ocena, h.liczbaOcen = h.liczbaOcen - 1, " +
+            "h.ocenaJakosci = CASE WHEN h.liczbaOcen <= 1 THEN 5.00 " +
+            "ELSE ROUND(CAST(h.sumaOcen - :ocena AS BigDecimal) / (h.liczbaOcen - 1), 2) END " +
+            "WHERE h.id = :id AND h.liczbaOcen > 0")
+    int odliczOcene(@Param("id") Long id, @Param("ocena") int ocena);
+
+    /**
+     * Odbudowuje sumy i liczby ocen wszystkich hoteli z tabeli ocen (naprawa po zmianach poza aplikacją)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE VERSIONED Hotel h SET " +
+            "h.sumaOcen = COALESCE((SELECT SUM(o.ocena) FROM OcenaHotelu o WHERE o.hotel = h), 0), " +
+            "h.liczbaOcen = (SELECT COUNT(o) FROM OcenaHotelu o WHERE o.hotel = h)")
+    int przeliczSumyOcen();
+
+    /**
+     * Wyznacza średnie oceny wszystkich hoteli z sum i liczb ocen (po przeliczSumyOcen)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE VERSIONED Hotel h SET h.ocenaJakosci = CASE WHEN h.liczbaOcen = 0 THEN 5.00 " +
+            "ELSE ROUND(CAST(h.sumaOcen AS BigDecimal) / h.liczbaOcen, 2) END")
+    int przeliczSrednieOcen();
+}
@@ -1,12 +1,17 @@
 package org.tourmanager.repository;
 
 import org.tourmanager.model.Klient;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import jakarta.persistence.QueryHint;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface KlientRepository extends JpaRepository<Klient, Long> {
@@ -36,16 +41,10 @@ public interface KlientRepository extends JpaRepository<Klient, Long> {
      */
     List<Klient> findByStatusKlienta(String status);
 
-    /**
-     * Wyszukiwanie klientów według fragmentu nazwiska
-     */
-    @Query("SELECT k FROM Klient k WHERE LOWER(k.nazwisko) LIKE LOWER(CONCAT('%', :nazwisko, '%'))")
-    List<Klient> findByNazwiskoContaining(@Param("nazwisko") String nazwisko);
-
     /**
      * Znajdź klientów zarejestrowanych w określonym okresie
      */
-    List<Klient> findByDataRejestracijaBetween(LocalDate dataOd, LocalDate dataDo);
+    List<Klient> findByDataRejestracjiBetween(LocalDate dataOd, LocalDate dataDo);
 
     /**
      * Znajdź klientów VIP (z wieloma wyjazdami)
@@ -66,4 +65,40 @@ public interface KlientRepository extends JpaRepository<Klient, Long> {
             "FROM Klient k WHERE k.adres LIKE '%,%' " +
             "GROUP BY SUBSTRING(k.adres, LOCATE(',', k.adres) + 1)")
     List<Object[]> findStatystykiWgMiast();
-}
\ No newline at end of file
+
+    /**
+     * Klienci o najwyższej łącznej wartości umów (id, imię, nazwisko, wartość, liczba umów) - sortowanie i limit w bazie
+     */
+    @Query("SELECT k.id, k.imie, k.nazwisko, " +
+            "SUM(CASE WHEN u.statusUmowy = 'ANULOWANA' THEN 0 ELSE COALESCE(u.cenaCalkowita, 0) END), COUNT(u) " +
+            "FROM Klient k JOIN k.umowy u " +
+            "GROUP BY k.id, k.imie, k.nazwisko " +
+            "HAVING SUM(CASE WHEN u.statusUmowy = 'ANULOWANA' THEN 0 ELSE COALESCE(u.cenaCalkowita, 0) END) > 0 " +
+            "ORDER BY SUM(CASE WHEN u.statusUmowy = 'ANULOWANA' THEN 0 ELSE COALESCE(u.cenaCalkowita, 0) END) DESC, k.id ASC")
+    List<Object[]> findTopKlientow(Pageable pageable);
+
+    /**
+     * Łączna wartość i liczba umów każdego klienta strumieniowo, bez sortowania (id, imię, nazwisko, wartość, liczba umów)
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT k.id, k.imie, k.nazwisko, " +
+            "SUM(CASE WHEN u.statusUmowy = 'ANULOWANA' THEN 0 ELSE COALESCE(u.cenaCalkowita, 0) END), COUNT(u) " +
+            "FROM Klient k JOIN k.umowy u " +
+            "GROUP BY k.id, k.imie, k.nazwisko")
+    Stream<Object[]> streamWartosciUmowKlientow();
+
+    /**
+     * Wszyscy klienci do eksportu jako wiersze skalarne czytane kursorem (kolejność kolumn jak w EksportDanychService)
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT k.id, k.imie, k.nazwisko, k.pesel, k.numerDowodu, k.telefon, k.email, k.adres, " +
+            "k.dataUrodzenia, k.dataRejestracji, k.statusKlienta FROM Klient k ORDER BY k.id")
+    Stream<Object[]> streamDoEksportu();
+
+    /**
+     * Nazwiska klientów do zbudowania indeksu tekstowego (id, nazwisko)
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT k.id, k.nazwisko FROM Klient k ORDER BY k.id")
+    Stream<Object[]> streamTekstyDoIndeksu();
+}
@@ -0,0 +1,44 @@
+package org.tourmanager.repository;
+
+import org.tourmanager.model.LicznikUmow;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface LicznikUmowRepository extends JpaRepository<LicznikUmow, Integer> {
+
+    /**
+     * Przesuwa licznik roku o rozmiar bloku (blokuje wiersz do końca transakcji)
+     */
+    @Modifying
+    @Query("UPDATE LicznikUmow l SET l.ostatniNumer = l.ostatniNumer + :rozmiarBloku WHERE l.rok = :rok")
+    int zwiekszLicznik(@Param("rok") int rok, @Param("rozmiarBloku") long rozmiarBloku);
+
+    /**
+     * Zakłada licznik dla nowego roku (naruszenie klucza gdy licznik już istnieje).
+     * Tabela podana jawnie, aby natywny zapis nie czyścił całej pamięci podręcznej drugiego poziomu.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "licznik_umow"))
+    @Query(value = "INSERT INTO licznik_umow (rok, ostatni_numer) VALUES (:rok, :ostatniNumer)", nativeQuery = true)
+    int utworzLicznik(@Param("rok") int rok, @Param("ostatniNumer") long ostatniNumer);
+
+    /**
+     * Pobierz ostatni przydzielony numer w roku
+     */
+    @Query("SELECT l.ostatniNumer FROM LicznikUmow l WHERE l.rok = :rok")
+    Long findOstatniNumer(@Param("rok") int rok);
+
+    /**
+     * Podnosi licznik roku do podanego numeru (np. po imporcie umów z zewnętrznego systemu)
+     */
+    @Modifying
+    @Query("UPDATE LicznikUmow l SET l.ostatniNumer = :numer WHERE l.rok = :rok AND l.ostatniNumer < :numer")
+    int podniesLicznik(@Param("rok") int rok, @Param("numer") long numer);
+}
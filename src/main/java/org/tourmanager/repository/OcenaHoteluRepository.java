@@ -0,0 +1,19 @@
+package org.tourmanager.repository;
+
+import org.tourmanager.model.OcenaHotelu;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OcenaHoteluRepository extends JpaRepository<OcenaHotelu, Long> {
+
+    /**
+     * Usuwa ocenę - zwraca liczbę usuniętych wierszy (0, gdy ocenę usunięto już równolegle)
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM OcenaHotelu o WHERE o.id = :id")
+    int usunOcene(@Param("id") Long id);
+}
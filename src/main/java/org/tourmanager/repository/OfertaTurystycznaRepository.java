@@ -1,15 +1,25 @@
 package org.tourmanager.repository;
 
 import org.tourmanager.model.OfertaTurystyczna;
+import org.tourmanager.model.OfertaWiersz;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import jakarta.persistence.QueryHint;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface OfertaTurystycznaRepository extends JpaRepository<OfertaTurystyczna, Long> {
+public interface OfertaTurystycznaRepository extends JpaRepository<OfertaTurystyczna, Long>,
+        WyszukiwanieOfertRepository {
 
     /**
      * Znajdź oferty według statusu
@@ -32,35 +42,12 @@ public interface OfertaTurystycznaRepository extends JpaRepository<OfertaTurysty
     @Query("SELECT o FROM OfertaTurystyczna o WHERE o.dataWyjazdu >= :dataOd AND o.dataPowrotu <= :dataDo")
     List<OfertaTurystyczna> findByDataWyjazdoBetween(@Param("dataOd") LocalDate dataOd, @Param("dataDo") LocalDate dataDo);
 
-    /**
-     * Znajdź oferty według kompleksowych kryteriów
-     */
-    @Query("SELECT o FROM OfertaTurystyczna o WHERE " +
-            "(:kraj IS NULL OR o.krajDocelowy = :kraj) AND " +
-            "(:dataOd IS NULL OR o.dataWyjazdu >= :dataOd) AND " +
-            "(:dataDo IS NULL OR o.dataPowrotu <= :dataDo) AND " +
-            "(:typ IS NULL OR o.typWycieczki = :typ) AND " +
-            "o.statusOferty = 'AKTYWNA' AND " +
-            "o.dostepneMiejsca > 0")
-    List<OfertaTurystyczna> findByKryteria(
-            @Param("kraj") String kraj,
-            @Param("dataOd") LocalDate dataOd,
-            @Param("dataDo") LocalDate dataDo,
-            @Param("typ") String typ
-    );
-
     /**
      * Znajdź oferty z dostępnymi miejscami
      */
     @Query("SELECT o FROM OfertaTurystyczna o WHERE o.dostepneMiejsca > 0 AND o.statusOferty = 'AKTYWNA'")
     List<OfertaTurystyczna> findDostepneOferty();
 
-    /**
-     * Znajdź oferty według nazwy (wyszukiwanie tekstowe)
-     */
-    @Query("SELECT o FROM OfertaTurystyczna o WHERE LOWER(o.nazwa) LIKE LOWER(CONCAT('%', :nazwa, '%'))")
-    List<OfertaTurystyczna> findByNazwaContaining(@Param("nazwa") String nazwa);
-
     /**
      * Znajdź oferty w określonym przedziale cenowym
      */
@@ -75,4 +62,126 @@ public interface OfertaTurystycznaRepository extends JpaRepository<OfertaTurysty
             "LEFT JOIN o.umowy u WHERE u.statusUmowy != 'ANULOWANA' " +
             "GROUP BY o.krajDocelowy ORDER BY liczbaUmow DESC")
     List<Object[]> findPopularneKierunki();
-}
\ No newline at end of file
+
+    /**
+     * Pobierz licznik dostępnych miejsc oferty (bez ładowania umów)
+     */
+    @Query("SELECT o.dostepneMiejsca FROM OfertaTurystyczna o WHERE o.id = :id")
+    Integer findDostepneMiejscaById(@Param("id") Long id);
+
+    /**
+     * Atomowo rezerwuje miejsca - aktualizuje wiersz tylko gdy oferta jest aktywna
+     * i ma wystarczającą liczbę wolnych miejsc. Zwraca liczbę zmienionych wierszy (0 lub 1).
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE OfertaTurystyczna o SET o.dostepneMiejsca = o.dostepneMiejsca - :liczba, " +
+            "o.wersja = o.wersja + 1 " +
+            "WHERE o.id = :id AND o.statusOferty = 'AKTYWNA' AND o.dostepneMiejsca >= :liczba")
+    int zarezerwujMiejsca(@Param("id") Long id, @Param("liczba") int liczba);
+
+    /**
+     * Atomowo zwalnia miejsca (nie przekraczając maksymalnej liczby uczestników)
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE OfertaTurystyczna o SET " +
+            "o.dostepneMiejsca = LEAST(o.dostepneMiejsca + :liczba, o.maksLiczbaUczestnikow), " +
+            "o.wersja = o.wersja + 1 " +
+            "WHERE o.id = :id")
+    int zwolnijMiejsca(@Param("id") Long id, @Param("liczba") int liczba);
+
+    /**
+     * Dezaktywuje aktywne oferty z minionym terminem wyjazdu
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE OfertaTurystyczna o SET o.statusOferty = 'NIEAKTYWNA', o.wersja = o.wersja + 1 " +
+            "WHERE o.statusOferty = 'AKTYWNA' AND o.dataWyjazdu < :dzisiaj")
+    int dezaktywujPrzeszleOferty(@Param("dzisiaj") LocalDate dzisiaj);
+
+    /**
+     * Przelicza dostępne miejsca wszystkich aktywnych ofert jednym zapytaniem
+     * (suma osób z umów blokujących miejsca, grupowana po ofercie)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE OfertaTurystyczna o SET o.dostepneMiejsca = GREATEST(o.maksLiczbaUczestnikow - " +
+            "COALESCE((SELECT SUM(u.liczbaOsob) FROM Umowa u WHERE u.oferta = o AND " +
+            "u.statusUmowy IN ('PODPISANA', 'OPLACONA', 'ZALICZKA_WPLACONA')), 0), 0), " +
+            "o.wersja = o.wersja + 1 " +
+            "WHERE o.statusOferty = 'AKTYWNA'")
+    int przeliczDostepneMiejsca();
+
+    /**
+     * Przelicza dostępne miejsca tylko tych aktywnych ofert, których umowy zmieniły się od podanej chwili
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE OfertaTurystyczna o SET o.dostepneMiejsca = GREATEST(o.maksLiczbaUczestnikow - " +
+            "COALESCE((SELECT SUM(u.liczbaOsob) FROM Umowa u WHERE u.oferta = o AND " +
+            "u.statusUmowy IN ('PODPISANA', 'OPLACONA', 'ZALICZKA_WPLACONA')), 0), 0), " +
+            "o.wersja = o.wersja + 1 " +
+            "WHERE o.statusOferty = 'AKTYWNA' AND o.id IN " +
+            "(SELECT zm.oferta.id FROM Umowa zm WHERE zm.dataModyfikacji >= :od)")
+    int przeliczDostepneMiejscaZmienionychOd(@Param("od") LocalDateTime od);
+
+    /**
+     * Przelicza dostępne miejsca wskazanych aktywnych ofert (np. po usunięciu ich umów)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE OfertaTurystyczna o SET o.dostepneMiejsca = GREATEST(o.maksLiczbaUczestnikow - " +
+            "COALESCE((SELECT SUM(u.liczbaOsob) FROM Umowa u WHERE u.oferta = o AND " +
+            "u.statusUmowy IN ('PODPISANA', 'OPLACONA', 'ZALICZKA_WPLACONA')), 0), 0), " +
+            "o.wersja = o.wersja + 1 " +
+            "WHERE o.statusOferty = 'AKTYWNA' AND o.id IN :ids")
+    int przeliczDostepneMiejscaOfert(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Wszystkie oferty do eksportu jako wiersze skalarne czytane kursorem (kolejność kolumn jak w EksportDanychService)
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT o.id, o.nazwa, o.opis, o.krajDocelowy, o.dataWyjazdu, o.dataPowrotu, o.cenaZaOsobe, " +
+            "o.maksLiczbaUczestnikow, o.dostepneMiejsca, o.typWycieczki, o.statusOferty, o.dataUtworzenia " +
+            "FROM OfertaTurystyczna o ORDER BY o.id")
+    Stream<Object[]> streamDoEksportu();
+
+    /**
+     * Nazwy ofert do zbudowania indeksu tekstowego (id, nazwa)
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT o.id, o.nazwa FROM OfertaTurystyczna o ORDER BY o.id")
+    Stream<Object[]> streamTekstyDoIndeksu();
+
+    /**
+     * Okno wierszy tabeli aktywnych ofert (projekcja, sortowanie i zakres z Pageable)
+     */
+    @Query("SELECT new org.tourmanager.model.OfertaWiersz(o.id, o.nazwa, o.krajDocelowy, o.dataWyjazdu, " +
+            "o.dataPowrotu, o.cenaZaOsobe, o.dostepneMiejsca, o.statusOferty) " +
+            "FROM OfertaTurystyczna o WHERE o.statusOferty = 'AKTYWNA'")
+    List<OfertaWiersz> findWierszeAktywnych(Pageable okno);
+
+    /**
+     * Okno wierszy tabeli aktywnych ofert, których nazwa lub kraj pasuje do wzorca LIKE (małe litery)
+     */
+    @Query("SELECT new org.tourmanager.model.OfertaWiersz(o.id, o.nazwa, o.krajDocelowy, o.dataWyjazdu, " +
+            "o.dataPowrotu, o.cenaZaOsobe, o.dostepneMiejsca, o.statusOferty) " +
+            "FROM OfertaTurystyczna o WHERE o.statusOferty = 'AKTYWNA' AND " +
+            "(LOWER(o.nazwa) LIKE :wzorzec ESCAPE '\\' OR LOWER(o.krajDocelowy) LIKE :wzorzec ESCAPE '\\')")
+    List<OfertaWiersz> findWierszeAktywnychPasujacych(@Param("wzorzec") String wzorzec, Pageable okno);
+
+    /**
+     * Liczba ofert o danym statusie
+     */
+    long countByStatusOferty(String statusOferty);
+
+    /**
+     * Liczba aktywnych ofert, których nazwa lub kraj pasuje do wzorca LIKE (małe litery)
+     */
+    @Query("SELECT COUNT(o) FROM OfertaTurystyczna o WHERE o.statusOferty = 'AKTYWNA' AND " +
+            "(LOWER(o.nazwa) LIKE :wzorzec ESCAPE '\\' OR LOWER(o.krajDocelowy) LIKE :wzorzec ESCAPE '\\')")
+    long countAktywnychPasujacych(@Param("wzorzec") String wzorzec);
+
+    /**
+     * Wolne miejsca i liczba ofert bez miejsc wśród aktywnych ofert według kraju docelowego
+     */
+    @Query("SELECT o.krajDocelowy, COALESCE(SUM(o.dostepneMiejsca), 0), " +
+            "SUM(CASE WHEN o.dostepneMiejsca <= 0 THEN 1 ELSE 0 END) " +
+            "FROM OfertaTurystyczna o WHERE o.statusOferty = 'AKTYWNA' GROUP BY o.krajDocelowy")
+    List<Object[]> findWolneMiejscaWedlugKraju();
+}
@@ -1,21 +1,45 @@
 package org.tourmanager.repository;
 
+import org.tourmanager.config.PamiecPodrecznaConfig;
 import org.tourmanager.model.Pilot;
+import org.tourmanager.model.PilotWiersz;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface PilotRepository extends JpaRepository<Pilot, Long> {
 
+    /**
+     * Wszyscy piloci (wynik w pamięci podręcznej zapytań)
+     */
+    @Override
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = PamiecPodrecznaConfig.REGION_ZAPYTAN_PILOTOW)})
+    List<Pilot> findAll();
+
     /**
      * Znajdź pilotów według imienia i nazwiska
      */
     List<Pilot> findByImieAndNazwisko(String imie, String nazwisko);
 
+    /**
+     * Znajdź pilotów według statusu
+     */
+    List<Pilot> findByStatusPilota(String statusPilota);
+
     /**
      * Znajdź pilota według numeru licencji
      */
@@ -27,18 +51,6 @@ public interface PilotRepository extends JpaRepository<Pilot, Long> {
     @Query("SELECT p FROM Pilot p WHERE p.dataWaznosciLicencji BETWEEN CURRENT_DATE AND :dataGraniczna")
     List<Pilot> findPilotowZWygasajacymiLicencjami(@Param("dataGraniczna") LocalDate dataGraniczna);
 
-    /**
-     * Znajdź pilotów znających określony język
-     */
-    @Query("SELECT p FROM Pilot p WHERE LOWER(p.znajomoscJezykow) LIKE LOWER(CONCAT('%', :jezyk, '%'))")
-    List<Pilot> findByZnajomoscJezyka(@Param("jezyk") String jezyk);
-
-    /**
-     * Znajdź pilotów według specjalizacji
-     */
-    @Query("SELECT p FROM Pilot p WHERE LOWER(p.specjalizacje) LIKE LOWER(CONCAT('%', :specjalizacja, '%'))")
-    List<Pilot> findBySpecjalizacja(@Param("specjalizacja") String specjalizacja);
-
     /**
      * Znajdź dostępnych pilotów w określonym okresie
      */
@@ -61,4 +73,67 @@ public interface PilotRepository extends JpaRepository<Pilot, Long> {
             "WHERE w.statusWycieczki = 'ZAKONCZONA' " +
             "GROUP BY p.id ORDER BY liczbaWycieczek DESC")
     List<Object[]> findStatystykiPilotow();
-}
\ No newline at end of file
+
+    /**
+     * Odbudowuje liczniki wycieczek wszystkich pilotów z tabeli wycieczek (naprawa po zmianach poza aplikacją).
+     * VERSIONED podbija wersję, więc zapis pilota wczytanego przed przebudową kończy się konfliktem,
+     * a nie nadpisaniem liczników starymi wartościami.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE VERSIONED Pilot p SET " +
+            "p.liczbaZakonczonychWycieczek = (SELECT COUNT(w) FROM Wycieczka w " +
+            "WHERE w.pilot = p AND w.statusWycieczki = 'ZAKONCZONA'), " +
+            "p.liczbaPlanowanychWycieczek = (SELECT COUNT(w) FROM Wycieczka w " +
+            "WHERE w.pilot = p AND w.statusWycieczki = 'PLANOWANA'), " +
+            "p.rokStatystyk = :rok, " +
+            "p.zakonczoneWRokuStatystyk = (SELECT COUNT(w) FROM Wycieczka w " +
+            "WHERE w.pilot = p AND w.statusWycieczki = 'ZAKONCZONA' AND YEAR(w.dataRozpoczecia) = :rok)")
+    int przeliczStatystykiPilotow(@Param("rok") int rok);
+
+    /**
+     * Wszyscy piloci do eksportu jako wiersze skalarne czytane kursorem (kolejność kolumn jak w EksportDanychService)
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT p.id, p.imie, p.nazwisko, p.telefon, p.email, p.adres, p.dataUrodzenia, p.dataZatrudnienia, " +
+            "p.numerLicencji, p.dataWaznosciLicencji, p.statusPilota, p.znajomoscJezykow, p.specjalizacje " +
+            "FROM Pilot p ORDER BY p.id")
+    Stream<Object[]> streamDoEksportu();
+
+    /**
+     * Języki i specjalizacje pilotów do zbudowania indeksu tekstowego (id, języki, specjalizacje)
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT p.id, p.znajomoscJezykow, p.specjalizacje FROM Pilot p ORDER BY p.id")
+    Stream<Object[]> streamTekstyDoIndeksu();
+
+    /**
+     * Okno wierszy tabeli pilotów (projekcja, sortowanie i zakres z Pageable)
+     */
+    @Query("SELECT new org.tourmanager.model.PilotWiersz(p.id, p.imie, p.nazwisko, p.telefon, p.numerLicencji, " +
+            "p.dataWaznosciLicencji, p.statusPilota) FROM Pilot p")
+    List<PilotWiersz> findWiersze(Pageable okno);
+
+    /**
+     * Okno wierszy tabeli pilotów, których imię, nazwisko lub licencja pasuje do wzorca LIKE (małe litery)
+     */
+    @Query("SELECT new org.tourmanager.model.PilotWiersz(p.id, p.imie, p.nazwisko, p.telefon, p.numerLicencji, " +
+            "p.dataWaznosciLicencji, p.statusPilota) FROM Pilot p " +
+            "WHERE LOWER(p.nazwisko) LIKE :wzorzec ESCAPE '\\' OR LOWER(p.imie) LIKE :wzorzec ESCAPE '\\' " +
+            "OR LOWER(p.numerLicencji) LIKE :wzorzec ESCAPE '\\'")
+    List<PilotWiersz> findWierszePasujacych(@Param("wzorzec") String wzorzec, Pageable okno);
+
+    /**
+     * Liczba pilotów, których imię, nazwisko lub licencja pasuje do wzorca LIKE (małe litery)
+     */
+    @Query("SELECT COUNT(p) FROM Pilot p " +
+            "WHERE LOWER(p.nazwisko) LIKE :wzorzec ESCAPE '\\' OR LOWER(p.imie) LIKE :wzorzec ESCAPE '\\' " +
+            "OR LOWER(p.numerLicencji) LIKE :wzorzec ESCAPE '\\'")
+    long countPasujacych(@Param("wzorzec") String wzorzec);
+
+    /**
+     * Blokuje wiersze pilotów do końca transakcji (w kolejności id - bez zakleszczeń między partiami)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Pilot p WHERE p.id IN :ids ORDER BY p.id")
+    List<Pilot> zablokujPilotow(@Param("ids") Collection<Long> ids);
+}
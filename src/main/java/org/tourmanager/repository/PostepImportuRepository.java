@@ -0,0 +1,9 @@
+package org.tourmanager.repository;
+
+import org.tourmanager.model.PostepImportu;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PostepImportuRepository extends JpaRepository<PostepImportu, String> {
+}
@@ -0,0 +1,61 @@
+package org.tourmanager.repository;
+
+import org.tourmanager.model.SprzedazMiesieczna;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import jakarta.persistence.QueryHint;
+import java.math.BigDecimal;
+
+@Repository
+public interface SprzedazMiesiecznaRepository extends JpaRepository<SprzedazMiesieczna, Integer> {
+
+    /**
+     * Dolicza zmianę do miesiąca jednym atomowym MERGE (zakłada wiersz przy pierwszej umowie w miesiącu).
+     * Tabela podana jawnie, aby natywny zapis nie czyścił całej pamięci podręcznej drugiego poziomu.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "sprzedaz_miesieczna"))
+    @Query(value = "MERGE INTO sprzedaz_miesieczna s " +
+            "USING (VALUES (CAST(:rok AS INTEGER), CAST(:miesiac AS INTEGER))) AS z (rok, miesiac) " +
+            "ON s.okres = z.rok * 100 + z.miesiac " +
+            "WHEN MATCHED THEN UPDATE SET liczba_umow = s.liczba_umow + :liczbaUmow, " +
+            "wartosc = s.wartosc + :wartosc, liczba_uczestnikow = s.liczba_uczestnikow + :liczbaUczestnikow, " +
+            "otrzymane_zaliczki = s.otrzymane_zaliczki + :zaliczki " +
+            "WHEN NOT MATCHED THEN INSERT (okres, rok, miesiac, liczba_umow, wartosc, liczba_uczestnikow, " +
+            "otrzymane_zaliczki) " +
+            "VALUES (z.rok * 100 + z.miesiac, z.rok, z.miesiac, :liczbaUmow, :wartosc, :liczbaUczestnikow, :zaliczki)",
+            nativeQuery = true)
+    int doliczSprzedaz(@Param("rok") int rok, @Param("miesiac") int miesiac, @Param("liczbaUmow") long liczbaUmow,
+                       @Param("wartosc") BigDecimal wartosc, @Param("liczbaUczestnikow") long liczbaUczestnikow,
+                       @Param("zaliczki") BigDecimal zaliczki);
+
+    /**
+     * Usuwa wszystkie wiersze przed przebudową
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM SprzedazMiesieczna s")
+    int usunWszystkie();
+
+    /**
+     * Odtwarza zestawienie z tabeli umów (umowy nieanulowane i wpłacone zaliczki według daty zawarcia)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "sprzedaz_miesieczna"))
+    @Query(value = "INSERT INTO sprzedaz_miesieczna (okres, rok, miesiac, liczba_umow, wartosc, liczba_uczestnikow, " +
+            "otrzymane_zaliczki) " +
+            "SELECT u.rok * 100 + u.miesiac, u.rok, u.miesiac, " +
+            "COALESCE(SUM(u.aktywna), 0), COALESCE(SUM(u.aktywna * COALESCE(u.cena_calkowita, 0)), 0), " +
+            "COALESCE(SUM(u.aktywna * COALESCE(u.liczba_osob, 0)), 0), COALESCE(SUM(u.wplacona_zaliczka), 0) " +
+            "FROM (SELECT YEAR(data_zawarcia) AS rok, MONTH(data_zawarcia) AS miesiac, cena_calkowita, liczba_osob, " +
+            "CASE WHEN status_umowy <> 'ANULOWANA' THEN 1 ELSE 0 END AS aktywna, " +
+            "CASE WHEN data_wplaty_zaliczki IS NOT NULL THEN COALESCE(zaliczka, 0) ELSE 0 END AS wplacona_zaliczka " +
+            "FROM umowa WHERE data_zawarcia IS NOT NULL) u " +
+            "GROUP BY u.rok, u.miesiac",
+            nativeQuery = true)
+    int odtworzZUmow();
+}
@@ -1,13 +1,19 @@
 package org.tourmanager.repository;
 
 import org.tourmanager.model.Umowa;
+import org.tourmanager.model.UmowaWiersz;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import jakarta.persistence.QueryHint;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface UmowaRepository extends JpaRepository<Umowa, String> {
@@ -58,15 +64,6 @@ public interface UmowaRepository extends JpaRepository<Umowa, String> {
     @Query("SELECT u FROM Umowa u WHERE u.cenaCalkowita BETWEEN :min AND :max ORDER BY u.cenaCalkowita DESC")
     List<Umowa> findByWartoscBetween(@Param("min") BigDecimal min, @Param("max") BigDecimal max);
 
-    /**
-     * Statystyki umów według miesięcy
-     */
-    @Query("SELECT YEAR(u.dataZawarcia), MONTH(u.dataZawarcia), COUNT(u), SUM(u.cenaCalkowita) " +
-            "FROM Umowa u WHERE u.statusUmowy != 'ANULOWANA' " +
-            "GROUP BY YEAR(u.dataZawarcia), MONTH(u.dataZawarcia) " +
-            "ORDER BY YEAR(u.dataZawarcia) DESC, MONTH(u.dataZawarcia) DESC")
-    List<Object[]> findStatystykiMiesieczne();
-
     /**
      * TOP umowy według wartości
      */
@@ -120,4 +117,67 @@ public interface UmowaRepository extends JpaRepository<Umowa, String> {
      */
     @Query("SELECT u FROM Umowa u WHERE u.oferta.typWycieczki = :typ ORDER BY u.dataZawarcia DESC")
     List<Umowa> findByTypWycieczki(@Param("typ") String typ);
-}
\ No newline at end of file
+
+    /**
+     * Najwyższy numer umowy w danym roku (UM/RRRR/NNNN) - do inicjalizacji licznika numeracji
+     */
+    @Query(value = "SELECT COALESCE(MAX(CAST(SUBSTRING(nr_umowy, 9) AS BIGINT)), 0) FROM umowa " +
+            "WHERE nr_umowy LIKE CONCAT('UM/', :rok, '/%')", nativeQuery = true)
+    Long findMaksNumerUmowyWRoku(@Param("rok") int rok);
+
+    /**
+     * Wszystkie umowy do eksportu jako wiersze skalarne czytane kursorem (kolejność kolumn jak w EksportDanychService)
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT u.nrUmowy, u.dataZawarcia, k.id, k.pesel, u.oferta.id, u.liczbaOsob, u.cenaCalkowita, " +
+            "u.zaliczka, u.dataWplatyZaliczki, u.pozostalaDoplata, u.terminDoplaty, u.statusUmowy, u.uwagi " +
+            "FROM Umowa u JOIN u.klient k ORDER BY u.nrUmowy")
+    Stream<Object[]> streamDoEksportu();
+
+    /**
+     * Wszystkie płatności do eksportu jako wiersze skalarne czytane kursorem (kolejność kolumn jak w EksportDanychService)
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT p.id, p.umowa.nrUmowy, p.kwota, p.dataWplaty, p.metodaPlatnosci, p.statusPlatnosci, " +
+            "p.numerTransakcji, p.opis FROM Platnosc p ORDER BY p.id")
+    Stream<Object[]> streamPlatnosciDoEksportu();
+
+    /**
+     * Okno wierszy tabeli umów z nazwiskiem klienta i nazwą oferty (projekcja, sortowanie i zakres z Pageable)
+     */
+    @Query("SELECT new org.tourmanager.model.UmowaWiersz(u.nrUmowy, u.dataZawarcia, CONCAT(k.imie, ' ', k.nazwisko), " +
+            "o.nazwa, o.krajDocelowy, u.liczbaOsob, u.cenaCalkowita, u.statusUmowy) " +
+            "FROM Umowa u JOIN u.klient k JOIN u.oferta o")
+    List<UmowaWiersz> findWiersze(Pageable okno);
+
+    /**
+     * Okno wierszy tabeli umów, których numer, nazwisko klienta lub nazwa oferty pasuje do wzorca LIKE (małe litery)
+     */
+    @Query("SELECT new org.tourmanager.model.UmowaWiersz(u.nrUmowy, u.dataZawarcia, CONCAT(k.imie, ' ', k.nazwisko), " +
+            "o.nazwa, o.krajDocelowy, u.liczbaOsob, u.cenaCalkowita, u.statusUmowy) " +
+            "FROM Umowa u JOIN u.klient k JOIN u.oferta o " +
+            "WHERE LOWER(u.nrUmowy) LIKE :wzorzec ESCAPE '\\' OR LOWER(k.nazwisko) LIKE :wzorzec ESCAPE '\\' " +
+            "OR LOWER(o.nazwa) LIKE :wzorzec ESCAPE '\\'")
+    List<UmowaWiersz> findWierszePasujacych(@Param("wzorzec") String wzorzec, Pageable okno);
+
+    /**
+     * Liczba umów, których numer, nazwisko klienta lub nazwa oferty pasuje do wzorca LIKE (małe litery)
+     */
+    @Query("SELECT COUNT(u) FROM Umowa u JOIN u.klient k JOIN u.oferta o " +
+            "WHERE LOWER(u.nrUmowy) LIKE :wzorzec ESCAPE '\\' OR LOWER(k.nazwisko) LIKE :wzorzec ESCAPE '\\' " +
+            "OR LOWER(o.nazwa) LIKE :wzorzec ESCAPE '\\'")
+    long countPasujacych(@Param("wzorzec") String wzorzec);
+
+    /**
+     * Liczba i kwota zaliczek podpisanych umów, które nie zostały jeszcze wpłacone
+     */
+    @Query("SELECT COUNT(u), COALESCE(SUM(u.zaliczka), 0) FROM Umowa u " +
+            "WHERE u.dataWplatyZaliczki IS NULL AND u.statusUmowy = 'PODPISANA'")
+    List<Object[]> obliczNieoplaconeZaliczki();
+
+    /**
+     * Liczba rezygnacji zarejestrowanych i jeszcze nierozpatrzonych
+     */
+    @Query("SELECT COUNT(r) FROM Rezygnacja r WHERE r.statusRezygnacji = 'ZAREJESTROWANA'")
+    long countOczekujacychRezygnacji();
+}
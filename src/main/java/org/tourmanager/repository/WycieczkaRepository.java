@@ -78,4 +78,45 @@ public interface WycieczkaRepository extends JpaRepository<Wycieczka, Long> {
             "GROUP BY YEAR(w.dataRozpoczecia), MONTH(w.dataRozpoczecia) " +
             "ORDER BY YEAR(w.dataRozpoczecia) DESC, MONTH(w.dataRozpoczecia) DESC")
     List<Object[]> findStatystykiMiesieczne();
-}
\ No newline at end of file
+
+    /**
+     * Terminy aktywnych wycieczek z przypisanym pilotem (id wycieczki, id pilota, od, do)
+     */
+    @Query("SELECT w.id, w.pilot.id, w.dataRozpoczecia, w.dataZakonczenia FROM Wycieczka w " +
+            "WHERE w.pilot IS NOT NULL AND w.statusWycieczki IN ('PLANOWANA', 'W_TRAKCIE') " +
+            "AND w.dataRozpoczecia IS NOT NULL AND w.dataZakonczenia IS NOT NULL")
+    List<Object[]> findTerminyAktywnychWycieczekZPilotem();
+
+    /**
+     * Terminy aktywnych wycieczek z przypisanym hotelem (id wycieczki, id hotelu, od, do)
+     */
+    @Query("SELECT w.id, w.hotel.id, w.dataRozpoczecia, w.dataZakonczenia FROM Wycieczka w " +
+            "WHERE w.hotel IS NOT NULL AND w.statusWycieczki IN ('PLANOWANA', 'W_TRAKCIE') " +
+            "AND w.dataRozpoczecia IS NOT NULL AND w.dataZakonczenia IS NOT NULL")
+    List<Object[]> findTerminyAktywnychWycieczekZHotelem();
+
+    /**
+     * Liczba planowanych i trwających wycieczek hotelu kolidujących z okresem (idx_wycieczka_hotel_terminy)
+     */
+    @Query("SELECT COUNT(w) FROM Wycieczka w WHERE w.hotel.id = :hotelId AND " +
+            "w.dataRozpoczecia <= :dataDo AND w.dataZakonczenia >= :dataOd AND " +
+            "w.statusWycieczki IN ('PLANOWANA', 'W_TRAKCIE')")
+    long countKolizjiHotelu(@Param("hotelId") Long hotelId, @Param("dataOd") LocalDate dataOd,
+                            @Param("dataDo") LocalDate dataDo);
+
+    /**
+     * Liczba planowanych i trwających wycieczek pilota (poza wskazaną) kolidujących z okresem
+     */
+    @Query("SELECT COUNT(w) FROM Wycieczka w WHERE w.pilot.id = :pilotId AND w.id <> :wycieczkaId AND " +
+            "w.dataRozpoczecia <= :dataDo AND w.dataZakonczenia >= :dataOd AND " +
+            "w.statusWycieczki IN ('PLANOWANA', 'W_TRAKCIE')")
+    long countKolizjiPilota(@Param("pilotId") Long pilotId, @Param("wycieczkaId") Long wycieczkaId,
+                            @Param("dataOd") LocalDate dataOd, @Param("dataDo") LocalDate dataDo);
+
+    /**
+     * Wycieczki bez pilota razem z ofertą (jedno zapytanie zamiast leniwego ładowania ofert)
+     */
+    @Query("SELECT w FROM Wycieczka w JOIN FETCH w.oferta WHERE w.pilot IS NULL AND " +
+            "w.statusWycieczki = 'PLANOWANA' ORDER BY w.dataRozpoczecia ASC, w.id ASC")
+    List<Wycieczka> findWycieczkiBezPilotaZOferta();
+}
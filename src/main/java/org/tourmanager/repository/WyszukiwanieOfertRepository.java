@@ -0,0 +1,32 @@
+package org.tourmanager.repository;
+
+import org.tourmanager.model.KryteriaOfert;
+import org.tourmanager.model.OfertaTurystyczna;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Wyszukiwanie ofert z zapytaniem budowanym tylko z podanych kryteriów
+ * (fragment OfertaTurystycznaRepository)
+ */
+public interface WyszukiwanieOfertRepository {
+
+    /**
+     * Strona aktywnych ofert posortowana po (dataWyjazdu, id), zaczynająca się za podanym kluczem.
+     * @param poDacieWyjazdu data wyjazdu ostatniej oferty poprzedniej strony (null - pierwsza strona)
+     * @param poId id ostatniej oferty poprzedniej strony
+     */
+    List<OfertaTurystyczna> findStronaPoKryteriach(KryteriaOfert kryteria, LocalDate poDacieWyjazdu, Long poId,
+                                                  int limit);
+
+    /**
+     * Liczba ofert spełniających kryteria według kraju (filtr kraju pominięty), od najliczniejszego
+     */
+    List<Object[]> findLiczbyOfertWedlugKraju(KryteriaOfert kryteria);
+
+    /**
+     * Liczba ofert spełniających kryteria według typu (filtr typu pominięty), od najliczniejszego
+     */
+    List<Object[]> findLiczbyOfertWedlugTypu(KryteriaOfert kryteria);
+}
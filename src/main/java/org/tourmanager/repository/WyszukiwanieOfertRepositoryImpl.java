@@ -0,0 +1,97 @@
+package org.tourmanager.repository;
+
+import org.tourmanager.model.KryteriaOfert;
+import org.tourmanager.model.OfertaTurystyczna;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Zapytania budowane dynamicznie: warunek "(:x IS NULL OR ...)" uniemożliwia użycie indeksu,
+ * więc do WHERE trafiają tylko podane filtry. Stronicowanie kluczem (dataWyjazdu, id) zamiast
+ * OFFSET - każda strona to zejście indeksem do klucza i odczyt limit + 1 wierszy.
+ */
+class WyszukiwanieOfertRepositoryImpl implements WyszukiwanieOfertRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<OfertaTurystyczna> findStronaPoKryteriach(KryteriaOfert kryteria, LocalDate poDacieWyjazdu, Long poId,
+                                                         int limit) {
+        StringBuilder jpql = new StringBuilder("SELECT o FROM OfertaTurystyczna o");
+        Map<String, Object> parametry = new HashMap<>();
+        dodajWarunki(jpql, parametry, kryteria, true, true);
+        if (poDacieWyjazdu != null && poId != null) {
+            // Pierwszy warunek wyznacza początek zakresu indeksu, drugi pomija oferty z tego dnia już pokazane
+            jpql.append(" AND o.dataWyjazdu >= :poDacie AND (o.dataWyjazdu > :poDacie OR o.id > :poId)");
+            parametry.put("poDacie", poDacieWyjazdu);
+            parametry.put("poId", poId);
+        }
+        jpql.append(" ORDER BY o.dataWyjazdu, o.id");
+
+        TypedQuery<OfertaTurystyczna> zapytanie = entityManager.createQuery(jpql.toString(), OfertaTurystyczna.class);
+        parametry.forEach(zapytanie::setParameter);
+        return zapytanie.setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public List<Object[]> findLiczbyOfertWedlugKraju(KryteriaOfert kryteria) {
+        return policz("o.krajDocelowy", kryteria, false, true);
+    }
+
+    @Override
+    public List<Object[]> findLiczbyOfertWedlugTypu(KryteriaOfert kryteria) {
+        return policz("o.typWycieczki", kryteria, true, false);
+    }
+
+    private List<Object[]> policz(String pole, KryteriaOfert kryteria, boolean zKrajem, boolean zTypem) {
+        StringBuilder jpql = new StringBuilder("SELECT " + pole + ", COUNT(o) FROM OfertaTurystyczna o");
+        Map<String, Object> parametry = new HashMap<>();
+        dodajWarunki(jpql, parametry, kryteria, zKrajem, zTypem);
+        jpql.append(" GROUP BY ").append(pole).append(" ORDER BY COUNT(o) DESC, ").append(pole);
+
+        TypedQuery<Object[]> zapytanie = entityManager.createQuery(jpql.toString(), Object[].class);
+        parametry.forEach(zapytanie::setParameter);
+        return zapytanie.getResultList();
+    }
+
+    /**
+     * Oferty aktywne z wolnymi miejscami oraz tylko te filtry, które zostały podane
+     */
+    private static void dodajWarunki(StringBuilder jpql, Map<String, Object> parametry, KryteriaOfert kryteria,
+                                     boolean zKrajem, boolean zTypem) {
+        jpql.append(" WHERE o.statusOferty = 'AKTYWNA' AND o.dostepneMiejsca >= :miejsca");
+        parametry.put("miejsca", kryteria.getWymaganeMiejsca());
+
+        if (zKrajem && kryteria.getKraj() != null) {
+            jpql.append(" AND o.krajDocelowy = :kraj");
+            parametry.put("kraj", kryteria.getKraj());
+        }
+        if (kryteria.getDataOd() != null) {
+            jpql.append(" AND o.dataWyjazdu >= :dataOd");
+            parametry.put("dataOd", kryteria.getDataOd());
+        }
+        if (kryteria.getDataDo() != null) {
+            jpql.append(" AND o.dataPowrotu <= :dataDo");
+            parametry.put("dataDo", kryteria.getDataDo());
+        }
+        if (zTypem && kryteria.getTyp() != null) {
+            jpql.append(" AND o.typWycieczki = :typ");
+            parametry.put("typ", kryteria.getTyp());
+        }
+        if (kryteria.getCenaMin() != null) {
+            jpql.append(" AND o.cenaZaOsobe >= :cenaMin");
+            parametry.put("cenaMin", kryteria.getCenaMin());
+        }
+        if (kryteria.getCenaMax() != null) {
+            jpql.append(" AND o.cenaZaOsobe <= :cenaMax");
+            parametry.put("cenaMax", kryteria.getCenaMax());
+        }
+    }
+}
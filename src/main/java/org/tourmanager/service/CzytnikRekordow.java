@@ -0,0 +1,281 @@
+package org.tourmanager.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Strumieniowy odczyt rekordów z pliku CSV (z nagłówkiem) lub JSON (tablica obiektów albo
+ * obiekty jeden po drugim, np. JSON Lines). W pamięci jest zawsze tylko bieżący rekord.
+ * Nazwy pól są normalizowane: małe litery bez polskich znaków, spacje zamienione na '_'.
+ */
+abstract class CzytnikRekordow implements Closeable {
+
+    /**
+     * Pojedynczy rekord: numer (od 1), pola oraz tekst źródłowy do pliku błędów
+     */
+    static final class Rekord {
+        final long numer;
+        final Map<String, String> pola;
+        final String zrodlo;
+
+        Rekord(long numer, Map<String, String> pola, String zrodlo) {
+            this.numer = numer;
+            this.pola = pola;
+            this.zrodlo = zrodlo;
+        }
+    }
+
+    private final LicznikBajtow licznik;
+    protected long numer;
+
+    protected CzytnikRekordow(LicznikBajtow licznik) {
+        this.licznik = licznik;
+    }
+
+    static CzytnikRekordow otworz(Path plik) throws IOException {
+        LicznikBajtow licznik = new LicznikBajtow(Files.newInputStream(plik));
+        String nazwa = plik.getFileName().toString().toLowerCase(Locale.ROOT);
+        try {
+            if (nazwa.endsWith(".json") || nazwa.endsWith(".jsonl") || nazwa.endsWith(".ndjson")) {
+                return new Json(licznik);
+            }
+            return new Csv(licznik);
+        } catch (IOException | RuntimeException e) {
+            licznik.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Kolejny rekord albo null na końcu pliku
+     */
+    abstract Rekord nastepny() throws IOException;
+
+    /**
+     * Liczba bajtów pliku odczytanych do tej pory (do raportowania postępu)
+     */
+    long odczytaneBajty() {
+        return licznik.odczytane;
+    }
+
+    @Override
+    public void close() throws IOException {
+        licznik.close();
+    }
+
+    static String normalizujNazwe(String nazwa) {
+        String bezZnakow = Normalizer.normalize(nazwa.trim().toLowerCase(Locale.ROOT), Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .replace('ł', 'l');
+        return bezZnakow.replaceAll("[\\s-]+", "_");
+    }
+
+    /**
+     * CSV zgodny z RFC 4180: pola w cudzysłowach mogą zawierać separator, cudzysłów ("") i znaki nowej linii.
+     * Separator (';' lub ',') rozpoznawany jest po wierszu nagłówka.
+     */
+    private static final class Csv extends CzytnikRekordow {
+        private final BufferedReader czytnik;
+        private final List<String> naglowek;
+        private final char separator;
+        private final StringBuilder zrodlo = new StringBuilder();
+
+        Csv(LicznikBajtow licznik) throws IOException {
+            super(licznik);
+            this.czytnik = new BufferedReader(new InputStreamReader(licznik, StandardCharsets.UTF_8));
+
+            String pierwszaLinia = czytnik.readLine();
+            if (pierwszaLinia == null) {
+                throw new IOException("Plik CSV jest pusty - brak wiersza nagłówka");
+            }
+            if (pierwszaLinia.startsWith("\uFEFF")) {
+                pierwszaLinia = pierwszaLinia.substring(1);
+            }
+            long sredniki = pierwszaLinia.chars().filter(z -> z == ';').count();
+            long przecinki = pierwszaLinia.chars().filter(z -> z == ',').count();
+            this.separator = sredniki > przecinki ? ';' : ',';
+
+            List<String> nazwy = new ArrayList<>();
+            for (String nazwa : podziel(pierwszaLinia)) {
+                nazwy.add(normalizujNazwe(nazwa));
+            }
+            this.naglowek = nazwy;
+        }
+
+        @Override
+        Rekord nastepny() throws IOException {
+            String linia;
+            do {
+                linia = czytnik.readLine();
+                if (linia == null) {
+                    return null;
+                }
+            } while (linia.isBlank());
+
+            zrodlo.setLength(0);
+            zrodlo.append(linia);
+            // Pole w cudzysłowie obejmujące znak nowej linii - dołączanie kolejnych wierszy
+            while (nieparzystaLiczbaCudzyslowow(zrodlo)) {
+                String kolejna = czytnik.readLine();
+                if (kolejna == null) {
+                    throw new IOException("Niezamknięty cudzysłów w rekordzie " + (numer + 1));
+                }
+                zrodlo.append('\n').append(kolejna);
+            }
+
+            List<String> wartosci = podziel(zrodlo.toString());
+            Map<String, String> pola = new LinkedHashMap<>();
+            for (int i = 0; i < naglowek.size(); i++) {
+                String wartosc = i < wartosci.size() ? wartosci.get(i).trim() : "";
+                pola.put(naglowek.get(i), wartosc.isEmpty() ? null : wartosc);
+            }
+            return new Rekord(++numer, pola, zrodlo.toString());
+        }
+
+        private List<String> podziel(String rekord) {
+            List<String> pola = new ArrayList<>();
+            StringBuilder pole = new StringBuilder();
+            boolean wCudzyslowie = false;
+            for (int i = 0; i < rekord.length(); i++) {
+                char znak = rekord.charAt(i);
+                if (wCudzyslowie) {
+                    if (znak == '"' && i + 1 < rekord.length() && rekord.charAt(i + 1) == '"') {
+                        pole.append('"');
+                        i++;
+                    } else if (znak == '"') {
+                        wCudzyslowie = false;
+                    } else {
+                        pole.append(znak);
+                    }
+                } else if (znak == '"') {
+                    wCudzyslowie = true;
+                } else if (znak == separator) {
+                    pola.add(pole.toString());
+                    pole.setLength(0);
+                } else {
+                    pole.append(znak);
+                }
+            }
+            pola.add(pole.toString());
+            return pola;
+        }
+
+        private static boolean nieparzystaLiczbaCudzyslowow(CharSequence tekst) {
+            int liczba = 0;
+            for (int i = 0; i < tekst.length(); i++) {
+                if (tekst.charAt(i) == '"') {
+                    liczba++;
+                }
+            }
+            return liczba % 2 != 0;
+        }
+    }
+
+    /**
+     * JSON czytany parserem strumieniowym Jacksona - drzewo budowane jest tylko dla bieżącego obiektu.
+     * Tablice i obiekty zagnieżdżone (np. lista języków) przekazywane są jako tekst JSON.
+     */
+    private static final class Json extends CzytnikRekordow {
+        private static final ObjectMapper MAPPER = new ObjectMapper();
+
+        private final JsonParser parser;
+        private final boolean tablica;
+
+        Json(LicznikBajtow licznik) throws IOException {
+            super(licznik);
+            this.parser = new JsonFactory(MAPPER).createParser(new InputStreamReader(licznik, StandardCharsets.UTF_8));
+            JsonToken pierwszy = parser.nextToken();
+            this.tablica = pierwszy == JsonToken.START_ARRAY;
+            if (pierwszy != null && !tablica && pierwszy != JsonToken.START_OBJECT) {
+                throw new IOException("Plik JSON musi zawierać tablicę obiektów lub kolejne obiekty");
+            }
+        }
+
+        @Override
+        Rekord nastepny() throws IOException {
+            JsonToken token = parser.currentToken();
+            if (tablica || numer > 0) {
+                token = parser.nextToken();
+            }
+            if (token == null || token == JsonToken.END_ARRAY) {
+                return null;
+            }
+            if (token != JsonToken.START_OBJECT) {
+                throw new IOException("Oczekiwano obiektu JSON w rekordzie " + (numer + 1));
+            }
+
+            JsonNode wezel = MAPPER.readTree(parser);
+            Map<String, String> pola = new LinkedHashMap<>();
+            Iterator<Map.Entry<String, JsonNode>> it = wezel.fields();
+            while (it.hasNext()) {
+                Map.Entry<String, JsonNode> pole = it.next();
+                JsonNode wartosc = pole.getValue();
+                String tekst = wartosc.isNull() ? null : wartosc.isContainerNode() ? wartosc.toString() : wartosc.asText();
+                pola.put(normalizujNazwe(pole.getKey()), tekst == null || tekst.isBlank() ? null : tekst.trim());
+            }
+            return new Rekord(++numer, pola, wezel.toString());
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+            super.close();
+        }
+    }
+
+    /**
+     * Strumień zliczający odczytane bajty
+     */
+    static final class LicznikBajtow extends FilterInputStream {
+        private volatile long odczytane;
+
+        LicznikBajtow(InputStream zrodlo) {
+            super(zrodlo);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int bajt = super.read();
+            if (bajt >= 0) {
+                odczytane++;
+            }
+            return bajt;
+        }
+
+        @Override
+        public int read(byte[] bufor, int od, int dlugosc) throws IOException {
+            int liczba = super.read(bufor, od, dlugosc);
+            if (liczba > 0) {
+                odczytane += liczba;
+            }
+            return liczba;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long pominiete = super.skip(n);
+            odczytane += pominiete;
+            return pominiete;
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package org.tourmanager.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.tourmanager.repository.KlientRepository;
+import org.tourmanager.repository.OfertaTurystycznaRepository;
+import org.tourmanager.repository.PilotRepository;
+import org.tourmanager.repository.UmowaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import jakarta.annotation.PostConstruct;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Strumieniowy eksport ofert, umów, klientów, pilotów i płatności do CSV lub JSON Lines.
+ *
+ * Wiersze czytane są kursorem (Stream z repozytorium, wiersze skalarne poza kontekstem
+ * utrwalania) i od razu zapisywane do buforowanego pliku, opcjonalnie kompresowanego gzip,
+ * więc zużycie pamięci nie zależy od liczby wierszy. Nazwy kolumn odpowiadają polom
+ * rozpoznawanym przez ImportDanychService.
+ */
+@Service
+public class EksportDanychService {
+
+    public enum TypEksportu {
+        OFERTY("oferty", "id", "nazwa", "opis", "kraj_docelowy", "data_wyjazdu", "data_powrotu", "cena_za_osobe",
+                "maks_liczba_uczestnikow", "dostepne_miejsca", "typ_wycieczki", "status_oferty", "data_utworzenia"),
+        UMOWY("umowy", "nr_umowy", "data_zawarcia", "klient_id", "pesel_klienta", "oferta_id", "liczba_osob",
+                "cena_calkowita", "zaliczka", "data_wplaty_zaliczki", "pozostala_doplata", "termin_doplaty",
+                "status_umowy", "uwagi"),
+        KLIENCI("klienci", "id", "imie", "nazwisko", "pesel", "numer_dowodu", "telefon", "email", "adres",
+                "data_urodzenia", "data_rejestracji", "status_klienta"),
+        PILOCI("piloci", "id", "imie", "nazwisko", "telefon", "email", "adres", "data_urodzenia", "data_zatrudnienia",
+                "numer_licencji", "data_waznosci_licencji", "status_pilota", "znajomosc_jezykow", "specjalizacje"),
+        PLATNOSCI("platnosci", "id", "nr_umowy", "kwota", "data_wplaty", "metoda_platnosci", "status_platnosci",
+                "numer_transakcji", "opis");
+
+        private final String nazwaPliku;
+        private final List<String> kolumny;
+
+        TypEksportu(String nazwaPliku, String... kolumny) {
+            this.nazwaPliku = nazwaPliku;
+            this.kolumny = List.of(kolumny);
+        }
+
+        public String getNazwaPliku() { return nazwaPliku; }
+        public List<String> getKolumny() { return kolumny; }
+    }
+
+    public enum FormatEksportu {
+        CSV(".csv"), JSONL(".jsonl");
+
+        private final String rozszerzenie;
+
+        FormatEksportu(String rozszerzenie) {
+            this.rozszerzenie = rozszerzenie;
+        }
+
+        public String getRozszerzenie() { return rozszerzenie; }
+    }
+
+    private static final int ROZMIAR_BUFORA = 64 * 1024;
+    private static final long CO_ILE_POSTEP = 10_000;
+
+    @Autowired
+    private OfertaTurystycznaRepository ofertaRepository;
+
+    @Autowired
+    private UmowaRepository umowaRepository;
+
+    @Autowired
+    private KlientRepository klientRepository;
+
+    @Autowired
+    private PilotRepository pilotRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transakcjaOdczytu;
+
+    @PostConstruct
+    public void inicjalizuj() {
+        transakcjaOdczytu = new TransactionTemplate(transactionManager);
+        transakcjaOdczytu.setReadOnly(true);
+    }
+
+    /**
+     * Nazwa pliku eksportu dla typu i formatu, np. klienci.csv.gz
+     */
+    public static String nazwaPliku(TypEksportu typ, FormatEksportu format, boolean gzip) {
+        return typ.getNazwaPliku() + format.getRozszerzenie() + (gzip ? ".gz" : "");
+    }
+
+    /**
+     * Eksportuje wszystkie wiersze danego typu do pliku. Plik docelowy pojawia się dopiero
+     * po zapisaniu całości (zapis do pliku tymczasowego i przeniesienie).
+     * @param postep wywoływany co 10 000 wierszy z liczbą zapisanych wierszy (może być null)
+     * @return liczba wyeksportowanych wierszy
+     */
+    public long eksportuj(TypEksportu typ, FormatEksportu format, Path plik, boolean gzip,
+                          LongConsumer postep) throws IOException {
+        Path tymczasowy = plik.resolveSibling(plik.getFileName() + ".tmp");
+        long liczba;
+        try (OutputStream wyjscie = otworz(tymczasowy, gzip);
+             Writer pisarz = new BufferedWriter(new OutputStreamWriter(wyjscie, StandardCharsets.UTF_8), ROZMIAR_BUFORA)) {
+            ZapisWierszy zapis = format == FormatEksportu.CSV
+                    ? new ZapisCsv(pisarz, typ.getKolumny())
+                    : new ZapisJsonLines(pisarz, typ.getKolumny());
+            liczba = zapiszWiersze(typ, zapis, postep);
+            zapis.zakoncz();
+        } catch (UncheckedIOException e) {
+            Files.deleteIfExists(tymczasowy);
+            throw e.getCause();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tymczasowy);
+            throw e;
+        }
+        Files.move(tymczasowy, plik, StandardCopyOption.REPLACE_EXISTING);
+
+        System.out.println("Wyeksportowano " + liczba + " wierszy (" + typ + ") do pliku " + plik);
+        return liczba;
+    }
+
+    private static OutputStream otworz(Path plik, boolean gzip) throws IOException {
+        OutputStream wyjscie = Files.newOutputStream(plik);
+        try {
+            return gzip
+                    ? new GZIPOutputStream(wyjscie, ROZMIAR_BUFORA)
+                    : new BufferedOutputStream(wyjscie, ROZMIAR_BUFORA);
+        } catch (IOException e) {
+            wyjscie.close();
+            throw e;
+        }
+    }
+
+    private long zapiszWiersze(TypEksportu typ, ZapisWierszy zapis, LongConsumer postep) {
+        Supplier<Stream<Object[]>> zrodlo = zrodlo(typ);
+        Long liczba = transakcjaOdczytu.execute(status -> {
+            long zapisane = 0;
+            try (Stream<Object[]> wiersze = zrodlo.get()) {
+                for (Object[] wiersz : (Iterable<Object[]>) wiersze::iterator) {
+                    zapis.wiersz(wiersz);
+                    if (++zapisane % CO_ILE_POSTEP == 0 && postep != null) {
+                        postep.accept(zapisane);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return zapisane;
+        });
+        if (postep != null) {
+            postep.accept(liczba);
+        }
+        return liczba;
+    }
+
+    private Supplier<Stream<Object[]>> zrodlo(TypEksportu typ) {
+        switch (typ) {
+            case OFERTY: return ofertaRepository::streamDoEksportu;
+            case UMOWY: return umowaRepository::streamDoEksportu;
+            case KLIENCI: return klientRepository::streamDoEksportu;
+            case PILOCI: return pilotRepository::streamDoEksportu;
+            default: return umowaRepository::streamPlatnosciDoEksportu;
+        }
+    }
+
+    private interface ZapisWierszy {
+        void wiersz(Object[] wartosci) throws IOException;
+
+        default void zakoncz() throws IOException {
+        }
+    }
+
+    /**
+     * CSV z nagłówkiem, separator ',' i cudzysłowy według RFC 4180 (jak dotychczasowy eksport pilotów)
+     */
+    private static final class ZapisCsv implements ZapisWierszy {
+        private final Writer pisarz;
+
+        ZapisCsv(Writer pisarz, List<String> kolumny) throws IOException {
+            this.pisarz = pisarz;
+            pisarz.write(String.join(",", kolumny));
+            pisarz.write('\n');
+        }
+
+        @Override
+        public void wiersz(Object[] wartosci) throws IOException {
+            for (int i = 0; i < wartosci.length; i++) {
+                if (i > 0) {
+                    pisarz.write(',');
+                }
+                Object wartosc = wartosci[i];
+                if (wartosc != null) {
+                    pisarz.write(escapeCsv(wartosc instanceof BigDecimal
+                            ? ((BigDecimal) wartosc).toPlainString() : wartosc.toString()));
+                }
+            }
+            pisarz.write('\n');
+        }
+
+        private static String escapeCsv(String wartosc) {
+            if (wartosc.indexOf(',') >= 0 || wartosc.indexOf('"') >= 0
+                    || wartosc.indexOf('\n') >= 0 || wartosc.indexOf('\r') >= 0) {
+                return "\"" + wartosc.replace("\"", "\"\"") + "\"";
+            }
+            return wartosc;
+        }
+    }
+
+    /**
+     * Jeden obiekt JSON na wiersz; liczby jako liczby, daty w formacie ISO, brak wartości jako null
+     */
+    private static final class ZapisJsonLines implements ZapisWierszy {
+        private final JsonGenerator generator;
+        private final List<String> kolumny;
+
+        ZapisJsonLines(Writer pisarz, List<String> kolumny) throws IOException {
+            this.generator = new JsonFactory().createGenerator(pisarz);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.generator.setRootValueSeparator(null);
+            this.kolumny = kolumny;
+        }
+
+        @Override
+        public void wiersz(Object[] wartosci) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < wartosci.length; i++) {
+                Object wartosc = wartosci[i];
+                generator.writeFieldName(kolumny.get(i));
+                if (wartosc == null) {
+                    generator.writeNull();
+                } else if (wartosc instanceof BigDecimal) {
+                    generator.writeNumber((BigDecimal) wartosc);
+                } else if (wartosc instanceof Long || wartosc instanceof Integer) {
+                    generator.writeNumber(((Number) wartosc).longValue());
+                } else {
+                    generator.writeString(wartosc.toString());
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void zakoncz() throws IOException {
+            generator.flush();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package org.tourmanager.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tourmanager.model.Hotel;
+import org.tourmanager.model.OcenaHotelu;
+import org.tourmanager.repository.HotelRepository;
+import org.tourmanager.repository.OcenaHoteluRepository;
+import org.tourmanager.repository.WycieczkaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Dostępność hoteli w okresie bez przeglądania kolekcji wycieczek hotelu.
+ *
+ * Przy włączonym IndeksDostepnosciHoteli aktywne hotele (zapytanie w pamięci podręcznej)
+ * sprawdzane są w indeksie - O(log m) na hotel niezależnie od długości okresu.
+ * Bez indeksu odpowiada zapytanie findDostepneHotele.
+ *
+ * Oceny hoteli dopisywane są do sumy i liczby ocen hotelu jednym atomowym UPDATE,
+ * więc średnia nie wymaga wczytywania ocen; przeliczOcenyHoteli naprawia je z tabeli ocena_hotelu.
+ */
+@Service
+@Transactional(readOnly = true)
+public class HotelService {
+
+    private static final Logger log = LoggerFactory.getLogger(HotelService.class);
+
+    @Autowired
+    private HotelRepository hotelRepository;
+
+    @Autowired
+    private OcenaHoteluRepository ocenaHoteluRepository;
+
+    @Autowired
+    private WycieczkaRepository wycieczkaRepository;
+
+    @Autowired
+    private IndeksDostepnosciHoteli indeksDostepnosci;
+
+    /**
+     * Aktywne hotele bez planowanej ani trwającej wycieczki w okresie dataOd - dataDo (włącznie)
+     * @throws IllegalArgumentException przy nieprawidłowym okresie
+     */
+    public List<Hotel> wyszukajDostepneHotele(LocalDate dataOd, LocalDate dataDo) {
+        if (dataOd == null || dataDo == null || dataOd.isAfter(dataDo)) {
+            throw new IllegalArgumentException("Nieprawidłowy okres: " + dataOd + " - " + dataDo);
+        }
+
+        if (!indeksDostepnosci.isWlaczony()) {
+            return hotelRepository.findDostepneHotele(dataOd, dataDo);
+        }
+
+        List<Hotel> dostepne = new ArrayList<>();
+        for (Hotel hotel : hotelRepository.findByStatusWspolpracy("AKTYWNA")) {
+            if (indeksDostepnosci.czyWolny(hotel.getId(), dataOd, dataDo)) {
+                dostepne.add(hotel);
+            }
+        }
+        log.debug("Dostępne hotele w okresie {} - {}: {}", dataOd, dataDo, dostepne.size());
+        return dostepne;
+    }
+
+    /**
+     * Sprawdza dostępność hotelu w okresie
+     */
+    public boolean sprawdzDostepnoscHotelu(Long hotelId, LocalDate dataOd, LocalDate dataDo) {
+        Optional<Hotel> hotel = hotelRepository.findById(hotelId);
+        if (hotel.isEmpty() || !hotel.get().spelniaWarunkiDostepnosci(dataOd, dataDo)) {
+            return false;
+        }
+        if (indeksDostepnosci.isWlaczony()) {
+            return indeksDostepnosci.czyWolny(hotelId, dataOd, dataDo);
+        }
+        return wycieczkaRepository.countKolizjiHotelu(hotelId, dataOd, dataDo) == 0;
+    }
+
+    /**
+     * Zapisuje ocenę hotelu (1-10) i atomowo dolicza ją do średniej
+     * @return id zapisanej oceny
+     */
+    @Transactional
+    public Long dodajOcene(Long hotelId, int ocena, String komentarz, String autor) {
+        if (ocena < 1 || ocena > 10) {
+            throw new IllegalArgumentException("Ocena musi być w zakresie 1-10");
+        }
+        // UPDATE jako pierwszy blokuje wiersz hotelu - równoległe oceny tego hotelu są szeregowane
+        if (hotelRepository.doliczOcene(hotelId, ocena) == 0) {
+            throw new IllegalArgumentException("Nie znaleziono hotelu o id: " + hotelId);
+        }
+
+        OcenaHotelu nowaOcena = new OcenaHotelu(hotelRepository.getReferenceById(hotelId), ocena, komentarz);
+        nowaOcena.setAutorOceny(autor);
+        return ocenaHoteluRepository.save(nowaOcena).getId();
+    }
+
+    /**
+     * Usuwa ocenę hotelu i atomowo wycofuje ją ze średniej
+     */
+    @Transactional
+    public boolean usunOcene(Long ocenaId) {
+        Optional<OcenaHotelu> ocena = ocenaHoteluRepository.findById(ocenaId);
+        if (ocena.isEmpty()) {
+            return false;
+        }
+
+        Long hotelId = ocena.get().getHotel().getId();
+        // UPDATE jako pierwszy blokuje wiersz hotelu - równoległe usunięcie tej samej oceny czeka,
+        // a po zatwierdzeniu pierwszego nie znajduje już oceny i wycofuje swoje odliczenie
+        if (hotelRepository.odliczOcene(hotelId, ocena.get().getOcena()) != 1) {
+            throw new IllegalStateException("Nie udało się wycofać oceny z hotelu o id: " + hotelId);
+        }
+        if (ocenaHoteluRepository.usunOcene(ocenaId) != 1) {
+            throw new IllegalStateException("Ocena o id " + ocenaId + " została już usunięta");
+        }
+        return true;
+    }
+
+    /**
+     * Naprawa sum, liczb i średnich ocen wszystkich hoteli na podstawie tabeli ocena_hotelu
+     * (po imporcie lub zmianach ocen poza aplikacją) - dwa zbiorcze UPDATE
+     * @return liczba przeliczonych hoteli
+     */
+    @Transactional
+    public int przeliczOcenyHoteli() {
+        int liczba = hotelRepository.przeliczSumyOcen();
+        hotelRepository.przeliczSrednieOcen();
+
+        log.info("Przeliczono oceny {} hoteli", liczba);
+        return liczba;
+    }
+}
@@ -0,0 +1,652 @@
+package org.tourmanager.service;
+
+import org.tourmanager.model.Klient;
+import org.tourmanager.model.OfertaTurystyczna;
+import org.tourmanager.model.Pilot;
+import org.tourmanager.model.PostepImportu;
+import org.tourmanager.model.Umowa;
+import org.tourmanager.repository.PostepImportuRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import jakarta.annotation.PostConstruct;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Strumieniowy import ofert, klientów, pilotów i umów z plików CSV i JSON.
+ *
+ * Rekordy czytane są pojedynczo i walidowane regułami encji (waliduj()), a poprawne
+ * zapisywane partiami przez JDBC batch. Każda partia jest zatwierdzana razem ze stanem
+ * importu (postep_importu), więc przerwany import wznawia się od pierwszego niezatwierdzonego
+ * rekordu. Rekordy odrzucone trafiają do pliku błędów obok importowanego pliku.
+ *
+ * Umowy rezerwują miejsca w ofercie tym samym warunkowym UPDATE co umowy zawierane w aplikacji
+ * (RezerwacjaMiejscService), w transakcji swojej partii - umowa ponad limit miejsc jest odrzucana.
+ */
+@Service
+public class ImportDanychService {
+
+    public enum TypImportu { KLIENCI, OFERTY, PILOCI, UMOWY }
+
+    /**
+     * Powiadomienie o postępie po każdej zatwierdzonej partii (ułamek przeczytanej części pliku 0..1)
+     */
+    @FunctionalInterface
+    public interface SluchaczPostepu {
+        void postep(PostepImportu stan, double ulamekPliku);
+    }
+
+    /**
+     * Wynik importu: stan końcowy, plik błędów i informacja o wznowieniu
+     */
+    public static class WynikImportu {
+        private final PostepImportu stan;
+        private final Path plikBledow;
+        private final boolean wznowiony;
+        private final boolean pominiety;
+
+        WynikImportu(PostepImportu stan, Path plikBledow, boolean wznowiony, boolean pominiety) {
+            this.stan = stan;
+            this.plikBledow = plikBledow;
+            this.wznowiony = wznowiony;
+            this.pominiety = pominiety;
+        }
+
+        public PostepImportu getStan() { return stan; }
+        public Path getPlikBledow() { return plikBledow; }
+        public boolean isWznowiony() { return wznowiony; }
+        public boolean isPominiety() { return pominiety; }
+    }
+
+    private static final String SQL_KLIENT = "INSERT INTO klient (imie, nazwisko, pesel, numer_dowodu, telefon, " +
+            "email, adres, data_urodzenia, data_rejestracji, status_klienta) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SQL_OFERTA = "INSERT INTO oferta_turystyczna (nazwa, opis, kraj_docelowy, " +
+            "data_wyjazdu, data_powrotu, cena_za_osobe, maks_liczba_uczestnikow, dostepne_miejsca, typ_wycieczki, " +
+            "status_oferty, data_utworzenia, wersja) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private static final String SQL_PILOT = "INSERT INTO pilot (imie, nazwisko, telefon, email, adres, " +
+            "data_urodzenia, data_zatrudnienia, numer_licencji, data_waznosci_licencji, znajomosc_jezykow, " +
+            "specjalizacje, status_pilota, liczba_zakonczonych_wycieczek, liczba_planowanych_wycieczek, " +
+            "zakonczone_w_roku_statystyk, wersja) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, 0, 0, 0)";
+
+    private static final String SQL_UMOWA = "INSERT INTO umowa (nr_umowy, data_zawarcia, klient_id, oferta_id, " +
+            "liczba_osob, cena_calkowita, zaliczka, data_wplaty_zaliczki, pozostala_doplata, termin_doplaty, " +
+            "status_umowy, uwagi, data_modyfikacji) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final Set<String> STATUSY_UMOWY =
+            Set.of("PODPISANA", "ZALICZKA_WPLACONA", "OPLACONA", "ZREALIZOWANA", "ANULOWANA");
+
+    // Statusy umów zajmujących miejsca w ofercie (jak w przeliczaniu dostępności ofert)
+    private static final Set<String> STATUSY_BLOKUJACE_MIEJSCA = Set.of("PODPISANA", "ZALICZKA_WPLACONA", "OPLACONA");
+
+    // Pozycje w wierszu SQL_UMOWA potrzebne do rezerwacji miejsc
+    private static final int KOLUMNA_OFERTA = 3;
+    private static final int KOLUMNA_LICZBA_OSOB = 4;
+    private static final int KOLUMNA_STATUS = 10;
+
+    private static final Pattern NUMER_UMOWY = Pattern.compile("UM/(\\d{4})/(\\d+)");
+
+    private static final DateTimeFormatter DATA_POLSKA = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private PostepImportuRepository postepRepository;
+
+    @Autowired
+    private NumeracjaUmowService numeracjaUmowService;
+
+    @Autowired
+    private RezerwacjaMiejscService rezerwacjaMiejscService;
+
+    @Autowired
+    private StatystykiSprzedazyService statystykiSprzedazyService;
+
+    @Autowired
+    private RaportService raportService;
+
+    @Autowired
+    private IndeksTekstowy indeksTekstowy;
+
+    @Autowired
+    private PamiecPodrecznaService pamiecPodrecznaService;
+
+    @Value("${tourmanager.import.rozmiar-partii:1000}")
+    private int rozmiarPartii;
+
+    private TransactionTemplate transakcja;
+
+    @PostConstruct
+    public void inicjalizuj() {
+        if (rozmiarPartii <= 0) {
+            throw new IllegalStateException("Rozmiar partii importu musi być większy od zera");
+        }
+        transakcja = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Importuje plik; niezakończony import tego samego pliku jest wznawiany,
+     * a zakończony nie jest powtarzany (zmiana pliku rozpoczyna import od nowa)
+     */
+    public WynikImportu importuj(TypImportu typ, Path plik, SluchaczPostepu sluchacz) throws IOException {
+        Path sciezka = plik.toAbsolutePath().normalize();
+        String klucz = typ + ":" + sciezka;
+        long rozmiar = Files.size(sciezka);
+        long modyfikacja = Files.getLastModifiedTime(sciezka).toMillis();
+        Path plikBledow = sciezka.resolveSibling(sciezka.getFileName() + ".bledy.csv");
+
+        PostepImportu zapisany = postepRepository.findById(klucz).orElse(null);
+        boolean tenSamPlik = zapisany != null && zapisany.dotyczyPliku(rozmiar, modyfikacja);
+        if (tenSamPlik && zapisany.isZakonczony()) {
+            System.out.println("Plik " + sciezka + " został już zaimportowany: " + zapisany);
+            return new WynikImportu(zapisany, plikBledow, false, true);
+        }
+
+        boolean wznowiony = tenSamPlik && zapisany.getLiczbaPrzetworzonych() > 0;
+        PostepImportu stan = tenSamPlik ? zapisany
+                : transakcja.execute(s -> postepRepository.save(new PostepImportu(klucz, rozmiar, modyfikacja)));
+        if (wznowiony) {
+            System.out.println("Wznawianie importu " + sciezka + " od rekordu " + (stan.getLiczbaPrzetworzonych() + 1));
+        }
+
+        boolean dopisz = wznowiony && Files.exists(plikBledow);
+        try (CzytnikRekordow czytnik = CzytnikRekordow.otworz(sciezka);
+             BufferedWriter bledy = dopisz
+                     ? Files.newBufferedWriter(plikBledow, StandardCharsets.UTF_8, StandardOpenOption.APPEND)
+                     : Files.newBufferedWriter(plikBledow, StandardCharsets.UTF_8)) {
+            if (!dopisz) {
+                bledy.write("rekord;blad;dane");
+                bledy.newLine();
+            }
+
+            if (typ == TypImportu.UMOWY) {
+                uwzglednijNumeryZPliku(sciezka);
+            }
+
+            for (long i = 0; i < stan.getLiczbaPrzetworzonych(); i++) {
+                if (czytnik.nastepny() == null) {
+                    break;
+                }
+            }
+
+            List<CzytnikRekordow.Rekord> partia = new ArrayList<>(rozmiarPartii);
+            CzytnikRekordow.Rekord rekord;
+            while ((rekord = czytnik.nastepny()) != null) {
+                partia.add(rekord);
+                if (partia.size() == rozmiarPartii) {
+                    stan = importujPartie(typ, klucz, partia, bledy);
+                    raportuj(stan, czytnik, rozmiar, sluchacz);
+                    partia.clear();
+                }
+            }
+            if (!partia.isEmpty()) {
+                stan = importujPartie(typ, klucz, partia, bledy);
+                raportuj(stan, czytnik, rozmiar, sluchacz);
+            }
+        }
+
+        stan = transakcja.execute(s -> {
+            PostepImportu koncowy = postepRepository.findById(klucz).orElseThrow();
+            koncowy.setZakonczony(true);
+            koncowy.setDataAktualizacji(LocalDateTime.now());
+            return koncowy;
+        });
+
+        if (stan.getLiczbaZaimportowanych() > 0) {
+            // Wiersze zapisane przez JDBC nie przechodzą przez listenery encji ani pamięć podręczną Hibernate
+            switch (typ) {
+                case KLIENCI: indeksTekstowy.przebudujKlientow(); break;
+                case OFERTY: indeksTekstowy.przebudujOferty(); break;
+                case PILOCI:
+                    indeksTekstowy.przebudujPilotow();
+                    pamiecPodrecznaService.wyczyscPoZapisieJdbc(Pilot.class);
+                    break;
+                default:
+                    // Miejsca ofert zarezerwowano przy zapisie partii
+                    statystykiSprzedazyService.przebudujStatystyki();
+                    raportService.uniewaznijPodsumowania();
+            }
+        }
+
+        System.out.println("Zakończono: " + stan);
+        if (stan.getLiczbaBledow() > 0) {
+            System.out.println("Odrzucone rekordy zapisano w pliku " + plikBledow);
+        }
+        return new WynikImportu(stan, plikBledow, wznowiony, false);
+    }
+
+    /**
+     * Numery umów nadane w pliku muszą być znane licznikowi, zanim którakolwiek partia zacznie
+     * nadawać brakujące numery - inaczej numer z licznika mógłby powtórzyć numer z dalszej części pliku
+     */
+    private void uwzglednijNumeryZPliku(Path plik) throws IOException {
+        Map<Integer, Long> maksNumerWRoku = new HashMap<>();
+        try (CzytnikRekordow czytnik = CzytnikRekordow.otworz(plik)) {
+            CzytnikRekordow.Rekord rekord;
+            while ((rekord = czytnik.nastepny()) != null) {
+                String nrUmowy = pole(rekord.pola, "nr_umowy", "numer_umowy");
+                Matcher numer = nrUmowy != null && nrUmowy.length() <= 20 ? NUMER_UMOWY.matcher(nrUmowy) : null;
+                if (numer != null && numer.matches()) {
+                    maksNumerWRoku.merge(Integer.parseInt(numer.group(1)), Long.parseLong(numer.group(2)), Math::max);
+                }
+            }
+        }
+        maksNumerWRoku.forEach(numeracjaUmowService::uwzglednijNumer);
+    }
+
+    /**
+     * Waliduje partię i zapisuje ją jednym batchem razem ze stanem importu.
+     * Gdy batch zostanie odrzucony przez bazę (np. duplikat klucza), rekordy zapisywane są
+     * pojedynczo, aby odrzucić tylko błędne wiersze.
+     */
+    private PostepImportu importujPartie(TypImportu typ, String klucz, List<CzytnikRekordow.Rekord> partia,
+                                         BufferedWriter bledy) throws IOException {
+        KontekstUmow kontekst = typ == TypImportu.UMOWY ? wczytajKontekstUmow(partia) : null;
+
+        List<Object[]> wiersze = new ArrayList<>(partia.size());
+        List<CzytnikRekordow.Rekord> poprawne = new ArrayList<>(partia.size());
+        Map<CzytnikRekordow.Rekord, String> odrzucone = new HashMap<>();
+        for (CzytnikRekordow.Rekord rekord : partia) {
+            try {
+                wiersze.add(mapuj(typ, rekord, kontekst));
+                poprawne.add(rekord);
+            } catch (IllegalArgumentException e) {
+                odrzucone.put(rekord, e.getMessage());
+            }
+        }
+
+        String sql = sql(typ);
+        Map<CzytnikRekordow.Rekord, String> bezMiejsc = new HashMap<>();
+        try {
+            PostepImportu stan = transakcja.execute(s -> {
+                bezMiejsc.clear();
+                List<Object[]> zapisywane = new ArrayList<>(wiersze.size());
+                for (int i = 0; i < wiersze.size(); i++) {
+                    if (zarezerwujMiejsca(typ, wiersze.get(i))) {
+                        zapisywane.add(wiersze.get(i));
+                    } else {
+                        bezMiejsc.put(poprawne.get(i), brakMiejsc(wiersze.get(i)));
+                    }
+                }
+                if (!zapisywane.isEmpty()) {
+                    jdbcTemplate.batchUpdate(sql, zapisywane);
+                }
+                return doliczPostep(klucz, partia.size(), zapisywane.size(), odrzucone.size() + bezMiejsc.size());
+            });
+            odrzucone.putAll(bezMiejsc);
+            for (CzytnikRekordow.Rekord rekord : partia) {
+                String blad = odrzucone.get(rekord);
+                if (blad != null) {
+                    zapiszBlad(bledy, rekord, blad);
+                }
+            }
+            bledy.flush();
+            return stan;
+        } catch (DataAccessException e) {
+            System.err.println("Partia odrzucona przez bazę danych, zapis pojedynczych rekordów: " +
+                    e.getMostSpecificCause().getMessage());
+        }
+
+        PostepImportu stan = null;
+        int indeksPoprawnego = 0;
+        for (CzytnikRekordow.Rekord rekord : partia) {
+            String blad = odrzucone.get(rekord);
+            if (blad == null) {
+                Object[] wiersz = wiersze.get(indeksPoprawnego++);
+                try {
+                    PostepImportu zapisany = transakcja.execute(s -> {
+                        if (!zarezerwujMiejsca(typ, wiersz)) {
+                            return null;
+                        }
+                        jdbcTemplate.update(sql, wiersz);
+                        return doliczPostep(klucz, 1, 1, 0);
+                    });
+                    if (zapisany != null) {
+                        stan = zapisany;
+                        continue;
+                    }
+                    blad = brakMiejsc(wiersz);
+                } catch (DataAccessException e) {
+                    blad = "Odrzucony przez bazę danych: " + e.getMostSpecificCause().getMessage();
+                }
+            }
+            stan = transakcja.execute(s -> doliczPostep(klucz, 1, 0, 1));
+            zapiszBlad(bledy, rekord, blad);
+        }
+        bledy.flush();
+        return stan;
+    }
+
+    /**
+     * Rezerwuje miejsca dla umowy zajmującej miejsca; pozostałe wiersze nie wymagają rezerwacji
+     * @return false gdy oferta jest nieaktywna lub nie ma wystarczającej liczby wolnych miejsc
+     */
+    private boolean zarezerwujMiejsca(TypImportu typ, Object[] wiersz) {
+        if (typ != TypImportu.UMOWY || !STATUSY_BLOKUJACE_MIEJSCA.contains(wiersz[KOLUMNA_STATUS])) {
+            return true;
+        }
+        return rezerwacjaMiejscService.zarezerwujMiejsca((Long) wiersz[KOLUMNA_OFERTA],
+                (Integer) wiersz[KOLUMNA_LICZBA_OSOB]);
+    }
+
+    private static String brakMiejsc(Object[] wiersz) {
+        return "Oferta " + wiersz[KOLUMNA_OFERTA] + " jest nieaktywna lub nie ma " + wiersz[KOLUMNA_LICZBA_OSOB] +
+                " wolnych miejsc";
+    }
+
+    private PostepImportu doliczPostep(String klucz, long przetworzone, long zaimportowane, long bledy) {
+        PostepImportu stan = postepRepository.findById(klucz).orElseThrow();
+        stan.dolicz(przetworzone, zaimportowane, bledy);
+        return stan;
+    }
+
+    private void raportuj(PostepImportu stan, CzytnikRekordow czytnik, long rozmiar, SluchaczPostepu sluchacz) {
+        double ulamek = rozmiar > 0 ? Math.min(1.0, (double) czytnik.odczytaneBajty() / rozmiar) : 1.0;
+        System.out.println(String.format("Import: %.0f%% pliku, %s", ulamek * 100, stan));
+        if (sluchacz != null) {
+            sluchacz.postep(stan, ulamek);
+        }
+    }
+
+    private static void zapiszBlad(BufferedWriter bledy, CzytnikRekordow.Rekord rekord, String blad) throws IOException {
+        bledy.write(rekord.numer + ";" + escapeCsv(blad) + ";" + escapeCsv(rekord.zrodlo));
+        bledy.newLine();
+    }
+
+    private static String escapeCsv(String wartosc) {
+        if (wartosc == null) {
+            return "";
+        }
+        if (wartosc.contains(";") || wartosc.contains("\"") || wartosc.contains("\n")) {
+            return "\"" + wartosc.replace("\"", "\"\"") + "\"";
+        }
+        return wartosc;
+    }
+
+    private static String sql(TypImportu typ) {
+        switch (typ) {
+            case KLIENCI: return SQL_KLIENT;
+            case OFERTY: return SQL_OFERTA;
+            case PILOCI: return SQL_PILOT;
+            default: return SQL_UMOWA;
+        }
+    }
+
+    private Object[] mapuj(TypImportu typ, CzytnikRekordow.Rekord rekord, KontekstUmow kontekst) {
+        Map<String, String> pola = rekord.pola;
+        switch (typ) {
+            case KLIENCI: return mapujKlienta(pola);
+            case OFERTY: return mapujOferte(pola);
+            case PILOCI: return mapujPilota(pola);
+            default: return mapujUmowe(pola, kontekst);
+        }
+    }
+
+    private static Object[] mapujKlienta(Map<String, String> pola) {
+        Klient klient = new Klient(pole(pola, "imie"), pole(pola, "nazwisko"), pole(pola, "pesel"),
+                pole(pola, "telefon"), pole(pola, "email", "e_mail"));
+        klient.setNumerDowodu(pole(pola, "numer_dowodu"));
+        klient.setAdres(pole(pola, "adres"));
+        klient.setDataUrodzenia(data(pola, "data_urodzenia"));
+        klient.waliduj();
+
+        return new Object[]{klient.getImie(), klient.getNazwisko(), klient.getPesel(), klient.getNumerDowodu(),
+                klient.getTelefon(), klient.getEmail(), klient.getAdres(), sqlData(klient.getDataUrodzenia()),
+                sqlData(LocalDate.now()), "AKTYWNY"};
+    }
+
+    private static Object[] mapujOferte(Map<String, String> pola) {
+        OfertaTurystyczna oferta = new OfertaTurystyczna(pole(pola, "nazwa"), pole(pola, "opis"),
+                pole(pola, "kraj_docelowy", "kraj"), data(pola, "data_wyjazdu"), data(pola, "data_powrotu"),
+                kwota(pola, "cena_za_osobe", "cena"), liczba(pola, "maks_liczba_uczestnikow", "liczba_miejsc"),
+                pole(pola, "typ_wycieczki", "typ"));
+        oferta.waliduj();
+
+        return new Object[]{oferta.getNazwa(), oferta.getOpis(), oferta.getKrajDocelowy(),
+                sqlData(oferta.getDataWyjazdu()), sqlData(oferta.getDataPowrotu()), oferta.getCenaZaOsobe(),
+                oferta.getMaksLiczbaUczestnikow(), oferta.getMaksLiczbaUczestnikow(), oferta.getTypWycieczki(),
+                "AKTYWNA", sqlData(LocalDate.now())};
+    }
+
+    private static Object[] mapujPilota(Map<String, String> pola) {
+        Pilot pilot = new Pilot(pole(pola, "imie"), pole(pola, "nazwisko"), pole(pola, "telefon"),
+                pole(pola, "email", "e_mail"), pole(pola, "numer_licencji"));
+        pilot.setAdres(pole(pola, "adres"));
+        pilot.setDataUrodzenia(data(pola, "data_urodzenia"));
+        // Nazwy kolumn z eksportu pilotów do CSV są akceptowane jako synonimy
+        pilot.setDataWaznosciLicencji(data(pola, "data_waznosci_licencji", "data_waznosci"));
+        pilot.setZnajomoscJezykow(pole(pola, "znajomosc_jezykow", "jezyki"));
+        pilot.setSpecjalizacje(pole(pola, "specjalizacje"));
+        pilot.waliduj();
+
+        LocalDate dataZatrudnienia = data(pola, "data_zatrudnienia");
+        String status = pole(pola, "status_pilota", "status");
+        String jezyki = pilot.getZnajomoscJezykow() != null ? pilot.getZnajomoscJezykow() : "[\"Polski\"]";
+
+        return new Object[]{pilot.getImie(), pilot.getNazwisko(), pilot.getTelefon(), pilot.getEmail(),
+                pilot.getAdres(), sqlData(pilot.getDataUrodzenia()),
+                sqlData(dataZatrudnienia != null ? dataZatrudnienia : LocalDate.now()), pilot.getNumerLicencji(),
+                sqlData(pilot.getDataWaznosciLicencji()), jezyki, pilot.getSpecjalizacje(),
+                status != null ? status.toUpperCase() : "AKTYWNY"};
+    }
+
+    /**
+     * Umowa z pliku: klient po PESEL lub id, oferta po id. Brakujące kwoty liczone są jak przy
+     * zawieraniu umowy w aplikacji, brakujący numer nadawany jest z licznika umów.
+     */
+    private Object[] mapujUmowe(Map<String, String> pola, KontekstUmow kontekst) {
+        String pesel = pole(pola, "pesel_klienta", "pesel");
+        Long klientId = pesel != null ? kontekst.klienciPoPeselu.get(pesel) : dlugaLiczba(pola, "klient_id");
+        if (klientId == null || (pesel == null && !kontekst.klienciPoId.contains(klientId))) {
+            throw new IllegalArgumentException("Nie znaleziono klienta " + (pesel != null ? pesel : pole(pola, "klient_id")));
+        }
+
+        Long ofertaId = dlugaLiczba(pola, "oferta_id");
+        OfertaTurystyczna oferta = ofertaId != null ? kontekst.oferty.get(ofertaId) : null;
+        if (oferta == null) {
+            throw new IllegalArgumentException("Nie znaleziono oferty " + pole(pola, "oferta_id"));
+        }
+
+        Integer liczbaOsob = liczba(pola, "liczba_osob");
+        if (liczbaOsob == null || liczbaOsob <= 0) {
+            throw new IllegalArgumentException("Liczba osób musi być większa od zera");
+        }
+
+        String status = pole(pola, "status_umowy", "status");
+        status = status != null ? status.toUpperCase() : "PODPISANA";
+        if (!STATUSY_UMOWY.contains(status)) {
+            throw new IllegalArgumentException("Nieznany status umowy: " + status);
+        }
+
+        BigDecimal cena = kwota(pola, "cena_calkowita");
+        if (cena == null) {
+            cena = oferta.obliczCeneCalkowita(liczbaOsob);
+        }
+        if (cena.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Cena całkowita musi być większa od zera");
+        }
+        BigDecimal zaliczka = kwota(pola, "zaliczka");
+        if (zaliczka == null) {
+            zaliczka = cena.multiply(new BigDecimal("0.30")).setScale(2, RoundingMode.HALF_UP);
+        }
+        if (zaliczka.signum() < 0 || zaliczka.compareTo(cena) > 0) {
+            throw new IllegalArgumentException("Zaliczka musi mieścić się w przedziale od zera do ceny całkowitej");
+        }
+
+        LocalDate dataZawarcia = data(pola, "data_zawarcia");
+        if (dataZawarcia == null) {
+            dataZawarcia = LocalDate.now();
+        }
+        LocalDate terminDoplaty = data(pola, "termin_doplaty");
+        if (terminDoplaty == null && oferta.getDataWyjazdu() != null) {
+            terminDoplaty = oferta.getDataWyjazdu().minusDays(14);
+        }
+
+        String nrUmowy = pole(pola, "nr_umowy", "numer_umowy");
+        if (nrUmowy == null) {
+            int rok = dataZawarcia.getYear();
+            nrUmowy = Umowa.generujNumerUmowy(rok, numeracjaUmowService.przydzielNumer(rok));
+        } else if (nrUmowy.length() > 20) {
+            throw new IllegalArgumentException("Numer umowy może mieć najwyżej 20 znaków: " + nrUmowy);
+        }
+
+        return new Object[]{nrUmowy, sqlData(dataZawarcia), klientId, ofertaId, liczbaOsob, cena, zaliczka,
+                sqlData(data(pola, "data_wplaty_zaliczki")), cena.subtract(zaliczka), sqlData(terminDoplaty),
+                status, pole(pola, "uwagi"), Timestamp.valueOf(LocalDateTime.now())};
+    }
+
+    /**
+     * Klienci i oferty, do których odwołują się umowy w partii - wczytywani jednym zapytaniem na partię
+     */
+    private static class KontekstUmow {
+        final Map<String, Long> klienciPoPeselu = new HashMap<>();
+        final Set<Long> klienciPoId = new HashSet<>();
+        final Map<Long, OfertaTurystyczna> oferty = new HashMap<>();
+    }
+
+    private KontekstUmow wczytajKontekstUmow(List<CzytnikRekordow.Rekord> partia) {
+        Set<String> pesele = new HashSet<>();
+        Set<Long> idKlientow = new HashSet<>();
+        Set<Long> idOfert = new HashSet<>();
+        for (CzytnikRekordow.Rekord rekord : partia) {
+            String pesel = pole(rekord.pola, "pesel_klienta", "pesel");
+            if (pesel != null) {
+                pesele.add(pesel);
+            } else {
+                dodajId(idKlientow, pole(rekord.pola, "klient_id"));
+            }
+            dodajId(idOfert, pole(rekord.pola, "oferta_id"));
+        }
+
+        KontekstUmow kontekst = new KontekstUmow();
+        if (!pesele.isEmpty()) {
+            namedJdbcTemplate.query("SELECT id, pesel FROM klient WHERE pesel IN (:pesele)",
+                    Map.of("pesele", pesele),
+                    rs -> { kontekst.klienciPoPeselu.put(rs.getString("pesel"), rs.getLong("id")); });
+        }
+        if (!idKlientow.isEmpty()) {
+            kontekst.klienciPoId.addAll(namedJdbcTemplate.queryForList(
+                    "SELECT id FROM klient WHERE id IN (:idy)", Map.of("idy", idKlientow), Long.class));
+        }
+        if (!idOfert.isEmpty()) {
+            namedJdbcTemplate.query("SELECT id, data_wyjazdu, cena_za_osobe FROM oferta_turystyczna WHERE id IN (:idy)",
+                    Map.of("idy", idOfert),
+                    rs -> {
+                        OfertaTurystyczna oferta = new OfertaTurystyczna();
+                        oferta.setId(rs.getLong("id"));
+                        Date wyjazd = rs.getDate("data_wyjazdu");
+                        oferta.setDataWyjazdu(wyjazd != null ? wyjazd.toLocalDate() : null);
+                        oferta.setCenaZaOsobe(rs.getBigDecimal("cena_za_osobe"));
+                        kontekst.oferty.put(oferta.getId(), oferta);
+                    });
+        }
+        return kontekst;
+    }
+
+    private static void dodajId(Set<Long> idy, String wartosc) {
+        if (wartosc != null) {
+            try {
+                idy.add(Long.parseLong(wartosc.trim()));
+            } catch (NumberFormatException e) {
+                // Błędny identyfikator zostanie zgłoszony przy mapowaniu rekordu
+            }
+        }
+    }
+
+    private static String pole(Map<String, String> pola, String... nazwy) {
+        for (String nazwa : nazwy) {
+            String wartosc = pola.get(nazwa);
+            if (wartosc != null) {
+                return wartosc;
+            }
+        }
+        return null;
+    }
+
+    private static LocalDate data(Map<String, String> pola, String... nazwy) {
+        String wartosc = pole(pola, nazwy);
+        if (wartosc == null || "null".equals(wartosc)) {
+            return null;
+        }
+        try {
+            return wartosc.contains(".") ? LocalDate.parse(wartosc, DATA_POLSKA) : LocalDate.parse(wartosc);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Niepoprawna data w polu " + nazwy[0] + ": " + wartosc);
+        }
+    }
+
+    private static BigDecimal kwota(Map<String, String> pola, String... nazwy) {
+        String wartosc = pole(pola, nazwy);
+        if (wartosc == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(wartosc.replace(" ", "").replace("\u00A0", "").replace(',', '.'));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Niepoprawna kwota w polu " + nazwy[0] + ": " + wartosc);
+        }
+    }
+
+    private static Integer liczba(Map<String, String> pola, String... nazwy) {
+        String wartosc = pole(pola, nazwy);
+        if (wartosc == null) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(wartosc.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Niepoprawna liczba w polu " + nazwy[0] + ": " + wartosc);
+        }
+    }
+
+    private static Long dlugaLiczba(Map<String, String> pola, String nazwa) {
+        String wartosc = pola.get(nazwa);
+        if (wartosc == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(wartosc.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Niepoprawny identyfikator w polu " + nazwa + ": " + wartosc);
+        }
+    }
+
+    private static Date sqlData(LocalDate data) {
+        return data != null ? Date.valueOf(data) : null;
+    }
+}
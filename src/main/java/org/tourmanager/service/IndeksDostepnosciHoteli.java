@@ -0,0 +1,71 @@
+package org.tourmanager.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tourmanager.repository.WycieczkaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import jakarta.annotation.PostConstruct;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Indeks zajętości hoteli - terminy wycieczek PLANOWANA/W_TRAKCIE trzymane w pamięci.
+ *
+ * Opcjonalny (tourmanager.hotele.indeks-zajetosci): wyłączony nie jest budowany ani aktualizowany,
+ * a HotelService sprawdza dostępność zapytaniem korzystającym z indeksu idx_wycieczka_hotel_terminy.
+ * Budowany przy starcie jednym zapytaniem i aktualizowany po zatwierdzeniu zmian wycieczek (WycieczkaListener).
+ */
+@Component
+public class IndeksDostepnosciHoteli {
+
+    private static final Logger log = LoggerFactory.getLogger(IndeksDostepnosciHoteli.class);
+
+    @Autowired
+    private WycieczkaRepository wycieczkaRepository;
+
+    @Value("${tourmanager.hotele.indeks-zajetosci:true}")
+    private boolean wlaczony;
+
+    private final IndeksZajetosci zajetosc = new IndeksZajetosci();
+
+    @PostConstruct
+    public void przebuduj() {
+        if (!wlaczony) {
+            return;
+        }
+        List<Object[]> terminy = wycieczkaRepository.findTerminyAktywnychWycieczekZHotelem();
+        zajetosc.przebuduj(terminy);
+
+        log.info("Zbudowano indeks dostępności hoteli: {} wycieczek", terminy.size());
+    }
+
+    public boolean isWlaczony() {
+        return wlaczony;
+    }
+
+    /**
+     * Uwzględnia aktualny stan wycieczki (hotel, terminy, status)
+     */
+    public void aktualizuj(Long wycieczkaId, Long hotelId, LocalDate dataOd, LocalDate dataDo, String status) {
+        if (wlaczony) {
+            zajetosc.aktualizuj(wycieczkaId, hotelId, dataOd, dataDo, status);
+        }
+    }
+
+    /**
+     * Usuwa wycieczkę z indeksu
+     */
+    public void usun(Long wycieczkaId) {
+        aktualizuj(wycieczkaId, null, null, null, null);
+    }
+
+    /**
+     * Sprawdza czy hotel nie ma aktywnej wycieczki w podanym okresie
+     */
+    public boolean czyWolny(Long hotelId, LocalDate dataOd, LocalDate dataDo) {
+        return zajetosc.czyWolny(hotelId, dataOd, dataDo);
+    }
+}
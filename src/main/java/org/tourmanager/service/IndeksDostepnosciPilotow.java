@@ -0,0 +1,55 @@
+package org.tourmanager.service;
+
+import org.tourmanager.repository.WycieczkaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import jakarta.annotation.PostConstruct;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Indeks zajętości pilotów - terminy wycieczek PLANOWANA/W_TRAKCIE trzymane w pamięci.
+ *
+ * Dla każdego pilota przechowywana jest posortowana mapa rozłącznych przedziałów zajętości
+ * (IndeksZajetosci), więc sprawdzenie terminu to jedno floorEntry - O(log m).
+ * Indeks budowany jest przy starcie jednym zapytaniem i aktualizowany po zatwierdzeniu
+ * zmian wycieczek (WycieczkaListener).
+ */
+@Component
+public class IndeksDostepnosciPilotow {
+
+    @Autowired
+    private WycieczkaRepository wycieczkaRepository;
+
+    private final IndeksZajetosci zajetosc = new IndeksZajetosci();
+
+    @PostConstruct
+    public void przebuduj() {
+        List<Object[]> terminy = wycieczkaRepository.findTerminyAktywnychWycieczekZPilotem();
+        zajetosc.przebuduj(terminy);
+
+        System.out.println("Zbudowano indeks dostępności pilotów: " + terminy.size() + " wycieczek");
+    }
+
+    /**
+     * Uwzględnia aktualny stan wycieczki (przydział pilota, terminy, status)
+     */
+    public void aktualizuj(Long wycieczkaId, Long pilotId, LocalDate dataOd, LocalDate dataDo, String status) {
+        zajetosc.aktualizuj(wycieczkaId, pilotId, dataOd, dataDo, status);
+    }
+
+    /**
+     * Usuwa wycieczkę z indeksu
+     */
+    public void usun(Long wycieczkaId) {
+        aktualizuj(wycieczkaId, null, null, null, null);
+    }
+
+    /**
+     * Sprawdza czy pilot nie ma aktywnej wycieczki w podanym okresie
+     */
+    public boolean czyWolny(Long pilotId, LocalDate dataOd, LocalDate dataDo) {
+        return zajetosc.czyWolny(pilotId, dataOd, dataDo);
+    }
+}
@@ -0,0 +1,429 @@
+package org.tourmanager.service;
+
+import org.tourmanager.repository.HotelRepository;
+import org.tourmanager.repository.KlientRepository;
+import org.tourmanager.repository.OfertaTurystycznaRepository;
+import org.tourmanager.repository.PilotRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import jakarta.annotation.PostConstruct;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Odwrócony indeks trigramów dla pól tekstowych ofert, hoteli, klientów i pilotów - zastępuje
+ * wyszukiwanie LIKE '%...%', które zawsze skanuje całą tabelę.
+ *
+ * Teksty są sprowadzane do małych liter bez polskich znaków, więc "Łódź" znajduje się po "lodz".
+ * Kandydaci to część wspólna list wystąpień trigramów zapytania (posortowane tablice id),
+ * a każdy z nich jest sprawdzany na złożonym tekście, więc wynik jest taki jak dla LIKE
+ * na wszystkich słowach zapytania. Trafienia sortowane są według trafności: całe słowo,
+ * początek słowa, fragment słowa, a przy remisie krótszy tekst.
+ *
+ * Indeks budowany jest przy starcie i aktualizowany po zatwierdzeniu zmian encji
+ * (IndeksTekstowyListener); zapisy z pominięciem JPA (import) wymagają przebudowy.
+ */
+@Component
+public class IndeksTekstowy {
+
+    public enum Pole {
+        OFERTA_NAZWA, HOTEL_NAZWA, HOTEL_OSOBA_KONTAKTOWA, HOTEL_WARUNKI_WSPOLPRACY,
+        KLIENT_NAZWISKO, PILOT_JEZYKI, PILOT_SPECJALIZACJE
+    }
+
+    private static final Pattern ZNAKI_DIAKRYTYCZNE = Pattern.compile("\\p{M}");
+    private static final Pattern SEPARATORY = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    @Autowired
+    private OfertaTurystycznaRepository ofertaRepository;
+
+    @Autowired
+    private HotelRepository hotelRepository;
+
+    @Autowired
+    private KlientRepository klientRepository;
+
+    @Autowired
+    private PilotRepository pilotRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final Map<Pole, WpisPola> pola = new EnumMap<>(Pole.class);
+
+    private TransactionTemplate transakcjaOdczytu;
+
+    public IndeksTekstowy() {
+        for (Pole pole : Pole.values()) {
+            pola.put(pole, new WpisPola());
+        }
+    }
+
+    @PostConstruct
+    public void przebuduj() {
+        transakcjaOdczytu = new TransactionTemplate(transactionManager);
+        transakcjaOdczytu.setReadOnly(true);
+
+        przebudujOferty();
+        przebudujHotele();
+        przebudujKlientow();
+        przebudujPilotow();
+    }
+
+    public void przebudujOferty() {
+        przebuduj(ofertaRepository::streamTekstyDoIndeksu, Pole.OFERTA_NAZWA);
+    }
+
+    public void przebudujHotele() {
+        przebuduj(hotelRepository::streamTekstyDoIndeksu,
+                Pole.HOTEL_NAZWA, Pole.HOTEL_OSOBA_KONTAKTOWA, Pole.HOTEL_WARUNKI_WSPOLPRACY);
+    }
+
+    public void przebudujKlientow() {
+        przebuduj(klientRepository::streamTekstyDoIndeksu, Pole.KLIENT_NAZWISKO);
+    }
+
+    public void przebudujPilotow() {
+        przebuduj(pilotRepository::streamTekstyDoIndeksu, Pole.PILOT_JEZYKI, Pole.PILOT_SPECJALIZACJE);
+    }
+
+    /**
+     * Ustawia tekst pola dokumentu (null usuwa dokument z indeksu pola)
+     */
+    public void aktualizuj(Pole pole, Long id, String tekst) {
+        if (id == null) {
+            return;
+        }
+        String zlozony = zloz(tekst);
+        WpisPola wpis = pola.get(pole);
+        synchronized (wpis) {
+            wpis.biezacy.ustaw(id, zlozony);
+            if (wpis.zmianyPodczasPrzebudowy != null) {
+                wpis.zmianyPodczasPrzebudowy.add(new Object[]{id, zlozony});
+            }
+        }
+    }
+
+    public void usun(Pole pole, Long id) {
+        aktualizuj(pole, id, null);
+    }
+
+    /**
+     * Identyfikatory dokumentów, których pole zawiera wszystkie słowa zapytania, od najtrafniejszych
+     */
+    public List<Long> szukaj(Pole pole, String zapytanie, int limit) {
+        String zlozone = zloz(zapytanie);
+        if (zlozone == null || limit <= 0) {
+            return List.of();
+        }
+        return pola.get(pole).biezacy.szukaj(zlozone.split(" "), limit);
+    }
+
+    public int liczbaDokumentow(Pole pole) {
+        return pola.get(pole).biezacy.liczbaDokumentow();
+    }
+
+    /**
+     * Małe litery bez znaków diakrytycznych, znaki inne niż litery i cyfry zamienione na pojedyncze spacje
+     */
+    static String zloz(String tekst) {
+        if (tekst == null) {
+            return null;
+        }
+        String rozlozony = Normalizer.normalize(tekst.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        String bezZnakow = ZNAKI_DIAKRYTYCZNE.matcher(rozlozony).replaceAll("").replace('ł', 'l');
+        String zlozony = SEPARATORY.matcher(bezZnakow).replaceAll(" ").trim();
+        return zlozony.isEmpty() ? null : zlozony;
+    }
+
+    /**
+     * Nowy indeks budowany jest obok bieżącego, który do końca przebudowy obsługuje wyszukiwanie.
+     * Zmiany zatwierdzone w tym czasie są zapamiętywane i nakładane na nowy indeks przed podmianą.
+     */
+    private void przebuduj(Supplier<Stream<Object[]>> zrodlo, Pole... polaEncji) {
+        Map<Pole, IndeksPola> nowe = new EnumMap<>(Pole.class);
+        for (Pole pole : polaEncji) {
+            WpisPola wpis = pola.get(pole);
+            synchronized (wpis) {
+                wpis.zmianyPodczasPrzebudowy = new ArrayList<>();
+            }
+            nowe.put(pole, new IndeksPola());
+        }
+
+        try {
+            transakcjaOdczytu.executeWithoutResult(status -> {
+                try (Stream<Object[]> wiersze = zrodlo.get()) {
+                    wiersze.forEach(wiersz -> {
+                        Long id = (Long) wiersz[0];
+                        for (int i = 0; i < polaEncji.length; i++) {
+                            String tekst = zloz((String) wiersz[i + 1]);
+                            if (tekst != null) {
+                                nowe.get(polaEncji[i]).ustaw(id, tekst);
+                            }
+                        }
+                    });
+                }
+            });
+        } catch (RuntimeException e) {
+            for (Pole pole : polaEncji) {
+                WpisPola wpis = pola.get(pole);
+                synchronized (wpis) {
+                    wpis.zmianyPodczasPrzebudowy = null;
+                }
+            }
+            throw e;
+        }
+
+        for (Pole pole : polaEncji) {
+            WpisPola wpis = pola.get(pole);
+            IndeksPola indeks = nowe.get(pole);
+            synchronized (wpis) {
+                for (Object[] zmiana : wpis.zmianyPodczasPrzebudowy) {
+                    indeks.ustaw((Long) zmiana[0], (String) zmiana[1]);
+                }
+                wpis.biezacy = indeks;
+                wpis.zmianyPodczasPrzebudowy = null;
+            }
+            System.out.println("Zbudowano indeks tekstowy " + pole + ": " + indeks.liczbaDokumentow() + " dokumentów");
+        }
+    }
+
+    private static final class WpisPola {
+        volatile IndeksPola biezacy = new IndeksPola();
+        List<Object[]> zmianyPodczasPrzebudowy;
+    }
+
+    /**
+     * Indeks jednego pola: złożone teksty dokumentów i listy wystąpień trigramów
+     */
+    private static final class IndeksPola {
+        private final ReadWriteLock blokada = new ReentrantReadWriteLock();
+        private final Map<Long, String> teksty = new HashMap<>();
+        private final Map<Long, ListaWystapien> wystapienia = new HashMap<>();
+
+        int liczbaDokumentow() {
+            blokada.readLock().lock();
+            try {
+                return teksty.size();
+            } finally {
+                blokada.readLock().unlock();
+            }
+        }
+
+        void ustaw(Long id, String tekst) {
+            blokada.writeLock().lock();
+            try {
+                String poprzedni = tekst != null ? teksty.put(id, tekst) : teksty.remove(id);
+                if (tekst != null && tekst.equals(poprzedni)) {
+                    return;
+                }
+                Set<Long> stare = trigramy(poprzedni);
+                Set<Long> nowe = trigramy(tekst);
+                for (Long trigram : stare) {
+                    if (!nowe.contains(trigram)) {
+                        ListaWystapien lista = wystapienia.get(trigram);
+                        if (lista != null && lista.usun(id) == 0) {
+                            wystapienia.remove(trigram);
+                        }
+                    }
+                }
+                for (Long trigram : nowe) {
+                    if (!stare.contains(trigram)) {
+                        wystapienia.computeIfAbsent(trigram, t -> new ListaWystapien()).dodaj(id);
+                    }
+                }
+            } finally {
+                blokada.writeLock().unlock();
+            }
+        }
+
+        List<Long> szukaj(String[] slowa, int limit) {
+            // Kopiec limit najlepszych trafień - najsłabsze na szczycie
+            PriorityQueue<Trafienie> trafienia = new PriorityQueue<>(KOLEJNOSC_TRAFIEN.reversed());
+            blokada.readLock().lock();
+            try {
+                List<ListaWystapien> listy = new ArrayList<>();
+                for (Long trigram : trigramy(String.join(" ", slowa))) {
+                    ListaWystapien lista = wystapienia.get(trigram);
+                    if (lista == null) {
+                        return List.of();
+                    }
+                    listy.add(lista);
+                }
+
+                if (listy.isEmpty()) {
+                    // Same krótkie słowa (poniżej 3 znaków) - sprawdzenie wszystkich tekstów w pamięci
+                    for (Map.Entry<Long, String> dokument : teksty.entrySet()) {
+                        dodajTrafienie(trafienia, limit, dokument.getKey(), dokument.getValue(), slowa);
+                    }
+                } else {
+                    listy.sort(Comparator.comparingInt(lista -> lista.rozmiar));
+                    long[] kandydaci = Arrays.copyOf(listy.get(0).idy, listy.get(0).rozmiar);
+                    int liczba = kandydaci.length;
+                    for (int i = 1; i < listy.size() && liczba > 0; i++) {
+                        liczba = czescWspolna(kandydaci, liczba, listy.get(i));
+                    }
+                    for (int i = 0; i < liczba; i++) {
+                        dodajTrafienie(trafienia, limit, kandydaci[i], teksty.get(kandydaci[i]), slowa);
+                    }
+                }
+            } finally {
+                blokada.readLock().unlock();
+            }
+
+            List<Trafienie> najlepsze = new ArrayList<>(trafienia);
+            najlepsze.sort(KOLEJNOSC_TRAFIEN);
+            List<Long> wynik = new ArrayList<>(najlepsze.size());
+            for (Trafienie trafienie : najlepsze) {
+                wynik.add(trafienie.id);
+            }
+            return wynik;
+        }
+
+        private static void dodajTrafienie(PriorityQueue<Trafienie> trafienia, int limit,
+                                           long id, String tekst, String[] slowa) {
+            int wynik = 0;
+            for (String slowo : slowa) {
+                int ocena = ocenaSlowa(tekst, slowo);
+                if (ocena == 0) {
+                    return;
+                }
+                wynik += ocena;
+            }
+            Trafienie trafienie = new Trafienie(id, wynik, tekst.length());
+            if (trafienia.size() < limit) {
+                trafienia.add(trafienie);
+            } else if (KOLEJNOSC_TRAFIEN.compare(trafienie, trafienia.peek()) < 0) {
+                trafienia.poll();
+                trafienia.add(trafienie);
+            }
+        }
+
+        /**
+         * 3 - całe słowo tekstu, 2 - początek słowa, 1 - fragment słowa, 0 - brak
+         */
+        private static int ocenaSlowa(String tekst, String slowo) {
+            int najlepsza = 0;
+            int od = tekst.indexOf(slowo);
+            while (od >= 0 && najlepsza < 3) {
+                boolean poczatek = od == 0 || tekst.charAt(od - 1) == ' ';
+                int koniec = od + slowo.length();
+                boolean calosc = poczatek && (koniec == tekst.length() || tekst.charAt(koniec) == ' ');
+                najlepsza = Math.max(najlepsza, calosc ? 3 : poczatek ? 2 : 1);
+                od = tekst.indexOf(slowo, od + 1);
+            }
+            return najlepsza;
+        }
+
+        /**
+         * Zostawia w kandydatach tylko id obecne na liście (obie tablice posortowane); zwraca nową liczbę
+         */
+        private static int czescWspolna(long[] kandydaci, int liczba, ListaWystapien lista) {
+            int wynik = 0;
+            int j = 0;
+            for (int i = 0; i < liczba && j < lista.rozmiar; i++) {
+                long id = kandydaci[i];
+                while (j < lista.rozmiar && lista.idy[j] < id) {
+                    j++;
+                }
+                if (j < lista.rozmiar && lista.idy[j] == id) {
+                    kandydaci[wynik++] = id;
+                }
+            }
+            return wynik;
+        }
+
+        /**
+         * Trigramy słów tekstu zakodowane w long (3 znaki po 16 bitów); słowa krótsze niż 3 znaki są pomijane
+         */
+        private static Set<Long> trigramy(String tekst) {
+            if (tekst == null) {
+                return Set.of();
+            }
+            Set<Long> wynik = new HashSet<>();
+            int poczatekSlowa = 0;
+            for (int i = 0; i <= tekst.length(); i++) {
+                if (i == tekst.length() || tekst.charAt(i) == ' ') {
+                    for (int j = poczatekSlowa; j + 3 <= i; j++) {
+                        wynik.add(((long) tekst.charAt(j) << 32) | ((long) tekst.charAt(j + 1) << 16) | tekst.charAt(j + 2));
+                    }
+                    poczatekSlowa = i + 1;
+                }
+            }
+            return wynik;
+        }
+    }
+
+    /**
+     * Posortowana tablica identyfikatorów dokumentów zawierających trigram
+     */
+    private static final class ListaWystapien {
+        long[] idy = new long[2];
+        int rozmiar;
+
+        void dodaj(long id) {
+            if (rozmiar == 0 || idy[rozmiar - 1] < id) {
+                if (rozmiar == idy.length) {
+                    idy = Arrays.copyOf(idy, rozmiar * 2);
+                }
+                idy[rozmiar++] = id;
+                return;
+            }
+            int pozycja = Arrays.binarySearch(idy, 0, rozmiar, id);
+            if (pozycja >= 0) {
+                return;
+            }
+            pozycja = -pozycja - 1;
+            if (rozmiar == idy.length) {
+                idy = Arrays.copyOf(idy, rozmiar * 2);
+            }
+            System.arraycopy(idy, pozycja, idy, pozycja + 1, rozmiar - pozycja);
+            idy[pozycja] = id;
+            rozmiar++;
+        }
+
+        int usun(long id) {
+            int pozycja = Arrays.binarySearch(idy, 0, rozmiar, id);
+            if (pozycja >= 0) {
+                System.arraycopy(idy, pozycja + 1, idy, pozycja, rozmiar - pozycja - 1);
+                rozmiar--;
+            }
+            return rozmiar;
+        }
+    }
+
+    private static final Comparator<Trafienie> KOLEJNOSC_TRAFIEN =
+            Comparator.comparingInt((Trafienie t) -> -t.wynik)
+                    .thenComparingInt(t -> t.dlugosc)
+                    .thenComparingLong(t -> t.id);
+
+    private static final class Trafienie {
+        final long id;
+        final int wynik;
+        final int dlugosc;
+
+        Trafienie(long id, int wynik, int dlugosc) {
+            this.id = id;
+            this.wynik = wynik;
+            this.dlugosc = dlugosc;
+        }
+    }
+}
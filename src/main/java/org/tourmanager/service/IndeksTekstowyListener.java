@@ -0,0 +1,83 @@
+package org.tourmanager.service;
+
+import org.tourmanager.model.Hotel;
+import org.tourmanager.model.Klient;
+import org.tourmanager.model.OfertaTurystyczna;
+import org.tourmanager.model.Pilot;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Przenosi zmiany pól tekstowych ofert, hoteli, klientów i pilotów do indeksu tekstowego
+ * po zatwierdzeniu transakcji (jak WycieczkaListener dla indeksu dostępności pilotów).
+ *
+ * Zarejestrowany dla tych encji w META-INF/orm.xml; instancję tworzy Spring (SpringBeanContainer).
+ */
+@Component
+public class IndeksTekstowyListener {
+
+    // Indeks zależy od repozytoriów, a te od fabryki encji, która tworzy listener
+    private final ObjectProvider<IndeksTekstowy> indeksTekstowy;
+
+    public IndeksTekstowyListener(ObjectProvider<IndeksTekstowy> indeksTekstowy) {
+        this.indeksTekstowy = indeksTekstowy;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void poZapisie(Object encja) {
+        if (encja instanceof OfertaTurystyczna) {
+            OfertaTurystyczna oferta = (OfertaTurystyczna) encja;
+            zapisz(IndeksTekstowy.Pole.OFERTA_NAZWA, oferta.getId(), oferta.getNazwa());
+        } else if (encja instanceof Hotel) {
+            Hotel hotel = (Hotel) encja;
+            zapisz(IndeksTekstowy.Pole.HOTEL_NAZWA, hotel.getId(), hotel.getNazwa());
+            zapisz(IndeksTekstowy.Pole.HOTEL_OSOBA_KONTAKTOWA, hotel.getId(), hotel.getOsobaKontaktowa());
+            zapisz(IndeksTekstowy.Pole.HOTEL_WARUNKI_WSPOLPRACY, hotel.getId(), hotel.getWarunkiWspolpracy());
+        } else if (encja instanceof Klient) {
+            Klient klient = (Klient) encja;
+            zapisz(IndeksTekstowy.Pole.KLIENT_NAZWISKO, klient.getId(), klient.getNazwisko());
+        } else if (encja instanceof Pilot) {
+            Pilot pilot = (Pilot) encja;
+            zapisz(IndeksTekstowy.Pole.PILOT_JEZYKI, pilot.getId(), pilot.getZnajomoscJezykow());
+            zapisz(IndeksTekstowy.Pole.PILOT_SPECJALIZACJE, pilot.getId(), pilot.getSpecjalizacje());
+        }
+    }
+
+    @PostRemove
+    public void poUsunieciu(Object encja) {
+        if (encja instanceof OfertaTurystyczna) {
+            zapisz(IndeksTekstowy.Pole.OFERTA_NAZWA, ((OfertaTurystyczna) encja).getId(), null);
+        } else if (encja instanceof Hotel) {
+            Long id = ((Hotel) encja).getId();
+            zapisz(IndeksTekstowy.Pole.HOTEL_NAZWA, id, null);
+            zapisz(IndeksTekstowy.Pole.HOTEL_OSOBA_KONTAKTOWA, id, null);
+            zapisz(IndeksTekstowy.Pole.HOTEL_WARUNKI_WSPOLPRACY, id, null);
+        } else if (encja instanceof Klient) {
+            zapisz(IndeksTekstowy.Pole.KLIENT_NAZWISKO, ((Klient) encja).getId(), null);
+        } else if (encja instanceof Pilot) {
+            Long id = ((Pilot) encja).getId();
+            zapisz(IndeksTekstowy.Pole.PILOT_JEZYKI, id, null);
+            zapisz(IndeksTekstowy.Pole.PILOT_SPECJALIZACJE, id, null);
+        }
+    }
+
+    private void zapisz(IndeksTekstowy.Pole pole, Long id, String tekst) {
+        Runnable akcja = () -> indeksTekstowy.getObject().aktualizuj(pole, id, tekst);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    akcja.run();
+                }
+            });
+        } else {
+            akcja.run();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package org.tourmanager.service;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Terminy wycieczek przypisanych do zasobu (pilota, hotelu) i sprawdzanie, czy zasób jest wolny w okresie.
+ *
+ * Dla każdego zasobu przechowywana jest posortowana mapa rozłącznych przedziałów zajętości
+ * (nakładające się wycieczki są scalane). Przedziały się nie nakładają, więc zamiast drzewa
+ * przedziałów wystarcza jedno floorEntry: ostatni przedział zaczynający się nie później niż
+ * dataDo koliduje wtedy i tylko wtedy, gdy kończy się nie wcześniej niż dataOd - O(log m).
+ */
+final class IndeksZajetosci {
+
+    private final ReadWriteLock blokada = new ReentrantReadWriteLock();
+
+    // wycieczkaId -> zasobId
+    private final Map<Long, Long> zasobWycieczki = new HashMap<>();
+
+    // zasobId -> (wycieczkaId -> [dataRozpoczecia, dataZakonczenia])
+    private final Map<Long, Map<Long, LocalDate[]>> wycieczkiZasobu = new HashMap<>();
+
+    // zasobId -> scalone przedziały zajętości (początek -> koniec)
+    private final Map<Long, NavigableMap<LocalDate, LocalDate>> zajetosc = new HashMap<>();
+
+    /**
+     * Zastępuje zawartość indeksu terminami (id wycieczki, id zasobu, od, do)
+     */
+    void przebuduj(Iterable<Object[]> terminy) {
+        blokada.writeLock().lock();
+        try {
+            zasobWycieczki.clear();
+            wycieczkiZasobu.clear();
+            zajetosc.clear();
+
+            for (Object[] termin : terminy) {
+                dodajBezScalania((Long) termin[0], (Long) termin[1], (LocalDate) termin[2], (LocalDate) termin[3]);
+            }
+            for (Long zasobId : wycieczkiZasobu.keySet()) {
+                scalZajetosc(zasobId);
+            }
+        } finally {
+            blokada.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Uwzględnia aktualny stan wycieczki (przypisany zasób, terminy, status)
+     */
+    void aktualizuj(Long wycieczkaId, Long zasobId, LocalDate dataOd, LocalDate dataDo, String status) {
+        if (wycieczkaId == null) {
+            return;
+        }
+
+        boolean zajmujeZasob = zasobId != null && dataOd != null && dataDo != null &&
+                ("PLANOWANA".equals(status) || "W_TRAKCIE".equals(status));
+
+        blokada.writeLock().lock();
+        try {
+            Long poprzedniZasob = usunBezScalania(wycieczkaId);
+            if (zajmujeZasob) {
+                dodajBezScalania(wycieczkaId, zasobId, dataOd, dataDo);
+                scalZajetosc(zasobId);
+            }
+            if (poprzedniZasob != null && !poprzedniZasob.equals(zasobId)) {
+                scalZajetosc(poprzedniZasob);
+            }
+        } finally {
+            blokada.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Sprawdza czy zasób nie ma aktywnej wycieczki w podanym okresie
+     */
+    boolean czyWolny(Long zasobId, LocalDate dataOd, LocalDate dataDo) {
+        blokada.readLock().lock();
+        try {
+            NavigableMap<LocalDate, LocalDate> przedzialy = zajetosc.get(zasobId);
+            if (przedzialy == null) {
+                return true;
+            }
+            Map.Entry<LocalDate, LocalDate> ostatniPrzed = przedzialy.floorEntry(dataDo);
+            return ostatniPrzed == null || ostatniPrzed.getValue().isBefore(dataOd);
+        } finally {
+            blokada.readLock().unlock();
+        }
+    }
+
+    private void dodajBezScalania(Long wycieczkaId, Long zasobId, LocalDate dataOd, LocalDate dataDo) {
+        zasobWycieczki.put(wycieczkaId, zasobId);
+        wycieczkiZasobu.computeIfAbsent(zasobId, id -> new HashMap<>())
+                .put(wycieczkaId, new LocalDate[]{dataOd, dataDo});
+    }
+
+    private Long usunBezScalania(Long wycieczkaId) {
+        Long zasobId = zasobWycieczki.remove(wycieczkaId);
+        if (zasobId != null) {
+            Map<Long, LocalDate[]> wycieczki = wycieczkiZasobu.get(zasobId);
+            if (wycieczki != null) {
+                wycieczki.remove(wycieczkaId);
+            }
+        }
+        return zasobId;
+    }
+
+    private void scalZajetosc(Long zasobId) {
+        Map<Long, LocalDate[]> wycieczki = wycieczkiZasobu.get(zasobId);
+        if (wycieczki == null || wycieczki.isEmpty()) {
+            wycieczkiZasobu.remove(zasobId);
+            zajetosc.remove(zasobId);
+            return;
+        }
+
+        TreeMap<LocalDate, LocalDate> posortowane = new TreeMap<>();
+        for (LocalDate[] termin : wycieczki.values()) {
+            posortowane.merge(termin[0], termin[1], (a, b) -> a.isAfter(b) ? a : b);
+        }
+
+        TreeMap<LocalDate, LocalDate> scalone = new TreeMap<>();
+        LocalDate poczatek = null;
+        LocalDate koniec = null;
+        for (Map.Entry<LocalDate, LocalDate> termin : posortowane.entrySet()) {
+            if (koniec != null && !termin.getKey().isAfter(koniec)) {
+                if (termin.getValue().isAfter(koniec)) {
+                    koniec = termin.getValue();
+                }
+            } else {
+                if (poczatek != null) {
+                    scalone.put(poczatek, koniec);
+                }
+                poczatek = termin.getKey();
+                koniec = termin.getValue();
+            }
+        }
+        scalone.put(poczatek, koniec);
+
+        zajetosc.put(zasobId, scalone);
+    }
+}
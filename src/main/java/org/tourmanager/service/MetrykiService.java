@@ -0,0 +1,212 @@
+package org.tourmanager.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tourmanager.repository.OfertaTurystycznaRepository;
+import org.tourmanager.repository.UmowaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metryki operacji biznesowych publikowane przez Micrometer (endpoint /actuator/prometheus).
+ *
+ * Czasy operacji to timery z histogramem (kwantyle liczone po stronie Prometheusa) i znacznikiem
+ * wyniku: sukces, odrzucona (walidacja lub brak miejsc) albo blad. Wskaźniki stanu (wolne miejsca,
+ * nieopłacone zaliczki, oczekujące rezygnacje) wymagają zapytań, więc liczone są w tle co
+ * odswiezanieWskaznikow, a odczyt przez Prometheusa zwraca ostatnie wartości bez dostępu do bazy.
+ */
+@Service
+public class MetrykiService {
+
+    private static final Logger log = LoggerFactory.getLogger(MetrykiService.class);
+
+    public static final String ZAWARCIE_UMOWY = "tourmanager.umowy.zawarcie";
+    public static final String REJESTRACJA_ZALICZKI = "tourmanager.umowy.zaliczka";
+    public static final String ANULOWANIE_UMOWY = "tourmanager.umowy.anulowanie";
+    public static final String WYSZUKIWANIE_OFERT = "tourmanager.oferty.wyszukiwanie";
+    public static final String PRZELICZENIE_DOSTEPNOSCI = "tourmanager.oferty.przeliczenie.dostepnosci";
+    public static final String DOBOR_PILOTA = "tourmanager.piloci.dobor";
+    public static final String PRZYDZIAL_PILOTA = "tourmanager.piloci.przydzial";
+    public static final String RAPORT = "tourmanager.raporty";
+
+    public static final String SPRZEDANE_MIEJSCA = "tourmanager.umowy.sprzedane.miejsca";
+    public static final String KWOTA_ZALICZEK = "tourmanager.umowy.zaliczki.kwota";
+    public static final String PRZELICZONE_OFERTY = "tourmanager.oferty.przeliczone";
+
+    public static final String SUKCES = "sukces";
+    public static final String ODRZUCONA = "odrzucona";
+    public static final String BLAD = "blad";
+
+    @Autowired
+    private MeterRegistry rejestr;
+
+    @Autowired
+    private OfertaTurystycznaRepository ofertaRepository;
+
+    @Autowired
+    private UmowaRepository umowaRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${tourmanager.metryki.odswiezanie-wskaznikow:30s}")
+    private Duration odswiezanieWskaznikow;
+
+    private TransactionTemplate transakcjaOdczytu;
+    private ScheduledExecutorService odswiezanie;
+    private MultiGauge wolneMiejscaWedlugKraju;
+    private MultiGauge wyprzedaneOfertyWedlugKraju;
+
+    // Ostatnie wartości wskaźników (zapis w wątku odświeżania, odczyt przy publikacji metryk)
+    private volatile long wolneMiejsca;
+    private volatile long wyprzedaneOferty;
+    private volatile long nieoplaconeZaliczki;
+    private volatile double kwotaNieoplaconychZaliczek;
+    private volatile long oczekujaceRezygnacje;
+
+    @PostConstruct
+    public void inicjalizuj() {
+        transakcjaOdczytu = new TransactionTemplate(transactionManager);
+        transakcjaOdczytu.setReadOnly(true);
+
+        Gauge.builder("tourmanager.oferty.wolne.miejsca.razem", this, m -> m.wolneMiejsca)
+                .description("Wolne miejsca we wszystkich aktywnych ofertach")
+                .register(rejestr);
+        Gauge.builder("tourmanager.oferty.wyprzedane.razem", this, m -> m.wyprzedaneOferty)
+                .description("Aktywne oferty bez wolnych miejsc")
+                .register(rejestr);
+        Gauge.builder("tourmanager.umowy.zaliczki.nieoplacone", this, m -> m.nieoplaconeZaliczki)
+                .description("Podpisane umowy bez wpłaconej zaliczki")
+                .register(rejestr);
+        Gauge.builder("tourmanager.umowy.zaliczki.nieoplacone.kwota", this, m -> m.kwotaNieoplaconychZaliczek)
+                .description("Kwota zaliczek oczekujących na wpłatę")
+                .baseUnit("PLN")
+                .register(rejestr);
+        Gauge.builder("tourmanager.rezygnacje.oczekujace", this, m -> m.oczekujaceRezygnacje)
+                .description("Rezygnacje zarejestrowane i jeszcze nierozpatrzone")
+                .register(rejestr);
+        // Miejsca według kraju docelowego, a nie osobno dla każdej oferty - liczba serii nie rośnie z katalogiem
+        wolneMiejscaWedlugKraju = MultiGauge.builder("tourmanager.oferty.wolne.miejsca")
+                .description("Wolne miejsca w aktywnych ofertach według kraju docelowego")
+                .register(rejestr);
+        wyprzedaneOfertyWedlugKraju = MultiGauge.builder("tourmanager.oferty.wyprzedane")
+                .description("Aktywne oferty bez wolnych miejsc według kraju docelowego")
+                .register(rejestr);
+
+        odswiezanie = Executors.newSingleThreadScheduledExecutor(zadanie -> {
+            Thread watek = new Thread(zadanie, "metryki-wskazniki");
+            watek.setDaemon(true);
+            return watek;
+        });
+        odswiezanie.scheduleWithFixedDelay(this::odswiezWskazniki, 0, odswiezanieWskaznikow.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void zamknij() {
+        odswiezanie.shutdownNow();
+    }
+
+    /**
+     * Początek pomiaru czasu operacji
+     */
+    public Timer.Sample rozpocznij() {
+        return Timer.start(rejestr);
+    }
+
+    /**
+     * Kończy pomiar i zapisuje czas w timerze operacji
+     * @param wynik SUKCES, ODRZUCONA albo BLAD
+     * @param znaczniki dodatkowe pary nazwa, wartość (np. rodzaj raportu)
+     */
+    public void zakoncz(Timer.Sample pomiar, String operacja, String wynik, String... znaczniki) {
+        pomiar.stop(Timer.builder(operacja)
+                .tags(Tags.of(znaczniki).and("wynik", wynik))
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofMinutes(5))
+                .register(rejestr));
+    }
+
+    /**
+     * Kończy pomiar operacji zapisującej po zakończeniu bieżącej transakcji: sukces (i poSukcesie,
+     * np. liczniki sprzedaży) dopiero po zatwierdzeniu, wycofanie jako błąd
+     */
+    public void zakonczPoZatwierdzeniu(Timer.Sample pomiar, String operacja, Runnable poSukcesie) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            zakoncz(pomiar, operacja, SUKCES);
+            poSukcesie.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    zakoncz(pomiar, operacja, SUKCES);
+                    poSukcesie.run();
+                } else {
+                    zakoncz(pomiar, operacja, BLAD);
+                }
+            }
+        });
+    }
+
+    public void zlicz(String licznik, double ile) {
+        Counter.builder(licznik).register(rejestr).increment(ile);
+    }
+
+    /**
+     * Przelicza wskaźniki stanu zapytaniami agregującymi (co odswiezanieWskaznikow)
+     */
+    public void odswiezWskazniki() {
+        try {
+            transakcjaOdczytu.executeWithoutResult(status -> {
+                List<MultiGauge.Row<?>> miejsca = new ArrayList<>();
+                List<MultiGauge.Row<?>> wyprzedane = new ArrayList<>();
+                long wolneRazem = 0;
+                long wyprzedaneRazem = 0;
+                for (Object[] wiersz : ofertaRepository.findWolneMiejscaWedlugKraju()) {
+                    Tags kraj = Tags.of("kraj", wiersz[0] != null ? (String) wiersz[0] : "(brak)");
+                    long wolne = ((Number) wiersz[1]).longValue();
+                    long bezMiejsc = ((Number) wiersz[2]).longValue();
+                    miejsca.add(MultiGauge.Row.of(kraj, wolne));
+                    wyprzedane.add(MultiGauge.Row.of(kraj, bezMiejsc));
+                    wolneRazem += wolne;
+                    wyprzedaneRazem += bezMiejsc;
+                }
+                wolneMiejscaWedlugKraju.register(miejsca, true);
+                wyprzedaneOfertyWedlugKraju.register(wyprzedane, true);
+                wolneMiejsca = wolneRazem;
+                wyprzedaneOferty = wyprzedaneRazem;
+
+                Object[] zaliczki = umowaRepository.obliczNieoplaconeZaliczki().get(0);
+                nieoplaconeZaliczki = ((Number) zaliczki[0]).longValue();
+                kwotaNieoplaconychZaliczek = ((Number) zaliczki[1]).doubleValue();
+                oczekujaceRezygnacje = umowaRepository.countOczekujacychRezygnacji();
+            });
+        } catch (Exception e) {
+            // Zostają poprzednie wartości - następna próba przy kolejnym odświeżeniu
+            log.warn("Nie udało się odświeżyć wskaźników metryk: {}", e.getMessage());
+        }
+    }
+}
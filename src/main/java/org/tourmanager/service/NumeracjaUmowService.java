@@ -0,0 +1,141 @@
+package org.tourmanager.service;
+
+import org.tourmanager.repository.LicznikUmowRepository;
+import org.tourmanager.repository.UmowaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import jakarta.annotation.PostConstruct;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Przydziela numery umów z licznika rocznego w tabeli licznik_umow (schemat hi/lo).
+ *
+ * Każda instancja aplikacji rezerwuje w bazie cały blok numerów jednym UPDATE-em
+ * i wydaje je z pamięci, więc kolejne umowy nie wymagają odwołania do bazy.
+ * Bloki różnych instancji nigdy się nie pokrywają, bo przesunięcie licznika
+ * blokuje jego wiersz. Niewykorzystana końcówka bloku przepada przy restarcie.
+ *
+ * Rezerwacja bloku to osobna transakcja (REQUIRES_NEW), więc wołający nie powinien
+ * trzymać już połączenia - UmowaService przydziela numer przed otwarciem swojej transakcji.
+ */
+@Service
+public class NumeracjaUmowService {
+
+    @Autowired
+    private LicznikUmowRepository licznikRepository;
+
+    @Autowired
+    private UmowaRepository umowaRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${tourmanager.umowy.rozmiar-bloku-numerow:50}")
+    private int rozmiarBloku;
+
+    private final Map<Integer, BlokNumerow> bloki = new ConcurrentHashMap<>();
+
+    private TransactionTemplate nowaTransakcja;
+
+    @PostConstruct
+    public void inicjalizuj() {
+        if (rozmiarBloku <= 0) {
+            throw new IllegalStateException("Rozmiar bloku numerów umów musi być większy od zera");
+        }
+        nowaTransakcja = new TransactionTemplate(transactionManager);
+        nowaTransakcja.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Zwraca kolejny unikalny numer umowy w danym roku.
+     * Nowy blok jest rezerwowany poza monitorem, więc wątki czekające na numer nie blokują
+     * się nawzajem na czas transakcji rezerwacji; blok zarezerwowany równolegle trafia do zapasu.
+     */
+    public long przydzielNumer(int rok) {
+        BlokNumerow blok = bloki.computeIfAbsent(rok, r -> new BlokNumerow());
+        while (true) {
+            synchronized (blok) {
+                while (blok.nastepny > blok.ostatni && !blok.zapas.isEmpty()) {
+                    blok.ustaw(blok.zapas.poll(), rozmiarBloku);
+                }
+                if (blok.nastepny <= blok.ostatni) {
+                    return blok.nastepny++;
+                }
+            }
+            long gornaGranica = zarezerwujBlok(rok);
+            synchronized (blok) {
+                blok.zapas.add(gornaGranica);
+            }
+        }
+    }
+
+    /**
+     * Uwzględnia numer nadany poza licznikiem (import umów) - kolejne numery będą od niego większe.
+     * Numery bieżącego bloku i zapasu nie większe od podanego są pomijane.
+     */
+    public void uwzglednijNumer(int rok, long numer) {
+        BlokNumerow blok = bloki.computeIfAbsent(rok, r -> new BlokNumerow());
+        synchronized (blok) {
+            // Ustawione przed podniesieniem licznika - obejmuje też bloki rezerwowane w tej chwili przez inne wątki
+            blok.minimalny = Math.max(blok.minimalny, numer);
+            blok.nastepny = Math.max(blok.nastepny, numer + 1);
+        }
+        // Brak licznika w bazie nie wymaga zmian - zostanie założony od najwyższego istniejącego numeru
+        nowaTransakcja.executeWithoutResult(status -> licznikRepository.podniesLicznik(rok, numer));
+    }
+
+    /**
+     * Rezerwuje w bazie kolejny blok numerów i zwraca jego górną granicę
+     */
+    private long zarezerwujBlok(int rok) {
+        Long gornaGranica = nowaTransakcja.execute(status -> przesunLicznik(rok));
+        if (gornaGranica != null) {
+            return gornaGranica;
+        }
+
+        // Pierwszy numer w roku - licznik startuje od najwyższego istniejącego numeru umowy
+        try {
+            nowaTransakcja.executeWithoutResult(status -> {
+                Long maksNumer = umowaRepository.findMaksNumerUmowyWRoku(rok);
+                licznikRepository.utworzLicznik(rok, maksNumer != null ? maksNumer : 0L);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Inna instancja utworzyła licznik w tym samym momencie
+        }
+
+        gornaGranica = nowaTransakcja.execute(status -> przesunLicznik(rok));
+        if (gornaGranica == null) {
+            throw new IllegalStateException("Nie udało się zarezerwować numerów umów dla roku " + rok);
+        }
+        return gornaGranica;
+    }
+
+    private Long przesunLicznik(int rok) {
+        if (licznikRepository.zwiekszLicznik(rok, rozmiarBloku) == 0) {
+            return null;
+        }
+        return licznikRepository.findOstatniNumer(rok);
+    }
+
+    private static class BlokNumerow {
+        long nastepny = 1;
+        long ostatni = 0;
+        long minimalny = 0;
+        // Górne granice bloków zarezerwowanych, gdy kilka wątków jednocześnie wyczerpało bieżący blok
+        final Deque<Long> zapas = new ArrayDeque<>();
+
+        void ustaw(long gornaGranica, int rozmiar) {
+            nastepny = Math.max(gornaGranica - rozmiar + 1, minimalny + 1);
+            ostatni = gornaGranica;
+        }
+    }
+}
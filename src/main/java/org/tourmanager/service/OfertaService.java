@@ -1,20 +1,57 @@
 package org.tourmanager.service;
 
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.tourmanager.model.*;
 import org.tourmanager.repository.OfertaTurystycznaRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 @Service
 public class OfertaService {
 
+    private static final Logger log = LoggerFactory.getLogger(OfertaService.class);
+
     @Autowired
     private OfertaTurystycznaRepository ofertaRepository;
 
+    @Autowired
+    private MetrykiService metryki;
+
+    public static final int ROZMIAR_STRONY = 50;
+    private static final int MAKS_ROZMIAR_STRONY = 500;
+
+    /** Chwila rozpoczęcia ostatniego zatwierdzonego przeliczenia dostępności (null - jeszcze nie przeliczano) */
+    private volatile LocalDateTime ostatniePrzeliczenie;
+
+    /**
+     * Okno ponownie czytanych zmian przy przeliczeniu przyrostowym - co najmniej czas najdłuższej transakcji
+     * zapisującej umowy (np. partii importu). Data modyfikacji umowy powstaje przy zapisie, a umowa staje się
+     * widoczna dopiero po zatwierdzeniu, więc bez zakładki zmiany trwających transakcji zostałyby pominięte.
+     */
+    @Value("${tourmanager.oferty.zakladka-przeliczenia:5m}")
+    private Duration zakladkaPrzeliczenia;
+
+    /** Oferty, z których usunięto umowy od ostatniego przeliczenia (usuniętej umowy nie znajdzie data modyfikacji) */
+    private final Set<Long> ofertyZUsunietymiUmowami = ConcurrentHashMap.newKeySet();
+
     /**
      * Dodaje nową ofertę turystyczną
      */
@@ -33,18 +70,70 @@ public class OfertaService {
     }
 
     /**
-     * Wyszukuje oferty według kryteriów
+     * Wyszukuje oferty według kryteriów - pierwsza strona wyników (najbliższe terminy wyjazdu)
      */
+    @Transactional(readOnly = true)
     public List<OfertaTurystyczna> wyszukajOferty(String kraj, LocalDate dataOd, LocalDate dataDo, String typ) {
         try {
-            List<OfertaTurystyczna> wyniki = ofertaRepository.findByKryteria(kraj, dataOd, dataDo, typ);
-            return wyniki != null ? wyniki : new ArrayList<>();
+            return wyszukajOferty(new KryteriaOfert(kraj, dataOd, dataDo, typ), null, ROZMIAR_STRONY, false)
+                    .getOferty();
         } catch (Exception e) {
             System.err.println("Błąd podczas wyszukiwania ofert: " + e.getMessage());
             return new ArrayList<>(); // Zwróć pustą listę zamiast null
         }
     }
 
+    /**
+     * Strona aktywnych ofert spełniających kryteria, posortowana po dacie wyjazdu i id.
+     * Kolejna strona zaczyna się za kluczem ostatniej oferty, więc jej koszt nie zależy
+     * od tego, jak daleko przewinięto wyniki.
+     * @param po klucz z poprzedniej strony (StronaOfert.getNastepna()), null - pierwsza strona
+     * @param zLiczbami true - dołącz liczby ofert według kraju i typu (zwykle tylko dla pierwszej strony)
+     */
+    @Transactional(readOnly = true)
+    public StronaOfert wyszukajOferty(KryteriaOfert kryteria, Kursor po, int rozmiar, boolean zLiczbami) {
+        Timer.Sample pomiar = metryki.rozpocznij();
+        String wynik = MetrykiService.BLAD;
+        try {
+            StronaOfert strona = wyszukajStroneOfert(kryteria, po, rozmiar, zLiczbami);
+            wynik = MetrykiService.SUKCES;
+            return strona;
+        } finally {
+            metryki.zakoncz(pomiar, MetrykiService.WYSZUKIWANIE_OFERT, wynik,
+                    "strona", po == null ? "pierwsza" : "kolejna");
+        }
+    }
+
+    private StronaOfert wyszukajStroneOfert(KryteriaOfert kryteria, Kursor po, int rozmiar, boolean zLiczbami) {
+        int limit = Math.max(1, Math.min(rozmiar, MAKS_ROZMIAR_STRONY));
+
+        // Jeden wiersz więcej - informacja, czy istnieje następna strona, bez zliczania wyników
+        List<OfertaTurystyczna> oferty = new ArrayList<>(ofertaRepository.findStronaPoKryteriach(kryteria,
+                po != null ? po.getDataWyjazdu() : null, po != null ? po.getId() : null, limit + 1));
+        Kursor nastepna = null;
+        if (oferty.size() > limit) {
+            oferty = oferty.subList(0, limit);
+            OfertaTurystyczna ostatnia = oferty.get(limit - 1);
+            nastepna = new Kursor(ostatnia.getDataWyjazdu(), ostatnia.getId());
+        }
+
+        Map<String, Long> wedlugKraju = null;
+        Map<String, Long> wedlugTypu = null;
+        if (zLiczbami) {
+            wedlugKraju = doMapy(ofertaRepository.findLiczbyOfertWedlugKraju(kryteria));
+            wedlugTypu = doMapy(ofertaRepository.findLiczbyOfertWedlugTypu(kryteria));
+        }
+        return new StronaOfert(oferty, nastepna, wedlugKraju, wedlugTypu);
+    }
+
+    private static Map<String, Long> doMapy(List<Object[]> wiersze) {
+        Map<String, Long> mapa = new LinkedHashMap<>();
+        for (Object[] wiersz : wiersze) {
+            mapa.put(wiersz[0] != null ? (String) wiersz[0] : "(brak)", (Long) wiersz[1]);
+        }
+        return mapa;
+    }
+
     public List<OfertaTurystyczna> pobierzAktywneOferty() {
         try {
             List<OfertaTurystyczna> oferty = ofertaRepository.findByStatusOferty("AKTYWNA");
@@ -56,15 +145,93 @@ public class OfertaService {
     }
 
     /**
-     * Aktualizuje dostępność wszystkich ofert
+     * Aktualizuje dostępność wszystkich ofert (wywołanie na this omija proxy - transakcja deklarowana tutaj)
      */
+    @Transactional
     public void aktualizujDostepnoscOfert() {
-        List<OfertaTurystyczna> oferty = pobierzAktywneOferty();
-        for (OfertaTurystyczna oferta : oferty) {
-            oferta.sprawdzDostepnosc();
-            ofertaRepository.save(oferta);
+        aktualizujDostepnoscOfert(false);
+    }
+
+    /**
+     * Przelicza dostępność ofert zapytaniami zbiorczymi - bez ładowania ofert i ich umów
+     * @param przyrostowo true - tylko oferty, których umowy zmieniły się (lub zostały usunięte)
+     *                    od poprzedniego przeliczenia
+     * @return liczba przeliczonych ofert
+     */
+    @Transactional
+    public int aktualizujDostepnoscOfert(boolean przyrostowo) {
+        Timer.Sample pomiar = metryki.rozpocznij();
+        String wynik = MetrykiService.BLAD;
+        LocalDateTime poczatek = LocalDateTime.now();
+        LocalDateTime ostatnie = ostatniePrzeliczenie;
+        boolean tylkoZmienione = przyrostowo && ostatnie != null;
+        // Pełne przeliczenie obejmuje także oferty po usunięciu umów
+        Set<Long> poUsunieciu = new HashSet<>(ofertyZUsunietymiUmowami);
+        ofertyZUsunietymiUmowami.removeAll(poUsunieciu);
+        try {
+            int przeliczone = przeliczDostepnosc(tylkoZmienione,
+                    tylkoZmienione ? ostatnie.minus(zakladkaPrzeliczenia) : null, poUsunieciu);
+            poZakonczeniu(zatwierdzona -> {
+                if (zatwierdzona) {
+                    ostatniePrzeliczenie = poczatek;
+                } else {
+                    ofertyZUsunietymiUmowami.addAll(poUsunieciu);
+                }
+            });
+            metryki.zlicz(MetrykiService.PRZELICZONE_OFERTY, przeliczone);
+            wynik = MetrykiService.SUKCES;
+            return przeliczone;
+        } catch (RuntimeException e) {
+            ofertyZUsunietymiUmowami.addAll(poUsunieciu);
+            throw e;
+        } finally {
+            metryki.zakoncz(pomiar, MetrykiService.PRZELICZENIE_DOSTEPNOSCI, wynik,
+                    "tryb", tylkoZmienione ? "przyrostowy" : "pelny");
         }
-        System.out.println("Zaktualizowano dostępność " + oferty.size() + " ofert");
+    }
+
+    /**
+     * Odnotowuje usunięcie umowy oferty - przeliczy ją następne przeliczenie przyrostowe.
+     * Wywoływane po zatwierdzeniu usunięcia (UmowaListener).
+     */
+    public void oznaczUsuniecieUmowy(Long ofertaId) {
+        if (ofertaId != null) {
+            ofertyZUsunietymiUmowami.add(ofertaId);
+        }
+    }
+
+    private int przeliczDostepnosc(boolean przyrostowo, LocalDateTime od, Set<Long> poUsunieciu) {
+        int zdezaktywowane = ofertaRepository.dezaktywujPrzeszleOferty(LocalDate.now());
+
+        int przeliczone;
+        if (przyrostowo) {
+            przeliczone = ofertaRepository.przeliczDostepneMiejscaZmienionychOd(od);
+            if (!poUsunieciu.isEmpty()) {
+                przeliczone += ofertaRepository.przeliczDostepneMiejscaOfert(poUsunieciu);
+            }
+        } else {
+            przeliczone = ofertaRepository.przeliczDostepneMiejsca();
+        }
+
+        log.info("Zaktualizowano dostępność {} ofert{}, zdezaktywowano {} przeszłych ofert",
+                przeliczone, przyrostowo ? " (przyrostowo)" : "", zdezaktywowane);
+        return przeliczone;
+    }
+
+    /**
+     * Wykonuje akcję po zakończeniu bieżącej transakcji z informacją, czy została zatwierdzona
+     */
+    private static void poZakonczeniu(Consumer<Boolean> akcja) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            akcja.accept(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                akcja.accept(status == STATUS_COMMITTED);
+            }
+        });
     }
 
     /**
@@ -75,27 +242,50 @@ public class OfertaService {
         return oferta.orElse(null);
     }
 
+    public List<OfertaTurystyczna> getAllOferty() {
+        return ofertaRepository.findAll();
+    }
+
     /**
-     * Pobiera wymagany język na podstawie destynacji
+     * Klucz stronicowania: data wyjazdu i id ostatniej oferty poprzedniej strony
      */
-    private String pobierzWymaganyJezyk(Wycieczka wycieczka) {
-        if (wycieczka.getOferta() != null) {
-            String kraj = wycieczka.getOferta().getKrajDocelowy();
-            if (kraj != null) {
-                switch (kraj.toLowerCase()) {
-                    case "niemcy": return "Niemiecki";
-                    case "francja": return "Francuski";
-                    case "hiszpania": return "Hiszpański";
-                    case "włochy": return "Włoski";
-                    case "grecja": return "Grecki";
-                    case "chorwacja": return "Chorwacki";
-                    default: return "Angielski";
-                }
-            }
+    public static final class Kursor {
+        private final LocalDate dataWyjazdu;
+        private final Long id;
+
+        public Kursor(LocalDate dataWyjazdu, Long id) {
+            this.dataWyjazdu = dataWyjazdu;
+            this.id = id;
         }
-        return null;
+
+        public LocalDate getDataWyjazdu() { return dataWyjazdu; }
+        public Long getId() { return id; }
     }
-    public List<OfertaTurystyczna> getAllOferty() {
-        return ofertaRepository.findAll();
+
+    /**
+     * Strona wyników wyszukiwania ofert z opcjonalnymi liczbami ofert według kraju i typu
+     */
+    public static final class StronaOfert {
+        private final List<OfertaTurystyczna> oferty;
+        private final Kursor nastepna;
+        private final Map<String, Long> liczbyWedlugKraju;
+        private final Map<String, Long> liczbyWedlugTypu;
+
+        StronaOfert(List<OfertaTurystyczna> oferty, Kursor nastepna,
+                    Map<String, Long> liczbyWedlugKraju, Map<String, Long> liczbyWedlugTypu) {
+            this.oferty = oferty;
+            this.nastepna = nastepna;
+            this.liczbyWedlugKraju = liczbyWedlugKraju;
+            this.liczbyWedlugTypu = liczbyWedlugTypu;
+        }
+
+        public List<OfertaTurystyczna> getOferty() { return oferty; }
+        /** Klucz następnej strony albo null, gdy to ostatnia strona */
+        public Kursor getNastepna() { return nastepna; }
+        public boolean isMaNastepna() { return nastepna != null; }
+        /** Liczby ofert według kraju (bez filtra kraju) albo null, gdy nie pobierano */
+        public Map<String, Long> getLiczbyWedlugKraju() { return liczbyWedlugKraju; }
+        /** Liczby ofert według typu (bez filtra typu) albo null, gdy nie pobierano */
+        public Map<String, Long> getLiczbyWedlugTypu() { return liczbyWedlugTypu; }
     }
-}
\ No newline at end of file
+}
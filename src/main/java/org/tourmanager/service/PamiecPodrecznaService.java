@@ -0,0 +1,138 @@
+package org.tourmanager.service;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tourmanager.config.PamiecPodrecznaConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import jakarta.persistence.EntityManagerFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Statystyki i czyszczenie pamięci podręcznej drugiego poziomu (regiony z PamiecPodrecznaConfig).
+ *
+ * Trafienia, chybienia i zapisy pochodzą ze statystyk Hibernate (tylko gdy są włączone),
+ * liczba usunięć z powodu limitu rozmiaru lub wygaśnięcia - ze statystyk JCache (MBean CacheStatistics).
+ */
+@Service
+public class PamiecPodrecznaService {
+
+    private static final List<String> REGIONY = List.of(
+            PamiecPodrecznaConfig.REGION_HOTELI,
+            PamiecPodrecznaConfig.REGION_PILOTOW,
+            PamiecPodrecznaConfig.REGION_ZAPYTAN_HOTELI,
+            PamiecPodrecznaConfig.REGION_ZAPYTAN_PILOTOW,
+            PamiecPodrecznaConfig.REGION_ZAPYTAN_DOMYSLNY);
+
+    private static final Logger log = LoggerFactory.getLogger(PamiecPodrecznaService.class);
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Statystyki regionów: region, trafienia, chybienia, zapisy, usunięcia (limit/wygaśnięcie).
+     * Przy wyłączonych statystykach Hibernate trafienia, chybienia i zapisy nie są zbierane.
+     */
+    public List<Object[]> statystykiRegionow() {
+        Statistics statystyki = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<Object[]> wynik = new ArrayList<>();
+        for (String region : REGIONY) {
+            CacheRegionStatistics stat = statystyki.getCacheRegionStatistics(region);
+            if (stat == null) {
+                // Region jeszcze nieużyty - Hibernate tworzy statystyki przy pierwszym dostępie
+                wynik.add(new Object[]{region, 0L, 0L, 0L, usunieciaRegionu(region)});
+            } else {
+                wynik.add(new Object[]{region, stat.getHitCount(), stat.getMissCount(), stat.getPutCount(),
+                        usunieciaRegionu(region)});
+            }
+        }
+        return wynik;
+    }
+
+    /**
+     * Raport tekstowy statystyk pamięci podręcznej
+     */
+    public String generujRaportPamieciPodrecznej() {
+        Statistics statystyki = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        StringBuilder raport = new StringBuilder();
+        raport.append("=== PAMIĘĆ PODRĘCZNA DRUGIEGO POZIOMU ===\n\n");
+
+        if (!statystyki.isStatisticsEnabled()) {
+            raport.append("Statystyki Hibernate są wyłączone (hibernate.generate_statistics=false) - " +
+                    "trafienia, chybienia i zapisy nie są zbierane.\n\n");
+            raport.append(String.format("%-30s %10s%n", "Region", "Usunięcia"));
+            for (String region : REGIONY) {
+                raport.append(String.format("%-30s %10d%n", region, usunieciaRegionu(region)));
+            }
+            return raport.toString();
+        }
+
+        raport.append(String.format("%-30s %10s %10s %10s %10s %8s%n",
+                "Region", "Trafienia", "Chybienia", "Zapisy", "Usunięcia", "Traf.%"));
+
+        for (Object[] wiersz : statystykiRegionow()) {
+            long trafienia = (Long) wiersz[1];
+            long chybienia = (Long) wiersz[2];
+            long odczyty = trafienia + chybienia;
+            raport.append(String.format("%-30s %10d %10d %10d %10d %8s%n",
+                    wiersz[0], trafienia, chybienia, wiersz[3], wiersz[4],
+                    odczyty == 0 ? "-" : String.format("%.1f", trafienia * 100.0 / odczyty)));
+        }
+
+        raport.append(String.format("%nZapytania z pamięci podręcznej: trafienia %d, chybienia %d, zapisy %d%n",
+                statystyki.getQueryCacheHitCount(), statystyki.getQueryCacheMissCount(),
+                statystyki.getQueryCachePutCount()));
+        raport.append(String.format("Statystyki zbierane od: %s%n",
+                statystyki.getStart()));
+        return raport.toString();
+    }
+
+    /**
+     * Usuwa z pamięci podręcznej encje danych klas oraz wszystkie wyniki zapytań.
+     * Do wywołania po zmianach zapisanych z pominięciem Hibernate (JDBC), których
+     * pamięć podręczna sama nie zauważy.
+     */
+    public void wyczyscPoZapisieJdbc(Class<?>... encje) {
+        Cache pamiec = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        for (Class<?> encja : encje) {
+            pamiec.evictEntityData(encja);
+        }
+        pamiec.evictQueryRegions();
+    }
+
+    /**
+     * Czyści całą pamięć podręczną i zeruje statystyki
+     */
+    public void wyczyscWszystko() {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        sessionFactory.getStatistics().clear();
+        log.info("Wyczyszczono pamięć podręczną drugiego poziomu");
+    }
+
+    private static long usunieciaRegionu(String region) {
+        try {
+            MBeanServer serwer = ManagementFactory.getPlatformMBeanServer();
+            Set<ObjectName> nazwy = serwer.queryNames(
+                    new ObjectName("javax.cache:type=CacheStatistics,Cache=" + region + ",*"), null);
+            long usuniecia = 0;
+            for (ObjectName nazwa : nazwy) {
+                usuniecia += (Long) serwer.getAttribute(nazwa, "CacheEvictions");
+            }
+            return usuniecia;
+        } catch (Exception e) {
+            log.warn("Nie można odczytać statystyk JCache regionu {}: {}", region, e.getMessage());
+            return 0;
+        }
+    }
+}
@@ -1,28 +1,84 @@
 package org.tourmanager.service;
 
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.tourmanager.model.*;
 import org.tourmanager.repository.PilotRepository;
 import org.tourmanager.repository.WycieczkaRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import jakarta.annotation.PostConstruct;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.stream.Collector;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class PilotService {
 
+    private static final Logger log = LoggerFactory.getLogger(PilotService.class);
+
+    // Od tej liczby kandydatów punkty rekomendacji liczone są równolegle
+    private static final int PROG_OCENY_ROWNOLEGLEJ = 500;
+
+    // Więcej punktów wyżej, przy remisie mniejsze ID pilota
+    private static final Comparator<RekomendacjaPilota> KOLEJNOSC_REKOMENDACJI =
+            Comparator.comparingInt(RekomendacjaPilota::getPunkty).reversed()
+                    .thenComparing(rekomendacja -> rekomendacja.getPilot().getId(),
+                            Comparator.nullsLast(Comparator.naturalOrder()));
+
     @Autowired
     private PilotRepository pilotRepository;
 
     @Autowired
     private WycieczkaRepository wycieczkaRepository;
 
+    @Autowired
+    private IndeksDostepnosciPilotow indeksDostepnosci;
+
+    @Autowired
+    private WyszukiwanieService wyszukiwanieService;
+
+    @Autowired
+    private MetrykiService metryki;
+
+    @Value("${tourmanager.piloci.plik-wymagan:}")
+    private String plikWymagan;
+
+    /**
+     * Wczytuje wymagania językowe i specjalizacje z pliku wskazanego w konfiguracji
+     * (bez ustawienia obowiązuje wymagania-pilotow.csv z zasobów aplikacji)
+     */
+    @PostConstruct
+    public void zaladujWymaganiaPilotow() throws IOException {
+        if (plikWymagan == null || plikWymagan.isBlank()) {
+            return;
+        }
+        try (Reader zrodlo = Files.newBufferedReader(Path.of(plikWymagan), StandardCharsets.UTF_8)) {
+            KatalogKompetencji.zaladujWymagania(zrodlo);
+        }
+        log.info("Wczytano wymagania pilotów z pliku: {}", plikWymagan);
+    }
+
     // ================================================================
     // PODSTAWOWE OPERACJE CRUD
     // ================================================================
@@ -34,12 +90,12 @@ public class PilotService {
         try {
             if (pilot.dodajPilota()) {
                 pilotRepository.save(pilot);
-                System.out.println("Pilot zapisany w bazie danych: " + pilot.getImie() + " " + pilot.getNazwisko());
+                log.info("Pilot zapisany w bazie danych: {} {}", pilot.getImie(), pilot.getNazwisko());
                 return true;
             }
             return false;
         } catch (Exception e) {
-            System.err.println("Błąd podczas zapisywania pilota: " + e.getMessage());
+            log.error("Błąd podczas zapisywania pilota: {}", e.getMessage(), e);
             return false;
         }
     }
@@ -51,14 +107,14 @@ public class PilotService {
         try {
             if (pilot.getId() != null && pilotRepository.existsById(pilot.getId())) {
                 pilotRepository.save(pilot);
-                System.out.println("Dane pilota zaktualizowane: " + pilot.getImie() + " " + pilot.getNazwisko());
+                log.info("Dane pilota zaktualizowane: {} {}", pilot.getImie(), pilot.getNazwisko());
                 return true;
             } else {
-                System.err.println("Pilot o ID " + pilot.getId() + " nie istnieje");
+                log.warn("Pilot o ID {} nie istnieje", pilot.getId());
                 return false;
             }
         } catch (Exception e) {
-            System.err.println("Błąd podczas aktualizacji pilota: " + e.getMessage());
+            log.error("Błąd podczas aktualizacji pilota: {}", e.getMessage(), e);
             return false;
         }
     }
@@ -77,21 +133,21 @@ public class PilotService {
                                 "W_TRAKCIE".equals(w.getStatusWycieczki()));
 
                 if (maAktywneWycieczki) {
-                    System.err.println("Nie można usunąć pilota - ma przypisane aktywne wycieczki");
+                    log.warn("Nie można usunąć pilota - ma przypisane aktywne wycieczki");
                     return false;
                 }
 
                 pilot.setStatusPilota("NIEAKTYWNY");
                 pilotRepository.save(pilot);
 
-                System.out.println("Pilot " + pilot.getImie() + " " + pilot.getNazwisko() + " został dezaktywowany");
+                log.info("Pilot {} {} został dezaktywowany", pilot.getImie(), pilot.getNazwisko());
                 return true;
             } else {
-                System.err.println("Pilot o ID " + pilotId + " nie istnieje");
+                log.warn("Pilot o ID {} nie istnieje", pilotId);
                 return false;
             }
         } catch (Exception e) {
-            System.err.println("Błąd podczas usuwania pilota: " + e.getMessage());
+            log.error("Błąd podczas usuwania pilota: {}", e.getMessage(), e);
             return false;
         }
     }
@@ -111,9 +167,7 @@ public class PilotService {
      * Pobiera wszystkich aktywnych pilotów
      */
     public List<Pilot> pobierzAktywnychPilotow() {
-        return pilotRepository.findAll().stream()
-                .filter(pilot -> "AKTYWNY".equals(pilot.getStatusPilota()))
-                .collect(Collectors.toList());
+        return pilotRepository.findByStatusPilota("AKTYWNY");
     }
 
     /**
@@ -131,25 +185,30 @@ public class PilotService {
      * Wyszukuje dostępnych pilotów w określonym okresie
      */
     public List<Pilot> wyszukajDostepnychPilotow(LocalDate dataOd, LocalDate dataDo) {
+        if (dataOd == null || dataDo == null || dataOd.isAfter(dataDo)) {
+            log.warn("Niepoprawny okres wyszukiwania dostępnych pilotów: {} - {}", dataOd, dataDo);
+            return List.of();
+        }
+
         List<Pilot> aktywniPiloci = pobierzAktywnychPilotow();
 
         return aktywniPiloci.stream()
-                .filter(pilot -> pilot.sprawdzDostepnosc(dataOd, dataDo))
+                .filter(pilot -> czyPilotDostepny(pilot, dataOd, dataDo))
                 .collect(Collectors.toList());
     }
 
     /**
-     * Wyszukuje pilotów znających określony język
+     * Wyszukuje pilotów znających określony język (indeks tekstowy, bez rozróżniania polskich znaków)
      */
     public List<Pilot> wyszukajPilotowZnajacychJezyk(String jezyk) {
-        return pilotRepository.findByZnajomoscJezyka(jezyk);
+        return wyszukiwanieService.wyszukajPilotowPoJezyku(jezyk, Integer.MAX_VALUE);
     }
 
     /**
-     * Wyszukuje pilotów według specjalizacji
+     * Wyszukuje pilotów według specjalizacji (indeks tekstowy, bez rozróżniania polskich znaków)
      */
     public List<Pilot> wyszukajPilotowWgSpecjalizacji(String specjalizacja) {
-        return pilotRepository.findBySpecjalizacja(specjalizacja);
+        return wyszukiwanieService.wyszukajPilotowPoSpecjalizacji(specjalizacja, Integer.MAX_VALUE);
     }
 
     /**
@@ -190,15 +249,15 @@ public class PilotService {
                 pilot.setDostepnoscDo(dostepnoscDo);
                 pilotRepository.save(pilot);
 
-                System.out.println("Ustawiono dostępność pilota " + pilot.getImie() + " " + pilot.getNazwisko() +
-                        " od " + dostepnoscOd + " do " + dostepnoscDo);
+                log.info("Ustawiono dostępność pilota {} {} od {} do {}",
+                        pilot.getImie(), pilot.getNazwisko(), dostepnoscOd, dostepnoscDo);
                 return true;
             } else {
-                System.err.println("Pilot o ID " + pilotId + " nie istnieje");
+                log.warn("Pilot o ID {} nie istnieje", pilotId);
                 return false;
             }
         } catch (Exception e) {
-            System.err.println("Błąd podczas ustawiania dostępności: " + e.getMessage());
+            log.error("Błąd podczas ustawiania dostępności: {}", e.getMessage(), e);
             return false;
         }
     }
@@ -209,7 +268,7 @@ public class PilotService {
     public boolean sprawdzDostepnoscPilota(Long pilotId, LocalDate dataOd, LocalDate dataDo) {
         Optional<Pilot> pilotOpt = pilotRepository.findById(pilotId);
         if (pilotOpt.isPresent()) {
-            return pilotOpt.get().sprawdzDostepnosc(dataOd, dataDo);
+            return czyPilotDostepny(pilotOpt.get(), dataOd, dataDo);
         }
         return false;
     }
@@ -233,7 +292,7 @@ public class PilotService {
             }
             return false;
         } catch (Exception e) {
-            System.err.println("Błąd podczas dodawania języka: " + e.getMessage());
+            log.warn("Błąd podczas dodawania języka: {}", e.getMessage());
             return false;
         }
     }
@@ -253,7 +312,7 @@ public class PilotService {
             }
             return false;
         } catch (Exception e) {
-            System.err.println("Błąd podczas dodawania specjalizacji: " + e.getMessage());
+            log.warn("Błąd podczas dodawania specjalizacji: {}", e.getMessage());
             return false;
         }
     }
@@ -273,7 +332,7 @@ public class PilotService {
             pilotRepository.save(pilot);
         }
 
-        System.out.println("Sprawdzono ważność licencji " + piloci.size() + " pilotów");
+        log.info("Sprawdzono ważność licencji {} pilotów", piloci.size());
     }
 
     /**
@@ -301,12 +360,12 @@ public class PilotService {
                 }
 
                 pilotRepository.save(pilot);
-                System.out.println("Zaktualizowano licencję pilota " + pilot.getImie() + " " + pilot.getNazwisko());
+                log.info("Zaktualizowano licencję pilota {} {}", pilot.getImie(), pilot.getNazwisko());
                 return true;
             }
             return false;
         } catch (Exception e) {
-            System.err.println("Błąd podczas aktualizacji licencji: " + e.getMessage());
+            log.error("Błąd podczas aktualizacji licencji: {}", e.getMessage(), e);
             return false;
         }
     }
@@ -316,50 +375,73 @@ public class PilotService {
     // ================================================================
 
     /**
-     * Przydziela pilota do wycieczki
+     * Przydziela pilota do wycieczki.
+     * Wiersz pilota jest blokowany do końca transakcji, a kolizje terminów sprawdzane w bazie - równoległy
+     * przydział tego samego pilota czeka na blokadę i widzi już zatwierdzony wcześniejszy przydział.
      */
     public boolean przydzielPilotaDoWycieczki(Long pilotId, Long wycieczkaId) {
+        Timer.Sample pomiar = metryki.rozpocznij();
+        String wynik = MetrykiService.ODRZUCONA;
         try {
-            Optional<Pilot> pilotOpt = pilotRepository.findById(pilotId);
+            Optional<Pilot> pilotOpt = pilotRepository.zablokujPilotow(List.of(pilotId)).stream().findFirst();
             Optional<Wycieczka> wycieczkaOpt = wycieczkaRepository.findById(wycieczkaId);
 
             if (pilotOpt.isPresent() && wycieczkaOpt.isPresent()) {
                 Pilot pilot = pilotOpt.get();
                 Wycieczka wycieczka = wycieczkaOpt.get();
 
+                if (wycieczkaRepository.countKolizjiPilota(pilotId, wycieczkaId,
+                        wycieczka.getDataRozpoczecia(), wycieczka.getDataZakonczenia()) > 0) {
+                    log.info("Pilot {} ma już wycieczkę w terminie wycieczki {}", pilotId, wycieczkaId);
+                    return false;
+                }
+
                 if (pilot.przydzielDoWycieczki(wycieczka)) {
                     pilotRepository.save(pilot);
                     wycieczkaRepository.save(wycieczka);
+                    wynik = MetrykiService.SUKCES;
                     return true;
                 }
             }
             return false;
-        } catch (Exception e) {
-            System.err.println("Błąd podczas przydzielania pilota: " + e.getMessage());
-            return false;
+        } catch (RuntimeException e) {
+            // Np. przekroczony czas oczekiwania na blokadę pilota - transakcja i tak jest do wycofania
+            wynik = MetrykiService.BLAD;
+            throw e;
+        } finally {
+            metryki.zakoncz(pomiar, MetrykiService.PRZYDZIAL_PILOTA, wynik);
         }
     }
 
+    /**
+     * Planowane wycieczki bez pilota razem z ofertą (do wyboru przy przydzielaniu)
+     */
+    @Transactional(readOnly = true)
+    public List<Wycieczka> pobierzWycieczkiBezPilota() {
+        return wycieczkaRepository.findWycieczkiBezPilotaZOferta();
+    }
+
     /**
      * Automatycznie dobiera najlepszego pilota do wycieczki
      */
     public Pilot dobierzNajlepszegoPilota(Wycieczka wycieczka) {
+        Timer.Sample pomiar = metryki.rozpocznij();
+        String wynik = MetrykiService.BLAD;
         try {
             List<Pilot> dostepniPiloci = wyszukajDostepnychPilotow(
                     wycieczka.getDataRozpoczecia(),
                     wycieczka.getDataZakonczenia()
             );
-            String wymaganyJezyk = pobierzWymaganyJezyk(wycieczka);
-            if (wymaganyJezyk != null) {
+            KatalogKompetencji.Wymaganie wymaganie = pobierzWymaganie(wycieczka);
+            if (wymaganie != null && wymaganie.getJezyk() != null) {
                 dostepniPiloci = dostepniPiloci.stream()
-                        .filter(pilot -> pilot.sprawdzZnajomoscJezyka(wymaganyJezyk))
+                        .filter(pilot -> pilot.znaJezyk(wymaganie.getIdJezyka()))
                         .collect(Collectors.toList());
             }
 
-            String wymaganaSpecjalizacja = pobierzWymaganaSpecjalizacje(wycieczka);
-            if (wymaganaSpecjalizacja != null) {
+            if (wymaganie != null && wymaganie.getSpecjalizacja() != null) {
                 List<Pilot> pilociZeSpecjalizacja = dostepniPiloci.stream()
-                        .filter(pilot -> pilot.sprawdzSpecjalizacje(wymaganaSpecjalizacja))
+                        .filter(pilot -> pilot.maSpecjalizacje(wymaganie.getIdSpecjalizacji()))
                         .collect(Collectors.toList());
 
                 if (!pilociZeSpecjalizacja.isEmpty()) {
@@ -367,17 +449,129 @@ public class PilotService {
                 }
             }
 
-            return dostepniPiloci.stream()
+            Pilot najlepszy = dostepniPiloci.stream()
                     .filter(Pilot::sprawdzCzyDoswiadczony)
                     .max((p1, p2) -> Long.compare(
                             p1.obliczLiczbeWycieczekWTymRoku(),
                             p2.obliczLiczbeWycieczekWTymRoku()))
                     .orElse(dostepniPiloci.isEmpty() ? null : dostepniPiloci.get(0));
+            wynik = najlepszy != null ? MetrykiService.SUKCES : MetrykiService.ODRZUCONA;
+            return najlepszy;
 
         } catch (Exception e) {
-            System.err.println("Błąd podczas dobierania pilota: " + e.getMessage());
+            log.error("Błąd podczas dobierania pilota: {}", e.getMessage(), e);
             return null;
+        } finally {
+            metryki.zakoncz(pomiar, MetrykiService.DOBOR_PILOTA, wynik);
+        }
+    }
+
+    /**
+     * Hurtowo przydziela pilotów do wszystkich planowanych wycieczek bez pilota.
+     * Kandydaci i ich punkty (obliczPunktyPilota) wyznaczane są raz dla całej partii,
+     * a przydział jest zachłanny: najpierw wycieczki z najmniejszą liczbą kandydatów,
+     * każda dostaje najwyżej punktowanego pilota bez kolizji terminów w tej partii.
+     * Wszystkie przydziały zapisywane są w jednej transakcji.
+     */
+    public WynikPrzydzialuPilotow przydzielPilotowHurtowo() {
+        long start = System.nanoTime();
+
+        List<Wycieczka> wycieczki = wycieczkaRepository.findWycieczkiBezPilotaZOferta();
+        List<Pilot> piloci = pobierzAktywnychPilotow();
+
+        List<KandydaciWycieczki> macierz = new ArrayList<>();
+        int maksymalnaSumaPunktow = 0;
+
+        for (Wycieczka wycieczka : wycieczki) {
+            LocalDate dataOd = wycieczka.getDataRozpoczecia();
+            LocalDate dataDo = wycieczka.getDataZakonczenia();
+            if (dataOd == null || dataDo == null) {
+                continue;
+            }
+
+            KatalogKompetencji.Wymaganie wymaganie = pobierzWymaganie(wycieczka);
+            int idJezyka = wymaganie != null ? wymaganie.getIdJezyka() : -1;
+            int idSpecjalizacji = wymaganie != null ? wymaganie.getIdSpecjalizacji() : -1;
+
+            List<RekomendacjaPilota> kandydaci = new ArrayList<>();
+            for (Pilot pilot : piloci) {
+                if (!czyPilotDostepny(pilot, dataOd, dataDo)) {
+                    continue;
+                }
+                if (idJezyka >= 0 && !pilot.znaJezyk(idJezyka)) {
+                    continue;
+                }
+
+                int punkty = obliczPunktyPilota(
+                        pilot.sprawdzCzyDoswiadczony(),
+                        idJezyka >= 0,
+                        pilot.maSpecjalizacje(idSpecjalizacji),
+                        pilot.obliczLiczbeWycieczekWTymRoku());
+                kandydaci.add(new RekomendacjaPilota(pilot, punkty));
+            }
+
+            kandydaci.sort((k1, k2) -> Integer.compare(k2.punkty, k1.punkty));
+            if (!kandydaci.isEmpty()) {
+                maksymalnaSumaPunktow += kandydaci.get(0).punkty;
+            }
+            macierz.add(new KandydaciWycieczki(wycieczka, kandydaci));
         }
+
+        macierz.sort(Comparator.<KandydaciWycieczki>comparingInt(k -> k.kandydaci.size())
+                .thenComparing(k -> k.wycieczka.getDataRozpoczecia()));
+
+        // pilotId -> rozłączne terminy przydzielone w tej partii
+        Map<Long, TreeMap<LocalDate, LocalDate>> terminyWPartii = new HashMap<>();
+        List<Wycieczka> przydzielone = new ArrayList<>();
+        Map<Long, Integer> punktyPrzydzialu = new HashMap<>();
+
+        for (KandydaciWycieczki pozycja : macierz) {
+            LocalDate dataOd = pozycja.wycieczka.getDataRozpoczecia();
+            LocalDate dataDo = pozycja.wycieczka.getDataZakonczenia();
+
+            for (RekomendacjaPilota kandydat : pozycja.kandydaci) {
+                TreeMap<LocalDate, LocalDate> terminy =
+                        terminyWPartii.computeIfAbsent(kandydat.pilot.getId(), id -> new TreeMap<>());
+                Map.Entry<LocalDate, LocalDate> poprzedni = terminy.floorEntry(dataDo);
+                if (poprzedni != null && !poprzedni.getValue().isBefore(dataOd)) {
+                    continue;
+                }
+
+                terminy.put(dataOd, dataDo);
+                pozycja.wycieczka.setPilot(kandydat.pilot);
+                przydzielone.add(pozycja.wycieczka);
+                punktyPrzydzialu.put(pozycja.wycieczka.getId(), kandydat.punkty);
+                break;
+            }
+        }
+
+        // Kandydaci pochodzą z indeksu w pamięci - przydziały zatwierdzone w międzyczasie przez inne transakcje
+        // wykrywa dopiero ponowne sprawdzenie w bazie pod blokadami wierszy pilotów
+        List<Long> pilociPartii = przydzielone.stream()
+                .map(w -> w.getPilot().getId()).distinct().sorted().collect(Collectors.toList());
+        if (!pilociPartii.isEmpty()) {
+            pilotRepository.zablokujPilotow(pilociPartii);
+        }
+        int sumaPunktow = 0;
+        for (Iterator<Wycieczka> it = przydzielone.iterator(); it.hasNext(); ) {
+            Wycieczka wycieczka = it.next();
+            if (wycieczkaRepository.countKolizjiPilota(wycieczka.getPilot().getId(), wycieczka.getId(),
+                    wycieczka.getDataRozpoczecia(), wycieczka.getDataZakonczenia()) > 0) {
+                wycieczka.setPilot(null);
+                it.remove();
+            } else {
+                sumaPunktow += punktyPrzydzialu.get(wycieczka.getId());
+            }
+        }
+
+        wycieczkaRepository.saveAll(przydzielone);
+
+        long czasMs = (System.nanoTime() - start) / 1_000_000;
+        WynikPrzydzialuPilotow wynik = new WynikPrzydzialuPilotow(
+                wycieczki.size(), przydzielone.size(), piloci.size(), sumaPunktow, maksymalnaSumaPunktow, czasMs);
+
+        log.info("{}", wynik);
+        return wynik;
     }
 
     /**
@@ -397,13 +591,13 @@ public class PilotService {
                     pilotRepository.save(pilot);
                     wycieczkaRepository.save(wycieczka);
 
-                    System.out.println("Usunięto przypisanie pilota z wycieczki " + wycieczkaId);
+                    log.info("Usunięto przypisanie pilota z wycieczki {}", wycieczkaId);
                     return true;
                 }
             }
             return false;
         } catch (Exception e) {
-            System.err.println("Błąd podczas usuwania przypisania pilota: " + e.getMessage());
+            log.error("Błąd podczas usuwania przypisania pilota: {}", e.getMessage(), e);
             return false;
         }
     }
@@ -419,6 +613,16 @@ public class PilotService {
         return pilotRepository.findStatystykiPilotow();
     }
 
+    /**
+     * Odbudowuje liczniki wycieczek pilotów z tabeli wycieczek
+     * @return liczba zaktualizowanych pilotów
+     */
+    public int przeliczStatystykiPilotow() {
+        int zaktualizowano = pilotRepository.przeliczStatystykiPilotow(LocalDate.now().getYear());
+        log.info("Przeliczono statystyki {} pilotów", zaktualizowano);
+        return zaktualizowano;
+    }
+
     /**
      * Pobiera pilotów uporządkowanych według doświadczenia
      */
@@ -434,51 +638,32 @@ public class PilotService {
      * Oblicza obciążenie pilotów w bieżącym roku
      */
     public String generujRaportObciazeniaPilotow() {
-        List<Pilot> aktywniPiloci = pobierzAktywnychPilotow();
-        StringBuilder raport = new StringBuilder();
-
-        raport.append("RAPORT OBCIĄŻENIA PILOTÓW - ").append(LocalDate.now().getYear()).append("\n");
-        raport.append("═══════════════════════════════════════════════════\n\n");
-
-        for (Pilot pilot : aktywniPiloci) {
-            long liczbaWycieczek = pilot.obliczLiczbeWycieczekWTymRoku();
-            String status = liczbaWycieczek > 20 ? "WYSOKIE" :
-                    liczbaWycieczek > 10 ? "ŚREDNIE" : "NISKIE";
-
-            raport.append(String.format("%-20s %-15s - %2d wycieczek (%s)\n",
-                    pilot.getImie() + " " + pilot.getNazwisko(),
-                    pilot.getNumerLicencji(),
-                    liczbaWycieczek,
-                    status));
-        }
-
-        return raport.toString();
-    }
-
-    /**
-     * Eksportuje dane pilotów do formatu CSV
-     */
-    public String eksportujPilotowDoCSV() {
-        List<Pilot> piloci = pobierzWszystkichPilotow();
-        StringBuilder csv = new StringBuilder();
-
-        csv.append("ID,Imię,Nazwisko,Telefon,Email,Numer Licencji,Data Ważności,Status,Języki,Specjalizacje\n");
+        Timer.Sample pomiar = metryki.rozpocznij();
+        String wynik = MetrykiService.BLAD;
+        try {
+            List<Pilot> aktywniPiloci = pobierzAktywnychPilotow();
+            StringBuilder raport = new StringBuilder();
+
+            raport.append("RAPORT OBCIĄŻENIA PILOTÓW - ").append(LocalDate.now().getYear()).append("\n");
+            raport.append("═══════════════════════════════════════════════════\n\n");
+
+            for (Pilot pilot : aktywniPiloci) {
+                long liczbaWycieczek = pilot.obliczLiczbeWycieczekWTymRoku();
+                String status = liczbaWycieczek > 20 ? "WYSOKIE" :
+                        liczbaWycieczek > 10 ? "ŚREDNIE" : "NISKIE";
+
+                raport.append(String.format("%-20s %-15s - %2d wycieczek (%s)\n",
+                        pilot.getImie() + " " + pilot.getNazwisko(),
+                        pilot.getNumerLicencji(),
+                        liczbaWycieczek,
+                        status));
+            }
 
-        for (Pilot pilot : piloci) {
-            csv.append(pilot.getId()).append(",")
-                    .append(escapeCsv(pilot.getImie())).append(",")
-                    .append(escapeCsv(pilot.getNazwisko())).append(",")
-                    .append(escapeCsv(pilot.getTelefon())).append(",")
-                    .append(escapeCsv(pilot.getEmail())).append(",")
-                    .append(escapeCsv(pilot.getNumerLicencji())).append(",")
-                    .append(pilot.getDataWaznosciLicencji()).append(",")
-                    .append(pilot.getStatusPilota()).append(",")
-                    .append(escapeCsv(pilot.getZnajomoscJezykow())).append(",")
-                    .append(escapeCsv(pilot.getSpecjalizacje()))
-                    .append("\n");
+            wynik = MetrykiService.SUKCES;
+            return raport.toString();
+        } finally {
+            metryki.zakoncz(pomiar, MetrykiService.RAPORT, wynik, "raport", "obciazenie-pilotow");
         }
-
-        return csv.toString();
     }
 
     /**
@@ -493,13 +678,13 @@ public class PilotService {
                 pilot.setStatusPilota(nowyStatus);
                 pilotRepository.save(pilot);
 
-                System.out.println("Zmieniono status pilota " + pilot.getImie() + " " + pilot.getNazwisko() +
-                        " z '" + staryStatus + "' na '" + nowyStatus + "'");
+                log.info("Zmieniono status pilota {} {} z '{}' na '{}'",
+                        pilot.getImie(), pilot.getNazwisko(), staryStatus, nowyStatus);
                 return true;
             }
             return false;
         } catch (Exception e) {
-            System.err.println("Błąd podczas zmiany statusu pilota: " + e.getMessage());
+            log.error("Błąd podczas zmiany statusu pilota: {}", e.getMessage(), e);
             return false;
         }
     }
@@ -509,230 +694,19 @@ public class PilotService {
     // ================================================================
 
     /**
-     * Pobiera wymagany język na podstawie destynacji wycieczki
-     */
-    private String pobierzWymaganyJezyk(Wycieczka wycieczka) {
-        if (wycieczka.getOferta() != null) {
-            String kraj = wycieczka.getOferta().getKrajDocelowy();
-            if (kraj != null) {
-                switch (kraj.toLowerCase()) {
-                    case "niemcy":
-                        return "Niemiecki";
-                    case "francja":
-                        return "Francuski";
-                    case "hiszpania":
-                        return "Hiszpański";
-                    case "włochy":
-                        return "Włoski";
-                    case "grecja":
-                        return "Grecki";
-                    case "chorwacja":
-                        return "Chorwacki";
-                    case "czechy":
-                        return "Czeski";
-                    case "austria":
-                        return "Niemiecki";
-                    case "węgry":
-                        return "Węgierski";
-                    case "rumunia":
-                        return "Rumuński";
-                    case "bułgaria":
-                        return "Bułgarski";
-                    case "słowacja":
-                        return "Słowacki";
-                    case "słowenia":
-                        return "Słoweński";
-                    case "litwa":
-                    case "łotwa":
-                    case "estonia":
-                        return "Angielski";
-                    case "rosja":
-                        return "Rosyjski";
-                    case "ukraina":
-                        return "Ukraiński";
-                    case "turcja":
-                        return "Turecki";
-                    case "egipt":
-                        return "Arabski";
-                    case "izrael":
-                        return "Hebrajski";
-                    case "maroko":
-                    case "tunezja":
-                        return "Francuski";
-                    case "portugalia":
-                        return "Portugalski";
-                    case "holandia":
-                        return "Holenderski";
-                    case "belgia":
-                        return "Francuski";
-                    case "szwajcaria":
-                        return "Niemiecki";
-                    case "dania":
-                    case "szwecja":
-                    case "norwegia":
-                        return "Angielski";
-                    case "finlandia":
-                        return "Fiński";
-                    case "islandia":
-                        return "Angielski";
-                    case "irlandia":
-                    case "wielka brytania":
-                    case "anglia":
-                        return "Angielski";
-                    case "malta":
-                        return "Angielski";
-                    case "cypr":
-                        return "Grecki";
-                    default:
-                        return "Angielski"; // Domyślny język międzynarodowy
-                }
-            }
-        }
-        return null;
-    }
-
-    /**
-     * Pobiera wymaganą specjalizację na podstawie destynacji wycieczki
-     */
-    private String pobierzWymaganaSpecjalizacje(Wycieczka wycieczka) {
-        if (wycieczka.getOferta() != null) {
-            String kraj = wycieczka.getOferta().getKrajDocelowy();
-            String typ = wycieczka.getOferta().getTypWycieczki();
-
-            if (kraj != null) {
-                switch (kraj.toLowerCase()) {
-                    case "chorwacja":
-                    case "słowenia":
-                    case "bośnia i hercegowina":
-                    case "serbia":
-                    case "czarnogóra":
-                    case "macedonia":
-                        return "Bałkany";
-
-                    case "grecja":
-                    case "cypr":
-                    case "turcja":
-                        return "Morze Egejskie";
-
-                    case "hiszpania":
-                    case "portugalia":
-                        return "Półwysep Iberyjski";
-
-                    case "włochy":
-                    case "san marino":
-                    case "watykan":
-                        return "Włochy";
-
-                    case "francja":
-                    case "monako":
-                        return "Francja";
-
-                    case "niemcy":
-                    case "austria":
-                    case "szwajcaria":
-                        return "Kraje niemieckojęzyczne";
-
-                    case "czechy":
-                    case "słowacja":
-                    case "węgry":
-                        return "Europa Środkowa";
-
-                    case "dania":
-                    case "szwecja":
-                    case "norwegia":
-                    case "finlandia":
-                    case "islandia":
-                        return "Skandynavia";
-
-                    case "holandia":
-                    case "belgia":
-                    case "luksemburg":
-                        return "Benelux";
-
-                    case "litwa":
-                    case "łotwa":
-                    case "estonia":
-                        return "Kraje Bałtyckie";
-
-                    case "rosja":
-                    case "białoruś":
-                    case "ukraina":
-                        return "Europa Wschodnia";
-
-                    case "egipt":
-                    case "maroko":
-                    case "tunezja":
-                    case "algieria":
-                        return "Afryka Północna";
-
-                    case "izrael":
-                    case "jordania":
-                        return "Bliski Wschód";
-
-                    case "tajlandia":
-                    case "wietnam":
-                    case "kambodża":
-                    case "laos":
-                        return "Azja Południowo-Wschodnia";
-
-                    case "indie":
-                    case "nepal":
-                    case "sri lanka":
-                        return "Azja Południowa";
-
-                    case "chiny":
-                    case "japonia":
-                    case "korea południowa":
-                        return "Daleki Wschód";
-
-                    case "usa":
-                    case "kanada":
-                        return "Ameryka Północna";
-
-                    case "meksyk":
-                    case "gwatemala":
-                    case "kostaryka":
-                        return "Ameryka Środkowa";
-
-                    case "brazylia":
-                    case "argentyna":
-                    case "peru":
-                    case "chile":
-                        return "Ameryka Południowa";
-
-                    case "australia":
-                    case "nowa zelandia":
-                        return "Oceania";
-
-                    default:
-                        return kraj;
-                }
-            }
+     * Sprawdza dostępność pilota w okresie korzystając z indeksu zajętości
+     * (bez ładowania kolekcji wycieczek pilota)
+     */
+    private boolean czyPilotDostepny(Pilot pilot, LocalDate dataOd, LocalDate dataDo) {
+        return pilot.spelniaWarunkiDostepnosci(dataOd, dataDo) &&
+                indeksDostepnosci.czyWolny(pilot.getId(), dataOd, dataDo);
+    }
 
-            if (typ != null) {
-                switch (typ.toLowerCase()) {
-                    case "pielgrzymka":
-                        return "Turystyka religijna";
-                    case "objazdowa":
-                        return "Wycieczki objazdowe";
-                    case "wypoczynkowa":
-                        return "Turystyka wypoczynkowa";
-                    case "krajoznawcza":
-                        return "Turystyka krajoznawcza";
-                    case "górska":
-                        return "Turystyka górska";
-                    case "narciarska":
-                        return "Turystyka narciarska";
-                    case "rowerowa":
-                        return "Turystyka rowerowa";
-                    case "biznesowa":
-                        return "Turystyka biznesowa";
-                    default:
-                        return typ;
-                }
-            }
-        }
-        return null;
+    /**
+     * Pobiera wymagany język i specjalizację dla wycieczki z katalogu kompetencji
+     */
+    private KatalogKompetencji.Wymaganie pobierzWymaganie(Wycieczka wycieczka) {
+        return KatalogKompetencji.wymaganieDlaOferty(wycieczka.getOferta());
     }
 
     /**
@@ -741,36 +715,36 @@ public class PilotService {
     public boolean walidujWymaganiaPilota(Pilot pilot, Wycieczka wycieczka) {
         try {
             if (!"AKTYWNY".equals(pilot.getStatusPilota())) {
-                System.out.println("Pilot nie jest aktywny");
+                log.debug("Pilot nie jest aktywny");
                 return false;
             }
 
             if (!pilot.sprawdzWaznoscLicencji()) {
-                System.out.println("Pilot ma nieważną licencję");
+                log.debug("Pilot ma nieważną licencję");
                 return false;
             }
 
-            if (!pilot.sprawdzDostepnosc(wycieczka.getDataRozpoczecia(), wycieczka.getDataZakonczenia())) {
-                System.out.println("Pilot nie jest dostępny w wymaganym terminie");
+            if (!czyPilotDostepny(pilot, wycieczka.getDataRozpoczecia(), wycieczka.getDataZakonczenia())) {
+                log.debug("Pilot nie jest dostępny w wymaganym terminie");
                 return false;
             }
 
-            String wymaganyJezyk = pobierzWymaganyJezyk(wycieczka);
-            if (wymaganyJezyk != null && !pilot.sprawdzZnajomoscJezyka(wymaganyJezyk)) {
-                System.out.println("Pilot nie zna wymaganego języka: " + wymaganyJezyk);
+            KatalogKompetencji.Wymaganie wymaganie = pobierzWymaganie(wycieczka);
+            if (wymaganie != null && wymaganie.getJezyk() != null && !pilot.znaJezyk(wymaganie.getIdJezyka())) {
+                log.debug("Pilot nie zna wymaganego języka: {}", wymaganie.getJezyk());
                 return false;
             }
 
-            String wymaganaSpecjalizacja = pobierzWymaganaSpecjalizacje(wycieczka);
-            if (wymaganaSpecjalizacja != null && !pilot.sprawdzSpecjalizacje(wymaganaSpecjalizacja)) {
-                System.out.println("Uwaga: Pilot nie ma specjalizacji '" + wymaganaSpecjalizacja +
-                        "' - może to wpłynąć na jakość obsługi");
+            if (wymaganie != null && wymaganie.getSpecjalizacja() != null &&
+                    !pilot.maSpecjalizacje(wymaganie.getIdSpecjalizacji())) {
+                log.debug("Uwaga: Pilot nie ma specjalizacji '{}' - może to wpłynąć na jakość obsługi",
+                        wymaganie.getSpecjalizacja());
             }
 
             return true;
 
         } catch (Exception e) {
-            System.err.println("Błąd podczas walidacji wymagań pilota: " + e.getMessage());
+            log.error("Błąd podczas walidacji wymagań pilota: {}", e.getMessage(), e);
             return false;
         }
     }
@@ -779,49 +753,96 @@ public class PilotService {
      * Generuje listę rekomendowanych pilotów dla wycieczki
      */
     public List<Pilot> generujListeRekomendowanychPilotow(Wycieczka wycieczka, int maxLiczba) {
+        return generujRekomendacjePilotow(wycieczka, maxLiczba).stream()
+                .map(RekomendacjaPilota::getPilot)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Generuje ranking rekomendowanych pilotów wraz z punktami (malejąco).
+     * Punkty każdego kandydata liczone są dokładnie raz z liczników pilota,
+     * a ranking trzyma tylko maxLiczba najlepszych w ograniczonym kopcu.
+     * Duże pule kandydatów oceniane są równolegle.
+     */
+    public List<RekomendacjaPilota> generujRekomendacjePilotow(Wycieczka wycieczka, int maxLiczba) {
         try {
+            if (maxLiczba <= 0) {
+                return List.of();
+            }
+
             List<Pilot> dostepniPiloci = wyszukajDostepnychPilotow(
                     wycieczka.getDataRozpoczecia(),
                     wycieczka.getDataZakonczenia()
             );
+            if (dostepniPiloci.isEmpty()) {
+                return List.of();
+            }
 
-            return dostepniPiloci.stream()
-                    .filter(pilot -> walidujWymaganiaPilota(pilot, wycieczka))
-                    .sorted((p1, p2) -> {
-                        int punkty1 = obliczPunktyPilota(p1, wycieczka);
-                        int punkty2 = obliczPunktyPilota(p2, wycieczka);
-                        return Integer.compare(punkty2, punkty1); // Sortowanie malejące
-                    })
-                    .limit(maxLiczba)
-                    .collect(Collectors.toList());
+            KatalogKompetencji.Wymaganie wymaganie = pobierzWymaganie(wycieczka);
+            int idJezyka = wymaganie != null ? wymaganie.getIdJezyka() : -1;
+            int idSpecjalizacji = wymaganie != null ? wymaganie.getIdSpecjalizacji() : -1;
+
+            Stream<Pilot> kandydaci = dostepniPiloci.size() >= PROG_OCENY_ROWNOLEGLEJ
+                    ? dostepniPiloci.parallelStream()
+                    : dostepniPiloci.stream();
+
+            PriorityQueue<RekomendacjaPilota> najlepsi = kandydaci
+                    .filter(pilot -> idJezyka < 0 || pilot.znaJezyk(idJezyka))
+                    .map(pilot -> new RekomendacjaPilota(pilot, obliczPunktyPilota(
+                            pilot.sprawdzCzyDoswiadczony(),
+                            idJezyka >= 0,
+                            pilot.maSpecjalizacje(idSpecjalizacji),
+                            pilot.obliczLiczbeWycieczekWTymRoku())))
+                    .collect(Collector.of(
+                            () -> new PriorityQueue<>(KOLEJNOSC_REKOMENDACJI.reversed()),
+                            (kopiec, rekomendacja) -> dodajDoRankingu(kopiec, rekomendacja, maxLiczba),
+                            (kopiec, inny) -> {
+                                inny.forEach(rekomendacja -> dodajDoRankingu(kopiec, rekomendacja, maxLiczba));
+                                return kopiec;
+                            }));
+
+            List<RekomendacjaPilota> ranking = new ArrayList<>(najlepsi);
+            ranking.sort(KOLEJNOSC_REKOMENDACJI);
+            return ranking;
 
         } catch (Exception e) {
-            System.err.println("Błąd podczas generowania listy rekomendowanych pilotów: " + e.getMessage());
+            log.error("Błąd podczas generowania listy rekomendowanych pilotów: {}", e.getMessage(), e);
             return List.of();
         }
     }
 
     /**
-     * Oblicza punkty pilota dla konkretnej wycieczki (system rekomendacji)
+     * Dodaje kandydata do kopca najlepszych, usuwając najsłabszego po przekroczeniu limitu
+     */
+    private static void dodajDoRankingu(PriorityQueue<RekomendacjaPilota> kopiec,
+                                        RekomendacjaPilota rekomendacja, int maxLiczba) {
+        if (kopiec.size() < maxLiczba) {
+            kopiec.add(rekomendacja);
+        } else if (KOLEJNOSC_REKOMENDACJI.compare(rekomendacja, kopiec.peek()) < 0) {
+            kopiec.poll();
+            kopiec.add(rekomendacja);
+        }
+    }
+
+    /**
+     * Oblicza punkty pilota dla wycieczki (system rekomendacji) na podstawie wcześniej wyznaczonych cech
      */
-    private int obliczPunktyPilota(Pilot pilot, Wycieczka wycieczka) {
+    private static int obliczPunktyPilota(boolean doswiadczony, boolean znaJezyk,
+                                          boolean maSpecjalizacje, long wycieczkiWTymRoku) {
         int punkty = 0;
 
-        if (pilot.sprawdzCzyDoswiadczony()) {
+        if (doswiadczony) {
             punkty += 20;
         }
 
-        String wymaganyJezyk = pobierzWymaganyJezyk(wycieczka);
-        if (wymaganyJezyk != null && pilot.sprawdzZnajomoscJezyka(wymaganyJezyk)) {
+        if (znaJezyk) {
             punkty += 15;
         }
 
-        String wymaganaSpecjalizacja = pobierzWymaganaSpecjalizacje(wycieczka);
-        if (wymaganaSpecjalizacja != null && pilot.sprawdzSpecjalizacje(wymaganaSpecjalizacja)) {
+        if (maSpecjalizacje) {
             punkty += 10;
         }
 
-        long wycieczkiWTymRoku = pilot.obliczLiczbeWycieczekWTymRoku();
         if (wycieczkiWTymRoku >= 10) {
             punkty += 5;
         } else if (wycieczkiWTymRoku >= 5) {
@@ -836,15 +857,79 @@ public class PilotService {
     }
 
     /**
-     * Metoda pomocnicza do escapowania wartości CSV
+     * Pilot rekomendowany do wycieczki wraz z przyznanymi punktami
      */
-    private String escapeCsv(String value) {
-        if (value == null) {
-            return "";
+    public static class RekomendacjaPilota {
+        private final Pilot pilot;
+        private final int punkty;
+
+        RekomendacjaPilota(Pilot pilot, int punkty) {
+            this.pilot = pilot;
+            this.punkty = punkty;
         }
-        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
-            return "\"" + value.replace("\"", "\"\"") + "\"";
+
+        public Pilot getPilot() { return pilot; }
+        public int getPunkty() { return punkty; }
+    }
+
+    private static class KandydaciWycieczki {
+        Wycieczka wycieczka;
+        List<RekomendacjaPilota> kandydaci;
+
+        KandydaciWycieczki(Wycieczka wycieczka, List<RekomendacjaPilota> kandydaci) {
+            this.wycieczka = wycieczka;
+            this.kandydaci = kandydaci;
+        }
+    }
+
+    /**
+     * Wynik hurtowego przydziału pilotów - wydajność i jakość rozwiązania
+     */
+    public static class WynikPrzydzialuPilotow {
+        private final int liczbaWycieczek;
+        private final int liczbaPrzydzielonych;
+        private final int liczbaPilotow;
+        private final int sumaPunktow;
+        private final int maksymalnaSumaPunktow;
+        private final long czasMs;
+
+        WynikPrzydzialuPilotow(int liczbaWycieczek, int liczbaPrzydzielonych, int liczbaPilotow,
+                               int sumaPunktow, int maksymalnaSumaPunktow, long czasMs) {
+            this.liczbaWycieczek = liczbaWycieczek;
+            this.liczbaPrzydzielonych = liczbaPrzydzielonych;
+            this.liczbaPilotow = liczbaPilotow;
+            this.sumaPunktow = sumaPunktow;
+            this.maksymalnaSumaPunktow = maksymalnaSumaPunktow;
+            this.czasMs = czasMs;
+        }
+
+        public int getLiczbaWycieczek() { return liczbaWycieczek; }
+        public int getLiczbaPrzydzielonych() { return liczbaPrzydzielonych; }
+        public int getLiczbaPilotow() { return liczbaPilotow; }
+        public int getSumaPunktow() { return sumaPunktow; }
+        public int getMaksymalnaSumaPunktow() { return maksymalnaSumaPunktow; }
+        public long getCzasMs() { return czasMs; }
+
+        /**
+         * Liczba rozpatrzonych wycieczek na sekundę
+         */
+        public double getWycieczekNaSekunde() {
+            return czasMs > 0 ? liczbaWycieczek * 1000.0 / czasMs : liczbaWycieczek;
+        }
+
+        /**
+         * Stosunek uzyskanych punktów do górnej granicy (każda wycieczka z najlepszym kandydatem)
+         */
+        public double getJakosc() {
+            return maksymalnaSumaPunktow > 0 ? (double) sumaPunktow / maksymalnaSumaPunktow : 1.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Przydzielono pilotów do %d z %d wycieczek (%d pilotów) w %d ms " +
+                            "(%.0f wycieczek/s), punkty: %d/%d (jakość %.1f%%)",
+                    liczbaPrzydzielonych, liczbaWycieczek, liczbaPilotow, czasMs,
+                    getWycieczekNaSekunde(), sumaPunktow, maksymalnaSumaPunktow, getJakosc() * 100);
         }
-        return value;
     }
-}
\ No newline at end of file
+}
@@ -1,15 +1,25 @@
 package org.tourmanager.service;
 
+import io.micrometer.core.instrument.Timer;
 import org.tourmanager.model.*;
 import org.tourmanager.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import jakarta.annotation.PostConstruct;
 import java.math.BigDecimal;
 import java.math.RoundingMode; // Dodaj ten import
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class RaportService {
@@ -23,17 +33,38 @@ public class RaportService {
     @Autowired
     private KlientRepository klientRepository;
 
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MetrykiService metryki;
+
+    @Autowired
+    private StatystykiSprzedazyService statystykiSprzedazyService;
+
+    // Powyżej tej liczby klientów raport TOP klientów strumieniuje agregaty zamiast sortować je w bazie
+    @Value("${tourmanager.raporty.prog-strumieniowania-klientow:200000}")
+    private long progStrumieniowaniaKlientow;
+
+    private TransactionTemplate nowaTransakcjaOdczytu;
+
+    // Podsumowania zamkniętych miesięcy - liczone raz, unieważniane przy anulowaniu umowy,
+    // wpłacie zaliczki i imporcie umów (zmieniają podsumowanie także minionych miesięcy)
+    private final Map<YearMonth, PodsumowanieSprzedazy> zamknieteMiesiace = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void inicjalizuj() {
+        nowaTransakcjaOdczytu = new TransactionTemplate(transactionManager);
+        nowaTransakcjaOdczytu.setReadOnly(true);
+    }
+
     public String generujMiesieznyRaportSprzedazy(int rok, int miesiac) {
+        Timer.Sample pomiar = metryki.rozpocznij();
+        String wynik = MetrykiService.BLAD;
         try {
             YearMonth miesiacRoku = YearMonth.of(rok, miesiac);
-            LocalDate pierwszyDzien = miesiacRoku.atDay(1);
-            LocalDate ostatniDzien = miesiacRoku.atEndOfMonth();
-
-            List<Umowa> umowyWMiesiacu = umowaRepository.findByDataZawarciaOkresu(pierwszyDzien, ostatniDzien);
 
-            if (umowyWMiesiacu == null) {
-                umowyWMiesiacu = new ArrayList<>();
-            }
+            PodsumowanieSprzedazy podsumowanie = pobierzPodsumowanieSprzedazy(miesiacRoku);
 
             StringBuilder raport = new StringBuilder();
             raport.append("═══════════════════════════════════════════════════════════════════════\n");
@@ -49,49 +80,29 @@ public class RaportService {
             raport.append("                           PODSUMOWANIE OGÓLNE\n");
             raport.append("───────────────────────────────────────────────────────────────────────\n\n");
 
-            int liczbaUmow = umowyWMiesiacu.size();
-            BigDecimal calkowitaWartosc = obliczCalkowitaWartoscSprzedazy(umowyWMiesiacu);
-
-            BigDecimal sredniaWartosc = liczbaUmow > 0 ?
-                    calkowitaWartosc.divide(new BigDecimal(liczbaUmow), 2, RoundingMode.HALF_UP) :
-                    BigDecimal.ZERO;
-
-            BigDecimal otrzymaneZaliczki = obliczOtrzymaneZaliczki(umowyWMiesiacu);
-            BigDecimal pozostaleDoplaty = calkowitaWartosc.subtract(otrzymaneZaliczki);
-
-            raport.append(String.format("Liczba zawartych umów: %d\n", liczbaUmow));
-            raport.append(String.format("Całkowita wartość sprzedaży: %,.0f PLN\n", calkowitaWartosc));
-            raport.append(String.format("Średnia wartość umowy: %,.0f PLN\n", sredniaWartosc));
-            raport.append(String.format("Otrzymane zaliczki: %,.0f PLN\n", otrzymaneZaliczki));
-            raport.append(String.format("Pozostałe dopłaty: %,.0f PLN\n\n", pozostaleDoplaty));
+            raport.append(String.format("Liczba zawartych umów: %d\n", podsumowanie.getLiczbaUmow()));
+            raport.append(String.format("Całkowita wartość sprzedaży: %,.0f PLN\n", podsumowanie.getCalkowitaWartosc()));
+            raport.append(String.format("Średnia wartość umowy: %,.0f PLN\n", podsumowanie.getSredniaWartosc()));
+            raport.append(String.format("Otrzymane zaliczki: %,.0f PLN\n", podsumowanie.getOtrzymaneZaliczki()));
+            raport.append(String.format("Pozostałe dopłaty: %,.0f PLN\n\n", podsumowanie.getPozostaleDoplaty()));
 
+            wynik = MetrykiService.SUKCES;
             return raport.toString();
 
         } catch (Exception e) {
             System.err.println("Błąd podczas generowania raportu: " + e.getMessage());
             return "Błąd podczas generowania raportu: " + e.getMessage() +
                     "\nSpróbuj ponownie lub skontaktuj się z administratorem.";
+        } finally {
+            metryki.zakoncz(pomiar, MetrykiService.RAPORT, wynik, "raport", "sprzedaz-miesieczna");
         }
     }
 
     public String generujRaportTopKlientow(int limit) {
+        Timer.Sample pomiar = metryki.rozpocznij();
+        String wynik = MetrykiService.BLAD;
         try {
-            List<Klient> wszyscyKlienci = klientRepository.findAll();
-
-            if (wszyscyKlienci == null) {
-                wszyscyKlienci = new ArrayList<>();
-            }
-
-            List<TopKlient> topKlienci = wszyscyKlienci.stream()
-                    .map(klient -> {
-                        BigDecimal lacznaWartosc = klient.obliczLacznaWartoscUmow();
-                        int liczbaWyjazdow = klient.getUmowy() != null ? klient.getUmowy().size() : 0;
-                        return new TopKlient(klient, lacznaWartosc, liczbaWyjazdow);
-                    })
-                    .filter(tk -> tk.lacznaWartosc != null && tk.lacznaWartosc.compareTo(BigDecimal.ZERO) > 0)
-                    .sorted((a, b) -> b.lacznaWartosc.compareTo(a.lacznaWartosc))
-                    .limit(limit)
-                    .collect(Collectors.toList());
+            List<TopKlient> topKlienci = pobierzTopKlientow(limit);
 
             StringBuilder raport = new StringBuilder();
             raport.append("═══════════════════════════════════════════════════════════════════════\n");
@@ -102,53 +113,167 @@ public class RaportService {
                 TopKlient tk = topKlienci.get(i);
                 raport.append(String.format("%d. %s %s - %d wyjazdów, wartość: %,.0f PLN\n",
                         i + 1,
-                        tk.klient.getImie() != null ? tk.klient.getImie() : "BRAK",
-                        tk.klient.getNazwisko() != null ? tk.klient.getNazwisko() : "BRAK",
+                        tk.imie != null ? tk.imie : "BRAK",
+                        tk.nazwisko != null ? tk.nazwisko : "BRAK",
                         tk.liczbaWyjazdow,
                         tk.lacznaWartosc));
             }
 
+            wynik = MetrykiService.SUKCES;
             return raport.toString();
 
         } catch (Exception e) {
             System.err.println("Błąd podczas generowania raportu TOP klientów: " + e.getMessage());
             return "Błąd podczas generowania raportu: " + e.getMessage();
+        } finally {
+            metryki.zakoncz(pomiar, MetrykiService.RAPORT, wynik, "raport", "top-klienci");
+        }
+    }
+
+    /**
+     * Wyznacza najlepszych klientów zapytaniem agregującym z limitem w bazie.
+     * Przy bardzo dużej liczbie klientów agregaty są strumieniowane bez sortowania,
+     * a w pamięci trzymany jest tylko kopiec limit najlepszych.
+     */
+    private List<TopKlient> pobierzTopKlientow(int limit) {
+        if (limit <= 0) {
+            return List.of();
         }
+
+        if (klientRepository.count() <= progStrumieniowaniaKlientow) {
+            return klientRepository.findTopKlientow(PageRequest.of(0, limit)).stream()
+                    .map(TopKlient::new)
+                    .collect(Collectors.toList());
+        }
+
+        Comparator<TopKlient> kolejnosc = Comparator.<TopKlient, BigDecimal>comparing(tk -> tk.lacznaWartosc)
+                .reversed()
+                .thenComparing(tk -> tk.id);
+        PriorityQueue<TopKlient> najlepsi = new PriorityQueue<>(kolejnosc.reversed());
+
+        nowaTransakcjaOdczytu.executeWithoutResult(status -> {
+            try (Stream<Object[]> wiersze = klientRepository.streamWartosciUmowKlientow()) {
+                wiersze.map(TopKlient::new)
+                        .filter(tk -> tk.lacznaWartosc.compareTo(BigDecimal.ZERO) > 0)
+                        .forEach(tk -> {
+                            if (najlepsi.size() < limit) {
+                                najlepsi.add(tk);
+                            } else if (kolejnosc.compare(tk, najlepsi.peek()) < 0) {
+                                najlepsi.poll();
+                                najlepsi.add(tk);
+                            }
+                        });
+            }
+        });
+
+        List<TopKlient> wynik = new ArrayList<>(najlepsi);
+        wynik.sort(kolejnosc);
+        return wynik;
     }
 
-    private BigDecimal obliczCalkowitaWartoscSprzedazy(List<Umowa> umowy) {
-        if (umowy == null || umowy.isEmpty()) {
-            return BigDecimal.ZERO;
+    /**
+     * Podsumowanie sprzedaży w miesiącu odczytane z zestawienia sprzedaz_miesieczna (jeden wiersz po kluczu).
+     * Zamknięte miesiące liczone są raz - ich niezmienne podsumowania trzymane są w pamięci.
+     */
+    public PodsumowanieSprzedazy pobierzPodsumowanieSprzedazy(YearMonth miesiacRoku) {
+        boolean zamkniety = miesiacRoku.isBefore(YearMonth.now());
+        if (zamkniety) {
+            PodsumowanieSprzedazy zapisane = zamknieteMiesiace.get(miesiacRoku);
+            if (zapisane != null) {
+                return zapisane;
+            }
         }
 
-        return umowy.stream()
-                .filter(u -> u != null && !"ANULOWANA".equals(u.getStatusUmowy()))
-                .map(Umowa::getCenaCalkowita)
-                .filter(Objects::nonNull)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        SprzedazMiesieczna sprzedaz = statystykiSprzedazyService.pobierzSprzedazWMiesiacu(
+                miesiacRoku.getYear(), miesiacRoku.getMonthValue());
+        PodsumowanieSprzedazy podsumowanie = sprzedaz == null
+                ? new PodsumowanieSprzedazy(miesiacRoku, 0, BigDecimal.ZERO, BigDecimal.ZERO)
+                : new PodsumowanieSprzedazy(miesiacRoku, sprzedaz.getLiczbaUmow(), sprzedaz.getWartosc(),
+                        sprzedaz.getOtrzymaneZaliczki());
+
+        if (zamkniety) {
+            zamknieteMiesiace.putIfAbsent(miesiacRoku, podsumowanie);
+        }
+        return podsumowanie;
     }
 
-    private BigDecimal obliczOtrzymaneZaliczki(List<Umowa> umowy) {
-        if (umowy == null || umowy.isEmpty()) {
-            return BigDecimal.ZERO;
+    /**
+     * Unieważnia zapamiętane podsumowanie miesiąca zawarcia umowy
+     */
+    public void uniewaznijPodsumowanie(LocalDate dataZawarcia) {
+        if (dataZawarcia != null) {
+            YearMonth miesiacRoku = YearMonth.from(dataZawarcia);
+            uniewaznij(() -> zamknieteMiesiace.remove(miesiacRoku));
         }
+    }
+
+    /**
+     * Unieważnia wszystkie zapamiętane podsumowania (np. po imporcie umów)
+     */
+    public void uniewaznijPodsumowania() {
+        uniewaznij(zamknieteMiesiace::clear);
+    }
 
-        return umowy.stream()
-                .filter(u -> u != null && u.getDataWplatyZaliczki() != null)
-                .map(Umowa::getZaliczka)
-                .filter(Objects::nonNull)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    // Od razu i ponownie po zatwierdzeniu - raport policzony w trakcie transakcji widział stare dane
+    private void uniewaznij(Runnable usuniecie) {
+        usuniecie.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    usuniecie.run();
+                }
+            });
+        }
+    }
+
+    /**
+     * Niezmienne podsumowanie sprzedaży w miesiącu
+     */
+    public static final class PodsumowanieSprzedazy {
+        private final YearMonth miesiac;
+        private final long liczbaUmow;
+        private final BigDecimal calkowitaWartosc;
+        private final BigDecimal otrzymaneZaliczki;
+
+        PodsumowanieSprzedazy(YearMonth miesiac, long liczbaUmow,
+                              BigDecimal calkowitaWartosc, BigDecimal otrzymaneZaliczki) {
+            this.miesiac = miesiac;
+            this.liczbaUmow = liczbaUmow;
+            this.calkowitaWartosc = calkowitaWartosc;
+            this.otrzymaneZaliczki = otrzymaneZaliczki;
+        }
+
+        public YearMonth getMiesiac() { return miesiac; }
+        public long getLiczbaUmow() { return liczbaUmow; }
+        public BigDecimal getCalkowitaWartosc() { return calkowitaWartosc; }
+        public BigDecimal getOtrzymaneZaliczki() { return otrzymaneZaliczki; }
+
+        public BigDecimal getSredniaWartosc() {
+            return liczbaUmow > 0 ?
+                    calkowitaWartosc.divide(new BigDecimal(liczbaUmow), 2, RoundingMode.HALF_UP) :
+                    BigDecimal.ZERO;
+        }
+
+        public BigDecimal getPozostaleDoplaty() {
+            return calkowitaWartosc.subtract(otrzymaneZaliczki);
+        }
     }
 
     private static class TopKlient {
-        Klient klient;
+        Long id;
+        String imie;
+        String nazwisko;
         BigDecimal lacznaWartosc;
-        int liczbaWyjazdow;
+        long liczbaWyjazdow;
 
-        TopKlient(Klient klient, BigDecimal lacznaWartosc, int liczbaWyjazdow) {
-            this.klient = klient;
-            this.lacznaWartosc = lacznaWartosc != null ? lacznaWartosc : BigDecimal.ZERO;
-            this.liczbaWyjazdow = liczbaWyjazdow;
+        // Wiersz zapytania: id, imię, nazwisko, łączna wartość, liczba umów
+        TopKlient(Object[] wiersz) {
+            this.id = (Long) wiersz[0];
+            this.imie = (String) wiersz[1];
+            this.nazwisko = (String) wiersz[2];
+            this.lacznaWartosc = wiersz[3] != null ? new BigDecimal(wiersz[3].toString()) : BigDecimal.ZERO;
+            this.liczbaWyjazdow = ((Number) wiersz[4]).longValue();
         }
     }
 }
\ No newline at end of file
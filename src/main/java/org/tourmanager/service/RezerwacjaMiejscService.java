@@ -0,0 +1,65 @@
+package org.tourmanager.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tourmanager.repository.OfertaTurystycznaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Ewidencja miejsc w ofertach turystycznych.
+ *
+ * Licznik dostepne_miejsca jest źródłem prawdy - rezerwacja to pojedynczy warunkowy
+ * UPDATE (compare-and-set w bazie), więc koszt nie zależy od liczby umów, a sprzedaż
+ * ponad limit jest niemożliwa także przy wielu instancjach aplikacji. Równoległe rezerwacje
+ * tej samej oferty szereguje blokada wiersza trzymana przez bazę do zatwierdzenia transakcji.
+ */
+@Service
+@Transactional
+public class RezerwacjaMiejscService {
+
+    private static final Logger log = LoggerFactory.getLogger(RezerwacjaMiejscService.class);
+
+    @Autowired
+    private OfertaTurystycznaRepository ofertaRepository;
+
+    /**
+     * Atomowo rezerwuje miejsca w ofercie
+     * @return true jeśli miejsca zostały zarezerwowane
+     */
+    public boolean zarezerwujMiejsca(Long ofertaId, int liczba) {
+        if (ofertaId == null) {
+            throw new IllegalArgumentException("Oferta musi być zapisana przed rezerwacją miejsc");
+        }
+        if (liczba <= 0) {
+            throw new IllegalArgumentException("Liczba miejsc do rezerwacji musi być większa od zera");
+        }
+
+        boolean zarezerwowano = ofertaRepository.zarezerwujMiejsca(ofertaId, liczba) == 1;
+        if (!zarezerwowano) {
+            log.info("Brak wystarczającej liczby miejsc w ofercie {} (wymagane: {})", ofertaId, liczba);
+        }
+        return zarezerwowano;
+    }
+
+    /**
+     * Atomowo zwalnia miejsca w ofercie (np. po anulowaniu umowy)
+     */
+    public void zwolnijMiejsca(Long ofertaId, int liczba) {
+        if (ofertaId == null || liczba <= 0) {
+            return;
+        }
+
+        ofertaRepository.zwolnijMiejsca(ofertaId, liczba);
+    }
+
+    /**
+     * Pobiera aktualną liczbę wolnych miejsc bez ładowania umów oferty
+     */
+    @Transactional(readOnly = true)
+    public int pobierzDostepneMiejsca(Long ofertaId) {
+        Integer miejsca = ofertaRepository.findDostepneMiejscaById(ofertaId);
+        return miejsca != null ? miejsca : 0;
+    }
+}
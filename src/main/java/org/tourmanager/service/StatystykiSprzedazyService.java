@@ -0,0 +1,88 @@
+package org.tourmanager.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tourmanager.model.SprzedazMiesieczna;
+import org.tourmanager.model.Umowa;
+import org.tourmanager.repository.SprzedazMiesiecznaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Miesięczne zestawienie sprzedaży utrzymywane przyrostowo w tabeli sprzedaz_miesieczna.
+ *
+ * Każde zawarcie i anulowanie umowy oraz wpłata zaliczki dolicza zmianę do wiersza miesiąca
+ * w tej samej transakcji (atomowy MERGE), więc miesięczny raport sprzedaży nie skanuje tabeli umów.
+ * Przebudowa odtwarza zestawienie z umów, np. po zmianach danych poza aplikacją.
+ */
+@Service
+@Transactional
+public class StatystykiSprzedazyService {
+
+    private static final Logger log = LoggerFactory.getLogger(StatystykiSprzedazyService.class);
+
+    @Autowired
+    private SprzedazMiesiecznaRepository sprzedazRepository;
+
+    /**
+     * Uwzględnia nową umowę w zestawieniu
+     */
+    public void doliczUmowe(Umowa umowa) {
+        zmienSprzedaz(umowa, 1);
+    }
+
+    /**
+     * Wycofuje anulowaną umowę z zestawienia
+     */
+    public void wycofajUmowe(Umowa umowa) {
+        zmienSprzedaz(umowa, -1);
+    }
+
+    /**
+     * Uwzględnia wpłaconą zaliczkę w miesiącu zawarcia umowy
+     */
+    public void doliczZaliczke(Umowa umowa) {
+        LocalDate dataZawarcia = umowa.getDataZawarcia();
+        if (dataZawarcia == null || umowa.getZaliczka() == null) {
+            return;
+        }
+        sprzedazRepository.doliczSprzedaz(dataZawarcia.getYear(), dataZawarcia.getMonthValue(),
+                0, BigDecimal.ZERO, 0, umowa.getZaliczka());
+    }
+
+    /**
+     * Sprzedaż w podanym miesiącu (odczyt jednego wiersza po kluczu) albo null gdy nie było sprzedaży
+     */
+    @Transactional(readOnly = true)
+    public SprzedazMiesieczna pobierzSprzedazWMiesiacu(int rok, int miesiac) {
+        return sprzedazRepository.findById(SprzedazMiesieczna.okres(rok, miesiac)).orElse(null);
+    }
+
+    /**
+     * Przebudowuje całe zestawienie z tabeli umów
+     * @return liczba odtworzonych miesięcy
+     */
+    public int przebudujStatystyki() {
+        sprzedazRepository.usunWszystkie();
+        int liczbaMiesiecy = sprzedazRepository.odtworzZUmow();
+        log.info("Przebudowano statystyki sprzedaży: {} miesięcy", liczbaMiesiecy);
+        return liczbaMiesiecy;
+    }
+
+    private void zmienSprzedaz(Umowa umowa, int znak) {
+        LocalDate dataZawarcia = umowa.getDataZawarcia();
+        if (dataZawarcia == null) {
+            return;
+        }
+
+        BigDecimal wartosc = umowa.getCenaCalkowita() != null ? umowa.getCenaCalkowita() : BigDecimal.ZERO;
+        long liczbaOsob = umowa.getLiczbaOsob() != null ? umowa.getLiczbaOsob() : 0;
+
+        sprzedazRepository.doliczSprzedaz(dataZawarcia.getYear(), dataZawarcia.getMonthValue(),
+                znak, znak > 0 ? wartosc : wartosc.negate(), znak * liczbaOsob, BigDecimal.ZERO);
+    }
+}
@@ -0,0 +1,159 @@
+package org.tourmanager.service;
+
+import org.tourmanager.model.OfertaWiersz;
+import org.tourmanager.model.PilotWiersz;
+import org.tourmanager.model.UmowaWiersz;
+import org.tourmanager.repository.OfertaTurystycznaRepository;
+import org.tourmanager.repository.PilotRepository;
+import org.tourmanager.repository.UmowaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Okna wierszy dla tabel interfejsu: projekcje zamiast encji, sortowanie i filtrowanie w bazie.
+ *
+ * Tabela pobiera tylko okna, które są widoczne, więc pamięć zależy od rozmiaru okna,
+ * a nie od liczby wierszy. Sortowanie dopuszcza tylko kolumny z listy, zawsze z kluczem
+ * głównym jako drugim kryterium, aby kolejność wierszy między oknami była stabilna.
+ *
+ * Filtry tabel pozostają przy LIKE zamiast IndeksTekstowy: obejmują kolumny spoza indeksu
+ * (kraj, imię i licencja pilota, numer umowy), a okno z sortowaniem po dowolnej kolumnie i liczbą
+ * wszystkich trafień wymagałoby przekazania do bazy pełnej, nieograniczonej listy id (IN :ids).
+ * Zapytanie o liczbę wykonywane jest raz na zmianę filtra, nie przy każdym oknie.
+ */
+@Service
+@Transactional(readOnly = true)
+public class StronicowanieDanychService {
+
+    private static final Set<String> SORTOWANIE_OFERT = Set.of(
+            "nazwa", "krajDocelowy", "dataWyjazdu", "dataPowrotu", "cenaZaOsobe", "dostepneMiejsca", "statusOferty");
+
+    private static final Set<String> SORTOWANIE_PILOTOW = Set.of(
+            "imie", "nazwisko", "telefon", "numerLicencji", "dataWaznosciLicencji", "statusPilota");
+
+    /** Kolumny tabeli umów z danymi klienta i oferty sortowane przez aliasy złączeń */
+    private static final Map<String, String> SORTOWANIE_UMOW = Map.of(
+            "nrUmowy", "nrUmowy",
+            "dataZawarcia", "dataZawarcia",
+            "klient", "k.nazwisko",
+            "oferta", "o.nazwa",
+            "krajDocelowy", "o.krajDocelowy",
+            "liczbaOsob", "liczbaOsob",
+            "cenaCalkowita", "cenaCalkowita",
+            "statusUmowy", "statusUmowy");
+
+    @Autowired
+    private OfertaTurystycznaRepository ofertaRepository;
+
+    @Autowired
+    private PilotRepository pilotRepository;
+
+    @Autowired
+    private UmowaRepository umowaRepository;
+
+    /**
+     * Liczba aktywnych ofert pasujących do filtra (null lub pusty - wszystkie)
+     */
+    public long policzOferty(String filtr) {
+        String wzorzec = wzorzec(filtr);
+        return wzorzec == null
+                ? ofertaRepository.countByStatusOferty("AKTYWNA")
+                : ofertaRepository.countAktywnychPasujacych(wzorzec);
+    }
+
+    /**
+     * Okno aktywnych ofert
+     * @param sortowanie klucz kolumny (null - według daty wyjazdu)
+     */
+    public List<OfertaWiersz> pobierzOknoOfert(String filtr, String sortowanie, boolean rosnaco, int numerOkna,
+                                               int rozmiarOkna) {
+        String pole = sortowanie == null ? "dataWyjazdu" : dozwolone(SORTOWANIE_OFERT.contains(sortowanie), sortowanie);
+        Pageable okno = okno(pole, "id", rosnaco, numerOkna, rozmiarOkna);
+        String wzorzec = wzorzec(filtr);
+        return wzorzec == null
+                ? ofertaRepository.findWierszeAktywnych(okno)
+                : ofertaRepository.findWierszeAktywnychPasujacych(wzorzec, okno);
+    }
+
+    /**
+     * Liczba pilotów pasujących do filtra (null lub pusty - wszyscy)
+     */
+    public long policzPilotow(String filtr) {
+        String wzorzec = wzorzec(filtr);
+        return wzorzec == null ? pilotRepository.count() : pilotRepository.countPasujacych(wzorzec);
+    }
+
+    /**
+     * Okno pilotów
+     * @param sortowanie klucz kolumny (null - według nazwiska)
+     */
+    public List<PilotWiersz> pobierzOknoPilotow(String filtr, String sortowanie, boolean rosnaco, int numerOkna,
+                                                int rozmiarOkna) {
+        String pole = sortowanie == null ? "nazwisko" : dozwolone(SORTOWANIE_PILOTOW.contains(sortowanie), sortowanie);
+        Pageable okno = okno(pole, "id", rosnaco, numerOkna, rozmiarOkna);
+        String wzorzec = wzorzec(filtr);
+        return wzorzec == null
+                ? pilotRepository.findWiersze(okno)
+                : pilotRepository.findWierszePasujacych(wzorzec, okno);
+    }
+
+    /**
+     * Liczba umów pasujących do filtra (null lub pusty - wszystkie)
+     */
+    public long policzUmowy(String filtr) {
+        String wzorzec = wzorzec(filtr);
+        return wzorzec == null ? umowaRepository.count() : umowaRepository.countPasujacych(wzorzec);
+    }
+
+    /**
+     * Okno umów
+     * @param sortowanie klucz kolumny (null - według numeru umowy)
+     */
+    public List<UmowaWiersz> pobierzOknoUmow(String filtr, String sortowanie, boolean rosnaco, int numerOkna,
+                                             int rozmiarOkna) {
+        String pole = sortowanie == null ? "nrUmowy"
+                : dozwolone(SORTOWANIE_UMOW.containsKey(sortowanie), SORTOWANIE_UMOW.getOrDefault(sortowanie, sortowanie));
+        Pageable okno = okno(pole, "nrUmowy", rosnaco, numerOkna, rozmiarOkna);
+        String wzorzec = wzorzec(filtr);
+        return wzorzec == null
+                ? umowaRepository.findWiersze(okno)
+                : umowaRepository.findWierszePasujacych(wzorzec, okno);
+    }
+
+    private static String dozwolone(boolean dozwolone, String sortowanie) {
+        if (!dozwolone) {
+            throw new IllegalArgumentException("Nieobsługiwane sortowanie: " + sortowanie);
+        }
+        return sortowanie;
+    }
+
+    private static Pageable okno(String pole, String klucz, boolean rosnaco, int numerOkna, int rozmiarOkna) {
+        Sort.Direction kierunek = rosnaco ? Sort.Direction.ASC : Sort.Direction.DESC;
+        Sort sort = Sort.by(kierunek, pole);
+        if (!pole.equals(klucz)) {
+            sort = sort.and(Sort.by(kierunek, klucz));
+        }
+        return PageRequest.of(numerOkna, rozmiarOkna, sort);
+    }
+
+    /**
+     * Wzorzec LIKE zawierający filtr; znaki \, % i _ poprzedzone znakiem ucieczki \ (ESCAPE w zapytaniach)
+     */
+    private static String wzorzec(String filtr) {
+        if (filtr == null || filtr.isBlank()) {
+            return null;
+        }
+        String tekst = filtr.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return "%" + tekst + "%";
+    }
+}
@@ -0,0 +1,44 @@
+package org.tourmanager.service;
+
+import org.tourmanager.model.Umowa;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import jakarta.persistence.PostRemove;
+
+/**
+ * Przekazuje usunięcia umów do przyrostowego przeliczania dostępności ofert - po zatwierdzeniu
+ * transakcji, aby przeliczenie widziało już stan bez usuniętej umowy.
+ *
+ * Zarejestrowany dla encji Umowa w META-INF/orm.xml; instancję tworzy Spring (SpringBeanContainer).
+ * Usunięcia zapytaniem zbiorczym omijają listener - wymagają pełnego przeliczenia.
+ */
+@Component
+public class UmowaListener {
+
+    // OfertaService zależy od repozytoriów, a te od fabryki encji, która tworzy listener
+    private final ObjectProvider<OfertaService> ofertaService;
+
+    public UmowaListener(ObjectProvider<OfertaService> ofertaService) {
+        this.ofertaService = ofertaService;
+    }
+
+    @PostRemove
+    public void poUsunieciu(Umowa umowa) {
+        if (umowa.getOferta() == null) {
+            return;
+        }
+        Long ofertaId = umowa.getOferta().getId();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            ofertaService.getObject().oznaczUsuniecieUmowy(ofertaId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                ofertaService.getObject().oznaczUsuniecieUmowy(ofertaId);
+            }
+        });
+    }
+}
@@ -1,76 +1,146 @@
 package org.tourmanager.service;
 
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.tourmanager.model.*;
 import org.tourmanager.repository.UmowaRepository;
-import org.tourmanager.repository.KlientRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import jakarta.annotation.PostConstruct;
+
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 
 @Service
+@Transactional
 public class UmowaService {
 
+    private static final Logger log = LoggerFactory.getLogger(UmowaService.class);
+
     @Autowired
     private UmowaRepository umowaRepository;
 
     @Autowired
-    private KlientRepository klientRepository;
+    private RezerwacjaMiejscService rezerwacjaMiejscService;
+
+    @Autowired
+    private StatystykiSprzedazyService statystykiSprzedazyService;
+
+    @Autowired
+    private RaportService raportService;
+
+    @Autowired
+    private MetrykiService metryki;
+
+    @Autowired
+    private NumeracjaUmowService numeracjaUmowService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transakcja;
+
+    @PostConstruct
+    public void inicjalizuj() {
+        transakcja = new TransactionTemplate(transactionManager);
+    }
 
     /**
-     * Zawiera nową umowę z klientem
+     * Zawiera nową umowę z klientem.
+     * Odrzucenie (walidacja, brak miejsc) zwraca false; błędy zapisu przerywają transakcję wyjątkiem.
+     * Numer umowy jest przydzielany przed otwarciem transakcji zapisu - rezerwacja bloku numerów
+     * nie czeka wtedy na drugie połączenie z puli, trzymając już jedno. Numer odrzuconej umowy przepada.
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public boolean zawrzyjUmowe(Umowa umowa) {
+        Timer.Sample pomiar = metryki.rozpocznij();
         try {
-            if (umowa == null) {
-                throw new IllegalArgumentException("Umowa nie może być null");
+            // Walidacja przed rezerwacją - wyjątek z RezerwacjaMiejscService oznaczyłby transakcję do wycofania
+            if (umowa == null || umowa.getOferta() == null || umowa.getOferta().getId() == null) {
+                log.warn("Odrzucono umowę bez zapisanej oferty");
+                metryki.zakoncz(pomiar, MetrykiService.ZAWARCIE_UMOWY, MetrykiService.ODRZUCONA);
+                return false;
+            }
+            if (umowa.getLiczbaOsob() == null || umowa.getLiczbaOsob() <= 0) {
+                log.warn("Odrzucono umowę z nieprawidłową liczbą osób: {}", umowa.getLiczbaOsob());
+                metryki.zakoncz(pomiar, MetrykiService.ZAWARCIE_UMOWY, MetrykiService.ODRZUCONA);
+                return false;
             }
 
-            if (umowa.utworzUmowe()) {
-                umowaRepository.save(umowa);
-                System.out.println("Umowa zapisana w bazie danych: " + umowa.getNrUmowy());
-                return true;
+            if (umowa.getNrUmowy() == null) {
+                int rok = LocalDate.now().getYear();
+                umowa.setNrUmowy(Umowa.generujNumerUmowy(rok, numeracjaUmowService.przydzielNumer(rok)));
             }
+
+            return Boolean.TRUE.equals(transakcja.execute(status -> zapiszUmowe(umowa, pomiar)));
+        } catch (RuntimeException e) {
+            metryki.zakoncz(pomiar, MetrykiService.ZAWARCIE_UMOWY, MetrykiService.BLAD);
+            throw e;
+        }
+    }
+
+    private boolean zapiszUmowe(Umowa umowa, Timer.Sample pomiar) {
+        Long ofertaId = umowa.getOferta().getId();
+        int liczbaOsob = umowa.getLiczbaOsob();
+
+        if (!rezerwacjaMiejscService.zarezerwujMiejsca(ofertaId, liczbaOsob)) {
+            metryki.zakoncz(pomiar, MetrykiService.ZAWARCIE_UMOWY, MetrykiService.ODRZUCONA);
             return false;
-        } catch (IllegalArgumentException e) {
-            System.err.println("Błąd walidacji umowy: " + e.getMessage());
-            return false;
-        } catch (Exception e) {
-            System.err.println("Błąd podczas zapisywania umowy: " + e.getMessage());
+        }
+
+        if (!umowa.utworzUmowe(false)) {
+            rezerwacjaMiejscService.zwolnijMiejsca(ofertaId, liczbaOsob);
+            metryki.zakoncz(pomiar, MetrykiService.ZAWARCIE_UMOWY, MetrykiService.ODRZUCONA);
             return false;
         }
+
+        umowaRepository.save(umowa);
+        statystykiSprzedazyService.doliczUmowe(umowa);
+        log.debug("Umowa zapisana w bazie danych: {}", umowa.getNrUmowy());
+        metryki.zakonczPoZatwierdzeniu(pomiar, MetrykiService.ZAWARCIE_UMOWY,
+                () -> metryki.zlicz(MetrykiService.SPRZEDANE_MIEJSCA, liczbaOsob));
+        return true;
     }
 
     public boolean zarejestrujZaliczke(String nrUmowy, BigDecimal kwota, String metodaPlatnosci) {
+        Timer.Sample pomiar = metryki.rozpocznij();
         try {
+            String bladWalidacji = null;
             if (nrUmowy == null || nrUmowy.trim().isEmpty()) {
-                throw new IllegalArgumentException("Numer umowy nie może być pusty");
+                bladWalidacji = "Numer umowy nie może być pusty";
+            } else if (kwota == null || kwota.compareTo(BigDecimal.ZERO) <= 0) {
+                bladWalidacji = "Kwota musi być większa od zera";
+            } else if (metodaPlatnosci == null || metodaPlatnosci.trim().isEmpty()) {
+                bladWalidacji = "Metoda płatności nie może być pusta";
             }
-
-            if (kwota == null || kwota.compareTo(BigDecimal.ZERO) <= 0) {
-                throw new IllegalArgumentException("Kwota musi być większa od zera");
-            }
-
-            if (metodaPlatnosci == null || metodaPlatnosci.trim().isEmpty()) {
-                throw new IllegalArgumentException("Metoda płatności nie może być pusta");
+            if (bladWalidacji != null) {
+                log.warn("Błąd walidacji zaliczki: {}", bladWalidacji);
+                metryki.zakoncz(pomiar, MetrykiService.REJESTRACJA_ZALICZKI, MetrykiService.ODRZUCONA);
+                return false;
             }
 
             Umowa umowa = umowaRepository.findByNrUmowy(nrUmowy);
-            if (umowa != null) {
-                if (umowa.zarejestrujZaliczke(kwota, metodaPlatnosci)) {
-                    umowaRepository.save(umowa);
-                    return true;
-                }
-            } else {
-                System.err.println("Nie znaleziono umowy o numerze: " + nrUmowy);
+            if (umowa == null) {
+                log.warn("Nie znaleziono umowy o numerze: {}", nrUmowy);
+            } else if (umowa.zarejestrujZaliczke(kwota, metodaPlatnosci)) {
+                umowaRepository.save(umowa);
+                statystykiSprzedazyService.doliczZaliczke(umowa);
+                raportService.uniewaznijPodsumowanie(umowa.getDataZawarcia());
+                metryki.zakonczPoZatwierdzeniu(pomiar, MetrykiService.REJESTRACJA_ZALICZKI,
+                        () -> metryki.zlicz(MetrykiService.KWOTA_ZALICZEK, kwota.doubleValue()));
+                return true;
             }
+            metryki.zakoncz(pomiar, MetrykiService.REJESTRACJA_ZALICZKI, MetrykiService.ODRZUCONA);
             return false;
-        } catch (IllegalArgumentException e) {
-            System.err.println("Błąd walidacji: " + e.getMessage());
-            return false;
-        } catch (Exception e) {
-            System.err.println("Błąd podczas rejestracji zaliczki: " + e.getMessage());
-            return false;
+        } catch (RuntimeException e) {
+            metryki.zakoncz(pomiar, MetrykiService.REJESTRACJA_ZALICZKI, MetrykiService.BLAD);
+            throw e;
         }
     }
 
@@ -78,35 +148,37 @@ public class UmowaService {
      * Anuluje umowę
      */
     public boolean anulujUmowe(String nrUmowy, String powodRezygnacji) {
+        Timer.Sample pomiar = metryki.rozpocznij();
         try {
             Umowa umowa = umowaRepository.findByNrUmowy(nrUmowy);
             if (umowa != null) {
-                if (umowa.anulujUmowe(powodRezygnacji)) {
+                boolean blokowalaMiejsca = umowa.blokujeMiejsca();
+                if (umowa.anulujUmowe(powodRezygnacji, false)) {
+                    if (blokowalaMiejsca) {
+                        rezerwacjaMiejscService.zwolnijMiejsca(umowa.getOferta().getId(), umowa.getLiczbaOsob());
+                    }
                     umowaRepository.save(umowa);
+                    statystykiSprzedazyService.wycofajUmowe(umowa);
+                    raportService.uniewaznijPodsumowanie(umowa.getDataZawarcia());
+                    metryki.zakonczPoZatwierdzeniu(pomiar, MetrykiService.ANULOWANIE_UMOWY, () -> {});
                     return true;
                 }
             }
+            metryki.zakoncz(pomiar, MetrykiService.ANULOWANIE_UMOWY, MetrykiService.ODRZUCONA);
             return false;
-        } catch (Exception e) {
-            System.err.println("Błąd podczas anulowania umowy: " + e.getMessage());
-            return false;
+        } catch (RuntimeException e) {
+            metryki.zakoncz(pomiar, MetrykiService.ANULOWANIE_UMOWY, MetrykiService.BLAD);
+            throw e;
         }
     }
 
     /**
      * Wyszukuje umowy klienta
      */
+    @Transactional(readOnly = true)
     public List<Umowa> wyszukajUmowyKlienta(String pesel) {
-        try {
-            Klient klient = klientRepository.findByPesel(pesel);
-            if (klient != null) {
-                return klient.sprawdzHistorieWyjazdow();
-            }
-            return List.of();
-        } catch (Exception e) {
-            System.err.println("Błąd podczas wyszukiwania umów: " + e.getMessage());
-            return List.of();
-        }
+        // Zapytanie zamiast leniwej kolekcji klienta, która poza transakcją nie dałaby się odczytać
+        return umowaRepository.findByKlientPesel(pesel);
     }
 
     /**
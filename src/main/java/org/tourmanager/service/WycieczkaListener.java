@@ -0,0 +1,71 @@
+package org.tourmanager.service;
+
+import org.tourmanager.model.Wycieczka;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+import java.time.LocalDate;
+
+/**
+ * Przenosi zmiany wycieczek do indeksów w pamięci - dopiero po zatwierdzeniu transakcji,
+ * aby wycofane zmiany nie trafiły do indeksu.
+ *
+ * Zarejestrowany dla encji Wycieczka w META-INF/orm.xml; instancję tworzy Spring (SpringBeanContainer).
+ * Zbiorcze UPDATE/DELETE na wycieczkach omijają listener - po nich indeksy trzeba przebudować.
+ */
+@Component
+public class WycieczkaListener {
+
+    // Indeksy zależą od repozytoriów, a te od fabryki encji, która tworzy listener
+    private final ObjectProvider<IndeksDostepnosciPilotow> indeksDostepnosciPilotow;
+    private final ObjectProvider<IndeksDostepnosciHoteli> indeksDostepnosciHoteli;
+
+    public WycieczkaListener(ObjectProvider<IndeksDostepnosciPilotow> indeksDostepnosciPilotow,
+                             ObjectProvider<IndeksDostepnosciHoteli> indeksDostepnosciHoteli) {
+        this.indeksDostepnosciPilotow = indeksDostepnosciPilotow;
+        this.indeksDostepnosciHoteli = indeksDostepnosciHoteli;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void poZapisie(Wycieczka wycieczka) {
+        Long wycieczkaId = wycieczka.getId();
+        Long pilotId = wycieczka.getPilot() != null ? wycieczka.getPilot().getId() : null;
+        Long hotelId = wycieczka.getHotel() != null ? wycieczka.getHotel().getId() : null;
+        LocalDate dataOd = wycieczka.getDataRozpoczecia();
+        LocalDate dataDo = wycieczka.getDataZakonczenia();
+        String status = wycieczka.getStatusWycieczki();
+
+        poZatwierdzeniu(() -> {
+            indeksDostepnosciPilotow.getObject().aktualizuj(wycieczkaId, pilotId, dataOd, dataDo, status);
+            indeksDostepnosciHoteli.getObject().aktualizuj(wycieczkaId, hotelId, dataOd, dataDo, status);
+        });
+    }
+
+    @PostRemove
+    public void poUsunieciu(Wycieczka wycieczka) {
+        Long wycieczkaId = wycieczka.getId();
+        poZatwierdzeniu(() -> {
+            indeksDostepnosciPilotow.getObject().usun(wycieczkaId);
+            indeksDostepnosciHoteli.getObject().usun(wycieczkaId);
+        });
+    }
+
+    private void poZatwierdzeniu(Runnable akcja) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    akcja.run();
+                }
+            });
+        } else {
+            akcja.run();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package org.tourmanager.service;
+
+import org.tourmanager.model.Hotel;
+import org.tourmanager.model.Klient;
+import org.tourmanager.model.OfertaTurystyczna;
+import org.tourmanager.model.Pilot;
+import org.tourmanager.repository.HotelRepository;
+import org.tourmanager.repository.KlientRepository;
+import org.tourmanager.repository.OfertaTurystycznaRepository;
+import org.tourmanager.repository.PilotRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Wyszukiwanie pełnotekstowe ofert, hoteli, klientów i pilotów przez IndeksTekstowy.
+ * Indeks wskazuje identyfikatory w kolejności trafności, a encje pobierane są po kluczu głównym.
+ */
+@Service
+public class WyszukiwanieService {
+
+    /** Domyślna liczba wyników wyszukiwania */
+    public static final int DOMYSLNY_LIMIT = 100;
+
+    @Autowired
+    private IndeksTekstowy indeksTekstowy;
+
+    @Autowired
+    private OfertaTurystycznaRepository ofertaRepository;
+
+    @Autowired
+    private HotelRepository hotelRepository;
+
+    @Autowired
+    private KlientRepository klientRepository;
+
+    @Autowired
+    private PilotRepository pilotRepository;
+
+    public List<OfertaTurystyczna> wyszukajOfertyPoNazwie(String fraza, int limit) {
+        return pobierz(IndeksTekstowy.Pole.OFERTA_NAZWA, fraza, limit, ofertaRepository, OfertaTurystyczna::getId);
+    }
+
+    public List<Hotel> wyszukajHotelePoNazwie(String fraza, int limit) {
+        return pobierz(IndeksTekstowy.Pole.HOTEL_NAZWA, fraza, limit, hotelRepository, Hotel::getId);
+    }
+
+    public List<Hotel> wyszukajHotelePoOsobieKontaktowej(String fraza, int limit) {
+        return pobierz(IndeksTekstowy.Pole.HOTEL_OSOBA_KONTAKTOWA, fraza, limit, hotelRepository, Hotel::getId);
+    }
+
+    public List<Hotel> wyszukajHotelePoWarunkachWspolpracy(String fraza, int limit) {
+        return pobierz(IndeksTekstowy.Pole.HOTEL_WARUNKI_WSPOLPRACY, fraza, limit, hotelRepository, Hotel::getId);
+    }
+
+    public List<Klient> wyszukajKlientowPoNazwisku(String fraza, int limit) {
+        return pobierz(IndeksTekstowy.Pole.KLIENT_NAZWISKO, fraza, limit, klientRepository, Klient::getId);
+    }
+
+    public List<Pilot> wyszukajPilotowPoJezyku(String jezyk, int limit) {
+        return pobierz(IndeksTekstowy.Pole.PILOT_JEZYKI, jezyk, limit, pilotRepository, Pilot::getId);
+    }
+
+    public List<Pilot> wyszukajPilotowPoSpecjalizacji(String specjalizacja, int limit) {
+        return pobierz(IndeksTekstowy.Pole.PILOT_SPECJALIZACJE, specjalizacja, limit, pilotRepository, Pilot::getId);
+    }
+
+    /**
+     * Pobiera encje wskazane przez indeks, zachowując kolejność trafności
+     */
+    private <T> List<T> pobierz(IndeksTekstowy.Pole pole, String fraza, int limit,
+                                JpaRepository<T, Long> repozytorium, Function<T, Long> id) {
+        List<Long> idy = indeksTekstowy.szukaj(pole, fraza, limit);
+        if (idy.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, T> encje = new HashMap<>();
+        for (T encja : repozytorium.findAllById(idy)) {
+            encje.put(id.apply(encja), encja);
+        }
+        List<T> wynik = new ArrayList<>(idy.size());
+        for (Long identyfikator : idy) {
+            T encja = encje.get(identyfikator);
+            if (encja != null) {
+                wynik.add(encja);
+            }
+        }
+        return wynik;
+    }
+}
@@ -0,0 +1,68 @@
+package org.tourmanager.ui;
+
+import org.tourmanager.TourManagerApplication;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.stage.Stage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Cykl życia aplikacji okienkowej: kontekst Springa startuje w init(), okno główne w start().
+ *
+ * Osobna klasa, bo launcher Javy odmawia uruchomienia klasy głównej dziedziczącej po Application,
+ * gdy JavaFX nie jest dostępny - TourManagerApplication musi działać też w trybie serwera.
+ */
+public class AplikacjaJavaFX extends Application {
+
+    private static final Logger log = LoggerFactory.getLogger(AplikacjaJavaFX.class);
+
+    private ConfigurableApplicationContext springContext;
+    private MainWindow mainWindow;
+
+    @Override
+    public void init() throws Exception {
+        try {
+            springContext = SpringApplication.run(TourManagerApplication.class);
+            mainWindow = springContext.getBean(MainWindow.class);
+        } catch (Exception e) {
+            log.error("Błąd podczas inicjalizacji Spring Context: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void start(Stage primaryStage) throws Exception {
+        try {
+            if (mainWindow == null) {
+                showErrorAndExit("Nie udało się zainicjalizować głównego okna aplikacji");
+                return;
+            }
+            mainWindow.start(primaryStage);
+        } catch (Exception e) {
+            log.error("Błąd podczas uruchamiania aplikacji: {}", e.getMessage(), e);
+            showErrorAndExit("Błąd podczas uruchamiania aplikacji: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void stop() throws Exception {
+        try {
+            if (springContext != null) {
+                springContext.close();
+            }
+        } catch (Exception e) {
+            log.error("Błąd podczas zamykania Spring Context: {}", e.getMessage(), e);
+        } finally {
+            Platform.exit();
+        }
+    }
+
+    private void showErrorAndExit(String message) {
+        log.error(message);
+        Platform.exit();
+        System.exit(1);
+    }
+}
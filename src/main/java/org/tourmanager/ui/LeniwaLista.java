@@ -0,0 +1,228 @@
+package org.tourmanager.ui;
+
+import javafx.application.Platform;
+import javafx.collections.ObservableListBase;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Lista wierszy dla TableView pobierająca dane oknami w miarę przewijania.
+ *
+ * TableView wirtualizuje komórki i pyta listę tylko o widoczne wiersze. Lista zna liczbę
+ * wierszy (zapytanie COUNT), a same wiersze pobiera w tle oknami po rozmiarOkna i trzyma
+ * najwyżej maksOkien ostatnio używanych okien - pamięć zależy od widocznego fragmentu,
+ * a nie od liczby wierszy. Wiersz jeszcze niepobrany jest pusty (null) do czasu wczytania okna.
+ * Sortowanie kolumn i filtr przekazywane są do zapytania, a nie wykonywane na liście.
+ *
+ * Stan listy zmieniany jest tylko w wątku JavaFX; zapytania wykonuje jeden wątek w tle
+ * wspólny dla wszystkich tabel.
+ */
+class LeniwaLista<T> extends ObservableListBase<T> {
+
+    /**
+     * Źródło danych tabeli: liczba wierszy i okno wierszy dla filtra i sortowania
+     */
+    interface Dostawca<T> {
+        long policz(String filtr);
+
+        List<T> pobierz(String filtr, String sortowanie, boolean rosnaco, int numerOkna, int rozmiarOkna);
+    }
+
+    private static final ExecutorService WYKONAWCA = Executors.newSingleThreadExecutor(zadanie -> {
+        Thread watek = new Thread(zadanie, "ladowanie-tabel");
+        watek.setDaemon(true);
+        return watek;
+    });
+
+    private final TableView<T> tabela;
+    private final Dostawca<T> dostawca;
+    private final int rozmiarOkna;
+    private final int maksOkien;
+    private final Map<Integer, List<T>> okna;
+    private final Set<Integer> wToku = new HashSet<>();
+
+    private int rozmiar;
+    private String filtr;
+    private String sortowanie;
+    private boolean rosnaco = true;
+    private int generacja;
+    private volatile int ostatnieOkno;
+    private Consumer<Long> poPoliczeniu;
+    private Consumer<Exception> poBledzie;
+
+    /**
+     * Podłącza listę do tabeli: ustawia ją jako elementy tabeli i przejmuje sortowanie kolumn.
+     * Kolumna sortowana jest po kluczu z getUserData() - kolumny bez klucza nie są sortowalne.
+     */
+    LeniwaLista(TableView<T> tabela, Dostawca<T> dostawca, int rozmiarOkna, int maksOkien) {
+        this.tabela = tabela;
+        this.dostawca = dostawca;
+        this.rozmiarOkna = rozmiarOkna;
+        this.maksOkien = maksOkien;
+        this.okna = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> najstarsze) {
+                return size() > LeniwaLista.this.maksOkien;
+            }
+        };
+
+        for (TableColumn<T, ?> kolumna : tabela.getColumns()) {
+            kolumna.setSortable(kolumna.getUserData() instanceof String);
+        }
+        tabela.setSortPolicy(t -> {
+            TableColumn<T, ?> kolumna = t.getSortOrder().isEmpty() ? null : t.getSortOrder().get(0);
+            sortuj(kolumna != null ? (String) kolumna.getUserData() : null,
+                    kolumna == null || kolumna.getSortType() == TableColumn.SortType.ASCENDING);
+            return true;
+        });
+        tabela.setItems(this);
+    }
+
+    /**
+     * Wywoływane w wątku JavaFX po każdym przeliczeniu liczby wierszy
+     */
+    void setPoPoliczeniu(Consumer<Long> poPoliczeniu) {
+        this.poPoliczeniu = poPoliczeniu;
+    }
+
+    /**
+     * Wywoływane w wątku JavaFX, gdy zapytanie się nie powiedzie
+     */
+    void setPoBledzie(Consumer<Exception> poBledzie) {
+        this.poBledzie = poBledzie;
+    }
+
+    void filtruj(String nowyFiltr) {
+        String normalny = nowyFiltr == null || nowyFiltr.isBlank() ? null : nowyFiltr.trim();
+        if (!Objects.equals(normalny, filtr)) {
+            filtr = normalny;
+            odswiez();
+        }
+    }
+
+    void sortuj(String noweSortowanie, boolean noweRosnaco) {
+        // TableView wywołuje politykę sortowania także przy zmianie elementów - bez zmian nie przeładowujemy
+        if (!Objects.equals(noweSortowanie, sortowanie) || noweRosnaco != rosnaco) {
+            sortowanie = noweSortowanie;
+            rosnaco = noweRosnaco;
+            odswiez();
+        }
+    }
+
+    /**
+     * Porzuca pobrane okna i liczy wiersze od nowa (np. po zmianie danych)
+     */
+    void odswiez() {
+        int biezaca = ++generacja;
+        okna.clear();
+        wToku.clear();
+        String filtrZapytania = filtr;
+        WYKONAWCA.execute(() -> {
+            try {
+                long liczba = dostawca.policz(filtrZapytania);
+                Platform.runLater(() -> {
+                    if (biezaca == generacja) {
+                        ustawRozmiar((int) Math.min(liczba, Integer.MAX_VALUE));
+                        if (poPoliczeniu != null) {
+                            poPoliczeniu.accept(liczba);
+                        }
+                    }
+                });
+            } catch (Exception e) {
+                zglosBlad(e);
+            }
+        });
+    }
+
+    @Override
+    public T get(int indeks) {
+        Objects.checkIndex(indeks, rozmiar);
+        int numerOkna = indeks / rozmiarOkna;
+        ostatnieOkno = numerOkna;
+        List<T> okno = okna.get(numerOkna);
+        int wOknie = indeks % rozmiarOkna;
+        if (okno != null) {
+            return wOknie < okno.size() ? okno.get(wOknie) : null;
+        }
+        zamow(numerOkna);
+        return null;
+    }
+
+    @Override
+    public int size() {
+        return rozmiar;
+    }
+
+    private void zamow(int numerOkna) {
+        if (!wToku.add(numerOkna)) {
+            return;
+        }
+        int biezaca = generacja;
+        String filtrZapytania = filtr;
+        String sortowanieZapytania = sortowanie;
+        boolean rosnacoZapytania = rosnaco;
+        WYKONAWCA.execute(() -> {
+            // Przy szybkim przewijaniu okna, które zdążyły zniknąć z ekranu, nie są już potrzebne
+            if (Math.abs(numerOkna - ostatnieOkno) > maksOkien) {
+                Platform.runLater(() -> {
+                    if (biezaca == generacja) {
+                        wToku.remove(numerOkna);
+                    }
+                });
+                return;
+            }
+            try {
+                List<T> wiersze = dostawca.pobierz(filtrZapytania, sortowanieZapytania, rosnacoZapytania,
+                        numerOkna, rozmiarOkna);
+                Platform.runLater(() -> {
+                    if (biezaca == generacja) {
+                        wToku.remove(numerOkna);
+                        okna.put(numerOkna, wiersze);
+                        tabela.refresh();
+                    }
+                });
+            } catch (Exception e) {
+                // Okno pozostaje puste - ponowne przewinięcie do niego zamawia je jeszcze raz
+                Platform.runLater(() -> {
+                    if (biezaca == generacja) {
+                        wToku.remove(numerOkna);
+                    }
+                });
+                zglosBlad(e);
+            }
+        });
+    }
+
+    private void ustawRozmiar(int nowyRozmiar) {
+        int stary = rozmiar;
+        rozmiar = nowyRozmiar;
+        beginChange();
+        if (stary > 0) {
+            nextRemove(0, Collections.nCopies(stary, (T) null));
+        }
+        if (nowyRozmiar > 0) {
+            nextAdd(0, nowyRozmiar);
+        }
+        endChange();
+    }
+
+    private void zglosBlad(Exception e) {
+        System.err.println("Błąd podczas ładowania danych tabeli: " + e.getMessage());
+        Platform.runLater(() -> {
+            if (poBledzie != null) {
+                poBledzie.accept(e);
+            }
+        });
+    }
+}
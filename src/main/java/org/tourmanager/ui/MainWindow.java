@@ -4,26 +4,38 @@ import jakarta.annotation.PostConstruct;
 import org.tourmanager.model.*;
 import org.tourmanager.service.*;
 import javafx.application.Platform;
+import javafx.concurrent.Task;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.*;
+import javafx.stage.DirectoryChooser;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
+import org.tourmanager.config.JavaFXConfig;
 import javafx.scene.input.KeyCode;
+import java.io.File;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Component
+@ConditionalOnProperty(name = JavaFXConfig.INTERFEJS_WLACZONY, havingValue = "true", matchIfMissing = true)
 public class MainWindow {
 
     @Autowired(required = false)
@@ -38,6 +50,42 @@ public class MainWindow {
     @Autowired(required = false)
     private RaportService raportService;
 
+    @Autowired(required = false)
+    private StatystykiSprzedazyService statystykiSprzedazyService;
+
+    @Autowired(required = false)
+    private HotelService hotelService;
+
+    @Autowired(required = false)
+    private ImportDanychService importDanychService;
+
+    @Autowired(required = false)
+    private EksportDanychService eksportDanychService;
+
+    @Autowired(required = false)
+    private PamiecPodrecznaService pamiecPodrecznaService;
+
+    @Autowired(required = false)
+    private StronicowanieDanychService stronicowanieDanychService;
+
+    @Autowired(required = false)
+    private WyszukiwanieService wyszukiwanieService;
+
+    @Autowired
+    private WykonawcaZadan wykonawcaZadan;
+
+    // Tabele przeglądania pobierają wiersze oknami; w pamięci najwyżej MAKS_OKIEN_TABELI okien
+    private static final int ROZMIAR_OKNA_TABELI = 100;
+    private static final int MAKS_OKIEN_TABELI = 5;
+
+    // Liczba rekomendowanych pilotów pokazywanych przy przydzielaniu do wycieczki
+    private static final int LIMIT_REKOMENDACJI = 10;
+
+    // Pola indeksu tekstowego w oknie wyszukiwania (kolejność jak w wyszukajPelnotekstowo)
+    private static final List<String> ZAKRESY_WYSZUKIWANIA = List.of("Oferty - nazwa", "Hotele - nazwa",
+            "Hotele - osoba kontaktowa", "Hotele - warunki współpracy", "Klienci - nazwisko", "Piloci - języki",
+            "Piloci - specjalizacje");
+
     private Stage primaryStage;
     private BorderPane mainLayout;
     private VBox centerContent;
@@ -163,14 +211,27 @@ public class MainWindow {
         Menu menuNarzedzia = new Menu("Narzędzia");
         MenuItem eksportDanych = new MenuItem("Eksport danych");
         MenuItem importDanych = new MenuItem("Import danych");
+        MenuItem wyszukiwanie = new MenuItem("Wyszukiwanie");
+        MenuItem dostepneHotele = new MenuItem("Dostępne hotele");
+        MenuItem przebudujStatystyki = new MenuItem("Przebuduj statystyki sprzedaży");
+        MenuItem przeliczOceny = new MenuItem("Przelicz oceny hoteli");
+        MenuItem przydzielPilotow = new MenuItem("Przydziel pilotów automatycznie");
+        MenuItem pamiecPodreczna = new MenuItem("Pamięć podręczna");
         MenuItem ustawienia = new MenuItem("Ustawienia");
 
         eksportDanych.setOnAction(e -> showEksportDanych());
         importDanych.setOnAction(e -> showImportDanych());
+        wyszukiwanie.setOnAction(e -> showWyszukiwanie());
+        dostepneHotele.setOnAction(e -> showDostepneHotele());
+        przebudujStatystyki.setOnAction(e -> przebudujStatystykiSprzedazy());
+        przeliczOceny.setOnAction(e -> przeliczOcenyHoteli());
+        przydzielPilotow.setOnAction(e -> przydzielPilotowHurtowo());
+        pamiecPodreczna.setOnAction(e -> showPamiecPodreczna());
         ustawienia.setOnAction(e -> showUstawienia());
 
-        menuNarzedzia.getItems().addAll(eksportDanych, importDanych,
-                new SeparatorMenuItem(), ustawienia);
+        menuNarzedzia.getItems().addAll(eksportDanych, importDanych, wyszukiwanie, dostepneHotele,
+                new SeparatorMenuItem(), przebudujStatystyki, przeliczOceny, przydzielPilotow,
+                pamiecPodreczna, ustawienia);
 
         Menu menuPomoc = new Menu("Pomoc");
         MenuItem oProgramie = new MenuItem("O programie");
@@ -218,9 +279,14 @@ public class MainWindow {
         Label statsTitle = new Label("Statystyki");
         statsTitle.setStyle("-fx-font-weight: bold; -fx-font-size: 14px;");
 
-        Label statsOferty = new Label("Aktywne oferty: " + getAktywneOferty());
+        Label statsOferty = new Label("Aktywne oferty: ...");
         Label statsUmowy = new Label("Umowy w tym miesiącu: " + getUmowyWTymMiesiacu());
-        Label statsPiloci = new Label("Aktywni piloci: " + getAktywniPiloci());
+        Label statsPiloci = new Label("Aktywni piloci: ...");
+        // Liczniki liczone w tle, aby start okna nie czekał na zapytania
+        wykonawcaZadan.uruchom("liczba-aktywnych-ofert", postep -> getAktywneOferty(),
+                liczba -> statsOferty.setText("Aktywne oferty: " + liczba), null);
+        wykonawcaZadan.uruchom("liczba-aktywnych-pilotow", postep -> getAktywniPiloci(),
+                liczba -> statsPiloci.setText("Aktywni piloci: " + liczba), null);
 
         Region spacer = new Region();
         VBox.setVgrow(spacer, Priority.ALWAYS);
@@ -242,12 +308,32 @@ public class MainWindow {
         Label dateLabel = new Label("Data: " + LocalDate.now());
         Label versionLabel = new Label("TourManager v1.0");
 
+        // Postęp ostatnio uruchomionego zadania w tle, widoczny tylko gdy coś trwa
+        ProgressBar zadaniaProgress = new ProgressBar();
+        zadaniaProgress.setPrefWidth(120);
+        Button anulujZadania = new Button("Anuluj");
+        anulujZadania.setStyle("-fx-font-size: 10px; -fx-padding: 0 6 0 6;");
+        anulujZadania.setOnAction(e -> {
+            int liczba = wykonawcaZadan.anulujWszystkie();
+            updateStatus("Anulowano zadania: " + liczba);
+        });
+        HBox zadaniaBox = new HBox(5, zadaniaProgress, anulujZadania);
+        zadaniaBox.setAlignment(Pos.CENTER_LEFT);
+        zadaniaBox.visibleProperty().bind(wykonawcaZadan.liczbaAktywnychProperty().greaterThan(0));
+        zadaniaBox.managedProperty().bind(zadaniaBox.visibleProperty());
+        wykonawcaZadan.ostatnieProperty().addListener((obs, poprzednie, zadanie) -> {
+            zadaniaProgress.progressProperty().unbind();
+            if (zadanie != null) {
+                zadaniaProgress.progressProperty().bind(zadanie.progressProperty());
+            }
+        });
+
         Region spacer1 = new Region();
         Region spacer2 = new Region();
         HBox.setHgrow(spacer1, Priority.ALWAYS);
         HBox.setHgrow(spacer2, Priority.ALWAYS);
 
-        statusBar.getChildren().addAll(statusLabel, spacer1, dateLabel, spacer2, versionLabel);
+        statusBar.getChildren().addAll(statusLabel, zadaniaBox, spacer1, dateLabel, spacer2, versionLabel);
         return statusBar;
     }
 
@@ -400,20 +486,21 @@ public class MainWindow {
                             typField.getValue()
                     );
 
-                    boolean success;
-                    if (ofertaService != null) {
-                        success = ofertaService.dodajOferte(oferta);
-                    } else {
-                        success = oferta.dodajOferte();
-                    }
-
-                    if (success) {
-                        showAlert("Sukces", "Oferta została pomyślnie dodana!", Alert.AlertType.INFORMATION);
-                        showWelcomeScreen();
-                        updateStatus("Dodano nową ofertę: " + nazwaField.getText());
-                    } else {
-                        showAlert("Błąd", "Nie udało się dodać oferty. Sprawdź wprowadzone dane.", Alert.AlertType.ERROR);
-                    }
+                    // Klucz scala ponowne kliknięcia "Zapisz" w trakcie zapisu
+                    wykonawcaZadan.uruchomZapis("dodaj-oferte",
+                            postep -> ofertaService != null ? ofertaService.dodajOferte(oferta) : oferta.dodajOferte(),
+                            success -> {
+                                if (success) {
+                                    showAlert("Sukces", "Oferta została pomyślnie dodana!", Alert.AlertType.INFORMATION);
+                                    showWelcomeScreen();
+                                    updateStatus("Dodano nową ofertę: " + oferta.getNazwa());
+                                } else {
+                                    showAlert("Błąd", "Nie udało się dodać oferty. Sprawdź wprowadzone dane.", Alert.AlertType.ERROR);
+                                }
+                            },
+                            blad -> showAlert("Błąd", "Błąd podczas zapisu oferty: " + blad.getMessage(), Alert.AlertType.ERROR),
+                            () -> updateStatus("Zapisywanie oferty nadal trwa..."));
+                    updateStatus("Zapisywanie oferty...");
                 }
             } catch (Exception ex) {
                 showAlert("Błąd", "Błąd w danych: " + ex.getMessage(), Alert.AlertType.ERROR);
@@ -445,49 +532,74 @@ public class MainWindow {
         Label title = new Label("Przeglądaj oferty turystyczne");
         title.setStyle("-fx-font-size: 18px; -fx-font-weight: bold;");
 
-        TableView<OfertaTurystyczna> table = new TableView<>();
+        TableView<OfertaWiersz> table = new TableView<>();
         table.setPrefHeight(400);
 
-        TableColumn<OfertaTurystyczna, String> nazwaCol = new TableColumn<>("Nazwa");
+        // userData kolumny to klucz sortowania przekazywany do zapytania
+        TableColumn<OfertaWiersz, String> nazwaCol = new TableColumn<>("Nazwa");
         nazwaCol.setCellValueFactory(new PropertyValueFactory<>("nazwa"));
+        nazwaCol.setUserData("nazwa");
         nazwaCol.setPrefWidth(200);
 
-        TableColumn<OfertaTurystyczna, String> krajCol = new TableColumn<>("Kraj");
+        TableColumn<OfertaWiersz, String> krajCol = new TableColumn<>("Kraj");
         krajCol.setCellValueFactory(new PropertyValueFactory<>("krajDocelowy"));
+        krajCol.setUserData("krajDocelowy");
         krajCol.setPrefWidth(100);
 
-        TableColumn<OfertaTurystyczna, LocalDate> dataWyjazdCol = new TableColumn<>("Data wyjazdu");
+        TableColumn<OfertaWiersz, LocalDate> dataWyjazdCol = new TableColumn<>("Data wyjazdu");
         dataWyjazdCol.setCellValueFactory(new PropertyValueFactory<>("dataWyjazdu"));
+        dataWyjazdCol.setUserData("dataWyjazdu");
         dataWyjazdCol.setPrefWidth(120);
 
-        TableColumn<OfertaTurystyczna, LocalDate> dataPowrotCol = new TableColumn<>("Data powrotu");
+        TableColumn<OfertaWiersz, LocalDate> dataPowrotCol = new TableColumn<>("Data powrotu");
         dataPowrotCol.setCellValueFactory(new PropertyValueFactory<>("dataPowrotu"));
+        dataPowrotCol.setUserData("dataPowrotu");
         dataPowrotCol.setPrefWidth(120);
 
-        TableColumn<OfertaTurystyczna, BigDecimal> cenaCol = new TableColumn<>("Cena");
+        TableColumn<OfertaWiersz, BigDecimal> cenaCol = new TableColumn<>("Cena");
         cenaCol.setCellValueFactory(new PropertyValueFactory<>("cenaZaOsobe"));
+        cenaCol.setUserData("cenaZaOsobe");
         cenaCol.setPrefWidth(100);
 
-        TableColumn<OfertaTurystyczna, Integer> miejscaCol = new TableColumn<>("Dostępne miejsca");
+        TableColumn<OfertaWiersz, Integer> miejscaCol = new TableColumn<>("Dostępne miejsca");
         miejscaCol.setCellValueFactory(new PropertyValueFactory<>("dostepneMiejsca"));
+        miejscaCol.setUserData("dostepneMiejsca");
         miejscaCol.setPrefWidth(130);
 
-        TableColumn<OfertaTurystyczna, String> statusCol = new TableColumn<>("Status");
+        TableColumn<OfertaWiersz, String> statusCol = new TableColumn<>("Status");
         statusCol.setCellValueFactory(new PropertyValueFactory<>("statusOferty"));
+        statusCol.setUserData("statusOferty");
         statusCol.setPrefWidth(100);
 
         table.getColumns().addAll(nazwaCol, krajCol, dataWyjazdCol, dataPowrotCol,
                 cenaCol, miejscaCol, statusCol);
 
-        ObservableList<OfertaTurystyczna> oferty = FXCollections.observableArrayList();
-        try {
-            if (ofertaService != null) {
-                oferty.addAll(ofertaService.pobierzAktywneOferty());
-            }
-        } catch (Exception e) {
-            showAlert("Błąd", "Nie udało się załadować ofert: " + e.getMessage(), Alert.AlertType.ERROR);
+        if (stronicowanieDanychService == null) {
+            showAlert("Błąd", "Serwis ofert nie jest dostępny", Alert.AlertType.ERROR);
+            return;
         }
-        table.setItems(oferty);
+        LeniwaLista<OfertaWiersz> oferty = new LeniwaLista<>(table, new LeniwaLista.Dostawca<>() {
+            @Override
+            public long policz(String filtr) {
+                return stronicowanieDanychService.policzOferty(filtr);
+            }
+
+            @Override
+            public List<OfertaWiersz> pobierz(String filtr, String sortowanie, boolean rosnaco, int numerOkna,
+                                              int rozmiarOkna) {
+                return stronicowanieDanychService.pobierzOknoOfert(filtr, sortowanie, rosnaco, numerOkna, rozmiarOkna);
+            }
+        }, ROZMIAR_OKNA_TABELI, MAKS_OKIEN_TABELI);
+        oferty.setPoPoliczeniu(liczba -> updateStatus("Przeglądanie ofert - " + liczba + " ofert"));
+        oferty.setPoBledzie(ex -> showAlert("Błąd", "Nie udało się załadować ofert: " + ex.getMessage(),
+                Alert.AlertType.ERROR));
+
+        TextField filtrField = new TextField();
+        filtrField.setPromptText("Nazwa lub kraj (Enter - filtruj)");
+        filtrField.setPrefWidth(300);
+        filtrField.setOnAction(e -> oferty.filtruj(filtrField.getText()));
+        HBox filtrBox = new HBox(10, new Label("Filtr:"), filtrField);
+        filtrBox.setAlignment(Pos.CENTER_LEFT);
 
         HBox buttons = new HBox(10);
         buttons.setAlignment(Pos.CENTER);
@@ -497,11 +609,17 @@ public class MainWindow {
         Button editButton = new Button("Edytuj");
         Button deleteButton = new Button("Usuń");
 
-        refreshButton.setOnAction(e -> showPrzegladajOferty());
+        refreshButton.setOnAction(e -> oferty.odswiez());
         detailsButton.setOnAction(e -> {
-            OfertaTurystyczna selected = table.getSelectionModel().getSelectedItem();
-            if (selected != null) {
-                showSzczególyOferty(selected);
+            OfertaWiersz selected = table.getSelectionModel().getSelectedItem();
+            if (selected != null && ofertaService != null) {
+                wykonawcaZadan.uruchom("szczegoly-oferty", postep -> ofertaService.pobierzOferte(selected.getId()),
+                        oferta -> {
+                            if (oferta != null) {
+                                showSzczególyOferty(oferta);
+                            }
+                        },
+                        blad -> showAlert("Błąd", "Nie udało się pobrać oferty: " + blad.getMessage(), Alert.AlertType.ERROR));
             } else {
                 showAlert("Informacja", "Wybierz ofertę z listy", Alert.AlertType.INFORMATION);
             }
@@ -509,8 +627,9 @@ public class MainWindow {
 
         buttons.getChildren().addAll(refreshButton, detailsButton, editButton, deleteButton);
 
-        centerContent.getChildren().addAll(title, table, buttons);
-        updateStatus("Przeglądanie ofert - załadowano " + oferty.size() + " ofert");
+        centerContent.getChildren().addAll(title, filtrBox, table, buttons);
+        updateStatus("Przeglądanie ofert - ładowanie...");
+        oferty.odswiez();
     }
 
     private void showWyszukajOferty() {
@@ -547,47 +666,148 @@ public class MainWindow {
         searchForm.add(new Label("Typ:"), 2, 1);
         searchForm.add(typField, 3, 1);
 
+        TextField cenaOdField = new TextField();
+        cenaOdField.setPromptText("Cena od");
+        TextField cenaDoField = new TextField();
+        cenaDoField.setPromptText("Cena do");
+        TextField miejscaField = new TextField();
+        miejscaField.setPromptText("Wolne miejsca");
+
+        searchForm.add(new Label("Cena od:"), 0, 2);
+        searchForm.add(cenaOdField, 1, 2);
+        searchForm.add(new Label("Cena do:"), 2, 2);
+        searchForm.add(cenaDoField, 3, 2);
+        searchForm.add(new Label("Miejsca:"), 0, 3);
+        searchForm.add(miejscaField, 1, 3);
+
         Button searchButton = new Button("Wyszukaj");
         searchButton.setStyle("-fx-background-color: #2196F3; -fx-text-fill: white;");
 
         ListView<String> resultsView = new ListView<>();
         resultsView.setPrefHeight(300);
 
+        Label liczbyLabel = new Label();
+        liczbyLabel.setWrapText(true);
+        liczbyLabel.setMaxWidth(600);
+
+        Button prevButton = new Button("< Poprzednia");
+        Button nextButton = new Button("Następna >");
+        Label stronaLabel = new Label();
+        prevButton.setDisable(true);
+        nextButton.setDisable(true);
+
+        // Klucze początków odwiedzonych stron (null - pierwsza strona) i klucz następnej strony
+        List<OfertaService.Kursor> poczatkiStron = new ArrayList<>();
+        OfertaService.Kursor[] nastepna = new OfertaService.Kursor[1];
+        KryteriaOfert[] kryteria = new KryteriaOfert[1];
+
+        // Nowe wyszukiwanie lub zmiana strony zastępuje trwające zapytanie - pokazywany jest tylko najnowszy wynik
+        Runnable pokazStrone = () -> {
+            OfertaService.Kursor poczatek = poczatkiStron.get(poczatkiStron.size() - 1);
+            KryteriaOfert biezace = kryteria[0];
+            prevButton.setDisable(true);
+            nextButton.setDisable(true);
+            updateStatus("Wyszukiwanie ofert...");
+            wykonawcaZadan.uruchomNajnowsze("wyszukaj-oferty",
+                    postep -> ofertaService.wyszukajOferty(biezace, poczatek, OfertaService.ROZMIAR_STRONY, poczatek == null),
+                    strona -> pokazStroneOfert(strona, resultsView, liczbyLabel, stronaLabel, prevButton, nextButton,
+                            poczatkiStron.size(), nastepna),
+                    blad -> showAlert("Błąd", "Błąd podczas wyszukiwania: " + blad.getMessage(), Alert.AlertType.ERROR));
+        };
+
         searchButton.setOnAction(e -> {
             try {
-                String kraj = krajField.getText().trim().isEmpty() ? null : krajField.getText().trim();
-                String typ = "Wszystkie".equals(typField.getValue()) ? null : typField.getValue();
-
                 if (ofertaService != null) {
-                    List<OfertaTurystyczna> wyniki = ofertaService.wyszukajOferty(
-                            kraj, dataOdField.getValue(), dataDoField.getValue(), typ);
-
-                    ObservableList<String> items = FXCollections.observableArrayList();
-                    for (OfertaTurystyczna oferta : wyniki) {
-                        items.add(oferta.toString() + " - " + oferta.getCenaZaOsobe() + " PLN");
+                    KryteriaOfert nowe = new KryteriaOfert(
+                            krajField.getText().trim().isEmpty() ? null : krajField.getText().trim(),
+                            dataOdField.getValue(), dataDoField.getValue(),
+                            "Wszystkie".equals(typField.getValue()) ? null : typField.getValue());
+                    if (!cenaOdField.getText().trim().isEmpty()) {
+                        nowe.setCenaMin(new BigDecimal(cenaOdField.getText().trim().replace(',', '.')));
+                    }
+                    if (!cenaDoField.getText().trim().isEmpty()) {
+                        nowe.setCenaMax(new BigDecimal(cenaDoField.getText().trim().replace(',', '.')));
                     }
-                    resultsView.setItems(items);
-                    updateStatus("Znaleziono " + wyniki.size() + " ofert");
+                    if (!miejscaField.getText().trim().isEmpty()) {
+                        nowe.setMinMiejsc(Integer.parseInt(miejscaField.getText().trim()));
+                    }
+                    kryteria[0] = nowe;
+                    poczatkiStron.clear();
+                    poczatkiStron.add(null);
+                    pokazStrone.run();
                 } else {
                     resultsView.getItems().clear();
                     resultsView.getItems().add("Brak połączenia z serwisem ofert");
                 }
+            } catch (NumberFormatException ex) {
+                showAlert("Błąd walidacji", "Cena i liczba miejsc muszą być liczbami", Alert.AlertType.ERROR);
             } catch (Exception ex) {
                 showAlert("Błąd", "Błąd podczas wyszukiwania: " + ex.getMessage(), Alert.AlertType.ERROR);
             }
         });
 
+        nextButton.setOnAction(e -> {
+            if (nastepna[0] != null) {
+                poczatkiStron.add(nastepna[0]);
+                pokazStrone.run();
+            }
+        });
+        prevButton.setOnAction(e -> {
+            if (poczatkiStron.size() > 1) {
+                poczatkiStron.remove(poczatkiStron.size() - 1);
+                pokazStrone.run();
+            }
+        });
+
+        HBox pager = new HBox(10);
+        pager.setAlignment(Pos.CENTER);
+        pager.getChildren().addAll(prevButton, stronaLabel, nextButton);
+
         Button backButton = new Button("Powrót");
         backButton.setOnAction(e -> showWelcomeScreen());
 
-        centerContent.getChildren().addAll(title, searchForm, searchButton, resultsView, backButton);
+        centerContent.getChildren().addAll(title, searchForm, searchButton, liczbyLabel, resultsView, pager, backButton);
         updateStatus("Wyszukiwanie ofert");
     }
 
+    private static String opiszLiczby(Map<String, Long> liczby) {
+        StringBuilder opis = new StringBuilder();
+        for (Map.Entry<String, Long> wpis : liczby.entrySet()) {
+            if (opis.length() > 0) {
+                opis.append(", ");
+            }
+            opis.append(wpis.getKey()).append(" (").append(wpis.getValue()).append(")");
+        }
+        return opis.length() > 0 ? opis.toString() : "brak";
+    }
+
     // ================================================================
     // FORMULARZE UMÓW
     // ================================================================
 
+    /**
+     * Pokazuje pobraną stronę wyników wyszukiwania (w wątku JavaFX)
+     */
+    private void pokazStroneOfert(OfertaService.StronaOfert strona, ListView<String> resultsView, Label liczbyLabel,
+                                  Label stronaLabel, Button prevButton, Button nextButton, int numerStrony,
+                                  OfertaService.Kursor[] nastepna) {
+        ObservableList<String> items = FXCollections.observableArrayList();
+        for (OfertaTurystyczna oferta : strona.getOferty()) {
+            items.add(oferta.toString() + " - " + oferta.getDataWyjazdu() + " - " + oferta.getCenaZaOsobe() + " PLN");
+        }
+        resultsView.setItems(items);
+
+        if (strona.getLiczbyWedlugKraju() != null) {
+            liczbyLabel.setText("Kraje: " + opiszLiczby(strona.getLiczbyWedlugKraju()) +
+                    "\nTypy: " + opiszLiczby(strona.getLiczbyWedlugTypu()));
+        }
+        nastepna[0] = strona.getNastepna();
+        prevButton.setDisable(numerStrony <= 1);
+        nextButton.setDisable(!strona.isMaNastepna());
+        stronaLabel.setText("Strona " + numerStrony);
+        updateStatus("Strona " + numerStrony + ": " + strona.getOferty().size() + " ofert");
+    }
+
     private void showNowaUmowaForm() {
         centerContent.getChildren().clear();
 
@@ -634,16 +854,18 @@ public class MainWindow {
         ofertaCombo.setPromptText("Wybierz ofertę turystyczną");
         ofertaCombo.setPrefWidth(400);
 
-        try {
-            if (ofertaService != null) {
-                List<OfertaTurystyczna> oferty = ofertaService.pobierzAktywneOferty();
-                for (OfertaTurystyczna oferta : oferty) {
-                    ofertaCombo.getItems().add(oferta.getId() + " - " + oferta.getNazwa() +
-                            " (" + oferta.getKrajDocelowy() + ")");
+        if (ofertaService != null) {
+            ofertaCombo.setDisable(true);
+            wykonawcaZadan.uruchom("oferty-do-umowy", postep -> {
+                List<String> pozycje = new ArrayList<>();
+                for (OfertaTurystyczna oferta : ofertaService.pobierzAktywneOferty()) {
+                    pozycje.add(oferta.getId() + " - " + oferta.getNazwa() + " (" + oferta.getKrajDocelowy() + ")");
                 }
-            }
-        } catch (Exception e) {
-            showAlert("Błąd", "Nie udało się załadować ofert: " + e.getMessage(), Alert.AlertType.ERROR);
+                return pozycje;
+            }, pozycje -> {
+                ofertaCombo.getItems().setAll(pozycje);
+                ofertaCombo.setDisable(false);
+            }, blad -> showAlert("Błąd", "Nie udało się załadować ofert: " + blad.getMessage(), Alert.AlertType.ERROR));
         }
 
         Label szczegółySection = new Label("3. Szczegóły umowy");
@@ -740,32 +962,91 @@ public class MainWindow {
         Label title = new Label("Przeglądaj umowy");
         title.setStyle("-fx-font-size: 18px; -fx-font-weight: bold;");
 
-        TableView<String> table = new TableView<>();
+        TableView<UmowaWiersz> table = new TableView<>();
         table.setPrefHeight(400);
 
-        TableColumn<String, String> nrCol = new TableColumn<>("Nr umowy");
+        TableColumn<UmowaWiersz, String> nrCol = new TableColumn<>("Nr umowy");
+        nrCol.setCellValueFactory(new PropertyValueFactory<>("nrUmowy"));
+        nrCol.setUserData("nrUmowy");
         nrCol.setPrefWidth(120);
-        TableColumn<String, String> klientCol = new TableColumn<>("Klient");
-        klientCol.setPrefWidth(200);
-        TableColumn<String, String> ofertaCol = new TableColumn<>("Oferta");
-        ofertaCol.setPrefWidth(250);
-        TableColumn<String, String> statusCol = new TableColumn<>("Status");
-        statusCol.setPrefWidth(120);
-
-        table.getColumns().addAll(nrCol, klientCol, ofertaCol, statusCol);
-
-        ObservableList<String> umowy = FXCollections.observableArrayList(
-                "UM/2024/001 - Jan Kowalski - Grecja - PODPISANA",
-                "UM/2024/002 - Anna Nowak - Chorwacja - OPLACONA",
-                "UM/2024/003 - Piotr Wiśniewski - Hiszpania - ZALICZKA_WPLACONA"
-        );
-        table.setItems(umowy);
 
+        TableColumn<UmowaWiersz, LocalDate> dataCol = new TableColumn<>("Data zawarcia");
+        dataCol.setCellValueFactory(new PropertyValueFactory<>("dataZawarcia"));
+        dataCol.setUserData("dataZawarcia");
+        dataCol.setPrefWidth(110);
+
+        TableColumn<UmowaWiersz, String> klientCol = new TableColumn<>("Klient");
+        klientCol.setCellValueFactory(new PropertyValueFactory<>("klient"));
+        klientCol.setUserData("klient");
+        klientCol.setPrefWidth(180);
+
+        TableColumn<UmowaWiersz, String> ofertaCol = new TableColumn<>("Oferta");
+        ofertaCol.setCellValueFactory(new PropertyValueFactory<>("oferta"));
+        ofertaCol.setUserData("oferta");
+        ofertaCol.setPrefWidth(200);
+
+        TableColumn<UmowaWiersz, String> krajCol = new TableColumn<>("Kraj");
+        krajCol.setCellValueFactory(new PropertyValueFactory<>("krajDocelowy"));
+        krajCol.setUserData("krajDocelowy");
+        krajCol.setPrefWidth(100);
+
+        TableColumn<UmowaWiersz, Integer> osobyCol = new TableColumn<>("Osoby");
+        osobyCol.setCellValueFactory(new PropertyValueFactory<>("liczbaOsob"));
+        osobyCol.setUserData("liczbaOsob");
+        osobyCol.setPrefWidth(70);
+
+        TableColumn<UmowaWiersz, BigDecimal> cenaCol = new TableColumn<>("Cena");
+        cenaCol.setCellValueFactory(new PropertyValueFactory<>("cenaCalkowita"));
+        cenaCol.setUserData("cenaCalkowita");
+        cenaCol.setPrefWidth(100);
+
+        TableColumn<UmowaWiersz, String> statusCol = new TableColumn<>("Status");
+        statusCol.setCellValueFactory(new PropertyValueFactory<>("statusUmowy"));
+        statusCol.setUserData("statusUmowy");
+        statusCol.setPrefWidth(130);
+
+        table.getColumns().addAll(nrCol, dataCol, klientCol, ofertaCol, krajCol, osobyCol, cenaCol, statusCol);
+
+        if (stronicowanieDanychService == null) {
+            showAlert("Błąd", "Serwis umów nie jest dostępny", Alert.AlertType.ERROR);
+            return;
+        }
+        LeniwaLista<UmowaWiersz> umowy = new LeniwaLista<>(table, new LeniwaLista.Dostawca<>() {
+            @Override
+            public long policz(String filtr) {
+                return stronicowanieDanychService.policzUmowy(filtr);
+            }
+
+            @Override
+            public List<UmowaWiersz> pobierz(String filtr, String sortowanie, boolean rosnaco, int numerOkna,
+                                             int rozmiarOkna) {
+                return stronicowanieDanychService.pobierzOknoUmow(filtr, sortowanie, rosnaco, numerOkna, rozmiarOkna);
+            }
+        }, ROZMIAR_OKNA_TABELI, MAKS_OKIEN_TABELI);
+        umowy.setPoPoliczeniu(liczba -> updateStatus("Przeglądanie umów - " + liczba + " umów"));
+        umowy.setPoBledzie(ex -> showAlert("Błąd", "Nie udało się załadować umów: " + ex.getMessage(),
+                Alert.AlertType.ERROR));
+
+        TextField filtrField = new TextField();
+        filtrField.setPromptText("Nr umowy, klient lub oferta (Enter - filtruj)");
+        filtrField.setPrefWidth(300);
+        filtrField.setOnAction(e -> umowy.filtruj(filtrField.getText()));
+        HBox filtrBox = new HBox(10, new Label("Filtr:"), filtrField);
+        filtrBox.setAlignment(Pos.CENTER_LEFT);
+
+        HBox buttons = new HBox(10);
+        buttons.setAlignment(Pos.CENTER);
+
+        Button refreshButton = new Button("Odśwież");
         Button backButton = new Button("Powrót");
+        refreshButton.setOnAction(e -> umowy.odswiez());
         backButton.setOnAction(e -> showWelcomeScreen());
 
-        centerContent.getChildren().addAll(title, table, backButton);
-        updateStatus("Przeglądanie umów");
+        buttons.getChildren().addAll(refreshButton, backButton);
+
+        centerContent.getChildren().addAll(title, filtrBox, table, buttons);
+        updateStatus("Przeglądanie umów - ładowanie...");
+        umowy.odswiez();
     }
 
     private void showZaliczki() {
@@ -917,20 +1198,20 @@ public class MainWindow {
                     );
                     pilot.setDataWaznosciLicencji(licencjaDataField.getValue());
 
-                    boolean success;
-                    if (pilotService != null) {
-                        success = pilotService.dodajPilota(pilot);
-                    } else {
-                        success = pilot.dodajPilota();
-                    }
-
-                    if (success) {
-                        showAlert("Sukces", "Pilot został pomyślnie dodany!", Alert.AlertType.INFORMATION);
-                        showWelcomeScreen();
-                        updateStatus("Dodano nowego pilota: " + imieField.getText() + " " + nazwiskoField.getText());
-                    } else {
-                        showAlert("Błąd", "Nie udało się dodać pilota.", Alert.AlertType.ERROR);
-                    }
+                    wykonawcaZadan.uruchomZapis("dodaj-pilota",
+                            postep -> pilotService != null ? pilotService.dodajPilota(pilot) : pilot.dodajPilota(),
+                            success -> {
+                                if (success) {
+                                    showAlert("Sukces", "Pilot został pomyślnie dodany!", Alert.AlertType.INFORMATION);
+                                    showWelcomeScreen();
+                                    updateStatus("Dodano nowego pilota: " + pilot.getImie() + " " + pilot.getNazwisko());
+                                } else {
+                                    showAlert("Błąd", "Nie udało się dodać pilota.", Alert.AlertType.ERROR);
+                                }
+                            },
+                            blad -> showAlert("Błąd", "Błąd podczas zapisu pilota: " + blad.getMessage(), Alert.AlertType.ERROR),
+                            () -> updateStatus("Zapisywanie pilota nadal trwa..."));
+                    updateStatus("Zapisywanie pilota...");
                 }
             } catch (Exception ex) {
                 showAlert("Błąd", "Błąd w danych: " + ex.getMessage(), Alert.AlertType.ERROR);
@@ -961,44 +1242,67 @@ public class MainWindow {
         Label title = new Label("Przeglądaj pilotów");
         title.setStyle("-fx-font-size: 18px; -fx-font-weight: bold;");
 
-        TableView<Pilot> table = new TableView<>();
+        TableView<PilotWiersz> table = new TableView<>();
         table.setPrefHeight(400);
 
-        TableColumn<Pilot, String> imieCol = new TableColumn<>("Imię");
+        TableColumn<PilotWiersz, String> imieCol = new TableColumn<>("Imię");
         imieCol.setCellValueFactory(new PropertyValueFactory<>("imie"));
+        imieCol.setUserData("imie");
         imieCol.setPrefWidth(100);
 
-        TableColumn<Pilot, String> nazwiskoCol = new TableColumn<>("Nazwisko");
+        TableColumn<PilotWiersz, String> nazwiskoCol = new TableColumn<>("Nazwisko");
         nazwiskoCol.setCellValueFactory(new PropertyValueFactory<>("nazwisko"));
+        nazwiskoCol.setUserData("nazwisko");
         nazwiskoCol.setPrefWidth(120);
 
-        TableColumn<Pilot, String> telefonCol = new TableColumn<>("Telefon");
+        TableColumn<PilotWiersz, String> telefonCol = new TableColumn<>("Telefon");
         telefonCol.setCellValueFactory(new PropertyValueFactory<>("telefon"));
+        telefonCol.setUserData("telefon");
         telefonCol.setPrefWidth(120);
 
-        TableColumn<Pilot, String> licencjaCol = new TableColumn<>("Licencja");
+        TableColumn<PilotWiersz, String> licencjaCol = new TableColumn<>("Licencja");
         licencjaCol.setCellValueFactory(new PropertyValueFactory<>("numerLicencji"));
+        licencjaCol.setUserData("numerLicencji");
         licencjaCol.setPrefWidth(120);
 
-        TableColumn<Pilot, LocalDate> waznoscCol = new TableColumn<>("Ważność");
+        TableColumn<PilotWiersz, LocalDate> waznoscCol = new TableColumn<>("Ważność");
         waznoscCol.setCellValueFactory(new PropertyValueFactory<>("dataWaznosciLicencji"));
+        waznoscCol.setUserData("dataWaznosciLicencji");
         waznoscCol.setPrefWidth(120);
 
-        TableColumn<Pilot, String> statusCol = new TableColumn<>("Status");
+        TableColumn<PilotWiersz, String> statusCol = new TableColumn<>("Status");
         statusCol.setCellValueFactory(new PropertyValueFactory<>("statusPilota"));
+        statusCol.setUserData("statusPilota");
         statusCol.setPrefWidth(100);
 
         table.getColumns().addAll(imieCol, nazwiskoCol, telefonCol, licencjaCol, waznoscCol, statusCol);
 
-        ObservableList<Pilot> piloci = FXCollections.observableArrayList();
-        try {
-            if (pilotService != null) {
-                piloci.addAll(pilotService.pobierzWszystkichPilotow());
-            }
-        } catch (Exception e) {
-            showAlert("Błąd", "Nie udało się załadować pilotów: " + e.getMessage(), Alert.AlertType.ERROR);
+        if (stronicowanieDanychService == null) {
+            showAlert("Błąd", "Serwis pilotów nie jest dostępny", Alert.AlertType.ERROR);
+            return;
         }
-        table.setItems(piloci);
+        LeniwaLista<PilotWiersz> piloci = new LeniwaLista<>(table, new LeniwaLista.Dostawca<>() {
+            @Override
+            public long policz(String filtr) {
+                return stronicowanieDanychService.policzPilotow(filtr);
+            }
+
+            @Override
+            public List<PilotWiersz> pobierz(String filtr, String sortowanie, boolean rosnaco, int numerOkna,
+                                             int rozmiarOkna) {
+                return stronicowanieDanychService.pobierzOknoPilotow(filtr, sortowanie, rosnaco, numerOkna, rozmiarOkna);
+            }
+        }, ROZMIAR_OKNA_TABELI, MAKS_OKIEN_TABELI);
+        piloci.setPoPoliczeniu(liczba -> updateStatus("Przeglądanie pilotów - " + liczba + " pilotów"));
+        piloci.setPoBledzie(ex -> showAlert("Błąd", "Nie udało się załadować pilotów: " + ex.getMessage(),
+                Alert.AlertType.ERROR));
+
+        TextField filtrField = new TextField();
+        filtrField.setPromptText("Imię, nazwisko lub licencja (Enter - filtruj)");
+        filtrField.setPrefWidth(300);
+        filtrField.setOnAction(e -> piloci.filtruj(filtrField.getText()));
+        HBox filtrBox = new HBox(10, new Label("Filtr:"), filtrField);
+        filtrBox.setAlignment(Pos.CENTER_LEFT);
 
         HBox buttons = new HBox(10);
         buttons.setAlignment(Pos.CENTER);
@@ -1008,11 +1312,17 @@ public class MainWindow {
         Button licencjeButton = new Button("Sprawdź licencje");
         Button backButton = new Button("Powrót");
 
-        refreshButton.setOnAction(e -> showPrzegladajPilotow());
+        refreshButton.setOnAction(e -> piloci.odswiez());
         detailsButton.setOnAction(e -> {
-            Pilot selected = table.getSelectionModel().getSelectedItem();
-            if (selected != null) {
-                showSzczegółyPilota(selected);
+            PilotWiersz selected = table.getSelectionModel().getSelectedItem();
+            if (selected != null && pilotService != null) {
+                wykonawcaZadan.uruchom("szczegoly-pilota", postep -> pilotService.pobierzPilota(selected.getId()),
+                        pilot -> {
+                            if (pilot != null) {
+                                showSzczegółyPilota(pilot);
+                            }
+                        },
+                        blad -> showAlert("Błąd", "Nie udało się pobrać pilota: " + blad.getMessage(), Alert.AlertType.ERROR));
             } else {
                 showAlert("Informacja", "Wybierz pilota z listy", Alert.AlertType.INFORMATION);
             }
@@ -1022,8 +1332,9 @@ public class MainWindow {
 
         buttons.getChildren().addAll(refreshButton, detailsButton, licencjeButton, backButton);
 
-        centerContent.getChildren().addAll(title, table, buttons);
-        updateStatus("Przeglądanie pilotów - załadowano " + piloci.size() + " pilotów");
+        centerContent.getChildren().addAll(title, filtrBox, table, buttons);
+        updateStatus("Przeglądanie pilotów - ładowanie...");
+        piloci.odswiez();
     }
 
     private void showDostepnoscPilotow() {
@@ -1052,23 +1363,24 @@ public class MainWindow {
 
         sprawdzButton.setOnAction(e -> {
             if (dataOdField.getValue() != null && dataDoField.getValue() != null) {
-                try {
-                    if (pilotService != null) {
-                        List<Pilot> dostepni = pilotService.wyszukajDostepnychPilotow(
-                                dataOdField.getValue(), dataDoField.getValue());
-
-                        ObservableList<String> items = FXCollections.observableArrayList();
-                        for (Pilot pilot : dostepni) {
-                            items.add(pilot.getImie() + " " + pilot.getNazwisko() + " - " + pilot.getNumerLicencji());
+                if (pilotService != null) {
+                    LocalDate dataOd = dataOdField.getValue();
+                    LocalDate dataDo = dataDoField.getValue();
+                    updateStatus("Sprawdzanie dostępności pilotów...");
+                    wykonawcaZadan.uruchomNajnowsze("dostepnosc-pilotow", postep -> {
+                        List<String> pozycje = new ArrayList<>();
+                        for (Pilot pilot : pilotService.wyszukajDostepnychPilotow(dataOd, dataDo)) {
+                            pozycje.add(pilot.getImie() + " " + pilot.getNazwisko() + " - " + pilot.getNumerLicencji());
                         }
-                        resultsView.setItems(items);
-                        updateStatus("Znaleziono " + dostepni.size() + " dostępnych pilotów");
-                    } else {
-                        resultsView.getItems().clear();
-                        resultsView.getItems().add("Brak połączenia z serwisem pilotów");
-                    }
-                } catch (Exception ex) {
-                    showAlert("Błąd", "Błąd podczas sprawdzania dostępności: " + ex.getMessage(), Alert.AlertType.ERROR);
+                        return pozycje;
+                    }, pozycje -> {
+                        resultsView.setItems(FXCollections.observableArrayList(pozycje));
+                        updateStatus("Znaleziono " + pozycje.size() + " dostępnych pilotów");
+                    }, blad -> showAlert("Błąd", "Błąd podczas sprawdzania dostępności: " + blad.getMessage(),
+                            Alert.AlertType.ERROR));
+                } else {
+                    resultsView.getItems().clear();
+                    resultsView.getItems().add("Brak połączenia z serwisem pilotów");
                 }
             } else {
                 showAlert("Błąd", "Wybierz okres dat", Alert.AlertType.ERROR);
@@ -1088,24 +1400,27 @@ public class MainWindow {
 
     private void sprawdzLicencjePilotow() {
         if (pilotService != null) {
-            try {
+            updateStatus("Sprawdzanie licencji pilotów...");
+            wykonawcaZadan.uruchom("licencje-pilotow", postep -> {
                 pilotService.sprawdzWaznoscLicencjiWszystkichPilotow();
                 List<Pilot> wygasajace = pilotService.pobierzPilotowZWygasajacymiLicencjami();
-
                 if (wygasajace.isEmpty()) {
+                    return null;
+                }
+                StringBuilder message = new StringBuilder("Piloci z wygasającymi licencjami:\n\n");
+                for (Pilot pilot : wygasajace) {
+                    message.append("• ").append(pilot.getImie()).append(" ").append(pilot.getNazwisko())
+                            .append(" - ważność do: ").append(pilot.getDataWaznosciLicencji()).append("\n");
+                }
+                return message.toString();
+            }, message -> {
+                if (message == null) {
                     showAlert("Informacja", "Wszystkie licencje są ważne", Alert.AlertType.INFORMATION);
                 } else {
-                    StringBuilder message = new StringBuilder("Piloci z wygasającymi licencjami:\n\n");
-                    for (Pilot pilot : wygasajace) {
-                        message.append("• ").append(pilot.getImie()).append(" ").append(pilot.getNazwisko())
-                                .append(" - ważność do: ").append(pilot.getDataWaznosciLicencji()).append("\n");
-                    }
-                    showAlert("Uwaga", message.toString(), Alert.AlertType.WARNING);
+                    showAlert("Uwaga", message, Alert.AlertType.WARNING);
                 }
                 updateStatus("Sprawdzono licencje pilotów");
-            } catch (Exception e) {
-                showAlert("Błąd", "Błąd podczas sprawdzania licencji: " + e.getMessage(), Alert.AlertType.ERROR);
-            }
+            }, blad -> showAlert("Błąd", "Błąd podczas sprawdzania licencji: " + blad.getMessage(), Alert.AlertType.ERROR));
         } else {
             showAlert("Błąd", "Brak połączenia z serwisem pilotów", Alert.AlertType.ERROR);
         }
@@ -1118,40 +1433,91 @@ public class MainWindow {
         title.setStyle("-fx-font-size: 18px; -fx-font-weight: bold;");
 
         VBox form = new VBox(15);
-        form.setMaxWidth(400);
+        form.setMaxWidth(500);
         form.setAlignment(Pos.CENTER);
 
+        // Pozycje list -> wycieczka / id pilota
+        Map<String, Wycieczka> wycieczki = new HashMap<>();
+        Map<String, Long> piloci = new HashMap<>();
+
         ComboBox<String> wycieczkaCombo = new ComboBox<>();
         wycieczkaCombo.setPromptText("Wybierz wycieczkę");
-        wycieczkaCombo.getItems().addAll("Wycieczka 1 - Grecja", "Wycieczka 2 - Chorwacja", "Wycieczka 3 - Hiszpania");
+        wycieczkaCombo.setPrefWidth(500);
 
         ComboBox<String> pilotCombo = new ComboBox<>();
-        pilotCombo.setPromptText("Wybierz pilota");
+        pilotCombo.setPromptText("Wybierz pilota (rekomendowani, punkty malejąco)");
+        pilotCombo.setPrefWidth(500);
+        pilotCombo.setDisable(true);
 
-        try {
-            if (pilotService != null) {
-                List<Pilot> piloci = pilotService.pobierzAktywnychPilotow();
-                for (Pilot pilot : piloci) {
-                    pilotCombo.getItems().add(pilot.getId() + " - " + pilot.getImie() + " " + pilot.getNazwisko());
+        if (pilotService != null) {
+            wycieczkaCombo.setDisable(true);
+            wykonawcaZadan.uruchom("wycieczki-bez-pilota", postep -> {
+                Map<String, Wycieczka> pozycje = new LinkedHashMap<>();
+                for (Wycieczka wycieczka : pilotService.pobierzWycieczkiBezPilota()) {
+                    pozycje.put(wycieczka.getId() + " - " + wycieczka.getOferta().getNazwa() + " (" +
+                            wycieczka.getDataRozpoczecia() + " - " + wycieczka.getDataZakonczenia() + ")", wycieczka);
                 }
-            }
-        } catch (Exception e) {
-            showAlert("Błąd", "Nie udało się załadować pilotów: " + e.getMessage(), Alert.AlertType.ERROR);
+                return pozycje;
+            }, pozycje -> {
+                wycieczki.putAll(pozycje);
+                wycieczkaCombo.getItems().setAll(pozycje.keySet());
+                wycieczkaCombo.setDisable(false);
+            }, blad -> showAlert("Błąd", "Nie udało się załadować wycieczek: " + blad.getMessage(), Alert.AlertType.ERROR));
         }
 
+        wycieczkaCombo.setOnAction(e -> {
+            Wycieczka wycieczka = wycieczki.get(wycieczkaCombo.getValue());
+            if (wycieczka == null || pilotService == null) {
+                return;
+            }
+            pilotCombo.getItems().clear();
+            pilotCombo.setDisable(true);
+            wykonawcaZadan.uruchom("rekomendacje-pilotow", postep -> {
+                Map<String, Long> pozycje = new LinkedHashMap<>();
+                for (PilotService.RekomendacjaPilota rekomendacja :
+                        pilotService.generujRekomendacjePilotow(wycieczka, LIMIT_REKOMENDACJI)) {
+                    Pilot pilot = rekomendacja.getPilot();
+                    pozycje.put(pilot.getId() + " - " + pilot.getImie() + " " + pilot.getNazwisko() +
+                            " (" + rekomendacja.getPunkty() + " pkt)", pilot.getId());
+                }
+                return pozycje;
+            }, pozycje -> {
+                piloci.clear();
+                piloci.putAll(pozycje);
+                pilotCombo.getItems().setAll(pozycje.keySet());
+                pilotCombo.setDisable(pozycje.isEmpty());
+                updateStatus(pozycje.isEmpty() ? "Brak dostępnych pilotów dla wycieczki"
+                        : "Rekomendowani piloci: " + pozycje.size());
+            }, blad -> showAlert("Błąd", "Nie udało się wyznaczyć rekomendacji: " + blad.getMessage(),
+                    Alert.AlertType.ERROR));
+        });
+
         Button przydzielButton = new Button("Przydziel");
         przydzielButton.setStyle("-fx-background-color: #4CAF50; -fx-text-fill: white;");
 
         Button backButton = new Button("Powrót");
 
         przydzielButton.setOnAction(e -> {
-            if (wycieczkaCombo.getValue() != null && pilotCombo.getValue() != null) {
-                showAlert("Sukces", "Pilot został przydzielony do wycieczki", Alert.AlertType.INFORMATION);
-                showWelcomeScreen();
-                updateStatus("Przydzielono pilota do wycieczki");
-            } else {
+            Wycieczka wycieczka = wycieczki.get(wycieczkaCombo.getValue());
+            Long pilotId = piloci.get(pilotCombo.getValue());
+            if (wycieczka == null || pilotId == null) {
                 showAlert("Błąd", "Wybierz wycieczkę i pilota", Alert.AlertType.ERROR);
+                return;
             }
+            wykonawcaZadan.uruchomBezLimitu("przydziel-pilota",
+                    postep -> pilotService.przydzielPilotaDoWycieczki(pilotId, wycieczka.getId()),
+                    przydzielono -> {
+                        if (przydzielono) {
+                            showAlert("Sukces", "Pilot został przydzielony do wycieczki", Alert.AlertType.INFORMATION);
+                            showWelcomeScreen();
+                            updateStatus("Przydzielono pilota do wycieczki");
+                        } else {
+                            showAlert("Błąd", "Pilot nie może poprowadzić tej wycieczki (termin zajęty " +
+                                    "lub brak wymaganego języka)", Alert.AlertType.ERROR);
+                        }
+                    },
+                    blad -> showAlert("Błąd", "Błąd podczas przydzielania pilota: " + blad.getMessage(),
+                            Alert.AlertType.ERROR));
         });
 
         backButton.setOnAction(e -> showWelcomeScreen());
@@ -1205,18 +1571,18 @@ public class MainWindow {
         reportArea.setStyle("-fx-font-family: monospace;");
 
         generateButton.setOnAction(e -> {
-            try {
-                String raport;
-                if (raportService != null) {
-                    raport = raportService.generujMiesieznyRaportSprzedazy(yearCombo.getValue(), monthCombo.getValue());
-                } else {
-                    raport = generateMockMiesieznyyRaport(yearCombo.getValue(), monthCombo.getValue());
-                }
-                reportArea.setText(raport);
-                updateStatus("Wygenerowano raport miesięczny");
-            } catch (Exception ex) {
-                showAlert("Błąd", "Błąd podczas generowania raportu: " + ex.getMessage(), Alert.AlertType.ERROR);
-            }
+            int rok = yearCombo.getValue();
+            int miesiac = monthCombo.getValue();
+            updateStatus("Generowanie raportu miesięcznego...");
+            wykonawcaZadan.uruchomNajnowsze("raport-miesieczny",
+                    postep -> raportService != null
+                            ? raportService.generujMiesieznyRaportSprzedazy(rok, miesiac)
+                            : generateMockMiesieznyyRaport(rok, miesiac),
+                    raport -> {
+                        reportArea.setText(raport);
+                        updateStatus("Wygenerowano raport miesięczny");
+                    },
+                    blad -> showAlert("Błąd", "Błąd podczas generowania raportu: " + blad.getMessage(), Alert.AlertType.ERROR));
         });
 
         Button saveButton = new Button("Zapisz raport");
@@ -1267,18 +1633,17 @@ public class MainWindow {
         reportArea.setStyle("-fx-font-family: monospace;");
 
         generateButton.setOnAction(e -> {
-            try {
-                String raport;
-                if (raportService != null) {
-                    raport = raportService.generujRaportTopKlientow(limitCombo.getValue());
-                } else {
-                    raport = generateMockTopKlientowRaport(limitCombo.getValue());
-                }
-                reportArea.setText(raport);
-                updateStatus("Wygenerowano raport TOP klientów");
-            } catch (Exception ex) {
-                showAlert("Błąd", "Błąd podczas generowania raportu: " + ex.getMessage(), Alert.AlertType.ERROR);
-            }
+            int limit = limitCombo.getValue();
+            updateStatus("Generowanie raportu TOP klientów...");
+            wykonawcaZadan.uruchomNajnowsze("raport-top-klientow",
+                    postep -> raportService != null
+                            ? raportService.generujRaportTopKlientow(limit)
+                            : generateMockTopKlientowRaport(limit),
+                    raport -> {
+                        reportArea.setText(raport);
+                        updateStatus("Wygenerowano raport TOP klientów");
+                    },
+                    blad -> showAlert("Błąd", "Błąd podczas generowania raportu: " + blad.getMessage(), Alert.AlertType.ERROR));
         });
 
         Button backButton = new Button("Powrót");
@@ -1304,7 +1669,9 @@ public class MainWindow {
         statsGrid.setAlignment(Pos.CENTER);
         statsGrid.setStyle("-fx-padding: 20; -fx-background-color: #f9f9f9; -fx-border-color: #ddd; -fx-border-radius: 5;");
 
-        Label aktywneOferty = new Label("Aktywne oferty: " + getAktywneOferty());
+        Label aktywneOferty = new Label("Aktywne oferty: ...");
+        wykonawcaZadan.uruchom("statystyki-ofert", postep -> getAktywneOferty(),
+                liczba -> aktywneOferty.setText("Aktywne oferty: " + liczba), null);
         Label najpopularniejszyKraj = new Label("Najpopularniejszy kraj: Grecja");
         Label sredniaCena = new Label("Średnia cena: 2,450 PLN");
         Label najdrozszaOferta = new Label("Najdroższa oferta: 8,500 PLN");
@@ -1368,17 +1735,16 @@ public class MainWindow {
         reportArea.setEditable(false);
         reportArea.setStyle("-fx-font-family: monospace;");
 
-        try {
-            String raport;
-            if (pilotService != null) {
-                raport = pilotService.generujRaportObciazeniaPilotow();
-            } else {
-                raport = generateMockObciazeniePilotowRaport();
-            }
-            reportArea.setText(raport);
-        } catch (Exception e) {
-            reportArea.setText("Błąd podczas ładowania raportu: " + e.getMessage());
-        }
+        Runnable zaladujRaport = () -> {
+            reportArea.setText("Ładowanie raportu...");
+            wykonawcaZadan.uruchom("raport-obciazenia-pilotow",
+                    postep -> pilotService != null
+                            ? pilotService.generujRaportObciazeniaPilotow()
+                            : generateMockObciazeniePilotowRaport(),
+                    reportArea::setText,
+                    blad -> reportArea.setText("Błąd podczas ładowania raportu: " + blad.getMessage()));
+        };
+        zaladujRaport.run();
 
         Button refreshButton = new Button("Odśwież");
         Button csvButton = new Button("Eksport CSV");
@@ -1387,17 +1753,23 @@ public class MainWindow {
         refreshButton.setStyle("-fx-background-color: #2196F3; -fx-text-fill: white;");
         csvButton.setStyle("-fx-background-color: #4CAF50; -fx-text-fill: white;");
 
-        refreshButton.setOnAction(e -> showRaportPilotow());
+        refreshButton.setOnAction(e -> zaladujRaport.run());
+        Label eksportStatus = new Label();
         csvButton.setOnAction(e -> {
-            try {
-                if (pilotService != null) {
-                    String csv = pilotService.eksportujPilotowDoCSV();
-                    showAlert("Sukces", "Dane pilotów zostały wyeksportowane", Alert.AlertType.INFORMATION);
-                } else {
-                    showAlert("Informacja", "Funkcja eksportu CSV zostanie zaimplementowana", Alert.AlertType.INFORMATION);
-                }
-            } catch (Exception ex) {
-                showAlert("Błąd", "Błąd podczas eksportu: " + ex.getMessage(), Alert.AlertType.ERROR);
+            if (eksportDanychService == null) {
+                showAlert("Informacja", "Funkcja eksportu CSV nie jest dostępna", Alert.AlertType.INFORMATION);
+                return;
+            }
+            FileChooser wybor = new FileChooser();
+            wybor.setTitle("Eksport pilotów");
+            wybor.setInitialFileName(EksportDanychService.nazwaPliku(
+                    EksportDanychService.TypEksportu.PILOCI, EksportDanychService.FormatEksportu.CSV, false));
+            wybor.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV", "*.csv"));
+            File plik = wybor.showSaveDialog(primaryStage);
+            if (plik != null) {
+                Map<EksportDanychService.TypEksportu, File> pliki = new LinkedHashMap<>();
+                pliki.put(EksportDanychService.TypEksportu.PILOCI, plik);
+                uruchomEksport(pliki, EksportDanychService.FormatEksportu.CSV, false, csvButton, eksportStatus);
             }
         });
         backButton.setOnAction(e -> showWelcomeScreen());
@@ -1406,7 +1778,7 @@ public class MainWindow {
         buttons.setAlignment(Pos.CENTER);
         buttons.getChildren().addAll(refreshButton, csvButton, backButton);
 
-        centerContent.getChildren().addAll(title, reportArea, buttons);
+        centerContent.getChildren().addAll(title, reportArea, buttons, eksportStatus);
         updateStatus("Raport obciążenia pilotów");
     }
 
@@ -1439,37 +1811,94 @@ public class MainWindow {
         exportOptions.getChildren().addAll(ofertyCheck, umowyCheck, klienciCheck, pilociCheck, plateCheck);
 
         ComboBox<String> formatCombo = new ComboBox<>();
-        formatCombo.getItems().addAll("CSV", "Excel", "PDF", "JSON");
+        formatCombo.getItems().addAll("CSV", "JSON Lines");
         formatCombo.setValue("CSV");
         formatCombo.setPromptText("Wybierz format");
 
+        CheckBox gzipCheck = new CheckBox("Kompresja gzip (.gz)");
+
         Button exportButton = new Button("Eksportuj");
         exportButton.setStyle("-fx-background-color: #4CAF50; -fx-text-fill: white; -fx-pref-width: 150;");
 
         Button backButton = new Button("Powrót");
         backButton.setOnAction(e -> showWelcomeScreen());
 
+        Label eksportStatus = new Label();
+
         exportButton.setOnAction(e -> {
-            StringBuilder selectedData = new StringBuilder("Wyeksportowano:\n");
-            if (ofertyCheck.isSelected()) selectedData.append("• Oferty turystyczne\n");
-            if (umowyCheck.isSelected()) selectedData.append("• Umowy\n");
-            if (klienciCheck.isSelected()) selectedData.append("• Klienci\n");
-            if (pilociCheck.isSelected()) selectedData.append("• Piloci\n");
-            if (plateCheck.isSelected()) selectedData.append("• Płatności\n");
-            selectedData.append("\nFormat: ").append(formatCombo.getValue());
-
-            showAlert("Sukces", selectedData.toString(), Alert.AlertType.INFORMATION);
-            updateStatus("Wyeksportowano dane w formacie " + formatCombo.getValue());
+            List<EksportDanychService.TypEksportu> typy = new ArrayList<>();
+            if (ofertyCheck.isSelected()) typy.add(EksportDanychService.TypEksportu.OFERTY);
+            if (umowyCheck.isSelected()) typy.add(EksportDanychService.TypEksportu.UMOWY);
+            if (klienciCheck.isSelected()) typy.add(EksportDanychService.TypEksportu.KLIENCI);
+            if (pilociCheck.isSelected()) typy.add(EksportDanychService.TypEksportu.PILOCI);
+            if (plateCheck.isSelected()) typy.add(EksportDanychService.TypEksportu.PLATNOSCI);
+
+            if (typy.isEmpty()) {
+                showAlert("Informacja", "Wybierz co najmniej jeden typ danych", Alert.AlertType.INFORMATION);
+                return;
+            }
+            if (eksportDanychService == null) {
+                showAlert("Błąd", "Serwis eksportu nie jest dostępny", Alert.AlertType.ERROR);
+                return;
+            }
+
+            DirectoryChooser wybor = new DirectoryChooser();
+            wybor.setTitle("Katalog eksportu");
+            File katalog = wybor.showDialog(primaryStage);
+            if (katalog == null) {
+                return;
+            }
+
+            EksportDanychService.FormatEksportu format = "CSV".equals(formatCombo.getValue())
+                    ? EksportDanychService.FormatEksportu.CSV : EksportDanychService.FormatEksportu.JSONL;
+            Map<EksportDanychService.TypEksportu, File> pliki = new LinkedHashMap<>();
+            for (EksportDanychService.TypEksportu typ : typy) {
+                pliki.put(typ, new File(katalog, EksportDanychService.nazwaPliku(typ, format, gzipCheck.isSelected())));
+            }
+            uruchomEksport(pliki, format, gzipCheck.isSelected(), content, eksportStatus);
         });
 
         content.getChildren().addAll(info, exportOptions,
-                new Label("Format eksportu:"), formatCombo,
-                exportButton, backButton);
+                new Label("Format eksportu:"), formatCombo, gzipCheck,
+                exportButton, eksportStatus, backButton);
 
         centerContent.getChildren().addAll(title, content);
         updateStatus("Eksport danych");
     }
 
+    /**
+     * Eksport w wątku w tle - kolejne pliki zapisywane strumieniowo, liczba wierszy w etykiecie stanu
+     */
+    private void uruchomEksport(Map<EksportDanychService.TypEksportu, File> pliki,
+                                EksportDanychService.FormatEksportu format, boolean gzip,
+                                Node blokowany, Label stan) {
+        blokowany.setDisable(true);
+        Task<String> zadanie = wykonawcaZadan.uruchomBezLimitu("eksport-danych", postep -> {
+            StringBuilder podsumowanie = new StringBuilder("Wyeksportowano:\n");
+            for (Map.Entry<EksportDanychService.TypEksportu, File> wpis : pliki.entrySet()) {
+                String nazwa = wpis.getValue().getName();
+                long liczba = eksportDanychService.eksportuj(wpis.getKey(), format, wpis.getValue().toPath(), gzip,
+                        wiersze -> postep.zglos(nazwa + ": " + wiersze + " wierszy", -1));
+                podsumowanie.append("• ").append(nazwa).append(" (").append(liczba).append(" wierszy)\n");
+            }
+            return podsumowanie.append("\nKatalog: ")
+                    .append(pliki.values().iterator().next().getParent()).toString();
+        }, podsumowanie -> {
+            stan.textProperty().unbind();
+            stan.setText("");
+            blokowany.setDisable(false);
+            showAlert("Sukces", podsumowanie, Alert.AlertType.INFORMATION);
+            updateStatus("Wyeksportowano dane w formacie " + format);
+        }, blad -> {
+            stan.textProperty().unbind();
+            stan.setText("");
+            blokowany.setDisable(false);
+            showAlert("Błąd", "Błąd podczas eksportu: " + blad.getMessage(), Alert.AlertType.ERROR);
+        });
+        stan.textProperty().bind(zadanie.messageProperty());
+        updateStatus("Eksport danych...");
+    }
+
     private void showImportDanych() {
         centerContent.getChildren().clear();
 
@@ -1497,24 +1926,94 @@ public class MainWindow {
         importPilotowButton.setStyle(buttonStyle + " -fx-background-color: #FF9800; -fx-text-fill: white;");
         importUmowButton.setStyle(buttonStyle + " -fx-background-color: #9C27B0; -fx-text-fill: white;");
 
-        importOfertyButton.setOnAction(e -> showAlert("Informacja", "Funkcja importu ofert zostanie zaimplementowana", Alert.AlertType.INFORMATION));
-        importKlientowButton.setOnAction(e -> showAlert("Informacja", "Funkcja importu klientów zostanie zaimplementowana", Alert.AlertType.INFORMATION));
-        importPilotowButton.setOnAction(e -> showAlert("Informacja", "Funkcja importu pilotów zostanie zaimplementowana", Alert.AlertType.INFORMATION));
-        importUmowButton.setOnAction(e -> showAlert("Informacja", "Funkcja importu umów zostanie zaimplementowana", Alert.AlertType.INFORMATION));
+        ProgressBar importProgress = new ProgressBar(0);
+        importProgress.setPrefWidth(300);
+        importProgress.setVisible(false);
+        Label importStatus = new Label();
+
+        importOfertyButton.setOnAction(e -> uruchomImport(ImportDanychService.TypImportu.OFERTY, "ofert", importOptions, importProgress, importStatus));
+        importKlientowButton.setOnAction(e -> uruchomImport(ImportDanychService.TypImportu.KLIENCI, "klientów", importOptions, importProgress, importStatus));
+        importPilotowButton.setOnAction(e -> uruchomImport(ImportDanychService.TypImportu.PILOCI, "pilotów", importOptions, importProgress, importStatus));
+        importUmowButton.setOnAction(e -> uruchomImport(ImportDanychService.TypImportu.UMOWY, "umów", importOptions, importProgress, importStatus));
 
         importOptions.getChildren().addAll(importOfertyButton, importKlientowButton, importPilotowButton, importUmowButton);
 
-        Label supportedFormats = new Label("Obsługiwane formaty: CSV, Excel (.xlsx), JSON");
+        Label supportedFormats = new Label("Obsługiwane formaty: CSV (z nagłówkiem), JSON, JSON Lines");
         supportedFormats.setStyle("-fx-font-size: 12px; -fx-text-fill: #666;");
 
         Button backButton = new Button("Powrót");
         backButton.setOnAction(e -> showWelcomeScreen());
 
-        content.getChildren().addAll(info, importOptions, supportedFormats, backButton);
+        content.getChildren().addAll(info, importOptions, importProgress, importStatus, supportedFormats, backButton);
         centerContent.getChildren().addAll(title, content);
         updateStatus("Import danych");
     }
 
+    /**
+     * Import pliku w wątku w tle - postęp po każdej zatwierdzonej partii rekordów
+     */
+    private void uruchomImport(ImportDanychService.TypImportu typ, String opis, VBox przyciski,
+                               ProgressBar pasek, Label stan) {
+        if (importDanychService == null) {
+            showAlert("Błąd", "Serwis importu nie jest dostępny", Alert.AlertType.ERROR);
+            return;
+        }
+
+        FileChooser wybor = new FileChooser();
+        wybor.setTitle("Import " + opis);
+        wybor.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("CSV, JSON", "*.csv", "*.json", "*.jsonl", "*.ndjson"),
+                new FileChooser.ExtensionFilter("Wszystkie pliki", "*.*"));
+        File plik = wybor.showOpenDialog(primaryStage);
+        if (plik == null) {
+            return;
+        }
+
+        przyciski.setDisable(true);
+        pasek.setVisible(true);
+        Task<ImportDanychService.WynikImportu> zadanie = wykonawcaZadan.uruchomBezLimitu("import-danych",
+                postep -> importDanychService.importuj(typ, plik.toPath(), (stanImportu, ulamek) ->
+                        postep.zglos("Przetworzono " + stanImportu.getLiczbaPrzetworzonych() + " rekordów, błędów: " +
+                                stanImportu.getLiczbaBledow(), ulamek)),
+                wynik -> {
+                    zakonczImport(przyciski, pasek, stan);
+                    PostepImportu postep = wynik.getStan();
+                    if (wynik.isPominiety()) {
+                        showAlert("Informacja", "Ten plik został już zaimportowany.\n" + postep, Alert.AlertType.INFORMATION);
+                        return;
+                    }
+                    StringBuilder komunikat = new StringBuilder();
+                    if (wynik.isWznowiony()) {
+                        komunikat.append("Wznowiono przerwany import.\n");
+                    }
+                    komunikat.append("Zaimportowano: ").append(postep.getLiczbaZaimportowanych()).append("\n")
+                            .append("Odrzucono: ").append(postep.getLiczbaBledow());
+                    if (postep.getLiczbaBledow() > 0) {
+                        komunikat.append("\n\nSzczegóły błędów: ").append(wynik.getPlikBledow());
+                    }
+                    showAlert("Import " + opis, komunikat.toString(),
+                            postep.getLiczbaBledow() > 0 ? Alert.AlertType.WARNING : Alert.AlertType.INFORMATION);
+                    updateStatus("Zaimportowano " + postep.getLiczbaZaimportowanych() + " rekordów z " + plik.getName());
+                },
+                blad -> {
+                    zakonczImport(przyciski, pasek, stan);
+                    showAlert("Błąd", "Import przerwany: " + blad.getMessage() +
+                            "\nPonowny import tego pliku wznowi go od miejsca przerwania.", Alert.AlertType.ERROR);
+                });
+        pasek.progressProperty().bind(zadanie.progressProperty());
+        stan.textProperty().bind(zadanie.messageProperty());
+
+        updateStatus("Import " + opis + " z pliku " + plik.getName() + "...");
+    }
+
+    private void zakonczImport(VBox przyciski, ProgressBar pasek, Label stan) {
+        pasek.progressProperty().unbind();
+        stan.textProperty().unbind();
+        pasek.setVisible(false);
+        stan.setText("");
+        przyciski.setDisable(false);
+    }
+
     private void showUstawienia() {
         centerContent.getChildren().clear();
 
@@ -1735,18 +2234,291 @@ public class MainWindow {
     // METODY POMOCNICZE I WALIDACYJNE
     // ================================================================
 
+    // Operacje porządkowe zmieniają dane w jednej transakcji - bez limitu czasu, aby nie przerywać ich w połowie
+
     private void aktualizujOferty() {
-        try {
-            if (ofertaService != null) {
+        if (ofertaService != null) {
+            updateStatus("Aktualizacja dostępności ofert...");
+            wykonawcaZadan.uruchomBezLimitu("aktualizuj-oferty", postep -> {
                 ofertaService.aktualizujDostepnoscOfert();
+                return null;
+            }, wynik -> {
                 showAlert("Sukces", "Dostępność ofert została zaktualizowana", Alert.AlertType.INFORMATION);
                 updateStatus("Zaktualizowano dostępność ofert");
-            } else {
-                showAlert("Informacja", "Brak połączenia z serwisem ofert", Alert.AlertType.INFORMATION);
+            }, blad -> showAlert("Błąd", "Błąd podczas aktualizacji ofert: " + blad.getMessage(), Alert.AlertType.ERROR));
+        } else {
+            showAlert("Informacja", "Brak połączenia z serwisem ofert", Alert.AlertType.INFORMATION);
+        }
+    }
+
+    private void przebudujStatystykiSprzedazy() {
+        if (statystykiSprzedazyService != null) {
+            updateStatus("Przebudowa statystyk sprzedaży...");
+            wykonawcaZadan.uruchomBezLimitu("przebuduj-statystyki", postep -> {
+                        int przebudowane = statystykiSprzedazyService.przebudujStatystyki();
+                        // Raport miesięczny czyta zestawienie - zapamiętane podsumowania są już nieaktualne
+                        if (raportService != null) {
+                            raportService.uniewaznijPodsumowania();
+                        }
+                        return przebudowane;
+                    },
+                    liczbaMiesiecy -> {
+                        showAlert("Sukces", "Statystyki sprzedaży zostały przebudowane (" + liczbaMiesiecy + " miesięcy)",
+                                Alert.AlertType.INFORMATION);
+                        updateStatus("Przebudowano statystyki sprzedaży");
+                    },
+                    blad -> showAlert("Błąd", "Błąd podczas przebudowy statystyk: " + blad.getMessage(), Alert.AlertType.ERROR));
+        } else {
+            showAlert("Informacja", "Brak połączenia z serwisem statystyk", Alert.AlertType.INFORMATION);
+        }
+    }
+
+    private void przeliczOcenyHoteli() {
+        if (hotelService != null) {
+            updateStatus("Przeliczanie ocen hoteli...");
+            wykonawcaZadan.uruchomBezLimitu("przelicz-oceny", postep -> hotelService.przeliczOcenyHoteli(),
+                    liczbaHoteli -> {
+                        showAlert("Sukces", "Oceny hoteli zostały przeliczone (" + liczbaHoteli + " hoteli)",
+                                Alert.AlertType.INFORMATION);
+                        updateStatus("Przeliczono oceny hoteli");
+                    },
+                    blad -> showAlert("Błąd", "Błąd podczas przeliczania ocen: " + blad.getMessage(), Alert.AlertType.ERROR));
+        } else {
+            showAlert("Informacja", "Brak połączenia z serwisem hoteli", Alert.AlertType.INFORMATION);
+        }
+    }
+
+    private void przydzielPilotowHurtowo() {
+        if (pilotService != null) {
+            updateStatus("Przydzielanie pilotów do wycieczek...");
+            wykonawcaZadan.uruchomBezLimitu("przydziel-pilotow", postep -> pilotService.przydzielPilotowHurtowo(),
+                    wynik -> {
+                        showAlert("Sukces", String.format("Przydzielono pilotów do %d z %d wycieczek bez pilota " +
+                                        "(jakość przydziału %.1f%%)", wynik.getLiczbaPrzydzielonych(),
+                                        wynik.getLiczbaWycieczek(), wynik.getJakosc() * 100),
+                                Alert.AlertType.INFORMATION);
+                        updateStatus("Przydzielono pilotów do " + wynik.getLiczbaPrzydzielonych() + " wycieczek");
+                    },
+                    blad -> showAlert("Błąd", "Błąd podczas przydzielania pilotów: " + blad.getMessage(), Alert.AlertType.ERROR));
+        } else {
+            showAlert("Informacja", "Brak połączenia z serwisem pilotów", Alert.AlertType.INFORMATION);
+        }
+    }
+
+    private void showWyszukiwanie() {
+        centerContent.getChildren().clear();
+
+        Label title = new Label("Wyszukiwanie");
+        title.setStyle("-fx-font-size: 18px; -fx-font-weight: bold;");
+
+        ComboBox<String> zakresCombo = new ComboBox<>();
+        zakresCombo.getItems().addAll(ZAKRESY_WYSZUKIWANIA);
+        zakresCombo.setValue(ZAKRESY_WYSZUKIWANIA.get(0));
+
+        TextField frazaField = new TextField();
+        frazaField.setPromptText("Fraza (bez rozróżniania wielkości liter i polskich znaków)");
+        frazaField.setPrefWidth(350);
+
+        Button searchButton = new Button("Wyszukaj");
+        searchButton.setStyle("-fx-background-color: #2196F3; -fx-text-fill: white;");
+
+        HBox searchBox = new HBox(10, new Label("Szukaj w:"), zakresCombo, frazaField, searchButton);
+        searchBox.setAlignment(Pos.CENTER_LEFT);
+
+        ListView<String> resultsView = new ListView<>();
+        resultsView.setPrefHeight(400);
+
+        Runnable wyszukaj = () -> {
+            String fraza = frazaField.getText().trim();
+            String zakres = zakresCombo.getValue();
+            if (fraza.isEmpty()) {
+                showAlert("Informacja", "Wpisz szukaną frazę", Alert.AlertType.INFORMATION);
+                return;
             }
-        } catch (Exception e) {
-            showAlert("Błąd", "Błąd podczas aktualizacji ofert: " + e.getMessage(), Alert.AlertType.ERROR);
+            if (wyszukiwanieService == null) {
+                showAlert("Informacja", "Brak połączenia z serwisem wyszukiwania", Alert.AlertType.INFORMATION);
+                return;
+            }
+            updateStatus("Wyszukiwanie...");
+            // Kolejne wyszukiwanie zastępuje trwające - pokazywany jest tylko najnowszy wynik
+            wykonawcaZadan.uruchomNajnowsze("wyszukiwanie", postep -> wyszukajPelnotekstowo(zakres, fraza),
+                    wyniki -> {
+                        resultsView.getItems().setAll(wyniki);
+                        if (wyniki.isEmpty()) {
+                            resultsView.getItems().add("Brak wyników dla frazy: " + fraza);
+                        }
+                        updateStatus("Wyszukiwanie - znaleziono " + wyniki.size() + " wyników");
+                    },
+                    blad -> showAlert("Błąd", "Błąd podczas wyszukiwania: " + blad.getMessage(), Alert.AlertType.ERROR));
+        };
+        searchButton.setOnAction(e -> wyszukaj.run());
+        frazaField.setOnAction(e -> wyszukaj.run());
+
+        centerContent.getChildren().addAll(title, searchBox, resultsView);
+        updateStatus("Wyszukiwanie");
+    }
+
+    /**
+     * Wyszukiwanie przez indeks tekstowy - zwraca opisy znalezionych rekordów w kolejności trafności
+     */
+    private List<String> wyszukajPelnotekstowo(String zakres, String fraza) {
+        int limit = WyszukiwanieService.DOMYSLNY_LIMIT;
+        List<String> wyniki = new ArrayList<>();
+        switch (ZAKRESY_WYSZUKIWANIA.indexOf(zakres)) {
+            case 0:
+                for (OfertaTurystyczna oferta : wyszukiwanieService.wyszukajOfertyPoNazwie(fraza, limit)) {
+                    wyniki.add(oferta.getId() + " - " + oferta.getNazwa() + " (" + oferta.getKrajDocelowy() + ")");
+                }
+                break;
+            case 1:
+                for (Hotel hotel : wyszukiwanieService.wyszukajHotelePoNazwie(fraza, limit)) {
+                    wyniki.add(opisHotelu(hotel));
+                }
+                break;
+            case 2:
+                for (Hotel hotel : wyszukiwanieService.wyszukajHotelePoOsobieKontaktowej(fraza, limit)) {
+                    wyniki.add(opisHotelu(hotel) + " - kontakt: " + hotel.getOsobaKontaktowa());
+                }
+                break;
+            case 3:
+                for (Hotel hotel : wyszukiwanieService.wyszukajHotelePoWarunkachWspolpracy(fraza, limit)) {
+                    wyniki.add(opisHotelu(hotel) + " - warunki: " + hotel.getWarunkiWspolpracy());
+                }
+                break;
+            case 4:
+                for (Klient klient : wyszukiwanieService.wyszukajKlientowPoNazwisku(fraza, limit)) {
+                    wyniki.add(klient.getId() + " - " + klient.getImie() + " " + klient.getNazwisko() +
+                            (klient.getPesel() != null ? " (PESEL " + klient.getPesel() + ")" : ""));
+                }
+                break;
+            case 5:
+                for (Pilot pilot : wyszukiwanieService.wyszukajPilotowPoJezyku(fraza, limit)) {
+                    wyniki.add(pilot.getId() + " - " + pilot.getImie() + " " + pilot.getNazwisko() +
+                            " - języki: " + pilot.getZnajomoscJezykow());
+                }
+                break;
+            default:
+                for (Pilot pilot : wyszukiwanieService.wyszukajPilotowPoSpecjalizacji(fraza, limit)) {
+                    wyniki.add(pilot.getId() + " - " + pilot.getImie() + " " + pilot.getNazwisko() +
+                            " - specjalizacje: " + pilot.getSpecjalizacje());
+                }
         }
+        return wyniki;
+    }
+
+    private void showDostepneHotele() {
+        centerContent.getChildren().clear();
+
+        Label title = new Label("Dostępne hotele");
+        title.setStyle("-fx-font-size: 18px; -fx-font-weight: bold;");
+
+        DatePicker dataOdField = new DatePicker(LocalDate.now().plusDays(1));
+        DatePicker dataDoField = new DatePicker(LocalDate.now().plusDays(8));
+
+        TextField hotelIdField = new TextField();
+        hotelIdField.setPromptText("ID hotelu (puste - wszystkie)");
+
+        Button searchButton = new Button("Sprawdź");
+        searchButton.setStyle("-fx-background-color: #2196F3; -fx-text-fill: white;");
+
+        HBox searchBox = new HBox(10, new Label("Od:"), dataOdField, new Label("Do:"), dataDoField,
+                hotelIdField, searchButton);
+        searchBox.setAlignment(Pos.CENTER_LEFT);
+
+        ListView<String> resultsView = new ListView<>();
+        resultsView.setPrefHeight(400);
+
+        searchButton.setOnAction(e -> {
+            LocalDate dataOd = dataOdField.getValue();
+            LocalDate dataDo = dataDoField.getValue();
+            if (dataOd == null || dataDo == null || dataOd.isAfter(dataDo)) {
+                showAlert("Informacja", "Podaj poprawny okres pobytu", Alert.AlertType.INFORMATION);
+                return;
+            }
+            if (hotelService == null) {
+                showAlert("Informacja", "Brak połączenia z serwisem hoteli", Alert.AlertType.INFORMATION);
+                return;
+            }
+            Long hotelId;
+            try {
+                hotelId = hotelIdField.getText().isBlank() ? null : Long.parseLong(hotelIdField.getText().trim());
+            } catch (NumberFormatException ex) {
+                showAlert("Błąd", "Nieprawidłowe ID hotelu", Alert.AlertType.ERROR);
+                return;
+            }
+            updateStatus("Sprawdzanie dostępności hoteli...");
+            wykonawcaZadan.uruchomNajnowsze("dostepne-hotele", postep -> {
+                List<String> wyniki = new ArrayList<>();
+                if (hotelId != null) {
+                    wyniki.add("Hotel " + hotelId + (hotelService.sprawdzDostepnoscHotelu(hotelId, dataOd, dataDo)
+                            ? " jest dostępny" : " nie jest dostępny") + " w okresie " + dataOd + " - " + dataDo);
+                } else {
+                    for (Hotel hotel : hotelService.wyszukajDostepneHotele(dataOd, dataDo)) {
+                        wyniki.add(opisHotelu(hotel));
+                    }
+                }
+                return wyniki;
+            }, wyniki -> {
+                resultsView.getItems().setAll(wyniki);
+                if (wyniki.isEmpty()) {
+                    resultsView.getItems().add("Brak dostępnych hoteli w okresie " + dataOd + " - " + dataDo);
+                }
+                updateStatus("Dostępne hotele - " + (hotelId != null ? "sprawdzono hotel " + hotelId
+                        : "znaleziono " + wyniki.size()));
+            }, blad -> showAlert("Błąd", "Błąd podczas sprawdzania dostępności hoteli: " + blad.getMessage(),
+                    Alert.AlertType.ERROR));
+        });
+
+        centerContent.getChildren().addAll(title, searchBox, resultsView);
+        updateStatus("Dostępne hotele");
+    }
+
+    private static String opisHotelu(Hotel hotel) {
+        return hotel.getId() + " - " + hotel.getNazwa() + ", " + hotel.getMiasto() + " (" + hotel.getKraj() + ")";
+    }
+
+    private void showPamiecPodreczna() {
+        centerContent.getChildren().clear();
+
+        Label title = new Label("Pamięć podręczna");
+        title.setStyle("-fx-font-size: 18px; -fx-font-weight: bold;");
+
+        TextArea reportArea = new TextArea();
+        reportArea.setPrefHeight(400);
+        reportArea.setEditable(false);
+        reportArea.setStyle("-fx-font-family: monospace;");
+
+        if (pamiecPodrecznaService != null) {
+            wykonawcaZadan.uruchom("raport-pamieci-podrecznej",
+                    postep -> pamiecPodrecznaService.generujRaportPamieciPodrecznej(),
+                    reportArea::setText,
+                    blad -> reportArea.setText("Błąd podczas ładowania statystyk: " + blad.getMessage()));
+        } else {
+            reportArea.setText("Brak połączenia z serwisem pamięci podręcznej");
+        }
+
+        Button refreshButton = new Button("Odśwież");
+        Button clearButton = new Button("Wyczyść");
+        Button backButton = new Button("Powrót");
+
+        refreshButton.setStyle("-fx-background-color: #2196F3; -fx-text-fill: white;");
+
+        refreshButton.setOnAction(e -> showPamiecPodreczna());
+        clearButton.setOnAction(e -> {
+            if (pamiecPodrecznaService != null) {
+                pamiecPodrecznaService.wyczyscWszystko();
+                updateStatus("Wyczyszczono pamięć podręczną");
+            }
+            showPamiecPodreczna();
+        });
+        backButton.setOnAction(e -> showWelcomeScreen());
+
+        HBox buttons = new HBox(10);
+        buttons.setAlignment(Pos.CENTER);
+        buttons.getChildren().addAll(refreshButton, clearButton, backButton);
+
+        centerContent.getChildren().addAll(title, reportArea, buttons);
+        updateStatus("Pamięć podręczna");
     }
 
     private boolean walidujFormularzOferty(TextField nazwa, TextField kraj, DatePicker dataWyjazdu,
@@ -0,0 +1,268 @@
+package org.tourmanager.ui;
+
+import jakarta.annotation.PreDestroy;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyIntegerProperty;
+import javafx.beans.property.ReadOnlyIntegerWrapper;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.concurrent.Task;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.tourmanager.config.JavaFXConfig;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Wykonywanie wywołań serwisów z okna głównego poza wątkiem JavaFX.
+ *
+ * Każde wywołanie to anulowalny Task na ograniczonej puli wątków z limitem czasu. Wynik i błąd
+ * trafiają do wątku JavaFX (obsługa zdarzeń Task), więc wolne zapytanie nie blokuje interfejsu.
+ * Zadania z tym samym kluczem są scalane: ponowne kliknięcie "Odśwież" w trakcie pracy nie uruchamia
+ * drugiego zapytania, a nowe wyszukiwanie może zastąpić poprzednie (uruchomNajnowsze).
+ *
+ * Metody uruchamiające i stan zadań używane są tylko w wątku JavaFX.
+ */
+@Component
+@ConditionalOnProperty(name = JavaFXConfig.INTERFEJS_WLACZONY, havingValue = "true", matchIfMissing = true)
+public class WykonawcaZadan {
+
+    /**
+     * Praca wykonywana w tle; postęp i anulowanie przez przekazany obiekt
+     */
+    @FunctionalInterface
+    public interface Praca<T> {
+        T wykonaj(Postep postep) throws Exception;
+    }
+
+    public interface Postep {
+        /**
+         * @param ulamek postęp od 0 do 1 (ujemny - tylko komunikat)
+         */
+        void zglos(String komunikat, double ulamek);
+
+        boolean czyAnulowano();
+    }
+
+    private final ThreadPoolExecutor pula;
+    private final ScheduledExecutorService straznik;
+    private final Duration domyslnyLimit;
+
+    private final Map<String, Task<?>> wToku = new HashMap<>();
+    private final Set<Task<?>> aktywne = new HashSet<>();
+    private final Set<Task<?>> zastapione = new HashSet<>();
+    private final Set<Task<?>> zapisy = new HashSet<>();
+    private final ReadOnlyIntegerWrapper liczbaAktywnych = new ReadOnlyIntegerWrapper(0);
+    private final ReadOnlyObjectWrapper<Task<?>> ostatnie = new ReadOnlyObjectWrapper<>();
+
+    public WykonawcaZadan(@Value("${tourmanager.ui.watki:4}") int watki,
+                          @Value("${tourmanager.ui.kolejka:50}") int kolejka,
+                          @Value("${tourmanager.ui.limit-czasu:60s}") Duration domyslnyLimit) {
+        AtomicInteger numer = new AtomicInteger();
+        this.pula = new ThreadPoolExecutor(watki, watki, 30, TimeUnit.SECONDS, new ArrayBlockingQueue<>(kolejka),
+                zadanie -> {
+                    Thread watek = new Thread(zadanie, "zadania-ui-" + numer.incrementAndGet());
+                    watek.setDaemon(true);
+                    return watek;
+                });
+        this.pula.allowCoreThreadTimeOut(true);
+        this.straznik = Executors.newSingleThreadScheduledExecutor(zadanie -> {
+            Thread watek = new Thread(zadanie, "zadania-ui-limit");
+            watek.setDaemon(true);
+            return watek;
+        });
+        this.domyslnyLimit = domyslnyLimit;
+    }
+
+    /**
+     * Uruchamia pracę z domyślnym limitem czasu. Jeśli zadanie o tym kluczu jeszcze trwa,
+     * zwraca je zamiast uruchamiać kolejne (klucz null - bez scalania).
+     */
+    public <T> Task<T> uruchom(String klucz, Praca<T> praca, Consumer<T> poSukcesie, Consumer<Throwable> poBledzie) {
+        return wykonaj(klucz, false, domyslnyLimit, null, praca, poSukcesie, poBledzie);
+    }
+
+    /**
+     * Uruchamia pracę, anulując trwające zadanie o tym samym kluczu - jego wynik zostanie pominięty
+     */
+    public <T> Task<T> uruchomNajnowsze(String klucz, Praca<T> praca, Consumer<T> poSukcesie,
+                                        Consumer<Throwable> poBledzie) {
+        return wykonaj(klucz, true, domyslnyLimit, null, praca, poSukcesie, poBledzie);
+    }
+
+    /**
+     * Jak uruchom, ale bez limitu czasu - dla importu i eksportu, które trwają tyle, ile plik
+     */
+    public <T> Task<T> uruchomBezLimitu(String klucz, Praca<T> praca, Consumer<T> poSukcesie,
+                                        Consumer<Throwable> poBledzie) {
+        return wykonaj(klucz, false, null, null, praca, poSukcesie, poBledzie);
+    }
+
+    /**
+     * Zapis bez limitu czasu, którego nie przerywa też anulowanie wszystkich zadań - przerwany wątek
+     * nie cofa transakcji, która mogła już zostać zatwierdzona. Gdy zapis trwa dłużej niż domyślny
+     * limit, wywoływane jest gdyNadalTrwa (w wątku JavaFX).
+     */
+    public <T> Task<T> uruchomZapis(String klucz, Praca<T> praca, Consumer<T> poSukcesie,
+                                    Consumer<Throwable> poBledzie, Runnable gdyNadalTrwa) {
+        return wykonaj(klucz, false, null, gdyNadalTrwa, praca, poSukcesie, poBledzie);
+    }
+
+    /**
+     * Anuluje wszystkie trwające zadania (przycisk na pasku stanu)
+     */
+    public int anulujWszystkie() {
+        int liczba = 0;
+        for (Task<?> zadanie : new ArrayList<>(aktywne)) {
+            if (!zapisy.contains(zadanie) && zadanie.cancel(true)) {
+                liczba++;
+            }
+        }
+        return liczba;
+    }
+
+    public boolean czyTrwa(String klucz) {
+        return wToku.containsKey(klucz);
+    }
+
+    /**
+     * Liczba zadań uruchomionych i jeszcze niezakończonych
+     */
+    public ReadOnlyIntegerProperty liczbaAktywnychProperty() {
+        return liczbaAktywnych.getReadOnlyProperty();
+    }
+
+    /**
+     * Ostatnio uruchomione zadanie - do pokazania jego postępu na pasku stanu
+     */
+    public ReadOnlyObjectProperty<Task<?>> ostatnieProperty() {
+        return ostatnie.getReadOnlyProperty();
+    }
+
+    @PreDestroy
+    public void zamknij() {
+        pula.shutdownNow();
+        straznik.shutdownNow();
+    }
+
+    private <T> Task<T> wykonaj(String klucz, boolean zastap, Duration limit, Runnable gdyNadalTrwa, Praca<T> praca,
+                                Consumer<T> poSukcesie, Consumer<Throwable> poBledzie) {
+        if (klucz != null && wToku.containsKey(klucz)) {
+            if (!zastap) {
+                @SuppressWarnings("unchecked")
+                Task<T> trwajace = (Task<T>) wToku.get(klucz);
+                return trwajace;
+            }
+            Task<?> poprzednie = wToku.get(klucz);
+            zastapione.add(poprzednie);
+            poprzednie.cancel(true);
+        }
+
+        AtomicBoolean przekroczono = new AtomicBoolean();
+        Task<T> zadanie = new Task<>() {
+            @Override
+            protected T call() throws Exception {
+                return praca.wykonaj(new Postep() {
+                    @Override
+                    public void zglos(String komunikat, double ulamek) {
+                        updateMessage(komunikat);
+                        if (ulamek >= 0) {
+                            updateProgress(ulamek, 1.0);
+                        }
+                    }
+
+                    @Override
+                    public boolean czyAnulowano() {
+                        return isCancelled();
+                    }
+                });
+            }
+        };
+
+        ScheduledFuture<?>[] limitCzasu = new ScheduledFuture<?>[1];
+        Runnable zakoncz = () -> {
+            if (limitCzasu[0] != null) {
+                limitCzasu[0].cancel(false);
+            }
+            if (klucz != null && wToku.get(klucz) == zadanie) {
+                wToku.remove(klucz);
+            }
+            aktywne.remove(zadanie);
+            zapisy.remove(zadanie);
+            liczbaAktywnych.set(aktywne.size());
+        };
+        zadanie.setOnSucceeded(e -> {
+            zakoncz.run();
+            if (poSukcesie != null) {
+                poSukcesie.accept(zadanie.getValue());
+            }
+        });
+        zadanie.setOnFailed(e -> {
+            zakoncz.run();
+            System.err.println("Błąd zadania w tle" + (klucz != null ? " " + klucz : "") + ": " +
+                    zadanie.getException().getMessage());
+            if (poBledzie != null) {
+                poBledzie.accept(zadanie.getException());
+            }
+        });
+        zadanie.setOnCancelled(e -> {
+            zakoncz.run();
+            // Zadanie zastąpione nowszym kończy się bez powiadomienia - jego wynik i tak byłby nieaktualny
+            if (!zastapione.remove(zadanie) && poBledzie != null) {
+                poBledzie.accept(przekroczono.get()
+                        ? new TimeoutException("Przekroczono limit czasu (" + limit.toSeconds() + " s)")
+                        : new CancellationException("Zadanie anulowane"));
+            }
+        });
+
+        try {
+            pula.execute(zadanie);
+        } catch (RejectedExecutionException e) {
+            // Później, aby wywołujący zdążył powiązać kontrolki ze zwróconym zadaniem
+            if (poBledzie != null) {
+                Platform.runLater(() -> poBledzie.accept(
+                        new RejectedExecutionException("Zbyt wiele zadań w toku - spróbuj ponownie", e)));
+            }
+            return zadanie;
+        }
+        if (klucz != null) {
+            wToku.put(klucz, zadanie);
+        }
+        aktywne.add(zadanie);
+        liczbaAktywnych.set(aktywne.size());
+        ostatnie.set(zadanie);
+        if (limit != null) {
+            limitCzasu[0] = straznik.schedule(() -> {
+                przekroczono.set(true);
+                zadanie.cancel(true);
+            }, limit.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        if (gdyNadalTrwa != null) {
+            zapisy.add(zadanie);
+            limitCzasu[0] = straznik.schedule(() -> Platform.runLater(() -> {
+                if (aktywne.contains(zadanie)) {
+                    gdyNadalTrwa.run();
+                }
+            }), domyslnyLimit.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        return zadanie;
+    }
+}
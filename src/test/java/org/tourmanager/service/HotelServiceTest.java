@@ -0,0 +1,39 @@
+package org.tourmanager.service;
+
+import org.junit.jupiter.api.Test;
+import org.tourmanager.model.Hotel;
+import org.tourmanager.repository.HotelRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "tourmanager.ui.wlaczony=false"})
+class HotelServiceTest {
+
+    @Autowired
+    private HotelService hotelService;
+
+    @Autowired
+    private HotelRepository hotelRepository;
+
+    @Test
+    void usuniecieOcenyWycofujeJaZeSredniej() {
+        Hotel hotel = hotelRepository.save(new Hotel("Hotel Ocen", "Morska 1", "Sopot", "Polska", 4,
+                "580000001", "oceny@example.com", "Jan Recepcja"));
+        Long pierwsza = hotelService.dodajOcene(hotel.getId(), 8, "Dobrze", "Test");
+        hotelService.dodajOcene(hotel.getId(), 6, "Średnio", "Test");
+
+        assertTrue(hotelService.usunOcene(pierwsza));
+        assertFalse(hotelService.usunOcene(pierwsza));
+
+        Hotel poUsunieciu = hotelRepository.findById(hotel.getId()).orElseThrow();
+        assertEquals(1, poUsunieciu.getLiczbaOcen());
+        assertEquals(6, poUsunieciu.getSumaOcen());
+        assertEquals(0, new BigDecimal("6.00").compareTo(poUsunieciu.getOcenaJakosci()));
+    }
+}
@@ -0,0 +1,107 @@
+package org.tourmanager.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.tourmanager.model.Klient;
+import org.tourmanager.model.OfertaTurystyczna;
+import org.tourmanager.model.Umowa;
+import org.tourmanager.repository.KlientRepository;
+import org.tourmanager.repository.OfertaTurystycznaRepository;
+import org.tourmanager.repository.UmowaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "tourmanager.ui.wlaczony=false"})
+class ImportDanychServiceTest {
+
+    @Autowired
+    private ImportDanychService importDanychService;
+
+    @Autowired
+    private RezerwacjaMiejscService rezerwacjaMiejscService;
+
+    @Autowired
+    private OfertaTurystycznaRepository ofertaRepository;
+
+    @Autowired
+    private KlientRepository klientRepository;
+
+    @Autowired
+    private UmowaRepository umowaRepository;
+
+    @TempDir
+    Path katalog;
+
+    @Test
+    void numeryZLicznikaNiePowtarzajaNumerowZPliku() throws Exception {
+        OfertaTurystyczna oferta = zapiszOferte("Numeracja importu", 10);
+        Klient klient = klientRepository.save(new Klient("Piotr", "Importowy", "77070712345",
+                "500000010", "piotr@example.com"));
+        // Umowa bez numeru przed umową z numerem, który licznik nadałby jako pierwszy
+        Path plik = zapiszPlik("umowy-numeracja.csv",
+                "pesel_klienta;oferta_id;liczba_osob;data_zawarcia;nr_umowy",
+                klient.getPesel() + ";" + oferta.getId() + ";1;2097-03-01;",
+                klient.getPesel() + ";" + oferta.getId() + ";1;2097-03-02;UM/2097/0001",
+                klient.getPesel() + ";" + oferta.getId() + ";1;2097-03-03;");
+
+        ImportDanychService.WynikImportu wynik =
+                importDanychService.importuj(ImportDanychService.TypImportu.UMOWY, plik, null);
+
+        assertEquals(3, wynik.getStan().getLiczbaZaimportowanych());
+        assertEquals(0, wynik.getStan().getLiczbaBledow());
+        Umowa zPliku = umowaRepository.findByNrUmowy("UM/2097/0001");
+        assertNotNull(zPliku);
+        assertEquals(LocalDate.of(2097, 3, 2), zPliku.getDataZawarcia());
+        Set<String> numery = umowaRepository.findAll().stream()
+                .map(Umowa::getNrUmowy)
+                .filter(nr -> nr.startsWith("UM/2097/"))
+                .collect(Collectors.toSet());
+        assertEquals(3, numery.size());
+        assertEquals(7, rezerwacjaMiejscService.pobierzDostepneMiejsca(oferta.getId()));
+    }
+
+    @Test
+    void umowaPonadLimitMiejscJestOdrzucana() throws Exception {
+        OfertaTurystyczna oferta = zapiszOferte("Limit importu", 2);
+        Klient klient = klientRepository.save(new Klient("Maria", "Importowa", "66060612345",
+                "500000011", "maria@example.com"));
+        Path plik = zapiszPlik("umowy-miejsca.csv",
+                "pesel_klienta;oferta_id;liczba_osob;data_zawarcia",
+                klient.getPesel() + ";" + oferta.getId() + ";1;2096-01-10",
+                klient.getPesel() + ";" + oferta.getId() + ";1;2096-01-11",
+                klient.getPesel() + ";" + oferta.getId() + ";1;2096-01-12");
+
+        ImportDanychService.WynikImportu wynik =
+                importDanychService.importuj(ImportDanychService.TypImportu.UMOWY, plik, null);
+
+        assertEquals(2, wynik.getStan().getLiczbaZaimportowanych());
+        assertEquals(1, wynik.getStan().getLiczbaBledow());
+        assertEquals(0, rezerwacjaMiejscService.pobierzDostepneMiejsca(oferta.getId()));
+        List<String> bledy = Files.readAllLines(wynik.getPlikBledow(), StandardCharsets.UTF_8);
+        assertEquals(2, bledy.size());
+        assertTrue(bledy.get(1).startsWith("3;"));
+    }
+
+    private OfertaTurystyczna zapiszOferte(String nazwa, int miejsca) {
+        return ofertaRepository.save(new OfertaTurystyczna(nazwa, "Test", "Portugalia",
+                LocalDate.now().plusMonths(2), LocalDate.now().plusMonths(2).plusDays(7),
+                new BigDecimal("1800.00"), miejsca, "WYPOCZYNKOWA"));
+    }
+
+    private Path zapiszPlik(String nazwa, String... linie) throws Exception {
+        return Files.write(katalog.resolve(nazwa), List.of(linie), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,65 @@
+package org.tourmanager.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "tourmanager.ui.wlaczony=false",
+        "tourmanager.umowy.rozmiar-bloku-numerow=5"})
+class NumeracjaUmowServiceTest {
+
+    @Autowired
+    private NumeracjaUmowService numeracjaUmowService;
+
+    @Test
+    void rownolegleWatkiDostajaRozneNumery() throws Exception {
+        int rok = 2090;
+        ExecutorService watki = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<Long>>> wyniki = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                wyniki.add(watki.submit(() -> {
+                    List<Long> numery = new ArrayList<>();
+                    for (int j = 0; j < 50; j++) {
+                        numery.add(numeracjaUmowService.przydzielNumer(rok));
+                    }
+                    return numery;
+                }));
+            }
+            Set<Long> wszystkie = new HashSet<>();
+            for (Future<List<Long>> wynik : wyniki) {
+                wszystkie.addAll(wynik.get(30, TimeUnit.SECONDS));
+            }
+            assertEquals(400, wszystkie.size());
+        } finally {
+            watki.shutdownNow();
+        }
+    }
+
+    @Test
+    void numerSpozaLicznikaPrzesuwaKolejneNumery() {
+        int rok = 2091;
+        long pierwszy = numeracjaUmowService.przydzielNumer(rok);
+
+        numeracjaUmowService.uwzglednijNumer(rok, pierwszy + 2);
+        assertEquals(pierwszy + 3, numeracjaUmowService.przydzielNumer(rok));
+
+        // Numer poza bieżącym blokiem - również pomija bloki zarezerwowane wcześniej
+        numeracjaUmowService.uwzglednijNumer(rok, 1000);
+        for (int i = 0; i < 20; i++) {
+            assertTrue(numeracjaUmowService.przydzielNumer(rok) > 1000);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.tourmanager.service;
+
+import org.junit.jupiter.api.Test;
+import org.tourmanager.model.Klient;
+import org.tourmanager.model.OfertaTurystyczna;
+import org.tourmanager.model.Umowa;
+import org.tourmanager.repository.KlientRepository;
+import org.tourmanager.repository.OfertaTurystycznaRepository;
+import org.tourmanager.repository.UmowaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "tourmanager.ui.wlaczony=false"})
+class OfertaServiceTest {
+
+    @Autowired
+    private OfertaService ofertaService;
+
+    @Autowired
+    private RezerwacjaMiejscService rezerwacjaMiejscService;
+
+    @Autowired
+    private OfertaTurystycznaRepository ofertaRepository;
+
+    @Autowired
+    private KlientRepository klientRepository;
+
+    @Autowired
+    private UmowaRepository umowaRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void przeliczeniePrzyrostoweWidziUmoweZTransakcjiTrwajacejPodczasPoprzedniegoPrzeliczenia() throws Exception {
+        OfertaTurystyczna oferta = zapiszOferte("W toku");
+        Klient klient = klientRepository.save(new Klient("Ewa", "Wtoku", "91020212345",
+                "500000002", "ewa@example.com"));
+        ofertaService.aktualizujDostepnoscOfert(false);
+
+        CountDownLatch zapisana = new CountDownLatch(1);
+        CountDownLatch zatwierdz = new CountDownLatch(1);
+        // Umowa bez rezerwacji w liczniku oferty (jak wiersz importu) - miejsca odejmie dopiero przeliczenie
+        CompletableFuture<Void> transakcja = CompletableFuture.runAsync(() ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    umowaRepository.saveAndFlush(umowa("UM/2095/0001", klient, oferta, 3));
+                    zapisana.countDown();
+                    try {
+                        zatwierdz.await(30, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+
+        zapisana.await(30, TimeUnit.SECONDS);
+        // Umowa jeszcze niewidoczna - przeliczenie przesuwa znacznik czasu za jej datę modyfikacji
+        ofertaService.aktualizujDostepnoscOfert(true);
+        assertEquals(10, rezerwacjaMiejscService.pobierzDostepneMiejsca(oferta.getId()));
+
+        zatwierdz.countDown();
+        transakcja.get(30, TimeUnit.SECONDS);
+
+        ofertaService.aktualizujDostepnoscOfert(true);
+        assertEquals(7, rezerwacjaMiejscService.pobierzDostepneMiejsca(oferta.getId()));
+    }
+
+    @Test
+    void przeliczeniePrzyrostoweUwzgledniaUsunieteUmowy() {
+        OfertaTurystyczna oferta = zapiszOferte("Usunięta umowa");
+        Klient klient = klientRepository.save(new Klient("Adam", "Usuniety", "88030312345",
+                "500000003", "adam@example.com"));
+        umowaRepository.save(umowa("UM/2095/0002", klient, oferta, 4));
+        ofertaService.aktualizujDostepnoscOfert(false);
+        assertEquals(6, rezerwacjaMiejscService.pobierzDostepneMiejsca(oferta.getId()));
+
+        umowaRepository.deleteById("UM/2095/0002");
+
+        ofertaService.aktualizujDostepnoscOfert(true);
+        assertEquals(10, rezerwacjaMiejscService.pobierzDostepneMiejsca(oferta.getId()));
+    }
+
+    private OfertaTurystyczna zapiszOferte(String nazwa) {
+        return ofertaRepository.save(new OfertaTurystyczna(nazwa, "Test", "Hiszpania",
+                LocalDate.now().plusMonths(3), LocalDate.now().plusMonths(3).plusDays(7),
+                new BigDecimal("1500.00"), 10, "WYPOCZYNKOWA"));
+    }
+
+    private static Umowa umowa(String nrUmowy, Klient klient, OfertaTurystyczna oferta, int liczbaOsob) {
+        Umowa umowa = new Umowa(klient, oferta, liczbaOsob);
+        umowa.setNrUmowy(nrUmowy);
+        umowa.setCenaCalkowita(oferta.getCenaZaOsobe().multiply(BigDecimal.valueOf(liczbaOsob)));
+        umowa.setStatusUmowy("PODPISANA");
+        return umowa;
+    }
+}
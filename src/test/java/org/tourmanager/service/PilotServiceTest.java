@@ -0,0 +1,87 @@
+package org.tourmanager.service;
+
+import org.junit.jupiter.api.Test;
+import org.tourmanager.model.OfertaTurystyczna;
+import org.tourmanager.model.Pilot;
+import org.tourmanager.model.Wycieczka;
+import org.tourmanager.repository.OfertaTurystycznaRepository;
+import org.tourmanager.repository.PilotRepository;
+import org.tourmanager.repository.WycieczkaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "tourmanager.ui.wlaczony=false"})
+class PilotServiceTest {
+
+    @Autowired
+    private PilotService pilotService;
+
+    @Autowired
+    private PilotRepository pilotRepository;
+
+    @Autowired
+    private OfertaTurystycznaRepository ofertaRepository;
+
+    @Autowired
+    private WycieczkaRepository wycieczkaRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void pilotNieJestPrzydzielanyDoKolidujacychWycieczekZRownoleglychTransakcji() throws Exception {
+        Pilot pilot = new Pilot("Marek", "Kolizja", "600000000", "marek@example.com", "LIC-TEST-1");
+        pilot.setZnajomoscJezykow("[\"Polski\",\"Angielski\"]");
+        Long pilotId = pilotRepository.save(pilot).getId();
+        LocalDate wyjazd = LocalDate.now().plusMonths(4);
+        OfertaTurystyczna oferta = ofertaRepository.save(new OfertaTurystyczna("Kolizja", "Test", "Polska",
+                wyjazd, wyjazd.plusDays(7), new BigDecimal("900.00"), 20, "WYPOCZYNKOWA"));
+        Long pierwsza = wycieczkaRepository.save(new Wycieczka(oferta, wyjazd, wyjazd.plusDays(7))).getId();
+        Long druga = wycieczkaRepository.save(new Wycieczka(oferta, wyjazd.plusDays(3), wyjazd.plusDays(10))).getId();
+
+        CountDownLatch przydzielona = new CountDownLatch(1);
+        CompletableFuture<Boolean> pierwszyPrzydzial = CompletableFuture.supplyAsync(() ->
+                new TransactionTemplate(transactionManager).execute(status -> {
+                    boolean wynik = pilotService.przydzielPilotaDoWycieczki(pilotId, pierwsza);
+                    przydzielona.countDown();
+                    try {
+                        // Transakcja trzyma blokadę pilota, gdy drugi przydział już czeka
+                        Thread.sleep(300);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return wynik;
+                }));
+
+        przydzielona.await(30, TimeUnit.SECONDS);
+        boolean drugiPrzydzial = pilotService.przydzielPilotaDoWycieczki(pilotId, druga);
+
+        assertTrue(pierwszyPrzydzial.get(30, TimeUnit.SECONDS));
+        assertFalse(drugiPrzydzial);
+        assertEquals(1, wycieczkaRepository.findByPilotId(pilotId).size());
+        // Indeks dostępności zaktualizowany przez WycieczkaListener po zatwierdzeniu
+        assertFalse(pilotService.sprawdzDostepnoscPilota(pilotId, wyjazd.plusDays(1), wyjazd.plusDays(2)));
+    }
+
+    @Test
+    void przebudowaStatystykPodbijaWersjePilota() {
+        Pilot pilot = pilotRepository.save(new Pilot("Olga", "Wersja", "600000001", "olga@example.com", "LIC-TEST-2"));
+        long wersja = pilot.getWersja();
+
+        pilotService.przeliczStatystykiPilotow();
+
+        assertTrue(pilotRepository.findById(pilot.getId()).orElseThrow().getWersja() > wersja);
+    }
+}
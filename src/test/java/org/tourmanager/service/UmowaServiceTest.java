@@ -0,0 +1,133 @@
+package org.tourmanager.service;
+
+import org.junit.jupiter.api.Test;
+import org.tourmanager.model.Klient;
+import org.tourmanager.model.OfertaTurystyczna;
+import org.tourmanager.model.Umowa;
+import org.tourmanager.repository.KlientRepository;
+import org.tourmanager.repository.OfertaTurystycznaRepository;
+import org.tourmanager.repository.UmowaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "tourmanager.ui.wlaczony=false"})
+class UmowaServiceTest {
+
+    private static final int AGENCI = 8;
+
+    @Autowired
+    private UmowaService umowaService;
+
+    @Autowired
+    private RezerwacjaMiejscService rezerwacjaMiejscService;
+
+    @Autowired
+    private OfertaTurystycznaRepository ofertaRepository;
+
+    @Autowired
+    private KlientRepository klientRepository;
+
+    @Autowired
+    private UmowaRepository umowaRepository;
+
+    @Autowired
+    private RaportService raportService;
+
+    @Autowired
+    private StatystykiSprzedazyService statystykiSprzedazyService;
+
+    @Test
+    void ostatnieMiejsceSprzedawaneJestTylkoRaz() throws Exception {
+        OfertaTurystyczna oferta = ofertaRepository.save(new OfertaTurystyczna("Ostatnie miejsce", "Test",
+                "Włochy", LocalDate.now().plusMonths(2), LocalDate.now().plusMonths(2).plusDays(7),
+                new BigDecimal("2000.00"), 1, "WYPOCZYNKOWA"));
+        List<Klient> klienci = new ArrayList<>();
+        for (int i = 0; i < AGENCI; i++) {
+            klienci.add(klientRepository.save(new Klient("Jan", "Testowy" + i,
+                    String.format("900101%05d", i), "500000000", "jan" + i + "@example.com")));
+        }
+
+        ExecutorService watki = Executors.newFixedThreadPool(AGENCI);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> wyniki = new ArrayList<>();
+            for (Klient klient : klienci) {
+                wyniki.add(watki.submit(() -> {
+                    start.await();
+                    return umowaService.zawrzyjUmowe(new Umowa(klient, oferta, 1));
+                }));
+            }
+            start.countDown();
+
+            int zawarte = 0;
+            for (Future<Boolean> wynik : wyniki) {
+                if (wynik.get(30, TimeUnit.SECONDS)) {
+                    zawarte++;
+                }
+            }
+
+            assertEquals(1, zawarte);
+            assertEquals(0, rezerwacjaMiejscService.pobierzDostepneMiejsca(oferta.getId()));
+            assertEquals(1, umowaRepository.findAll().stream()
+                    .filter(u -> u.getOferta().getId().equals(oferta.getId())).count());
+        } finally {
+            watki.shutdownNow();
+        }
+    }
+
+    @Test
+    void umowaBezZapisanejOfertyJestOdrzucanaBezWyjatku() {
+        Klient klient = klientRepository.save(new Klient("Anna", "Bezoferty", "85050512345",
+                "500000001", "anna@example.com"));
+        OfertaTurystyczna niezapisana = new OfertaTurystyczna("Niezapisana", "Test", "Grecja",
+                LocalDate.now().plusMonths(1), LocalDate.now().plusMonths(1).plusDays(5),
+                new BigDecimal("1000.00"), 10, "WYPOCZYNKOWA");
+
+        assertFalse(umowaService.zawrzyjUmowe(new Umowa(klient, niezapisana, 2)));
+    }
+
+    @Test
+    void podsumowanieMiesiacaZZestawieniaZgadzaSieZPrzebudowa() {
+        OfertaTurystyczna oferta = ofertaRepository.save(new OfertaTurystyczna("Zestawienie", "Test", "Hiszpania",
+                LocalDate.now().plusMonths(3), LocalDate.now().plusMonths(3).plusDays(7),
+                new BigDecimal("1500.00"), 10, "WYPOCZYNKOWA"));
+        Klient klient = klientRepository.save(new Klient("Ewa", "Zestawienie", "88080812345",
+                "500000002", "ewa@example.com"));
+        YearMonth biezacy = YearMonth.now();
+        RaportService.PodsumowanieSprzedazy przed = raportService.pobierzPodsumowanieSprzedazy(biezacy);
+
+        Umowa oplacona = new Umowa(klient, oferta, 2);
+        Umowa anulowana = new Umowa(klient, oferta, 1);
+        assertTrue(umowaService.zawrzyjUmowe(oplacona));
+        assertTrue(umowaService.zawrzyjUmowe(anulowana));
+        assertTrue(umowaService.zarejestrujZaliczke(oplacona.getNrUmowy(), oplacona.getZaliczka(), "PRZELEW"));
+        assertTrue(umowaService.zarejestrujZaliczke(anulowana.getNrUmowy(), anulowana.getZaliczka(), "PRZELEW"));
+        assertTrue(umowaService.anulujUmowe(anulowana.getNrUmowy(), "Test"));
+
+        RaportService.PodsumowanieSprzedazy przyrostowo = raportService.pobierzPodsumowanieSprzedazy(biezacy);
+        assertEquals(przed.getLiczbaUmow() + 1, przyrostowo.getLiczbaUmow());
+        assertEquals(0, przed.getOtrzymaneZaliczki().add(oplacona.getZaliczka()).add(anulowana.getZaliczka())
+                .compareTo(przyrostowo.getOtrzymaneZaliczki()));
+
+        statystykiSprzedazyService.przebudujStatystyki();
+        RaportService.PodsumowanieSprzedazy poPrzebudowie = raportService.pobierzPodsumowanieSprzedazy(biezacy);
+        assertEquals(przyrostowo.getLiczbaUmow(), poPrzebudowie.getLiczbaUmow());
+        assertEquals(0, przyrostowo.getCalkowitaWartosc().compareTo(poPrzebudowie.getCalkowitaWartosc()));
+        assertEquals(0, przyrostowo.getOtrzymaneZaliczki().compareTo(poPrzebudowie.getOtrzymaneZaliczki()));
+    }
+}
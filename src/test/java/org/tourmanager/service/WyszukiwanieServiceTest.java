@@ -0,0 +1,37 @@
+package org.tourmanager.service;
+
+import org.junit.jupiter.api.Test;
+import org.tourmanager.model.Klient;
+import org.tourmanager.repository.KlientRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "tourmanager.ui.wlaczony=false"})
+class WyszukiwanieServiceTest {
+
+    @Autowired
+    private WyszukiwanieService wyszukiwanieService;
+
+    @Autowired
+    private KlientRepository klientRepository;
+
+    @Test
+    void zapisIUsuniecieKlientaAktualizujaIndeksTekstowy() {
+        Klient klient = klientRepository.save(new Klient("Stanisław", "Żółkiewski", "55050512345",
+                "500000020", "stanislaw@example.com"));
+
+        List<Klient> znalezieni = wyszukiwanieService.wyszukajKlientowPoNazwisku("zolkiew",
+                WyszukiwanieService.DOMYSLNY_LIMIT);
+        assertEquals(1, znalezieni.size());
+        assertEquals(klient.getId(), znalezieni.get(0).getId());
+
+        klientRepository.delete(klient);
+        assertTrue(wyszukiwanieService.wyszukajKlientowPoNazwisku("zolkiew",
+                WyszukiwanieService.DOMYSLNY_LIMIT).isEmpty());
+    }
+}